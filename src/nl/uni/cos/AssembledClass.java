@@ -1,11 +1,27 @@
 package nl.uni.cos;
 
 import jasmin.ClassFile;
+import nl.uni.cos.Bytecode.DirectAssembler;
 import nl.uni.cos.Exceptions.AssembleException;
+import nl.uni.cos.Models.Backend;
+import nl.uni.cos.Runtime.ConsoleInput;
+import nl.uni.cos.Runtime.ConsoleOutput;
+import nl.uni.cos.Runtime.RandomGenerator;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
 
 public class AssembledClass {
+    /**
+     * The classes that the generated code can call, see {@link nl.uni.cos.Runtime}.
+     */
+    private static final List<Class<?>> RUNTIME_CLASSES = List.of(ConsoleInput.class, ConsoleOutput.class, RandomGenerator.class);
+
     /**
      * After compilation, this contains the class data. Write that to a file and
      * Java can execute your program.
@@ -24,12 +40,36 @@ public class AssembledClass {
     }
 
     /**
-     * Assembles Jasmin code into a (hopefully valid) JVM-compatible class file.
+     * Assembles Jasmin code into a (hopefully valid) JVM-compatible class file,
+     * using the {@link Backend#DIRECT} backend.
      *
      * @throws AssembleException if Jasmin code was not valid
      */
     public static AssembledClass assemble(JasminBytecode jasminBytecode)
             throws AssembleException {
+        return assemble(jasminBytecode, Backend.DIRECT);
+    }
+
+    /**
+     * Assembles Jasmin code into a (hopefully valid) JVM-compatible class file.
+     *
+     * @param jasminBytecode The Jasmin code to assemble.
+     * @param backend        The {@link Backend} that creates the class file.
+     * @throws AssembleException if Jasmin code was not valid
+     */
+    public static AssembledClass assemble(JasminBytecode jasminBytecode, Backend backend)
+            throws AssembleException {
+        // The class file has already been assembled, for example because it has been loaded from a compile cache.
+        byte[] assembledBytes = jasminBytecode.getClassBytes(backend);
+        if (assembledBytes != null) {
+            return new AssembledClass(assembledBytes, jasminBytecode.getClassName());
+        }
+
+        // Cached code has no methods left to assemble directly, only its Jasmin text.
+        if (backend == Backend.DIRECT && !jasminBytecode.isFromCache()) {
+            return new AssembledClass(DirectAssembler.assemble(jasminBytecode), jasminBytecode.getClassName());
+        }
+
         try {
             ClassFile classFile = new ClassFile();
 
@@ -70,6 +110,55 @@ public class AssembledClass {
         fileOut.close();
     }
 
+    /**
+     * Write the runtime classes that the class uses to a directory, in the directories of their package, so the class
+     * can run without the compiler on the class path. A runtime class that is already there is only replaced when it
+     * is different, and a new runtime class is moved into place at once, so compilations that write to the same
+     * directory at the same time never see a half written class.
+     *
+     * @param directory The directory that contains the class file.
+     * @throws IOException if a runtime class could not be read or written.
+     */
+    public void writeRuntimeClasses(Path directory) throws IOException {
+        for (Class<?> runtimeClass : RUNTIME_CLASSES) {
+            String internalName = runtimeClass.getName().replace('.', '/');
+            if (!uses(internalName))
+                continue;
+
+            byte[] runtimeBytes;
+            try (InputStream in = runtimeClass.getResourceAsStream(runtimeClass.getSimpleName() + ".class")) {
+                if (in == null)
+                    throw new IOException(String.format("The runtime class %s was not found.", internalName));
+
+                runtimeBytes = in.readAllBytes();
+            }
+
+            Path target = directory.resolve(internalName + ".class");
+            if (Files.exists(target) && Arrays.equals(Files.readAllBytes(target), runtimeBytes))
+                continue;
+
+            Files.createDirectories(target.getParent());
+            Path temporary = Files.createTempFile(target.getParent(), runtimeClass.getSimpleName(), ".tmp");
+            Files.write(temporary, runtimeBytes);
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Whether the class refers to another class, by looking for its name in the constant pool.
+     *
+     * @param internalName The internal name of the other class, like java/lang/Object.
+     */
+    private boolean uses(String internalName) {
+        byte[] name = internalName.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i <= classBytes.length - name.length; i++) {
+            if (Arrays.equals(classBytes, i, i + name.length, name, 0, name.length))
+                return true;
+        }
+
+        return false;
+    }
+
     /**
      * Returns if the Jasmin-code has been successfully assembled into an actual class file.
      * The binary data for this class can then be retrieved using getClassBytes().
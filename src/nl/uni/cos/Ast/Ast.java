@@ -0,0 +1,157 @@
+package nl.uni.cos.Ast;
+
+import nl.uni.cos.Models.DataType;
+
+import java.util.Arrays;
+
+/**
+ * A compact abstract syntax tree of a program.
+ * <p>
+ * Every node is a dense integer id, and all the data of the nodes lives in parallel primitive arrays.
+ * The ids are given out in post-order, so the children of a node always have a lower id than the node itself
+ * and the {@link NodeKind#PROGRAM} is the last node. The children of a node are stored next to each other
+ * in a single index array.
+ */
+public class Ast {
+    private static final NodeKind[] KINDS = NodeKind.values();
+    private static final DataType[] DATA_TYPES = DataType.values();
+
+    private byte[] kinds;
+    private int[] parents;
+    private int[] childStarts;
+    private int[] childCounts;
+    private int[] startLines;
+    private int[] stopLines;
+
+    /**
+     * The token type of the operator or literal, or the ordinal of the {@link DataType} of a declaration.
+     */
+    private int[] operators;
+    private String[] texts;
+    private int size = 0;
+
+    private int[] children;
+    private int childrenSize = 0;
+
+    /**
+     * Initializes a new empty {@link Ast}.
+     *
+     * @param capacity The expected amount of nodes.
+     */
+    Ast(int capacity) {
+        capacity = Math.max(capacity, 16);
+        kinds = new byte[capacity];
+        parents = new int[capacity];
+        childStarts = new int[capacity];
+        childCounts = new int[capacity];
+        startLines = new int[capacity];
+        stopLines = new int[capacity];
+        operators = new int[capacity];
+        texts = new String[capacity];
+        children = new int[capacity];
+    }
+
+    /**
+     * Add a node after all of its children have been added.
+     *
+     * @return The id of the new node.
+     */
+    int addNode(NodeKind kind, int startLine, int stopLine, String text, int operator,
+                int[] childIds, int childFrom, int childTo) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            childStarts = Arrays.copyOf(childStarts, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+            startLines = Arrays.copyOf(startLines, capacity);
+            stopLines = Arrays.copyOf(stopLines, capacity);
+            operators = Arrays.copyOf(operators, capacity);
+            texts = Arrays.copyOf(texts, capacity);
+        }
+
+        int childCount = childTo - childFrom;
+        if (childrenSize + childCount > children.length) {
+            children = Arrays.copyOf(children, Math.max(children.length * 2, childrenSize + childCount));
+        }
+
+        int node = size++;
+        kinds[node] = (byte) kind.ordinal();
+        parents[node] = -1;
+        childStarts[node] = childrenSize;
+        childCounts[node] = childCount;
+        startLines[node] = startLine;
+        stopLines[node] = stopLine;
+        operators[node] = operator;
+        texts[node] = text;
+
+        for (int i = childFrom; i < childTo; i++) {
+            children[childrenSize++] = childIds[i];
+            parents[childIds[i]] = node;
+        }
+
+        return node;
+    }
+
+    /**
+     * The amount of nodes in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The id of the {@link NodeKind#PROGRAM} node.
+     */
+    public int getRoot() {
+        return size - 1;
+    }
+
+    public NodeKind getKind(int node) {
+        return KINDS[kinds[node]];
+    }
+
+    /**
+     * The id of the parent node, or -1 for the root.
+     */
+    public int getParent(int node) {
+        return parents[node];
+    }
+
+    public int getChildCount(int node) {
+        return childCounts[node];
+    }
+
+    public int getChild(int node, int index) {
+        return children[childStarts[node] + index];
+    }
+
+    public int getStartLine(int node) {
+        return startLines[node];
+    }
+
+    public int getStopLine(int node) {
+        return stopLines[node];
+    }
+
+    /**
+     * The name, literal text or operator text of a node, see {@link NodeKind}.
+     */
+    public String getText(int node) {
+        return texts[node];
+    }
+
+    /**
+     * The token type of the operator of an expression or the token type of a literal.
+     */
+    public int getOperator(int node) {
+        return operators[node];
+    }
+
+    /**
+     * The declared {@link DataType} of a declaration, null for a var declaration.
+     */
+    public DataType getDataType(int node) {
+        return operators[node] >= 0 ? DATA_TYPES[operators[node]] : null;
+    }
+}
@@ -0,0 +1,335 @@
+package nl.uni.cos.Ast;
+
+import nl.uni.cos.BSharpParser;
+import nl.uni.cos.BSharpParserBaseVisitor;
+import nl.uni.cos.Models.DataType;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.Arrays;
+
+/**
+ * Lowers the parse tree of the parser into an {@link Ast}.
+ * <p>
+ * Every visit method adds exactly one node, after the nodes of its children. The ids of the children that have not
+ * been given a parent yet are kept on a stack, so no lists have to be created for the children.
+ */
+public class AstBuilder extends BSharpParserBaseVisitor<Void> {
+    private final Ast ast;
+    private int[] stack = new int[64];
+    private int stackSize = 0;
+
+    private AstBuilder(int capacity) {
+        this.ast = new Ast(capacity);
+    }
+
+    /**
+     * Lower a parse tree into an {@link Ast}.
+     * After this, the parse tree and its tokens are no longer needed.
+     *
+     * @param program The parse tree of a program without syntax errors.
+     * @return The {@link Ast} of the program.
+     */
+    public static Ast build(BSharpParser.ProgramContext program) {
+        // There are never more nodes than tokens.
+        AstBuilder builder = new AstBuilder(program.getStop().getTokenIndex() + 1);
+        builder.visit(program);
+        return builder.ast;
+    }
+
+    @Override
+    public Void visitProgram(BSharpParser.ProgramContext ctx) {
+        int mark = stackSize;
+        for (BSharpParser.MethodDeclarationContext methodCtx : ctx.methodDeclaration()) {
+            visit(methodCtx);
+        }
+
+        addNode(NodeKind.PROGRAM, ctx, null, -1, mark);
+        return null;
+    }
+
+    // region Method declaration
+
+    @Override
+    public Void visitMethodDeclaration(BSharpParser.MethodDeclarationContext ctx) {
+        int mark = stackSize;
+        for (BSharpParser.ParameterDeclarationContext parameterCtx : ctx.parametersDeclaration().parameterDeclaration()) {
+            visit(parameterCtx);
+        }
+        visit(ctx.codeBlock());
+
+        DataType returnType = ctx.primitiveTypes() != null ? getDataType(ctx.primitiveTypes()) : DataType.VOID;
+        addNode(NodeKind.METHOD_DECLARATION, ctx, ctx.IDENTIFIER().getText(), returnType.ordinal(), mark);
+        return null;
+    }
+
+    @Override
+    public Void visitParameterDeclaration(BSharpParser.ParameterDeclarationContext ctx) {
+        addNode(NodeKind.PARAMETER_DECLARATION, ctx, ctx.IDENTIFIER().getText(),
+                getDataType(ctx.primitiveTypes()).ordinal(), stackSize);
+        return null;
+    }
+
+    // endregion
+
+    // region Build in methods
+
+    @Override
+    public Void visitWriteLineMethod(BSharpParser.WriteLineMethodContext ctx) {
+        int mark = stackSize;
+        visit(ctx.expression());
+        addNode(NodeKind.WRITE_LINE, ctx, null, -1, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitReadConsoleInt(BSharpParser.ReadConsoleIntContext ctx) {
+        addNode(NodeKind.READ_CONSOLE_INT, ctx, null, -1, stackSize);
+        return null;
+    }
+
+    @Override
+    public Void visitReadConsoleLine(BSharpParser.ReadConsoleLineContext ctx) {
+        addNode(NodeKind.READ_CONSOLE_LINE, ctx, null, -1, stackSize);
+        return null;
+    }
+
+    @Override
+    public Void visitReadConsoleFloat(BSharpParser.ReadConsoleFloatContext ctx) {
+        addNode(NodeKind.READ_CONSOLE_FLOAT, ctx, null, -1, stackSize);
+        return null;
+    }
+
+    @Override
+    public Void visitReadConsoleBool(BSharpParser.ReadConsoleBoolContext ctx) {
+        addNode(NodeKind.READ_CONSOLE_BOOL, ctx, null, -1, stackSize);
+        return null;
+    }
+
+    @Override
+    public Void visitRandomInt(BSharpParser.RandomIntContext ctx) {
+        int mark = stackSize;
+        if (ctx.expression() != null) {
+            visit(ctx.expression());
+        }
+
+        addNode(NodeKind.RANDOM_INT, ctx, null, -1, mark);
+        return null;
+    }
+
+    // endregion
+
+    // region Statements
+
+    @Override
+    public Void visitBlockStatement(BSharpParser.BlockStatementContext ctx) {
+        return visit(ctx.codeBlock());
+    }
+
+    @Override
+    public Void visitExpressionStatement(BSharpParser.ExpressionStatementContext ctx) {
+        int mark = stackSize;
+        visit(ctx.expression());
+        addNode(NodeKind.EXPRESSION_STATEMENT, ctx, null, -1, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(BSharpParser.IfStatementContext ctx) {
+        int mark = stackSize;
+        visit(ctx.parameterExpression().expression());
+        visit(ctx.statement(0));
+
+        if (ctx.ELSE() != null) {
+            int elseMark = stackSize;
+            visit(ctx.statement(1));
+
+            int elseLine = ctx.ELSE().getSymbol().getLine();
+            int elseNode = ast.addNode(NodeKind.ELSE, elseLine, elseLine, null, -1, stack, elseMark, stackSize);
+            stackSize = elseMark;
+            push(elseNode);
+        }
+
+        addNode(NodeKind.IF_STATEMENT, ctx, null, -1, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(BSharpParser.WhileStatementContext ctx) {
+        int mark = stackSize;
+        visit(ctx.parameterExpression().expression());
+        visit(ctx.statement());
+        addNode(NodeKind.WHILE_STATEMENT, ctx, null, -1, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitReturnStatement(BSharpParser.ReturnStatementContext ctx) {
+        int mark = stackSize;
+        if (ctx.expressions() != null) {
+            for (BSharpParser.ExpressionContext expressionCtx : ctx.expressions().expression()) {
+                visit(expressionCtx);
+            }
+        }
+
+        addNode(NodeKind.RETURN_STATEMENT, ctx, null, -1, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitCodeBlock(BSharpParser.CodeBlockContext ctx) {
+        int mark = stackSize;
+        for (BSharpParser.CodeBlockStatementContext statementCtx : ctx.codeBlockStatement()) {
+            visit(statementCtx.varDeclaration() != null ? statementCtx.varDeclaration() : statementCtx.statement());
+        }
+
+        addNode(NodeKind.CODE_BLOCK, ctx, null, -1, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclaration(BSharpParser.VarDeclarationContext ctx) {
+        int mark = stackSize;
+        for (BSharpParser.VarDeclaratorContext varContext : ctx.varDeclarator()) {
+            visit(varContext);
+        }
+
+        int type = ctx.primitiveTypes() != null ? getDataType(ctx.primitiveTypes()).ordinal() : -1;
+        addNode(NodeKind.VAR_DECLARATION, ctx, null, type, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclarator(BSharpParser.VarDeclaratorContext ctx) {
+        int mark = stackSize;
+        if (ctx.expression() != null) {
+            visit(ctx.expression());
+        }
+
+        addNode(NodeKind.VAR_DECLARATOR, ctx, ctx.IDENTIFIER().getText(), -1, mark);
+        return null;
+    }
+
+    // endregion
+
+    // region Expressions
+
+    @Override
+    public Void visitPrimaryExpression(BSharpParser.PrimaryExpressionContext ctx) {
+        if (ctx.IDENTIFIER() != null) {
+            addNode(NodeKind.IDENTIFIER, ctx, ctx.IDENTIFIER().getText(), -1, stackSize);
+        } else if (ctx.literal() != null) {
+            visit(ctx.literal());
+        } else if (ctx.methodCall() != null) {
+            visit(ctx.methodCall());
+        } else if (ctx.parameterExpression() != null) {
+            // Parentheses only group the expression, they don't get a node.
+            visit(ctx.parameterExpression().expression());
+        } else {
+            throw new UnsupportedOperationException();
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitLiteral(BSharpParser.LiteralContext ctx) {
+        addNode(NodeKind.LITERAL, ctx, ctx.content.getText(), ctx.content.getType(), stackSize);
+        return null;
+    }
+
+    @Override
+    public Void visitMethodCall(BSharpParser.MethodCallContext ctx) {
+        if (ctx.buildInMethodCalls() != null) {
+            return visit(ctx.buildInMethodCalls());
+        }
+
+        int mark = stackSize;
+        if (ctx.expressions() != null) {
+            for (BSharpParser.ExpressionContext expressionCtx : ctx.expressions().expression()) {
+                visit(expressionCtx);
+            }
+        }
+
+        addNode(NodeKind.METHOD_CALL, ctx, ctx.IDENTIFIER().getText(), -1, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitCalculationExpression(BSharpParser.CalculationExpressionContext ctx) {
+        return addBinaryNode(NodeKind.CALCULATION_EXPRESSION, ctx, ctx.left, ctx.right, ctx.op);
+    }
+
+    @Override
+    public Void visitCompareExpression(BSharpParser.CompareExpressionContext ctx) {
+        return addBinaryNode(NodeKind.COMPARE_EXPRESSION, ctx, ctx.left, ctx.right, ctx.op);
+    }
+
+    @Override
+    public Void visitAndOrExpression(BSharpParser.AndOrExpressionContext ctx) {
+        return addBinaryNode(NodeKind.AND_OR_EXPRESSION, ctx, ctx.left, ctx.right, ctx.op);
+    }
+
+    @Override
+    public Void visitAssignExpression(BSharpParser.AssignExpressionContext ctx) {
+        return addBinaryNode(NodeKind.ASSIGN_EXPRESSION, ctx, ctx.left, ctx.right, ctx.op);
+    }
+
+    @Override
+    public Void visitBangExpression(BSharpParser.BangExpressionContext ctx) {
+        int mark = stackSize;
+        visit(ctx.expression());
+        addNode(NodeKind.BANG_EXPRESSION, ctx, null, -1, mark);
+        return null;
+    }
+
+    @Override
+    public Void visitParameterExpression(BSharpParser.ParameterExpressionContext ctx) {
+        return visit(ctx.expression());
+    }
+
+    // endregion
+
+    @Override
+    public Void visitTerminal(TerminalNode node) {
+        return null;
+    }
+
+    private Void addBinaryNode(NodeKind kind, ParserRuleContext ctx, BSharpParser.ExpressionContext left,
+                               BSharpParser.ExpressionContext right, Token op) {
+        int mark = stackSize;
+        visit(left);
+        visit(right);
+        addNode(kind, ctx, op.getText(), op.getType(), mark);
+        return null;
+    }
+
+    /**
+     * Add a node with the children that have been added since the mark, and replace the children by the new node.
+     */
+    private void addNode(NodeKind kind, ParserRuleContext ctx, String text, int operator, int mark) {
+        int node = ast.addNode(kind, ctx.getStart().getLine(), ctx.getStop().getLine(), text, operator,
+                stack, mark, stackSize);
+        stackSize = mark;
+        push(node);
+    }
+
+    private void push(int node) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+
+        stack[stackSize++] = node;
+    }
+
+    private static DataType getDataType(BSharpParser.PrimitiveTypesContext ctx) {
+        if (ctx instanceof BSharpParser.IntPrimitiveContext) return DataType.INT;
+        if (ctx instanceof BSharpParser.FloatPrimitiveContext) return DataType.FLOAT;
+        if (ctx instanceof BSharpParser.StringPrimitiveContext) return DataType.STRING;
+        if (ctx instanceof BSharpParser.BoolPrimitiveContext) return DataType.BOOL;
+        if (ctx instanceof BSharpParser.CharPrimitiveContext) return DataType.CHAR;
+
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,182 @@
+package nl.uni.cos.Ast;
+
+/**
+ * The base for all visitors of an {@link Ast}.
+ * Every {@link NodeKind} has its own visit method. By default, a visit method visits all the children of the node
+ * and returns the result of the last child.
+ *
+ * @param <T> The type that the visitor methods will need to return.
+ */
+public abstract class AstVisitor<T> {
+    /**
+     * The {@link Ast} that is visited.
+     */
+    protected final Ast ast;
+
+    /**
+     * Initializes a new {@link AstVisitor}.
+     *
+     * @param ast The {@link Ast} that will be visited.
+     */
+    protected AstVisitor(Ast ast) {
+        this.ast = ast;
+    }
+
+    /**
+     * Visit the whole {@link Ast}, starting at the root.
+     */
+    public T visit() {
+        return visit(ast.getRoot());
+    }
+
+    /**
+     * Visit a node with the visit method of its {@link NodeKind}.
+     *
+     * @param node The id of the node.
+     * @return The result of the visit method.
+     */
+    public T visit(int node) {
+        return switch (ast.getKind(node)) {
+            case PROGRAM -> visitProgram(node);
+            case METHOD_DECLARATION -> visitMethodDeclaration(node);
+            case PARAMETER_DECLARATION -> visitParameterDeclaration(node);
+            case CODE_BLOCK -> visitCodeBlock(node);
+            case VAR_DECLARATION -> visitVarDeclaration(node);
+            case VAR_DECLARATOR -> visitVarDeclarator(node);
+            case EXPRESSION_STATEMENT -> visitExpressionStatement(node);
+            case IF_STATEMENT -> visitIfStatement(node);
+            case ELSE -> visitElse(node);
+            case WHILE_STATEMENT -> visitWhileStatement(node);
+            case RETURN_STATEMENT -> visitReturnStatement(node);
+            case LITERAL -> visitLiteral(node);
+            case IDENTIFIER -> visitIdentifier(node);
+            case METHOD_CALL -> visitMethodCall(node);
+            case WRITE_LINE -> visitWriteLineMethod(node);
+            case READ_CONSOLE_INT -> visitReadConsoleInt(node);
+            case READ_CONSOLE_LINE -> visitReadConsoleLine(node);
+            case READ_CONSOLE_FLOAT -> visitReadConsoleFloat(node);
+            case READ_CONSOLE_BOOL -> visitReadConsoleBool(node);
+            case RANDOM_INT -> visitRandomInt(node);
+            case CALCULATION_EXPRESSION -> visitCalculationExpression(node);
+            case COMPARE_EXPRESSION -> visitCompareExpression(node);
+            case AND_OR_EXPRESSION -> visitAndOrExpression(node);
+            case ASSIGN_EXPRESSION -> visitAssignExpression(node);
+            case BANG_EXPRESSION -> visitBangExpression(node);
+        };
+    }
+
+    /**
+     * Visit all the children of a node.
+     *
+     * @param node The id of the node.
+     * @return The result of the last child, or null when the node has no children.
+     */
+    public T visitChildren(int node) {
+        T result = null;
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            result = visit(ast.getChild(node, i));
+        }
+
+        return result;
+    }
+
+    public T visitProgram(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitMethodDeclaration(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitParameterDeclaration(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitCodeBlock(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitVarDeclaration(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitVarDeclarator(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitExpressionStatement(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitIfStatement(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitElse(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitWhileStatement(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitReturnStatement(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitLiteral(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitIdentifier(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitMethodCall(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitWriteLineMethod(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitReadConsoleInt(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitReadConsoleLine(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitReadConsoleFloat(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitReadConsoleBool(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitRandomInt(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitCalculationExpression(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitCompareExpression(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitAndOrExpression(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitAssignExpression(int node) {
+        return visitChildren(node);
+    }
+
+    public T visitBangExpression(int node) {
+        return visitChildren(node);
+    }
+}
@@ -0,0 +1,96 @@
+package nl.uni.cos.Ast;
+
+/**
+ * The kinds of nodes in an {@link Ast}.
+ * Parentheses, separators and the wrapper rules of the grammar don't get a node.
+ */
+public enum NodeKind {
+    /**
+     * Children: the method declarations.
+     */
+    PROGRAM,
+    /**
+     * Text: the name. Data type: the return type. Children: the parameter declarations and the code block.
+     */
+    METHOD_DECLARATION,
+    /**
+     * Text: the name. Data type: the type of the parameter.
+     */
+    PARAMETER_DECLARATION,
+    /**
+     * Children: the statements and variable declarations.
+     */
+    CODE_BLOCK,
+    /**
+     * Data type: the declared type, or null for var. Children: the variable declarators.
+     */
+    VAR_DECLARATION,
+    /**
+     * Text: the name. Children: the initial value, when there is one.
+     */
+    VAR_DECLARATOR,
+    /**
+     * Children: the expression.
+     */
+    EXPRESSION_STATEMENT,
+    /**
+     * Children: the condition, the statement and the {@link #ELSE}, when there is one.
+     */
+    IF_STATEMENT,
+    /**
+     * The else part of an if statement, it has its own scope. Children: the statement.
+     */
+    ELSE,
+    /**
+     * Children: the condition and the statement.
+     */
+    WHILE_STATEMENT,
+    /**
+     * Children: the returned expressions.
+     */
+    RETURN_STATEMENT,
+    /**
+     * Text: the text of the literal. Operator: the token type of the literal.
+     */
+    LITERAL,
+    /**
+     * A variable that is used in an expression. Text: the name.
+     */
+    IDENTIFIER,
+    /**
+     * A call of a method that is declared in the program. Text: the name. Children: the arguments.
+     */
+    METHOD_CALL,
+    /**
+     * Children: the expression.
+     */
+    WRITE_LINE,
+    READ_CONSOLE_INT,
+    READ_CONSOLE_LINE,
+    READ_CONSOLE_FLOAT,
+    READ_CONSOLE_BOOL,
+    /**
+     * Children: the upper bound, when there is one.
+     */
+    RANDOM_INT,
+    /**
+     * Text and operator: the operator. Children: the left and right expression.
+     */
+    CALCULATION_EXPRESSION,
+    /**
+     * Text and operator: the operator. Children: the left and right expression.
+     */
+    COMPARE_EXPRESSION,
+    /**
+     * Text and operator: the operator. Children: the left and right expression.
+     */
+    AND_OR_EXPRESSION,
+    /**
+     * Children: the left and right expression.
+     */
+    ASSIGN_EXPRESSION,
+    /**
+     * Children: the negated expression.
+     */
+    BANG_EXPRESSION
+}
@@ -0,0 +1,340 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Exceptions.AssembleException;
+import nl.uni.cos.Exceptions.CompilerException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles a batch of source code files in a single JVM.
+ * All files are compiled in parallel on a work-stealing {@link ForkJoinPool}.
+ */
+public class BatchCompiler {
+    /**
+     * The extension of the source code files that are picked up from directories.
+     */
+    private static final String SOURCE_EXTENSION = ".bsharp";
+
+    /**
+     * Kept as a field, so the level that is set on it can't be lost when the logger is garbage collected.
+     */
+    private static final java.util.logging.Logger COMPILER_LOGGER = java.util.logging.Logger.getLogger(Compiler.class.getName());
+
+    private final Compiler compiler;
+    private final ForkJoinPool pool;
+
+    /**
+     * The result of compiling a single file.
+     * <p>
+     * {@link #source} The source code file that was compiled.
+     * {@link #error} The reason why the compilation failed, including the syntax errors of the file,
+     * or null when the file has been compiled.
+     * {@link #nanos} The time it took to compile the file in nanoseconds.
+     */
+    public record Result(Path source, String error, long nanos) {
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Initializes a new {@link BatchCompiler}.
+     *
+     * @param parallelism The amount of files that can be compiled at the same time.
+     */
+    public BatchCompiler(int parallelism) {
+        this(parallelism, new CompilerOptions());
+    }
+
+    /**
+     * Initializes a new {@link BatchCompiler}.
+     *
+     * @param parallelism The amount of files that can be compiled at the same time.
+     * @param options     The {@link CompilerOptions} that are used for every file.
+     */
+    public BatchCompiler(int parallelism, CompilerOptions options) {
+        this.compiler = new Compiler(options);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args The directories, glob patterns or files to compile. A file starting with @ contains a list of files,
+     *             one per line. Use -o &lt;directory&gt; to write all the output to a single directory.
+     */
+    public static void main(String[] args) {
+        CompilerOptions options = new CompilerOptions();
+        Path outputDirectory = null;
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-o") && i + 1 < args.length) {
+                outputDirectory = Paths.get(args[++i]);
+            } else if (!options.parseArgument(args[i])) {
+                inputs.add(args[i]);
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            System.err.printf("Usage: java BatchCompiler %s [-o <output directory>] <directory | glob | file | @file list>...%n",
+                    CompilerOptions.getUsage());
+            return;
+        }
+
+        // The timings of the visitors would drown out the summary.
+        COMPILER_LOGGER.setLevel(Level.WARNING);
+
+        try {
+            List<Path> sources = findSources(inputs);
+            if (outputDirectory != null) {
+                Files.createDirectories(outputDirectory);
+            }
+
+            BatchCompiler batchCompiler = new BatchCompiler(Runtime.getRuntime().availableProcessors(), options);
+            long start = System.nanoTime();
+            List<Result> results = batchCompiler.compileAll(sources, outputDirectory);
+            long finish = System.nanoTime();
+
+            boolean isSuccess = printSummary(results, finish - start);
+            if (batchCompiler.compiler.getCacheStatistics() != null) {
+                System.out.println(batchCompiler.compiler.getCacheStatistics());
+            }
+
+            if (!isSuccess) {
+                System.exit(1);
+            }
+        } catch (IOException e) {
+            System.err.println("Something went wrong: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compile all the source code files.
+     *
+     * @param sources         The source code files that will be compiled.
+     * @param outputDirectory The directory where all the output will be written to,
+     *                        or null to write the output next to the source code files.
+     *                        The files that would write a class with the same name to it fail.
+     * @return The {@link Result}s in the same order as the source code files.
+     */
+    public List<Result> compileAll(List<Path> sources, Path outputDirectory) {
+        Result[] results = new Result[sources.size()];
+        if (outputDirectory != null) {
+            failDuplicateClassNames(sources, results);
+        }
+
+        pool.invoke(new CompileTask(compiler, sources, outputDirectory, results, 0, sources.size()));
+        return List.of(results);
+    }
+
+    /**
+     * Fail the source code files that have the same class name, because they would be compiled at the same time
+     * into the same files of the output directory, and only one of them would be kept.
+     *
+     * @param sources The source code files that will be compiled.
+     * @param results The {@link Result}s of the source code files, where the failed files are set.
+     */
+    private static void failDuplicateClassNames(List<Path> sources, Result[] results) {
+        Map<String, List<Path>> sourcesByClassName = new HashMap<>();
+        for (Path source : sources) {
+            sourcesByClassName.computeIfAbsent(Compiler.getClassName(source), className -> new ArrayList<>()).add(source);
+        }
+
+        for (int i = 0; i < sources.size(); i++) {
+            Path source = sources.get(i);
+            String className = Compiler.getClassName(source);
+            List<Path> duplicates = sourcesByClassName.get(className);
+            if (duplicates.size() > 1) {
+                String otherSources = duplicates.stream()
+                        .filter(duplicate -> !duplicate.equals(source))
+                        .map(Path::toString)
+                        .collect(Collectors.joining(", "));
+                String error = String.format("The class %s is also compiled from %s", className, otherSources);
+                results[i] = new Result(source, error, 0);
+            }
+        }
+    }
+
+    /**
+     * Compile a single source code file.
+     *
+     * @param compiler        The {@link Compiler} that compiles the file.
+     * @param source          The source code file.
+     * @param outputDirectory The directory where the output will be written to, or null to use the source directory.
+     * @return The {@link Result} of the compilation.
+     */
+    private static Result compile(Compiler compiler, Path source, Path outputDirectory) {
+        long start = System.nanoTime();
+        String error = null;
+
+        Path targetDirectory = outputDirectory;
+        if (targetDirectory == null) {
+            targetDirectory = source.getParent() != null ? source.getParent() : Paths.get(".");
+        }
+
+        // The files are compiled at the same time, so the syntax errors are kept with the result of their file.
+        ByteArrayOutputStream diagnostics = new ByteArrayOutputStream();
+        try {
+            if (!compiler.compileFileToDirectory(source, targetDirectory,
+                    new PrintStream(diagnostics, true, StandardCharsets.UTF_8))) {
+                error = diagnostics.toString(StandardCharsets.UTF_8) + "No Jasmin output";
+            }
+        } catch (CompilerException e) {
+            error = e.getMessage();
+        } catch (IOException | AssembleException e) {
+            error = "Something went wrong: " + e.getMessage();
+        } catch (RuntimeException e) {
+            // A bug in the compiler only fails the file that triggers it.
+            error = "Something went wrong: " + e;
+        }
+
+        if (error != null) {
+            error = error.trim().replace("\n", System.lineSeparator() + "    ");
+        }
+
+        return new Result(source, error, System.nanoTime() - start);
+    }
+
+    /**
+     * Print a line for every compiled file, followed by the totals.
+     *
+     * @param results    The {@link Result}s of all the compilations.
+     * @param totalNanos The time it took to compile all the files in nanoseconds.
+     * @return True if all the files have been compiled.
+     */
+    private static boolean printSummary(List<Result> results, long totalNanos) {
+        int failed = 0;
+        for (Result result : results) {
+            if (result.isSuccess()) {
+                System.out.printf("OK     %s (%.2fms)%n", result.source(), result.nanos() / 1000000f);
+            } else {
+                failed++;
+                System.out.printf("FAILED %s (%.2fms)%n    %s%n", result.source(), result.nanos() / 1000000f, result.error());
+            }
+        }
+
+        float totalSeconds = totalNanos / 1000000000f;
+        System.out.printf("Compiled %s files, %s succeeded and %s failed, in %.2fms (%.1f files/s).%n",
+                results.size(), results.size() - failed, failed, totalNanos / 1000000f,
+                totalSeconds > 0 ? results.size() / totalSeconds : 0);
+
+        return failed == 0;
+    }
+
+    /**
+     * Find all the source code files for the command line inputs.
+     *
+     * @param inputs Directories, glob patterns, files, or files that start with @ that contain a list of files.
+     * @return All the source code files, without duplicates.
+     * @throws IOException if a directory or file list could not be read.
+     */
+    public static List<Path> findSources(List<String> inputs) throws IOException {
+        Set<Path> sources = new LinkedHashSet<>();
+
+        for (String input : inputs) {
+            if (input.startsWith("@")) {
+                for (String line : Files.readAllLines(Paths.get(input.substring(1)))) {
+                    if (!line.isBlank()) {
+                        sources.add(Paths.get(line.trim()));
+                    }
+                }
+            } else if (isGlob(input)) {
+                sources.addAll(findGlobMatches(input));
+            } else if (Files.isDirectory(Paths.get(input))) {
+                sources.addAll(walk(Paths.get(input), path -> path.toString().endsWith(SOURCE_EXTENSION)));
+            } else {
+                sources.add(Paths.get(input));
+            }
+        }
+
+        return new ArrayList<>(sources);
+    }
+
+    private static boolean isGlob(String input) {
+        return input.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+    }
+
+    /**
+     * Find all the files that match a glob pattern.
+     * Only the directory before the first wildcard is walked.
+     */
+    private static List<Path> findGlobMatches(String glob) throws IOException {
+        int wildcardIndex = 0;
+        while (!isGlob(glob.substring(wildcardIndex, wildcardIndex + 1))) {
+            wildcardIndex++;
+        }
+
+        int separatorIndex = Math.max(glob.lastIndexOf('/', wildcardIndex), glob.lastIndexOf('\\', wildcardIndex));
+        Path baseDirectory = Paths.get(separatorIndex == -1 ? "." : glob.substring(0, separatorIndex + 1));
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+
+        return walk(baseDirectory, path -> matcher.matches(separatorIndex == -1 ? baseDirectory.relativize(path) : path));
+    }
+
+    private static List<Path> walk(Path directory, PathMatcher matcher) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Compiles a range of the source code files, splitting the range in half until a single file is left.
+     * The halves are picked up by idle workers of the {@link ForkJoinPool}.
+     */
+    private static class CompileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Compiler compiler;
+        private final List<Path> sources;
+        private final Path outputDirectory;
+        private final Result[] results;
+        private final int from, to;
+
+        CompileTask(Compiler compiler, List<Path> sources, Path outputDirectory, Result[] results, int from, int to) {
+            this.compiler = compiler;
+            this.sources = sources;
+            this.outputDirectory = outputDirectory;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                // The files with a duplicate class name have already failed.
+                if (results[from] == null) {
+                    results[from] = compile(compiler, sources.get(from), outputDirectory);
+                }
+            } else if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CompileTask(compiler, sources, outputDirectory, results, from, middle),
+                        new CompileTask(compiler, sources, outputDirectory, results, middle, to));
+            }
+        }
+    }
+}
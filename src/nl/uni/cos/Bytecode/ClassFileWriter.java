@@ -0,0 +1,464 @@
+package nl.uni.cos.Bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes a class file straight into a byte array.
+ */
+public class ClassFileWriter {
+    public static final int ACC_PUBLIC = 0x0001;
+    public static final int ACC_PRIVATE = 0x0002;
+    public static final int ACC_PROTECTED = 0x0004;
+    public static final int ACC_STATIC = 0x0008;
+    public static final int ACC_FINAL = 0x0010;
+    public static final int ACC_SUPER = 0x0020;
+
+    private final ConstantPool constantPool = new ConstantPool();
+    private final List<MethodWriter> methods = new ArrayList<>();
+    private final String className;
+    private int accessFlags = ACC_PUBLIC | ACC_SUPER;
+    private String superName = "java/lang/Object";
+    private String sourceFile;
+    private int majorVersion = 45, minorVersion = 3;
+
+    /**
+     * Initializes a new {@link ClassFileWriter}.
+     *
+     * @param className The internal name of the class.
+     */
+    public ClassFileWriter(String className) {
+        this.className = className;
+    }
+
+    public void setVersion(int majorVersion, int minorVersion) {
+        this.majorVersion = majorVersion;
+        this.minorVersion = minorVersion;
+    }
+
+    public void setAccessFlags(int accessFlags) {
+        this.accessFlags = accessFlags | ACC_SUPER;
+    }
+
+    public void setSuperName(String superName) {
+        this.superName = superName;
+    }
+
+    public void setSourceFile(String sourceFile) {
+        this.sourceFile = sourceFile;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * Add a method to the class.
+     *
+     * @param accessFlags The access flags of the method.
+     * @param name        The name of the method.
+     * @param descriptor  The descriptor of the method, for example (I)V.
+     * @return The {@link MethodWriter} that is used to write the code of the method.
+     */
+    public MethodWriter addMethod(int accessFlags, String name, String descriptor) {
+        MethodWriter method = new MethodWriter(accessFlags, name, descriptor);
+        methods.add(method);
+        return method;
+    }
+
+    /**
+     * Write the complete class file.
+     *
+     * @return The bytes of the class file.
+     * @throws IOException if the class can not be represented as a class file.
+     */
+    public byte[] toByteArray() throws IOException {
+        // Make sure all constants are in the pool before it is written.
+        int thisClass = constantPool.addClass(className);
+        int superClass = constantPool.addClass(superName);
+        int codeName = constantPool.addUtf8("Code");
+        int stackMapTableName = methods.stream().anyMatch(method -> method.frameCount > 0)
+                ? constantPool.addUtf8("StackMapTable")
+                : 0;
+        for (MethodWriter method : methods) {
+            method.resolve(codeName, stackMapTableName);
+        }
+        int sourceFileName = sourceFile != null ? constantPool.addUtf8("SourceFile") : 0;
+        int sourceFileValue = sourceFile != null ? constantPool.addUtf8(sourceFile) : 0;
+
+        ByteArrayOutputStream classBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(classBytes);
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(minorVersion);
+        out.writeShort(majorVersion);
+        constantPool.write(out);
+        out.writeShort(accessFlags);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+
+        // No interfaces and no fields.
+        out.writeShort(0);
+        out.writeShort(0);
+
+        out.writeShort(methods.size());
+        for (MethodWriter method : methods) {
+            method.write(out);
+        }
+
+        if (sourceFile != null) {
+            out.writeShort(1);
+            out.writeShort(sourceFileName);
+            out.writeInt(2);
+            out.writeShort(sourceFileValue);
+        } else {
+            out.writeShort(0);
+        }
+
+        return classBytes.toByteArray();
+    }
+
+    /**
+     * Writes the code of a single method.
+     * Jumps can refer to labels that have not been placed yet, their offsets are filled in when the class is written.
+     */
+    public class MethodWriter {
+        private final int accessFlags;
+        private final String name;
+        private final String descriptor;
+        private int nameIndex, descriptorIndex, codeNameIndex, stackMapTableNameIndex;
+        private int maxStack, maxLocals;
+
+        private byte[] code = new byte[64];
+        private int length = 0;
+
+        /**
+         * The code offset of every label, or -1 when the label has not been placed yet.
+         */
+        private int[] labelOffsets = new int[16];
+
+        /**
+         * Pairs of (offset of the jump instruction, label id) that still need their branch offset filled in.
+         */
+        private int[] jumps = new int[16];
+        private int jumpCount = 0;
+
+        /**
+         * The entries of the StackMapTable attribute, and the offset and locals of the last frame that has been written.
+         */
+        private final ByteArrayOutputStream stackMapTable = new ByteArrayOutputStream();
+        private final DataOutputStream stackMapTableOut = new DataOutputStream(stackMapTable);
+        private int frameCount = 0;
+        private int previousFrameOffset = -1;
+        private List<FrameType> previousLocals = List.of();
+
+        private MethodWriter(int accessFlags, String name, String descriptor) {
+            this.accessFlags = accessFlags;
+            this.name = name;
+            this.descriptor = descriptor;
+            Arrays.fill(labelOffsets, -1);
+        }
+
+        public void setMaxs(int maxStack, int maxLocals) {
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        /**
+         * Set the types of the locals at the start of the method, which the first frame is compared to.
+         */
+        public void setInitialLocals(List<FrameType> locals) {
+            previousLocals = locals;
+        }
+
+        /**
+         * Write a stack map frame for the instruction at the current position in the code.
+         * The smallest kind of frame that describes the change from the previous frame is used.
+         *
+         * @param locals The types of the locals, where a long takes a single entry.
+         * @param stack  The types of the stack entries, where a long takes a single entry.
+         */
+        public void frame(List<FrameType> locals, List<FrameType> stack) throws IOException {
+            int offsetDelta = previousFrameOffset == -1 ? length : length - previousFrameOffset - 1;
+            if (offsetDelta < 0)
+                throw new IllegalArgumentException(String.format("There already is a frame at offset %s.", length));
+
+            int localsDelta = locals.size() - previousLocals.size();
+            if (localsDelta == 0 && stack.isEmpty() && locals.equals(previousLocals)) {
+                if (offsetDelta <= 63) {
+                    stackMapTableOut.writeByte(offsetDelta);
+                } else {
+                    stackMapTableOut.writeByte(251);
+                    stackMapTableOut.writeShort(offsetDelta);
+                }
+            } else if (localsDelta == 0 && stack.size() == 1 && locals.equals(previousLocals)) {
+                if (offsetDelta <= 63) {
+                    stackMapTableOut.writeByte(64 + offsetDelta);
+                } else {
+                    stackMapTableOut.writeByte(247);
+                    stackMapTableOut.writeShort(offsetDelta);
+                }
+                writeFrameType(stack.get(0));
+            } else if (localsDelta >= -3 && localsDelta < 0 && stack.isEmpty()
+                    && locals.equals(previousLocals.subList(0, locals.size()))) {
+                stackMapTableOut.writeByte(251 + localsDelta);
+                stackMapTableOut.writeShort(offsetDelta);
+            } else if (localsDelta > 0 && localsDelta <= 3 && stack.isEmpty()
+                    && previousLocals.equals(locals.subList(0, previousLocals.size()))) {
+                stackMapTableOut.writeByte(251 + localsDelta);
+                stackMapTableOut.writeShort(offsetDelta);
+                writeFrameTypes(locals.subList(previousLocals.size(), locals.size()));
+            } else {
+                stackMapTableOut.writeByte(255);
+                stackMapTableOut.writeShort(offsetDelta);
+                stackMapTableOut.writeShort(locals.size());
+                writeFrameTypes(locals);
+                stackMapTableOut.writeShort(stack.size());
+                writeFrameTypes(stack);
+            }
+
+            frameCount++;
+            previousFrameOffset = length;
+            previousLocals = locals;
+        }
+
+        /**
+         * Write an instruction without operands.
+         */
+        public void insn(Opcode opcode) {
+            writeByte(opcode.getCode());
+        }
+
+        /**
+         * Write a bipush or sipush instruction.
+         */
+        public void intInsn(Opcode opcode, int value) {
+            writeByte(opcode.getCode());
+            if (opcode == Opcode.BIPUSH) {
+                writeByte(value);
+            } else {
+                writeShort(value);
+            }
+        }
+
+        /**
+         * Write a load or store instruction, using the short form or the wide form when possible or needed.
+         */
+        public void localInsn(Opcode opcode, int slot) {
+            int shortFormBase = switch (opcode) {
+                case ILOAD -> 0x1a;
+                case LLOAD -> 0x1e;
+                case FLOAD -> 0x22;
+                case ALOAD -> 0x2a;
+                case ISTORE -> 0x3b;
+                case LSTORE -> 0x3f;
+                case FSTORE -> 0x43;
+                case ASTORE -> 0x4b;
+                default -> throw new IllegalArgumentException(opcode + " is not a load or store instruction.");
+            };
+
+            if (slot <= 3) {
+                writeByte(shortFormBase + slot);
+            } else if (slot <= 0xFF) {
+                writeByte(opcode.getCode());
+                writeByte(slot);
+            } else {
+                writeByte(0xc4);
+                writeByte(opcode.getCode());
+                writeShort(slot);
+            }
+        }
+
+        /**
+         * Write an iinc instruction, using the wide form when needed.
+         */
+        public void iincInsn(int slot, int increment) {
+            if (slot <= 0xFF && increment >= Byte.MIN_VALUE && increment <= Byte.MAX_VALUE) {
+                writeByte(Opcode.IINC.getCode());
+                writeByte(slot);
+                writeByte(increment);
+            } else {
+                writeByte(0xc4);
+                writeByte(Opcode.IINC.getCode());
+                writeShort(slot);
+                writeShort(increment);
+            }
+        }
+
+        /**
+         * Write an instruction that loads an Integer, Float, Long or String constant.
+         * A ldc instruction is turned into a ldc_w instruction when the constant index does not fit in a byte.
+         */
+        public void ldcInsn(Object value) throws IOException {
+            if (value instanceof Long longValue) {
+                writeByte(Opcode.LDC2_W.getCode());
+                writeShort(constantPool.addLong(longValue));
+                return;
+            }
+
+            int index;
+            if (value instanceof Integer intValue) {
+                index = constantPool.addInteger(intValue);
+            } else if (value instanceof Float floatValue) {
+                index = constantPool.addFloat(floatValue);
+            } else if (value instanceof String stringValue) {
+                index = constantPool.addString(stringValue);
+            } else {
+                throw new IllegalArgumentException(String.format("Unable to load a constant of %s.", value));
+            }
+
+            if (index <= 0xFF) {
+                writeByte(Opcode.LDC.getCode());
+                writeByte(index);
+            } else {
+                writeByte(Opcode.LDC_W.getCode());
+                writeShort(index);
+            }
+        }
+
+        /**
+         * Write a getstatic or putstatic instruction.
+         */
+        public void fieldInsn(Opcode opcode, String owner, String name, String descriptor) throws IOException {
+            writeByte(opcode.getCode());
+            writeShort(constantPool.addFieldRef(owner, name, descriptor));
+        }
+
+        /**
+         * Write an invoke instruction.
+         */
+        public void methodInsn(Opcode opcode, String owner, String name, String descriptor) throws IOException {
+            writeByte(opcode.getCode());
+            writeShort(constantPool.addMethodRef(owner, name, descriptor));
+        }
+
+        /**
+         * Write an instruction with a class operand, like new.
+         */
+        public void typeInsn(Opcode opcode, String internalName) throws IOException {
+            writeByte(opcode.getCode());
+            writeShort(constantPool.addClass(internalName));
+        }
+
+        /**
+         * Write a jump to a label.
+         */
+        public void jumpInsn(Opcode opcode, int label) {
+            if (jumpCount * 2 + 2 > jumps.length) {
+                jumps = Arrays.copyOf(jumps, jumps.length * 2);
+            }
+
+            jumps[jumpCount * 2] = length;
+            jumps[jumpCount * 2 + 1] = label;
+            jumpCount++;
+
+            writeByte(opcode.getCode());
+            writeShort(0);
+        }
+
+        /**
+         * Place a label at the current position in the code.
+         */
+        public void label(int label) {
+            if (label >= labelOffsets.length) {
+                int oldLength = labelOffsets.length;
+                labelOffsets = Arrays.copyOf(labelOffsets, Math.max(oldLength * 2, label + 1));
+                Arrays.fill(labelOffsets, oldLength, labelOffsets.length, -1);
+            }
+
+            labelOffsets[label] = length;
+        }
+
+        /**
+         * The current size of the code in bytes.
+         */
+        public int getCodeLength() {
+            return length;
+        }
+
+        private void resolve(int codeNameIndex, int stackMapTableNameIndex) throws IOException {
+            this.nameIndex = constantPool.addUtf8(name);
+            this.descriptorIndex = constantPool.addUtf8(descriptor);
+            this.codeNameIndex = codeNameIndex;
+            this.stackMapTableNameIndex = stackMapTableNameIndex;
+
+            for (int i = 0; i < jumpCount; i++) {
+                int jumpOffset = jumps[i * 2];
+                int label = jumps[i * 2 + 1];
+                int target = label < labelOffsets.length ? labelOffsets[label] : -1;
+                if (target == -1)
+                    throw new IOException(String.format("Label %s has not been placed in method %s.", label, name));
+
+                int branchOffset = target - jumpOffset;
+                if (branchOffset < Short.MIN_VALUE || branchOffset > Short.MAX_VALUE)
+                    throw new IOException(String.format("Method %s is too large to jump to label %s.", name, label));
+
+                code[jumpOffset + 1] = (byte) (branchOffset >> 8);
+                code[jumpOffset + 2] = (byte) branchOffset;
+            }
+        }
+
+        private void write(DataOutputStream out) throws IOException {
+            if (length > 0xFFFF)
+                throw new IOException(String.format("The code of method %s is too large.", name));
+
+            out.writeShort(accessFlags);
+            out.writeShort(nameIndex);
+            out.writeShort(descriptorIndex);
+
+            // Only the Code attribute, with a StackMapTable attribute when there are frames.
+            int stackMapTableLength = frameCount > 0 ? 8 + stackMapTable.size() : 0;
+            out.writeShort(1);
+            out.writeShort(codeNameIndex);
+            out.writeInt(12 + length + stackMapTableLength);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(length);
+            out.write(code, 0, length);
+
+            // No exception table.
+            out.writeShort(0);
+
+            if (frameCount > 0) {
+                out.writeShort(1);
+                out.writeShort(stackMapTableNameIndex);
+                out.writeInt(2 + stackMapTable.size());
+                out.writeShort(frameCount);
+                stackMapTable.writeTo(out);
+            } else {
+                out.writeShort(0);
+            }
+        }
+
+        private void writeFrameTypes(List<FrameType> types) throws IOException {
+            for (FrameType type : types) {
+                writeFrameType(type);
+            }
+        }
+
+        private void writeFrameType(FrameType type) throws IOException {
+            stackMapTableOut.writeByte(type.tag());
+            if (type.tag() == FrameType.ITEM_OBJECT) {
+                stackMapTableOut.writeShort(constantPool.addClass(type.className()));
+            } else if (type.tag() == FrameType.ITEM_UNINITIALIZED) {
+                stackMapTableOut.writeShort(type.offset());
+            }
+        }
+
+        private void writeByte(int value) {
+            if (length == code.length) {
+                code = Arrays.copyOf(code, code.length * 2);
+            }
+
+            code[length++] = (byte) value;
+        }
+
+        private void writeShort(int value) {
+            writeByte(value >> 8);
+            writeByte(value);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package nl.uni.cos.Bytecode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+
+/**
+ * The constant pool of a class file.
+ * Every constant is only added once, adding the same constant again returns the existing index.
+ */
+public class ConstantPool {
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELD_REF = 9;
+    private static final int METHOD_REF = 10;
+    private static final int NAME_AND_TYPE = 12;
+
+    private final HashMap<String, Integer> indexes = new HashMap<>();
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(bytes);
+
+    /**
+     * The index of the next constant. Index 0 is not a valid constant pool index.
+     */
+    private int nextIndex = 1;
+
+    public int addUtf8(String value) throws IOException {
+        String key = "U" + value;
+        Integer index = indexes.get(key);
+        if (index != null)
+            return index;
+
+        out.writeByte(UTF8);
+        out.writeUTF(value);
+        return register(key, 1);
+    }
+
+    public int addInteger(int value) throws IOException {
+        String key = "I" + value;
+        Integer index = indexes.get(key);
+        if (index != null)
+            return index;
+
+        out.writeByte(INTEGER);
+        out.writeInt(value);
+        return register(key, 1);
+    }
+
+    public int addFloat(float value) throws IOException {
+        // Use the raw bits as key, so that -0.0 and 0.0 don't end up as the same constant.
+        String key = "F" + Float.floatToRawIntBits(value);
+        Integer index = indexes.get(key);
+        if (index != null)
+            return index;
+
+        out.writeByte(FLOAT);
+        out.writeFloat(value);
+        return register(key, 1);
+    }
+
+    public int addLong(long value) throws IOException {
+        String key = "J" + value;
+        Integer index = indexes.get(key);
+        if (index != null)
+            return index;
+
+        out.writeByte(LONG);
+        out.writeLong(value);
+
+        // Long constants take up two slots in the constant pool.
+        return register(key, 2);
+    }
+
+    public int addString(String value) throws IOException {
+        String key = "S" + value;
+        Integer index = indexes.get(key);
+        if (index != null)
+            return index;
+
+        int utf8 = addUtf8(value);
+        out.writeByte(STRING);
+        out.writeShort(utf8);
+        return register(key, 1);
+    }
+
+    public int addClass(String internalName) throws IOException {
+        String key = "C" + internalName;
+        Integer index = indexes.get(key);
+        if (index != null)
+            return index;
+
+        int name = addUtf8(internalName);
+        out.writeByte(CLASS);
+        out.writeShort(name);
+        return register(key, 1);
+    }
+
+    public int addFieldRef(String owner, String name, String descriptor) throws IOException {
+        return addMemberRef(FIELD_REF, owner, name, descriptor);
+    }
+
+    public int addMethodRef(String owner, String name, String descriptor) throws IOException {
+        return addMemberRef(METHOD_REF, owner, name, descriptor);
+    }
+
+    private int addMemberRef(int tag, String owner, String name, String descriptor) throws IOException {
+        String key = tag + owner + '.' + name + ':' + descriptor;
+        Integer index = indexes.get(key);
+        if (index != null)
+            return index;
+
+        int ownerClass = addClass(owner);
+        int nameAndType = addNameAndType(name, descriptor);
+        out.writeByte(tag);
+        out.writeShort(ownerClass);
+        out.writeShort(nameAndType);
+        return register(key, 1);
+    }
+
+    private int addNameAndType(String name, String descriptor) throws IOException {
+        String key = "N" + name + ':' + descriptor;
+        Integer index = indexes.get(key);
+        if (index != null)
+            return index;
+
+        int nameIndex = addUtf8(name);
+        int descriptorIndex = addUtf8(descriptor);
+        out.writeByte(NAME_AND_TYPE);
+        out.writeShort(nameIndex);
+        out.writeShort(descriptorIndex);
+        return register(key, 1);
+    }
+
+    private int register(String key, int size) {
+        int index = nextIndex;
+        indexes.put(key, index);
+        nextIndex += size;
+        return index;
+    }
+
+    /**
+     * Write the constant pool count and all the constants.
+     *
+     * @param classOut The stream of the class file.
+     */
+    public void write(DataOutputStream classOut) throws IOException {
+        if (nextIndex > 0xFFFF)
+            throw new IOException("Too many constants in the constant pool.");
+
+        classOut.writeShort(nextIndex);
+        bytes.writeTo(classOut);
+    }
+}
@@ -0,0 +1,126 @@
+package nl.uni.cos.Bytecode;
+
+import nl.uni.cos.Exceptions.AssembleException;
+import nl.uni.cos.JasminBytecode;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Assembles the {@link InstructionList}s of a {@link JasminBytecode} straight into a class file.
+ * The instructions are already typed, so there is no need to render them as Jasmin text and to have
+ * the Jasmin parser lex and parse them again.
+ * <p>
+ * Unlike Jasmin, this writes StackMapTable frames, so the classes can use a current class file version and are
+ * checked by the faster type checking verifier.
+ */
+public class DirectAssembler {
+    /**
+     * The class file version of Java 17.
+     */
+    public static final int MAJOR_VERSION = 61;
+
+    private DirectAssembler() {
+    }
+
+    /**
+     * Assemble {@link JasminBytecode} into a class file.
+     *
+     * @param jasminBytecode The {@link JasminBytecode} that will be assembled.
+     * @return The bytes of the class file.
+     * @throws AssembleException if the code could not be assembled.
+     */
+    public static byte[] assemble(JasminBytecode jasminBytecode) throws AssembleException {
+        ClassFileWriter classWriter = new ClassFileWriter(jasminBytecode.getClassName());
+        classWriter.setVersion(MAJOR_VERSION, 0);
+        classWriter.setSuperName(jasminBytecode.getSuperName());
+        classWriter.setSourceFile(jasminBytecode.getClassName() + ".j");
+
+        for (MethodInfo method : jasminBytecode.getMethods()) {
+            try {
+                ClassFileWriter.MethodWriter methodWriter = classWriter.addMethod(method.getAccessFlags(),
+                        method.getName(), method.getDescriptor());
+                methodWriter.setMaxs(method.getMaxStack(), method.getMaxLocals());
+
+                FrameComputer frames = new FrameComputer(jasminBytecode.getClassName(), method);
+                methodWriter.setInitialLocals(frames.getInitialLocals());
+                assembleCode(method.getCode(), frames, methodWriter);
+            } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+                throw new AssembleException(String.format("%s.%s%s: %s", jasminBytecode.getClassName(),
+                        method.getName(), method.getDescriptor(), e.getMessage()), e);
+            }
+        }
+
+        try {
+            return classWriter.toByteArray();
+        } catch (IOException e) {
+            throw new AssembleException(String.format("%s: %s", jasminBytecode.getClassName(), e.getMessage()), e);
+        }
+    }
+
+    private static void assembleCode(InstructionList code, FrameComputer frames, ClassFileWriter.MethodWriter method)
+            throws IOException {
+        int[] offsets = new int[code.size()];
+
+        // The last label before the next instruction, when one of the labels at that position is jumped to.
+        int frameLabel = -1;
+
+        for (int i = 0; i < code.size(); i++) {
+            if (code.isLabel(i)) {
+                method.label(code.getLabel(i).getId());
+                if (frames.needsFrame(i) || frameLabel != -1) {
+                    frameLabel = i;
+                }
+                continue;
+            }
+
+            // Unreachable code has no frame, so the verifier would reject it.
+            if (!frames.isReachable(i))
+                continue;
+
+            if (frameLabel != -1) {
+                method.frame(getFrameTypes(frames.getLocals(frameLabel), offsets, i),
+                        getFrameTypes(frames.getStack(frameLabel), offsets, i));
+                frameLabel = -1;
+            }
+
+            offsets[i] = method.getCodeLength();
+            Opcode opcode = code.getOpcode(i);
+            switch (opcode.getOperandType()) {
+                case NONE -> method.insn(opcode);
+                case BYTE, SHORT -> method.intInsn(opcode, code.getOperand(i));
+                case LOCAL -> method.localInsn(opcode, code.getOperand(i));
+                case IINC -> method.iincInsn(code.getOperand(i), code.getIncrement(i));
+                case CONSTANT -> method.ldcInsn(code.getReference(i));
+                case LABEL -> method.jumpInsn(opcode, code.getLabel(i).getId());
+                case CLASS -> method.typeInsn(opcode, (String) code.getReference(i));
+                case FIELD -> {
+                    MemberRef field = (MemberRef) code.getReference(i);
+                    method.fieldInsn(opcode, field.owner(), field.name(), field.descriptor());
+                }
+                case METHOD -> {
+                    MemberRef invoked = (MemberRef) code.getReference(i);
+                    method.methodInsn(opcode, invoked.owner(), invoked.name(), invoked.descriptor());
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace the instruction indexes of uninitialized types by the code offsets of their new instructions.
+     */
+    private static List<FrameType> getFrameTypes(List<FrameType> types, int[] offsets, int index) {
+        for (int i = 0; i < types.size(); i++) {
+            FrameType type = types.get(i);
+            if (type.tag() != FrameType.ITEM_UNINITIALIZED)
+                continue;
+
+            if (type.offset() >= index)
+                throw new IllegalArgumentException(String.format("The new instruction %s is placed after its frame.", type.offset()));
+
+            types.set(i, FrameType.uninitialized(offsets[type.offset()]));
+        }
+
+        return types;
+    }
+}
@@ -0,0 +1,474 @@
+package nl.uni.cos.Bytecode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the stack map frames of a method, by following the types of the locals and the stack entries of every
+ * instruction along all the paths through the code.
+ * <p>
+ * The type checking verifier needs a frame at every instruction that can be jumped to. When two paths reach the same
+ * instruction with different types in a local, the local is unusable there. This happens when the LocalSlotAllocator
+ * gave the slot to another variable. Instructions that can't be reached have no types at all, so they have to be left
+ * out of the class file.
+ */
+public class FrameComputer {
+    private static final FrameType OBJECT = FrameType.object("java/lang/Object");
+
+    private final String className;
+    private final InstructionList code;
+    private final int[] labelPositions;
+
+    /**
+     * The types at the start of every reachable label, by the index of the label.
+     */
+    private final Frame[] frames;
+    private final boolean[] isReachable;
+    private final boolean[] isJumpTarget;
+    private final Frame initialFrame;
+
+    private final int[] worklist;
+    private final boolean[] isQueued;
+    private int worklistSize = 0;
+
+    /**
+     * Initializes a new {@link FrameComputer} and computes the frames of a method.
+     *
+     * @param className The internal name of the class that contains the method.
+     * @param method    The method, with its max stack and max locals already set.
+     * @throws IllegalStateException when the stack is different on two paths to the same instruction.
+     */
+    public FrameComputer(String className, MethodInfo method) {
+        this.className = className;
+        this.code = method.getCode();
+        this.labelPositions = code.getLabelPositions();
+
+        int size = code.size();
+        frames = new Frame[size];
+        isReachable = new boolean[size];
+        isJumpTarget = new boolean[size];
+        worklist = new int[size];
+        isQueued = new boolean[size];
+
+        initialFrame = createInitialFrame(method);
+        if (size > 0) {
+            merge(0, initialFrame);
+            analyze();
+        }
+    }
+
+    /**
+     * Whether the instruction or label at an index can be reached from the start of the method.
+     */
+    public boolean isReachable(int index) {
+        return isReachable[index];
+    }
+
+    /**
+     * Whether a frame has to be written for the instruction after a label, because the label is jumped to.
+     */
+    public boolean needsFrame(int index) {
+        return isJumpTarget[index];
+    }
+
+    /**
+     * The types of the locals at the start of the method, as they are written in a frame.
+     */
+    public List<FrameType> getInitialLocals() {
+        return initialFrame.getLocals();
+    }
+
+    /**
+     * The types of the locals after a reachable label, as they are written in a frame.
+     * Trailing unusable locals are left out, and a long takes a single entry.
+     */
+    public List<FrameType> getLocals(int index) {
+        return frames[index].getLocals();
+    }
+
+    /**
+     * The types of the stack entries after a reachable label, from the bottom to the top of the stack.
+     * A long takes a single entry.
+     */
+    public List<FrameType> getStack(int index) {
+        return frames[index].getStack();
+    }
+
+    private Frame createInitialFrame(MethodInfo method) {
+        Frame frame = new Frame(method.getMaxLocals(), method.getMaxStack());
+        int slot = 0;
+        if (!method.isStatic()) {
+            frame.setLocal(slot++, method.getName().equals("<init>")
+                    ? FrameType.UNINITIALIZED_THIS
+                    : FrameType.object(className));
+        }
+
+        String descriptor = method.getDescriptor();
+        for (int i = 1; descriptor.charAt(i) != ')'; i = FrameType.skipType(descriptor, i)) {
+            FrameType type = FrameType.fromDescriptor(descriptor, i);
+            frame.setLocal(slot, type);
+            slot += type.isTwoSlots() ? 2 : 1;
+        }
+
+        return frame;
+    }
+
+    private void analyze() {
+        while (worklistSize > 0) {
+            // Follow the straight line code from the label until it ends or reaches the next label.
+            int index = worklist[--worklistSize];
+            isQueued[index] = false;
+            Frame frame = frames[index].copy();
+
+            while (true) {
+                isReachable[index] = true;
+                Opcode opcode = code.getOpcode(index);
+                if (opcode != null) {
+                    execute(frame, index, opcode);
+
+                    if (opcode.isJump()) {
+                        int target = labelPositions[code.getLabel(index).getId()];
+                        isJumpTarget[target] = true;
+                        merge(target, frame);
+                    }
+
+                    if (!opcode.fallsThrough())
+                        break;
+                }
+
+                if (++index == code.size())
+                    break;
+
+                if (code.isLabel(index)) {
+                    merge(index, frame);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge the types of a path into the types of a label, and visit the label again when they changed.
+     */
+    private void merge(int index, Frame frame) {
+        boolean isChanged;
+        if (frames[index] == null) {
+            frames[index] = frame.copy();
+            isChanged = true;
+        } else {
+            isChanged = frames[index].merge(frame, index);
+        }
+
+        if (isChanged && !isQueued[index]) {
+            isQueued[index] = true;
+            worklist[worklistSize++] = index;
+        }
+    }
+
+    /**
+     * Change the types like the instruction at an index does.
+     */
+    private void execute(Frame frame, int index, Opcode opcode) {
+        switch (opcode) {
+            case NOP, INEG, FNEG, IINC, GOTO, RETURN, IRETURN, LRETURN, FRETURN, ARETURN, ATHROW -> {
+            }
+            case ACONST_NULL -> frame.pushValue(FrameType.NULL);
+            case ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3, ICONST_4, ICONST_5, BIPUSH, SIPUSH, ILOAD ->
+                    frame.pushValue(FrameType.INTEGER);
+            case FCONST_0, FCONST_1, FCONST_2, FLOAD -> frame.pushValue(FrameType.FLOAT);
+            case LLOAD -> frame.pushValue(FrameType.LONG);
+            case LDC, LDC_W, LDC2_W -> frame.pushValue(getConstantType(code.getReference(index)));
+            case ALOAD -> frame.pushValue(frame.getLocal(code.getOperand(index)));
+            case ISTORE, FSTORE, ASTORE, LSTORE -> frame.setLocal(code.getOperand(index), frame.popValue());
+            case POP -> frame.pop(1);
+            case POP2 -> frame.pop(2);
+            case DUP -> {
+                FrameType value = frame.pop();
+                frame.push(value);
+                frame.push(value);
+            }
+            case DUP_X1 -> {
+                FrameType value1 = frame.pop();
+                FrameType value2 = frame.pop();
+                frame.push(value1);
+                frame.push(value2);
+                frame.push(value1);
+            }
+            case DUP_X2 -> {
+                FrameType value1 = frame.pop();
+                FrameType value2 = frame.pop();
+                FrameType value3 = frame.pop();
+                frame.push(value1);
+                frame.push(value3);
+                frame.push(value2);
+                frame.push(value1);
+            }
+            case DUP2 -> {
+                FrameType value1 = frame.pop();
+                FrameType value2 = frame.pop();
+                frame.push(value2);
+                frame.push(value1);
+                frame.push(value2);
+                frame.push(value1);
+            }
+            case SWAP -> {
+                FrameType value1 = frame.pop();
+                FrameType value2 = frame.pop();
+                frame.push(value1);
+                frame.push(value2);
+            }
+            case IADD, ISUB, IMUL, IDIV, IREM, ISHL, ISHR, IUSHR, IAND, IOR, IXOR, FCMPL, FCMPG -> {
+                frame.pop(2);
+                frame.pushValue(FrameType.INTEGER);
+            }
+            case FADD, FSUB, FMUL, FDIV, FREM -> {
+                frame.pop(2);
+                frame.pushValue(FrameType.FLOAT);
+            }
+            case LADD, LSUB, LMUL -> {
+                frame.pop(4);
+                frame.pushValue(FrameType.LONG);
+            }
+            case LSHR -> {
+                frame.pop(3);
+                frame.pushValue(FrameType.LONG);
+            }
+            case L2I -> {
+                frame.pop(2);
+                frame.pushValue(FrameType.INTEGER);
+            }
+            case I2L -> {
+                frame.pop(1);
+                frame.pushValue(FrameType.LONG);
+            }
+            case I2F -> {
+                frame.pop(1);
+                frame.pushValue(FrameType.FLOAT);
+            }
+            case F2I -> {
+                frame.pop(1);
+                frame.pushValue(FrameType.INTEGER);
+            }
+            case IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE -> frame.pop(1);
+            case IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT, IF_ICMPLE, IF_ACMPEQ, IF_ACMPNE -> frame.pop(2);
+            case GETSTATIC -> frame.pushValue(FrameType.fromDescriptor(((MemberRef) code.getReference(index)).descriptor(), 0));
+            case PUTSTATIC -> frame.popValue();
+            case INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC -> {
+                MemberRef invoked = (MemberRef) code.getReference(index);
+                String descriptor = invoked.descriptor();
+                int i = 1;
+                while (descriptor.charAt(i) != ')') {
+                    frame.popValue();
+                    i = FrameType.skipType(descriptor, i);
+                }
+
+                if (opcode != Opcode.INVOKESTATIC) {
+                    FrameType receiver = frame.pop();
+                    if (invoked.name().equals("<init>")) {
+                        frame.initialize(receiver, getInitializedType(receiver));
+                    }
+                }
+
+                FrameType returnType = FrameType.fromDescriptor(descriptor, i + 1);
+                if (returnType != null) {
+                    frame.pushValue(returnType);
+                }
+            }
+            case NEW -> frame.pushValue(FrameType.uninitialized(index));
+        }
+    }
+
+    private FrameType getInitializedType(FrameType receiver) {
+        return switch (receiver.tag()) {
+            case FrameType.ITEM_UNINITIALIZED_THIS -> FrameType.object(className);
+            case FrameType.ITEM_UNINITIALIZED -> FrameType.object((String) code.getReference(receiver.offset()));
+            default -> receiver;
+        };
+    }
+
+    private static FrameType getConstantType(Object constant) {
+        if (constant instanceof Integer)
+            return FrameType.INTEGER;
+        if (constant instanceof Float)
+            return FrameType.FLOAT;
+        if (constant instanceof Long)
+            return FrameType.LONG;
+        if (constant instanceof String)
+            return FrameType.object("java/lang/String");
+
+        throw new IllegalArgumentException(String.format("Unable to load a constant of %s.", constant));
+    }
+
+    /**
+     * Merge the types of two references, or return null when they can't be merged.
+     */
+    private static FrameType mergeReferences(FrameType type1, FrameType type2) {
+        if (type1.tag() == FrameType.ITEM_NULL && type2.tag() == FrameType.ITEM_OBJECT)
+            return type2;
+        if (type2.tag() == FrameType.ITEM_NULL && type1.tag() == FrameType.ITEM_OBJECT)
+            return type1;
+        if (type1.tag() == FrameType.ITEM_OBJECT && type2.tag() == FrameType.ITEM_OBJECT)
+            return OBJECT;
+
+        return null;
+    }
+
+    /**
+     * The types of the locals and the stack entries at a position in the code. A long takes two slots, where the
+     * second slot is {@link FrameType#TOP}.
+     */
+    private static final class Frame {
+        private final FrameType[] locals;
+        private final FrameType[] stack;
+        private int stackSize = 0;
+
+        private Frame(int maxLocals, int maxStack) {
+            locals = new FrameType[maxLocals];
+            stack = new FrameType[maxStack];
+            Arrays.fill(locals, FrameType.TOP);
+        }
+
+        private Frame(Frame other) {
+            locals = other.locals.clone();
+            stack = other.stack.clone();
+            stackSize = other.stackSize;
+        }
+
+        private Frame copy() {
+            return new Frame(this);
+        }
+
+        private FrameType getLocal(int slot) {
+            return locals[slot];
+        }
+
+        private void setLocal(int slot, FrameType type) {
+            // Overwriting the second half of a long makes the whole long unusable.
+            if (slot > 0 && locals[slot - 1].isTwoSlots()) {
+                locals[slot - 1] = FrameType.TOP;
+            }
+
+            locals[slot] = type;
+            if (type.isTwoSlots()) {
+                locals[slot + 1] = FrameType.TOP;
+            }
+        }
+
+        private void push(FrameType type) {
+            stack[stackSize++] = type;
+        }
+
+        /**
+         * Push a whole value, which takes two slots when it is a long.
+         */
+        private void pushValue(FrameType type) {
+            push(type);
+            if (type.isTwoSlots()) {
+                push(FrameType.TOP);
+            }
+        }
+
+        private FrameType pop() {
+            return stack[--stackSize];
+        }
+
+        private void pop(int slots) {
+            stackSize -= slots;
+        }
+
+        /**
+         * Pop a whole value, which takes two slots when it is a long.
+         */
+        private FrameType popValue() {
+            FrameType type = pop();
+            if (type == FrameType.TOP && stackSize > 0 && stack[stackSize - 1].isTwoSlots()) {
+                type = pop();
+            }
+
+            return type;
+        }
+
+        /**
+         * Replace an uninitialized type by the initialized type, after its constructor has been called.
+         */
+        private void initialize(FrameType uninitialized, FrameType initialized) {
+            for (int i = 0; i < locals.length; i++) {
+                if (locals[i].equals(uninitialized)) {
+                    locals[i] = initialized;
+                }
+            }
+
+            for (int i = 0; i < stackSize; i++) {
+                if (stack[i].equals(uninitialized)) {
+                    stack[i] = initialized;
+                }
+            }
+        }
+
+        /**
+         * Merge the types of another path into this frame.
+         *
+         * @return Whether any of the types changed.
+         */
+        private boolean merge(Frame other, int index) {
+            if (stackSize != other.stackSize)
+                throw new IllegalStateException(String.format("The stack has %s entries at instruction %s on one path, but %s on another path.",
+                        other.stackSize, index, stackSize));
+
+            boolean isChanged = false;
+            for (int i = 0; i < locals.length; i++) {
+                if (locals[i].equals(other.locals[i]))
+                    continue;
+
+                FrameType merged = mergeReferences(locals[i], other.locals[i]);
+                if (merged == null) {
+                    merged = FrameType.TOP;
+                }
+
+                isChanged |= !locals[i].equals(merged);
+                locals[i] = merged;
+            }
+
+            for (int i = 0; i < stackSize; i++) {
+                if (stack[i].equals(other.stack[i]))
+                    continue;
+
+                FrameType merged = mergeReferences(stack[i], other.stack[i]);
+                if (merged == null)
+                    throw new IllegalStateException(String.format("The stack has a %s on one path to instruction %s, but a %s on another path.",
+                            other.stack[i], index, stack[i]));
+
+                isChanged |= !stack[i].equals(merged);
+                stack[i] = merged;
+            }
+
+            return isChanged;
+        }
+
+        private List<FrameType> getLocals() {
+            List<FrameType> types = getTypes(locals, locals.length);
+            while (!types.isEmpty() && types.get(types.size() - 1).equals(FrameType.TOP)) {
+                types.remove(types.size() - 1);
+            }
+
+            return types;
+        }
+
+        private List<FrameType> getStack() {
+            return getTypes(stack, stackSize);
+        }
+
+        private static List<FrameType> getTypes(FrameType[] slots, int count) {
+            ArrayList<FrameType> types = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                types.add(slots[i]);
+                if (slots[i].isTwoSlots()) {
+                    i++;
+                }
+            }
+
+            return types;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package nl.uni.cos.Bytecode;
+
+/**
+ * The verification type of a local or a stack entry in a stack map frame.
+ *
+ * @param tag       The tag of the type in the StackMapTable attribute, one of the ITEM_ constants.
+ * @param className The internal name of the class of an {@link #ITEM_OBJECT} type.
+ * @param offset    The position of the new instruction that created an {@link #ITEM_UNINITIALIZED} value.
+ *                  The {@link FrameComputer} uses the index in the {@link InstructionList},
+ *                  the {@link ClassFileWriter} the offset in the code.
+ */
+public record FrameType(int tag, String className, int offset) {
+    public static final int ITEM_TOP = 0;
+    public static final int ITEM_INTEGER = 1;
+    public static final int ITEM_FLOAT = 2;
+    public static final int ITEM_DOUBLE = 3;
+    public static final int ITEM_LONG = 4;
+    public static final int ITEM_NULL = 5;
+    public static final int ITEM_UNINITIALIZED_THIS = 6;
+    public static final int ITEM_OBJECT = 7;
+    public static final int ITEM_UNINITIALIZED = 8;
+
+    public static final FrameType TOP = new FrameType(ITEM_TOP, null, 0);
+    public static final FrameType INTEGER = new FrameType(ITEM_INTEGER, null, 0);
+    public static final FrameType FLOAT = new FrameType(ITEM_FLOAT, null, 0);
+    public static final FrameType DOUBLE = new FrameType(ITEM_DOUBLE, null, 0);
+    public static final FrameType LONG = new FrameType(ITEM_LONG, null, 0);
+    public static final FrameType NULL = new FrameType(ITEM_NULL, null, 0);
+    public static final FrameType UNINITIALIZED_THIS = new FrameType(ITEM_UNINITIALIZED_THIS, null, 0);
+
+    /**
+     * The type of an initialized instance of a class.
+     *
+     * @param className The internal name of the class, or the descriptor of an array class.
+     */
+    public static FrameType object(String className) {
+        return new FrameType(ITEM_OBJECT, className, 0);
+    }
+
+    /**
+     * The type of an instance that has been created by a new instruction, but has not been initialized yet.
+     *
+     * @param offset The position of the new instruction.
+     */
+    public static FrameType uninitialized(int offset) {
+        return new FrameType(ITEM_UNINITIALIZED, null, offset);
+    }
+
+    /**
+     * Get the type of a value of a field descriptor.
+     *
+     * @param descriptor The descriptor that contains the field descriptor.
+     * @param index      The index of the field descriptor in the descriptor.
+     * @return The type, or null for the V of a void return type.
+     */
+    public static FrameType fromDescriptor(String descriptor, int index) {
+        return switch (descriptor.charAt(index)) {
+            case 'Z', 'B', 'C', 'S', 'I' -> INTEGER;
+            case 'F' -> FLOAT;
+            case 'J' -> LONG;
+            case 'D' -> DOUBLE;
+            case 'L' -> object(descriptor.substring(index + 1, descriptor.indexOf(';', index)));
+            case '[' -> object(descriptor.substring(index, skipType(descriptor, index)));
+            case 'V' -> null;
+            default -> throw new IllegalArgumentException(String.format("Invalid descriptor %s.", descriptor));
+        };
+    }
+
+    /**
+     * Get the index after the field descriptor in a descriptor.
+     *
+     * @param descriptor The descriptor that contains the field descriptor.
+     * @param index      The index of the field descriptor in the descriptor.
+     */
+    public static int skipType(String descriptor, int index) {
+        while (descriptor.charAt(index) == '[') {
+            index++;
+        }
+
+        return descriptor.charAt(index) == 'L'
+                ? descriptor.indexOf(';', index) + 1
+                : index + 1;
+    }
+
+    /**
+     * Whether a value of this type takes two local or stack slots.
+     */
+    public boolean isTwoSlots() {
+        return tag == ITEM_LONG || tag == ITEM_DOUBLE;
+    }
+
+    /**
+     * Whether this is the type of a reference.
+     */
+    public boolean isReference() {
+        return tag >= ITEM_NULL;
+    }
+}
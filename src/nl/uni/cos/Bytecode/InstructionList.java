@@ -0,0 +1,308 @@
+package nl.uni.cos.Bytecode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The instructions of a single method.
+ * <p>
+ * Every instruction is stored as an opcode and up to two int operands in primitive arrays.
+ * Operands that are not numbers, like constants, member references and class names, are stored in a
+ * reference pool and the instruction keeps the index into that pool.
+ * Labels are stored as pseudo instructions, so passes can see where jumps can land.
+ */
+public class InstructionList {
+    /**
+     * The opcode of a label pseudo instruction.
+     */
+    private static final byte LABEL = -1;
+
+    private static final Opcode[] OPCODES = Opcode.values();
+
+    private byte[] opcodes = new byte[32];
+
+    /**
+     * The slot, value, label id or reference index of every instruction.
+     */
+    private int[] operands = new int[32];
+
+    /**
+     * The increment of iinc instructions.
+     */
+    private int[] increments = new int[32];
+
+    private int size = 0;
+
+    private final ArrayList<Object> references = new ArrayList<>();
+    private final ArrayList<Label> labels = new ArrayList<>();
+
+    /**
+     * Create a new {@link Label} that can be placed in this list.
+     */
+    public Label newLabel() {
+        Label label = new Label(labels.size());
+        labels.add(label);
+        return label;
+    }
+
+    /**
+     * Add an instruction without operands.
+     */
+    public InstructionList add(Opcode opcode) {
+        checkOperandType(opcode, Opcode.OperandType.NONE);
+        return append(opcode.ordinal(), 0, 0);
+    }
+
+    /**
+     * Add a bipush or sipush instruction.
+     */
+    public InstructionList addInt(Opcode opcode, int value) {
+        if (opcode != Opcode.BIPUSH && opcode != Opcode.SIPUSH)
+            throw new IllegalArgumentException(opcode + " does not push an int.");
+
+        return append(opcode.ordinal(), value, 0);
+    }
+
+    /**
+     * Add the shortest instruction that pushes an int constant.
+     */
+    public InstructionList addPushInt(int value) {
+        if (value >= -1 && value <= 5) {
+            return add(OPCODES[Opcode.ICONST_0.ordinal() + value]);
+        }
+
+        if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            return addInt(Opcode.BIPUSH, value);
+        }
+
+        if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            return addInt(Opcode.SIPUSH, value);
+        }
+
+        return addConstant(value);
+    }
+
+    /**
+     * Add the shortest instruction that pushes a float constant.
+     */
+    public InstructionList addPushFloat(float value) {
+        // Compare the bits, because fconst_0 pushes a positive zero.
+        int bits = Float.floatToRawIntBits(value);
+        if (bits == Float.floatToRawIntBits(0f)) {
+            return add(Opcode.FCONST_0);
+        }
+
+        if (bits == Float.floatToRawIntBits(1f)) {
+            return add(Opcode.FCONST_1);
+        }
+
+        if (bits == Float.floatToRawIntBits(2f)) {
+            return add(Opcode.FCONST_2);
+        }
+
+        // Jasmin can not load NaN and the infinities, so they are calculated like 0.0 / 0.0 and 1.0 / 0.0.
+        if (Float.isNaN(value)) {
+            return add(Opcode.FCONST_0)
+                    .add(Opcode.FCONST_0)
+                    .add(Opcode.FDIV);
+        }
+
+        if (Float.isInfinite(value)) {
+            add(Opcode.FCONST_1)
+                    .add(Opcode.FCONST_0)
+                    .add(Opcode.FDIV);
+            return value < 0 ? add(Opcode.FNEG) : this;
+        }
+
+        return addConstant(value);
+    }
+
+    /**
+     * Add a load or store instruction.
+     */
+    public InstructionList addLocal(Opcode opcode, int slot) {
+        checkOperandType(opcode, Opcode.OperandType.LOCAL);
+        return append(opcode.ordinal(), slot, 0);
+    }
+
+    /**
+     * Add an iinc instruction.
+     */
+    public InstructionList addIinc(int slot, int increment) {
+        return append(Opcode.IINC.ordinal(), slot, increment);
+    }
+
+    /**
+     * Add an instruction that loads an Integer, Float, Long or String constant.
+     * The {@link ClassFileWriter} decides between ldc, ldc_w and ldc2_w.
+     */
+    public InstructionList addConstant(Object value) {
+        if (!(value instanceof Integer || value instanceof Float || value instanceof Long || value instanceof String))
+            throw new IllegalArgumentException(String.format("Unable to load a constant of %s.", value));
+
+        return append((value instanceof Long ? Opcode.LDC2_W : Opcode.LDC).ordinal(), addReference(value), 0);
+    }
+
+    /**
+     * Add a getstatic or putstatic instruction.
+     */
+    public InstructionList addField(Opcode opcode, String owner, String name, String descriptor) {
+        checkOperandType(opcode, Opcode.OperandType.FIELD);
+        return append(opcode.ordinal(), addReference(new MemberRef(owner, name, descriptor)), 0);
+    }
+
+    /**
+     * Add an invoke instruction.
+     */
+    public InstructionList addMethodCall(Opcode opcode, String owner, String name, String descriptor) {
+        checkOperandType(opcode, Opcode.OperandType.METHOD);
+        return append(opcode.ordinal(), addReference(new MemberRef(owner, name, descriptor)), 0);
+    }
+
+    /**
+     * Add an instruction with a class operand, like new.
+     */
+    public InstructionList addType(Opcode opcode, String internalName) {
+        checkOperandType(opcode, Opcode.OperandType.CLASS);
+        return append(opcode.ordinal(), addReference(internalName), 0);
+    }
+
+    /**
+     * Add a jump to a {@link Label}.
+     */
+    public InstructionList addJump(Opcode opcode, Label label) {
+        checkOperandType(opcode, Opcode.OperandType.LABEL);
+        return append(opcode.ordinal(), label.getId(), 0);
+    }
+
+    /**
+     * Place a {@link Label} at the current end of the list.
+     */
+    public InstructionList addLabel(Label label) {
+        return append(LABEL, label.getId(), 0);
+    }
+
+    /**
+     * Copy an instruction of another list to the end of this list.
+     * Labels of the other list are mapped to labels of this list with the same id.
+     */
+    public InstructionList addCopy(InstructionList other, int index) {
+        if (other.isLabel(index)) {
+            return addLabel(getLabelById(other.getLabel(index).getId()));
+        }
+
+        Opcode opcode = other.getOpcode(index);
+        return switch (opcode.getOperandType()) {
+            case CONSTANT, FIELD, METHOD, CLASS -> append(opcode.ordinal(), addReference(other.getReference(index)), 0);
+            case LABEL -> addJump(opcode, getLabelById(other.getLabel(index).getId()));
+            default -> append(opcode.ordinal(), other.operands[index], other.increments[index]);
+        };
+    }
+
+    /**
+     * The amount of instructions and labels in the list.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The amount of labels that have been created for this list.
+     */
+    public int getLabelCount() {
+        return labels.size();
+    }
+
+    /**
+     * Whether the entry at the index is a placed {@link Label} instead of an instruction.
+     */
+    public boolean isLabel(int index) {
+        return opcodes[index] == LABEL;
+    }
+
+    /**
+     * The {@link Opcode} of an instruction, or null when the entry is a {@link Label}.
+     */
+    public Opcode getOpcode(int index) {
+        byte opcode = opcodes[index];
+        return opcode == LABEL ? null : OPCODES[opcode];
+    }
+
+    /**
+     * The slot of a load, store or iinc instruction, or the value of a bipush or sipush instruction.
+     */
+    public int getOperand(int index) {
+        return operands[index];
+    }
+
+    /**
+     * The increment of an iinc instruction.
+     */
+    public int getIncrement(int index) {
+        return increments[index];
+    }
+
+    /**
+     * The constant, {@link MemberRef} or class name of an instruction.
+     */
+    public Object getReference(int index) {
+        return references.get(operands[index]);
+    }
+
+    /**
+     * The {@link Label} of a jump instruction or a placed {@link Label}.
+     */
+    public Label getLabel(int index) {
+        return labels.get(operands[index]);
+    }
+
+    /**
+     * Get the index of every placed {@link Label}, by the id of the {@link Label}.
+     */
+    public int[] getLabelPositions() {
+        int[] positions = new int[labels.size()];
+        for (int i = 0; i < size; i++) {
+            if (opcodes[i] == LABEL) {
+                positions[operands[i]] = i;
+            }
+        }
+
+        return positions;
+    }
+
+    /**
+     * Get a {@link Label} of this list by its id, creating labels up to the id when needed.
+     */
+    public Label getLabelById(int id) {
+        while (labels.size() <= id) {
+            newLabel();
+        }
+
+        return labels.get(id);
+    }
+
+    private int addReference(Object reference) {
+        references.add(reference);
+        return references.size() - 1;
+    }
+
+    private InstructionList append(int opcode, int operand, int increment) {
+        if (size == opcodes.length) {
+            int capacity = size * 2;
+            opcodes = Arrays.copyOf(opcodes, capacity);
+            operands = Arrays.copyOf(operands, capacity);
+            increments = Arrays.copyOf(increments, capacity);
+        }
+
+        opcodes[size] = (byte) opcode;
+        operands[size] = operand;
+        increments[size] = increment;
+        size++;
+        return this;
+    }
+
+    private static void checkOperandType(Opcode opcode, Opcode.OperandType operandType) {
+        if (opcode.getOperandType() != operandType)
+            throw new IllegalArgumentException(String.format("%s does not take a %s operand.", opcode, operandType));
+    }
+}
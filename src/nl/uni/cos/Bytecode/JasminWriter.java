@@ -0,0 +1,167 @@
+package nl.uni.cos.Bytecode;
+
+import nl.uni.cos.JasminBytecode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the {@link InstructionList}s of a {@link JasminBytecode} as Jasmin text.
+ */
+public class JasminWriter {
+    private final ArrayList<String> lines = new ArrayList<>();
+    private final StringBuilder lineBuilder = new StringBuilder();
+
+    private JasminWriter() {
+    }
+
+    /**
+     * Render a {@link JasminBytecode} as Jasmin text.
+     *
+     * @param jasminBytecode The {@link JasminBytecode} that will be rendered.
+     * @return The lines of Jasmin code.
+     */
+    public static List<String> render(JasminBytecode jasminBytecode) {
+        JasminWriter writer = new JasminWriter();
+
+        writer.line(String.format(".bytecode %s.%s", jasminBytecode.getMajorVersion(), jasminBytecode.getMinorVersion()));
+        writer.line(String.format(".class public %s", jasminBytecode.getClassName()));
+        writer.line(String.format(".super %s", jasminBytecode.getSuperName()));
+
+        for (MethodInfo method : jasminBytecode.getMethods()) {
+            writer.renderMethod(method);
+        }
+
+        return writer.lines;
+    }
+
+    private void renderMethod(MethodInfo method) {
+        lineBuilder.append(".method");
+        appendAccessFlags(method.getAccessFlags());
+        lineBuilder.append(' ').append(method.getName()).append(method.getDescriptor());
+        buildLine();
+
+        line(String.format(".limit stack %s", method.getMaxStack()));
+        line(String.format(".limit locals %s", method.getMaxLocals()));
+
+        InstructionList code = method.getCode();
+        for (int i = 0; i < code.size(); i++) {
+            renderInstruction(code, i);
+        }
+
+        line(".end method");
+    }
+
+    private void renderInstruction(InstructionList code, int index) {
+        if (code.isLabel(index)) {
+            lineBuilder.append(code.getLabel(index)).append(':');
+            buildLine();
+            return;
+        }
+
+        Opcode opcode = code.getOpcode(index);
+        lineBuilder.append(opcode.getMnemonic());
+
+        switch (opcode.getOperandType()) {
+            case NONE -> {
+            }
+            case BYTE, SHORT -> lineBuilder.append(' ').append(code.getOperand(index));
+            case LOCAL -> {
+                int slot = code.getOperand(index);
+                lineBuilder.append(slot <= 3 ? '_' : ' ').append(slot);
+            }
+            case IINC -> lineBuilder.append(' ').append(code.getOperand(index))
+                    .append(' ').append(code.getIncrement(index));
+            case CONSTANT -> {
+                lineBuilder.append(' ');
+                appendConstant(code.getReference(index));
+            }
+            case LABEL -> lineBuilder.append(' ').append(code.getLabel(index));
+            case FIELD -> {
+                MemberRef field = (MemberRef) code.getReference(index);
+                lineBuilder.append(' ').append(field.owner()).append('/').append(field.name())
+                        .append(' ').append(field.descriptor());
+            }
+            case METHOD -> {
+                MemberRef method = (MemberRef) code.getReference(index);
+                lineBuilder.append(' ').append(method.owner()).append('/').append(method.name())
+                        .append(method.descriptor());
+            }
+            case CLASS -> lineBuilder.append(' ').append(code.getReference(index));
+        }
+
+        buildLine();
+    }
+
+    private void appendConstant(Object value) {
+        if (value instanceof String string) {
+            appendString(string);
+        } else if (value instanceof Float floatValue) {
+            lineBuilder.append(formatFloat(floatValue));
+        } else {
+            lineBuilder.append(value);
+        }
+    }
+
+    /**
+     * Jasmin reads a number with a '.' as a double and converts it to a float afterwards,
+     * so the text has to round trip through a double.
+     */
+    private static String formatFloat(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value))
+            throw new IllegalArgumentException(String.format("Jasmin can not load the float constant %s.", value));
+
+        String text = Float.toString(value);
+        if (text.indexOf('E') != -1 || (float) Double.parseDouble(text) != value) {
+            // The exact decimal value of a float is also the exact value of a double.
+            text = new BigDecimal(value).toPlainString();
+        }
+
+        return text.indexOf('.') == -1 ? text + ".0" : text;
+    }
+
+    /**
+     * Quote a string and escape the characters that Jasmin would otherwise read differently.
+     */
+    private void appendString(String string) {
+        lineBuilder.append('"');
+        for (int i = 0; i < string.length(); i++) {
+            char character = string.charAt(i);
+            switch (character) {
+                case '\n' -> lineBuilder.append("\\n");
+                case '\t' -> lineBuilder.append("\\t");
+                case '\r' -> lineBuilder.append("\\r");
+                case '\b' -> lineBuilder.append("\\b");
+                case '\f' -> lineBuilder.append("\\f");
+                case '\\' -> lineBuilder.append("\\\\");
+                case '"' -> lineBuilder.append("\\\"");
+                default -> {
+                    if (character < 0x20 || character > 0x7e) {
+                        lineBuilder.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        lineBuilder.append(character);
+                    }
+                }
+            }
+        }
+        lineBuilder.append('"');
+    }
+
+    private void appendAccessFlags(int accessFlags) {
+        if ((accessFlags & ClassFileWriter.ACC_PUBLIC) != 0) lineBuilder.append(" public");
+        if ((accessFlags & ClassFileWriter.ACC_PRIVATE) != 0) lineBuilder.append(" private");
+        if ((accessFlags & ClassFileWriter.ACC_PROTECTED) != 0) lineBuilder.append(" protected");
+        if ((accessFlags & ClassFileWriter.ACC_STATIC) != 0) lineBuilder.append(" static");
+        if ((accessFlags & ClassFileWriter.ACC_FINAL) != 0) lineBuilder.append(" final");
+    }
+
+    private void line(String line) {
+        lines.add(line);
+    }
+
+    private void buildLine() {
+        lines.add(lineBuilder.toString());
+        lineBuilder.setLength(0);
+    }
+}
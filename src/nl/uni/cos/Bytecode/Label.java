@@ -0,0 +1,22 @@
+package nl.uni.cos.Bytecode;
+
+/**
+ * A position in the code of a method that can be jumped to.
+ * The id is unique within the {@link InstructionList} that created the {@link Label}.
+ */
+public final class Label {
+    private final int id;
+
+    Label(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "L" + id;
+    }
+}
@@ -0,0 +1,11 @@
+package nl.uni.cos.Bytecode;
+
+/**
+ * A reference to a field or a method of a class.
+ * <p>
+ * {@link #owner} The internal name of the class that contains the member, for example java/io/PrintStream.
+ * {@link #name} The name of the member.
+ * {@link #descriptor} The descriptor of the member, for example (I)V.
+ */
+public record MemberRef(String owner, String name, String descriptor) {
+}
@@ -0,0 +1,67 @@
+package nl.uni.cos.Bytecode;
+
+/**
+ * A method of the generated class, together with its code.
+ */
+public class MethodInfo {
+    private final int accessFlags;
+    private final String name;
+    private final String descriptor;
+    private InstructionList code = new InstructionList();
+    private int maxStack, maxLocals;
+
+    /**
+     * Initializes a new {@link MethodInfo}.
+     *
+     * @param accessFlags The access flags of the method.
+     * @param name        The name of the method.
+     * @param descriptor  The descriptor of the method, for example (I)V.
+     */
+    public MethodInfo(int accessFlags, String name, String descriptor) {
+        this.accessFlags = accessFlags;
+        this.name = name;
+        this.descriptor = descriptor;
+    }
+
+    public int getAccessFlags() {
+        return accessFlags;
+    }
+
+    public boolean isStatic() {
+        return (accessFlags & ClassFileWriter.ACC_STATIC) != 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDescriptor() {
+        return descriptor;
+    }
+
+    public InstructionList getCode() {
+        return code;
+    }
+
+    /**
+     * Replace the code of the method, used by passes that rewrite the code.
+     *
+     * @param code The new {@link InstructionList}.
+     */
+    public void setCode(InstructionList code) {
+        this.code = code;
+    }
+
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    public int getMaxLocals() {
+        return maxLocals;
+    }
+
+    public void setMaxs(int maxStack, int maxLocals) {
+        this.maxStack = maxStack;
+        this.maxLocals = maxLocals;
+    }
+}
@@ -0,0 +1,197 @@
+package nl.uni.cos.Bytecode;
+
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * The JVM instructions that can be used in the generated code.
+ */
+public enum Opcode {
+    NOP(0x00, OperandType.NONE),
+    ACONST_NULL(0x01, OperandType.NONE),
+    ICONST_M1(0x02, OperandType.NONE),
+    ICONST_0(0x03, OperandType.NONE),
+    ICONST_1(0x04, OperandType.NONE),
+    ICONST_2(0x05, OperandType.NONE),
+    ICONST_3(0x06, OperandType.NONE),
+    ICONST_4(0x07, OperandType.NONE),
+    ICONST_5(0x08, OperandType.NONE),
+    FCONST_0(0x0b, OperandType.NONE),
+    FCONST_1(0x0c, OperandType.NONE),
+    FCONST_2(0x0d, OperandType.NONE),
+    BIPUSH(0x10, OperandType.BYTE),
+    SIPUSH(0x11, OperandType.SHORT),
+    LDC(0x12, OperandType.CONSTANT),
+    LDC_W(0x13, OperandType.CONSTANT),
+    LDC2_W(0x14, OperandType.CONSTANT),
+    ILOAD(0x15, OperandType.LOCAL),
+    LLOAD(0x16, OperandType.LOCAL),
+    FLOAD(0x17, OperandType.LOCAL),
+    ALOAD(0x19, OperandType.LOCAL),
+    ISTORE(0x36, OperandType.LOCAL),
+    LSTORE(0x37, OperandType.LOCAL),
+    FSTORE(0x38, OperandType.LOCAL),
+    ASTORE(0x3a, OperandType.LOCAL),
+    POP(0x57, OperandType.NONE),
+    POP2(0x58, OperandType.NONE),
+    DUP(0x59, OperandType.NONE),
+    DUP_X1(0x5a, OperandType.NONE),
+    DUP_X2(0x5b, OperandType.NONE),
+    DUP2(0x5c, OperandType.NONE),
+    SWAP(0x5f, OperandType.NONE),
+    IADD(0x60, OperandType.NONE),
+    LADD(0x61, OperandType.NONE),
+    FADD(0x62, OperandType.NONE),
+    ISUB(0x64, OperandType.NONE),
+    LSUB(0x65, OperandType.NONE),
+    FSUB(0x66, OperandType.NONE),
+    IMUL(0x68, OperandType.NONE),
+    LMUL(0x69, OperandType.NONE),
+    FMUL(0x6a, OperandType.NONE),
+    IDIV(0x6c, OperandType.NONE),
+    FDIV(0x6e, OperandType.NONE),
+    IREM(0x70, OperandType.NONE),
+    FREM(0x72, OperandType.NONE),
+    INEG(0x74, OperandType.NONE),
+    FNEG(0x76, OperandType.NONE),
+    ISHL(0x78, OperandType.NONE),
+    ISHR(0x7a, OperandType.NONE),
+    LSHR(0x7b, OperandType.NONE),
+    IUSHR(0x7c, OperandType.NONE),
+    IAND(0x7e, OperandType.NONE),
+    IOR(0x80, OperandType.NONE),
+    IXOR(0x82, OperandType.NONE),
+    IINC(0x84, OperandType.IINC),
+    I2L(0x85, OperandType.NONE),
+    I2F(0x86, OperandType.NONE),
+    L2I(0x88, OperandType.NONE),
+    F2I(0x8b, OperandType.NONE),
+    FCMPL(0x95, OperandType.NONE),
+    FCMPG(0x96, OperandType.NONE),
+    IFEQ(0x99, OperandType.LABEL),
+    IFNE(0x9a, OperandType.LABEL),
+    IFLT(0x9b, OperandType.LABEL),
+    IFGE(0x9c, OperandType.LABEL),
+    IFGT(0x9d, OperandType.LABEL),
+    IFLE(0x9e, OperandType.LABEL),
+    IF_ICMPEQ(0x9f, OperandType.LABEL),
+    IF_ICMPNE(0xa0, OperandType.LABEL),
+    IF_ICMPLT(0xa1, OperandType.LABEL),
+    IF_ICMPGE(0xa2, OperandType.LABEL),
+    IF_ICMPGT(0xa3, OperandType.LABEL),
+    IF_ICMPLE(0xa4, OperandType.LABEL),
+    IF_ACMPEQ(0xa5, OperandType.LABEL),
+    IF_ACMPNE(0xa6, OperandType.LABEL),
+    GOTO(0xa7, OperandType.LABEL),
+    IRETURN(0xac, OperandType.NONE),
+    LRETURN(0xad, OperandType.NONE),
+    FRETURN(0xae, OperandType.NONE),
+    ARETURN(0xb0, OperandType.NONE),
+    RETURN(0xb1, OperandType.NONE),
+    GETSTATIC(0xb2, OperandType.FIELD),
+    PUTSTATIC(0xb3, OperandType.FIELD),
+    INVOKEVIRTUAL(0xb6, OperandType.METHOD),
+    INVOKESPECIAL(0xb7, OperandType.METHOD),
+    INVOKESTATIC(0xb8, OperandType.METHOD),
+    NEW(0xbb, OperandType.CLASS),
+    ATHROW(0xbf, OperandType.NONE);
+
+    /**
+     * The kind of operand that follows an instruction.
+     */
+    public enum OperandType {
+        NONE,
+        BYTE,
+        SHORT,
+        CONSTANT,
+        LOCAL,
+        IINC,
+        LABEL,
+        FIELD,
+        METHOD,
+        CLASS
+    }
+
+    private static final HashMap<String, Opcode> MNEMONICS = new HashMap<>();
+
+    static {
+        for (Opcode opcode : values()) {
+            MNEMONICS.put(opcode.getMnemonic(), opcode);
+        }
+    }
+
+    private final int code;
+    private final OperandType operandType;
+    private final String mnemonic;
+
+    Opcode(int code, OperandType operandType) {
+        this.code = code;
+        this.operandType = operandType;
+        this.mnemonic = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Find an {@link Opcode} by its Jasmin mnemonic.
+     *
+     * @param mnemonic The mnemonic, for example iadd.
+     * @return The {@link Opcode} or null when the mnemonic is unknown.
+     */
+    public static Opcode fromMnemonic(String mnemonic) {
+        return MNEMONICS.get(mnemonic);
+    }
+
+    /**
+     * Whether this {@link Opcode} is a conditional or unconditional jump to a label.
+     */
+    public boolean isJump() {
+        return operandType == OperandType.LABEL;
+    }
+
+    /**
+     * Whether the next instruction can be executed after an instruction with this {@link Opcode}.
+     * This is false for unconditional jumps, returns and athrow.
+     */
+    public boolean fallsThrough() {
+        return switch (this) {
+            case GOTO, IRETURN, LRETURN, FRETURN, ARETURN, RETURN, ATHROW -> false;
+            default -> true;
+        };
+    }
+
+    /**
+     * Get the conditional jump that is taken exactly when this conditional jump is not taken.
+     *
+     * @throws UnsupportedOperationException When this is not a conditional jump.
+     */
+    public Opcode getOppositeJump() {
+        return switch (this) {
+            case IFEQ -> IFNE;
+            case IFNE -> IFEQ;
+            case IFLT -> IFGE;
+            case IFGE -> IFLT;
+            case IFGT -> IFLE;
+            case IFLE -> IFGT;
+            case IF_ICMPEQ -> IF_ICMPNE;
+            case IF_ICMPNE -> IF_ICMPEQ;
+            case IF_ICMPLT -> IF_ICMPGE;
+            case IF_ICMPGE -> IF_ICMPLT;
+            case IF_ICMPGT -> IF_ICMPLE;
+            case IF_ICMPLE -> IF_ICMPGT;
+            case IF_ACMPEQ -> IF_ACMPNE;
+            case IF_ACMPNE -> IF_ACMPEQ;
+            default -> throw new UnsupportedOperationException(String.format("%s is not a conditional jump.", this));
+        };
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public OperandType getOperandType() {
+        return operandType;
+    }
+
+    public String getMnemonic() {
+        return mnemonic;
+    }
+}
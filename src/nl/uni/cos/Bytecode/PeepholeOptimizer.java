@@ -0,0 +1,291 @@
+package nl.uni.cos.Bytecode;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites short sequences of generated instructions into cheaper ones.
+ * <p>
+ * The optimizer slides over the code of a method and tries every {@link PeepholeRule} at every position. The first
+ * rule that matches replaces the instructions in the window, otherwise the instruction is copied as is. This is
+ * repeated until no rule matches anymore, because a rewrite can create a new match for another rule.
+ * <p>
+ * The optimizer runs on the {@link InstructionList}, so both the {@link JasminWriter} and the
+ * {@link DirectAssembler} get the optimized code.
+ */
+public class PeepholeOptimizer {
+    private static final List<PeepholeRule> DEFAULT_RULES = List.of(
+            new PeepholeRule("jump-to-next-label", PeepholeOptimizer::removeJumpToNextLabel),
+            new PeepholeRule("jump-to-goto", PeepholeOptimizer::skipGotoTarget),
+            new PeepholeRule("jump-over-goto", PeepholeOptimizer::invertJumpOverGoto),
+            new PeepholeRule("constant-branch", PeepholeOptimizer::foldConstantBranch),
+            new PeepholeRule("dup-store-pop", PeepholeOptimizer::removeDupStorePop),
+            new PeepholeRule("push-pop", PeepholeOptimizer::removePushPop),
+            new PeepholeRule("store-load", PeepholeOptimizer::replaceStoreLoad)
+    );
+
+    private final List<PeepholeRule> rules;
+
+    /**
+     * The amount of times every rule has been applied, by the index of the rule.
+     */
+    private final int[] hits;
+
+    /**
+     * Initializes a new {@link PeepholeOptimizer} with the default rules.
+     */
+    public PeepholeOptimizer() {
+        this(DEFAULT_RULES);
+    }
+
+    /**
+     * Initializes a new {@link PeepholeOptimizer}.
+     *
+     * @param rules The rules, in the order in which they are tried.
+     */
+    public PeepholeOptimizer(List<PeepholeRule> rules) {
+        this.rules = List.copyOf(rules);
+        this.hits = new int[rules.size()];
+    }
+
+    /**
+     * The rules that are used by default.
+     */
+    public static List<PeepholeRule> getDefaultRules() {
+        return DEFAULT_RULES;
+    }
+
+    /**
+     * Optimize the code of a method until no rule matches anymore.
+     *
+     * @param method The {@link MethodInfo} whose code is replaced.
+     */
+    public void optimize(MethodInfo method) {
+        InstructionList code = method.getCode();
+        InstructionList optimized = optimizeOnce(code);
+        while (optimized != code) {
+            code = optimized;
+            optimized = optimizeOnce(code);
+        }
+
+        method.setCode(code);
+    }
+
+    /**
+     * Get the amount of times every rule has been applied.
+     *
+     * @return The hit counters by the name of the rule, in the order of the rules.
+     */
+    public Map<String, Integer> getHits() {
+        Map<String, Integer> hits = new LinkedHashMap<>();
+        for (int i = 0; i < rules.size(); i++) {
+            hits.merge(rules.get(i).name(), this.hits[i], Integer::sum);
+        }
+
+        return hits;
+    }
+
+    /**
+     * Slide over the code once.
+     *
+     * @param code The {@link InstructionList} to optimize.
+     * @return The optimized code, or the same {@link InstructionList} when no rule matched.
+     */
+    private InstructionList optimizeOnce(InstructionList code) {
+        InstructionList output = new InstructionList();
+        if (code.getLabelCount() > 0) {
+            output.getLabelById(code.getLabelCount() - 1);
+        }
+
+        int[] labelPositions = code.getLabelPositions();
+        boolean changed = false;
+        int index = 0;
+        while (index < code.size()) {
+            int replaced = 0;
+            for (int i = 0; i < rules.size() && replaced == 0; i++) {
+                replaced = rules.get(i).rewrite().apply(code, index, labelPositions, output);
+                if (replaced > 0) {
+                    hits[i]++;
+                }
+            }
+
+            if (replaced > 0) {
+                changed = true;
+                index += replaced;
+            } else {
+                output.addCopy(code, index);
+                index++;
+            }
+        }
+
+        return changed ? output : code;
+    }
+
+    // region Rules
+
+    /**
+     * goto L; L: → L:, and the same for conditional jumps, that only pop their operands.
+     */
+    private static int removeJumpToNextLabel(InstructionList code, int index, int[] labelPositions, InstructionList output) {
+        if (code.isLabel(index) || !code.getOpcode(index).isJump())
+            return 0;
+
+        int target = code.getLabel(index).getId();
+        for (int i = index + 1; i < code.size() && code.isLabel(i); i++) {
+            if (code.getLabel(i).getId() != target)
+                continue;
+
+            // Pop every operand separately, so the push-pop rule can remove the pushes.
+            int operands = -StackAnalyzer.getStackChange(code, index);
+            for (int j = 0; j < operands; j++) {
+                output.add(Opcode.POP);
+            }
+
+            return 1;
+        }
+
+        return 0;
+    }
+
+    /**
+     * jump L; ... L: goto M → jump M; ... L: goto M
+     */
+    private static int skipGotoTarget(InstructionList code, int index, int[] labelPositions, InstructionList output) {
+        if (code.isLabel(index) || !code.getOpcode(index).isJump())
+            return 0;
+
+        int target = code.getLabel(index).getId();
+        int finalTarget = findFinalTarget(code, target, labelPositions);
+        if (finalTarget == target)
+            return 0;
+
+        output.addJump(code.getOpcode(index), output.getLabelById(finalTarget));
+        return 1;
+    }
+
+    /**
+     * if L; goto M; L: → !if M; L:
+     */
+    private static int invertJumpOverGoto(InstructionList code, int index, int[] labelPositions, InstructionList output) {
+        if (code.isLabel(index) || !code.getOpcode(index).isJump() || code.getOpcode(index) == Opcode.GOTO
+                || !is(code, index + 1, Opcode.GOTO))
+            return 0;
+
+        int target = code.getLabel(index).getId();
+        for (int i = index + 2; i < code.size() && code.isLabel(i); i++) {
+            if (code.getLabel(i).getId() == target) {
+                output.addJump(code.getOpcode(index).getOppositeJump(), output.getLabelById(code.getLabel(index + 1).getId()));
+                return 2;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * iconst_0; ifeq L → goto L, and iconst_1; ifeq L → nothing. The same for ifne.
+     */
+    private static int foldConstantBranch(InstructionList code, int index, int[] labelPositions, InstructionList output) {
+        boolean isZero = is(code, index, Opcode.ICONST_0);
+        if (!isZero && !is(code, index, Opcode.ICONST_1))
+            return 0;
+
+        boolean isIfEq = is(code, index + 1, Opcode.IFEQ);
+        if (!isIfEq && !is(code, index + 1, Opcode.IFNE))
+            return 0;
+
+        if (isZero == isIfEq) {
+            output.addJump(Opcode.GOTO, output.getLabelById(code.getLabel(index + 1).getId()));
+        }
+
+        return 2;
+    }
+
+    /**
+     * dup; store n; pop → store n
+     */
+    private static int removeDupStorePop(InstructionList code, int index, int[] labelPositions, InstructionList output) {
+        if (!is(code, index, Opcode.DUP) || getLoadOf(code, index + 1) == null || !is(code, index + 2, Opcode.POP))
+            return 0;
+
+        output.addCopy(code, index + 1);
+        return 3;
+    }
+
+    /**
+     * load n; pop → nothing, and the same for constants and dup.
+     */
+    private static int removePushPop(InstructionList code, int index, int[] labelPositions, InstructionList output) {
+        if (code.isLabel(index) || !is(code, index + 1, Opcode.POP))
+            return 0;
+
+        return switch (code.getOpcode(index)) {
+            case ILOAD, FLOAD, ALOAD, ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3, ICONST_4, ICONST_5,
+                    FCONST_0, FCONST_1, FCONST_2, BIPUSH, SIPUSH, LDC, DUP -> 2;
+            default -> 0;
+        };
+    }
+
+    /**
+     * store n; load n → dup; store n
+     */
+    private static int replaceStoreLoad(InstructionList code, int index, int[] labelPositions, InstructionList output) {
+        Opcode load = getLoadOf(code, index);
+        if (load == null || !is(code, index + 1, load) || code.getOperand(index) != code.getOperand(index + 1))
+            return 0;
+
+        output.add(Opcode.DUP)
+                .addCopy(code, index);
+        return 2;
+    }
+
+    // endregion
+
+    /**
+     * Whether the entry at an index is an instruction with a specific {@link Opcode}.
+     */
+    private static boolean is(InstructionList code, int index, Opcode opcode) {
+        return index < code.size() && !code.isLabel(index) && code.getOpcode(index) == opcode;
+    }
+
+    /**
+     * Get the load that belongs to the store of a single slot value at an index.
+     *
+     * @return The load {@link Opcode}, or null when the entry is not an istore, fstore or astore.
+     */
+    private static Opcode getLoadOf(InstructionList code, int index) {
+        if (index >= code.size() || code.isLabel(index))
+            return null;
+
+        return switch (code.getOpcode(index)) {
+            case ISTORE -> Opcode.ILOAD;
+            case FSTORE -> Opcode.FLOAD;
+            case ASTORE -> Opcode.ALOAD;
+            default -> null;
+        };
+    }
+
+    /**
+     * Follow the gotos that directly follow a label.
+     *
+     * @return The id of the {@link Label} where the code continues, or the id of the target itself when it is not
+     * followed by a goto or when the gotos form a loop.
+     */
+    private static int findFinalTarget(InstructionList code, int target, int[] labelPositions) {
+        int current = target;
+        for (int steps = 0; steps <= labelPositions.length; steps++) {
+            int index = labelPositions[current];
+            while (index < code.size() && code.isLabel(index)) {
+                index++;
+            }
+
+            if (!is(code, index, Opcode.GOTO) || code.getLabel(index).getId() == current)
+                return current;
+
+            current = code.getLabel(index).getId();
+        }
+
+        return target;
+    }
+}
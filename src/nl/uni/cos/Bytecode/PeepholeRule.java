@@ -0,0 +1,28 @@
+package nl.uni.cos.Bytecode;
+
+/**
+ * A rewrite rule of the {@link PeepholeOptimizer}, that replaces a short sequence of instructions with a cheaper one.
+ *
+ * @param name    The name of the rule, used for the hit counters of the {@link PeepholeOptimizer}.
+ * @param rewrite The function that matches and replaces the instructions.
+ */
+public record PeepholeRule(String name, Rewrite rewrite) {
+
+    /**
+     * The function of a {@link PeepholeRule}.
+     */
+    @FunctionalInterface
+    public interface Rewrite {
+        /**
+         * Try to rewrite the instructions that start at an index.
+         *
+         * @param code           The code that is being optimized.
+         * @param index          The index of the first entry of the window.
+         * @param labelPositions The index of every placed {@link Label} in the code, by the id of the {@link Label}.
+         * @param output         The optimized code that the replacement is added to. Its labels have the same ids
+         *                       as the labels of the code.
+         * @return The amount of entries of the code that are replaced, or 0 when the rule does not match.
+         */
+        int apply(InstructionList code, int index, int[] labelPositions, InstructionList output);
+    }
+}
@@ -0,0 +1,140 @@
+package nl.uni.cos.Bytecode;
+
+import java.util.Arrays;
+
+/**
+ * Computes the maximum depth of the operand stack of a method, by following the stack effect of every instruction
+ * along all the paths through the code.
+ */
+public class StackAnalyzer {
+
+    private StackAnalyzer() {
+    }
+
+    /**
+     * Compute the maximum stack depth of the code of a method.
+     *
+     * @param code The code of the method.
+     * @return The maximum amount of stack slots that are used at the same time.
+     * @throws IllegalStateException when the stack depth is different on two paths to the same instruction,
+     *                               or when an instruction would pop from an empty stack.
+     */
+    public static int computeMaxStack(InstructionList code) {
+        int size = code.size();
+
+        int[] labelPositions = code.getLabelPositions();
+
+        // The stack depth before every instruction, or -1 when the instruction has not been reached yet.
+        int[] depths = new int[size];
+        Arrays.fill(depths, -1);
+        int[] worklist = new int[size + 1];
+        int worklistSize = 0;
+        int maxStack = 0;
+
+        if (size > 0) {
+            depths[0] = 0;
+            worklist[worklistSize++] = 0;
+        }
+
+        while (worklistSize > 0) {
+            // Follow the straight line code from the instruction until it ends or reaches a visited instruction.
+            int index = worklist[--worklistSize];
+            int depth = depths[index];
+
+            while (true) {
+                Opcode opcode = code.getOpcode(index);
+                if (opcode != null) {
+                    depth += getStackChange(code, index);
+                    if (depth < 0)
+                        throw new IllegalStateException(String.format("Stack underflow at instruction %s (%s).", index, opcode.getMnemonic()));
+
+                    maxStack = Math.max(maxStack, depth);
+
+                    if (opcode.isJump()) {
+                        int target = labelPositions[code.getLabel(index).getId()];
+                        if (merge(depths, target, depth, index))
+                            worklist[worklistSize++] = target;
+                    }
+
+                    if (!opcode.fallsThrough())
+                        break;
+                }
+
+                if (++index == size || !merge(depths, index, depth, index - 1))
+                    break;
+            }
+        }
+
+        return maxStack;
+    }
+
+    /**
+     * Get the change of the stack depth that an instruction causes.
+     *
+     * @param code  The code that contains the instruction.
+     * @param index The index of the instruction.
+     * @return The amount of stack slots that are pushed minus the amount that are popped.
+     */
+    public static int getStackChange(InstructionList code, int index) {
+        Opcode opcode = code.getOpcode(index);
+        if (opcode == null)
+            return 0;
+
+        return switch (opcode) {
+            case NOP, SWAP, INEG, FNEG, IINC, I2F, F2I, GOTO, RETURN -> 0;
+            case ACONST_NULL, ICONST_M1, ICONST_0, ICONST_1, ICONST_2, ICONST_3, ICONST_4, ICONST_5,
+                    FCONST_0, FCONST_1, FCONST_2, BIPUSH, SIPUSH, LDC, LDC_W,
+                    ILOAD, FLOAD, ALOAD, DUP, DUP_X1, DUP_X2, I2L, NEW -> 1;
+            case LDC2_W, LLOAD, DUP2 -> 2;
+            case ISTORE, FSTORE, ASTORE, POP,
+                    IADD, FADD, ISUB, FSUB, IMUL, FMUL, IDIV, FDIV, IREM, FREM,
+                    ISHL, ISHR, LSHR, IUSHR, IAND, IOR, IXOR, L2I, FCMPL, FCMPG,
+                    IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE, IRETURN, FRETURN, ARETURN, ATHROW -> -1;
+            case LSTORE, POP2, LADD, LSUB, LMUL, LRETURN,
+                    IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT, IF_ICMPLE, IF_ACMPEQ, IF_ACMPNE -> -2;
+            case GETSTATIC -> getSize(((MemberRef) code.getReference(index)).descriptor(), 0);
+            case PUTSTATIC -> -getSize(((MemberRef) code.getReference(index)).descriptor(), 0);
+            case INVOKEVIRTUAL, INVOKESPECIAL, INVOKESTATIC -> {
+                String descriptor = ((MemberRef) code.getReference(index)).descriptor();
+                int argumentSize = 0;
+                int i = 1;
+                while (descriptor.charAt(i) != ')') {
+                    argumentSize += getSize(descriptor, i);
+                    i = FrameType.skipType(descriptor, i);
+                }
+
+                int receiverSize = opcode == Opcode.INVOKESTATIC ? 0 : 1;
+                yield getSize(descriptor, i + 1) - argumentSize - receiverSize;
+            }
+        };
+    }
+
+    /**
+     * Set the stack depth of an instruction that is reached from another instruction.
+     *
+     * @return Whether the instruction was not reached before.
+     */
+    private static boolean merge(int[] depths, int index, int depth, int from) {
+        if (depths[index] == -1) {
+            depths[index] = depth;
+            return true;
+        }
+
+        if (depths[index] != depth)
+            throw new IllegalStateException(String.format("The stack depth at instruction %s is %s when coming from instruction %s, but was %s before.",
+                    index, depth, from, depths[index]));
+
+        return false;
+    }
+
+    /**
+     * The amount of stack slots that a value of the type in a descriptor takes.
+     */
+    private static int getSize(String descriptor, int index) {
+        return switch (descriptor.charAt(index)) {
+            case 'V' -> 0;
+            case 'J', 'D' -> 2;
+            default -> 1;
+        };
+    }
+}
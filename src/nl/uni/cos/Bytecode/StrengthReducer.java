@@ -0,0 +1,218 @@
+package nl.uni.cos.Bytecode;
+
+/**
+ * Replaces int multiplications, divisions and remainders by a constant with cheaper instructions that have exactly
+ * the same result, including overflow, rounding towards zero and the sign of the remainder.
+ * <p>
+ * <ul>
+ *     <li>x * 2^k becomes a shift, and x * (2^k + 1) and x * (2^k - 1) a shift and an add or subtract.</li>
+ *     <li>x / 2^k becomes a shift, after adding 2^k - 1 to negative values so the result is rounded towards zero.</li>
+ *     <li>x / d becomes a long multiplication with a magic number and a shift, see Hacker's Delight, chapter 10.</li>
+ *     <li>x % d becomes x - (x / d) * d, with the division above.</li>
+ * </ul>
+ */
+public class StrengthReducer {
+
+    private StrengthReducer() {
+    }
+
+    /**
+     * The multiplier and shift that replace a division by a constant.
+     * For every int x, x / divisor == (int) ((x * multiplier) >> (32 + shift)) plus one when that is negative.
+     *
+     * @param multiplier The magic number, between 2^31 and 2^32.
+     * @param shift      The extra shift.
+     */
+    public record Magic(long multiplier, int shift) {
+    }
+
+    /**
+     * Add the instructions that calculate the operation of an int and a constant, when they are cheaper than the
+     * instruction of the operation. The int is already on the stack.
+     *
+     * @param code     The {@link InstructionList} to add the instructions to.
+     * @param opcode   The {@link Opcode} of the operation, imul, idiv or irem.
+     * @param constant The right operand of the operation.
+     * @return Whether the instructions have been added, otherwise nothing is added.
+     */
+    public static boolean reduce(InstructionList code, Opcode opcode, int constant) {
+        return switch (opcode) {
+            case IMUL -> reduceMultiplication(code, constant);
+            case IDIV -> reduceDivision(code, constant);
+            case IREM -> reduceRemainder(code, constant);
+            default -> false;
+        };
+    }
+
+    /**
+     * Calculate the magic number for a division by a constant.
+     *
+     * @param divisor The divisor, at least 2.
+     * @return The {@link Magic} of the divisor.
+     */
+    public static Magic getMagic(int divisor) {
+        if (divisor < 2)
+            throw new IllegalArgumentException(String.format("There is no magic number for %s.", divisor));
+
+        // The unsigned 32 bit arithmetic of Hacker's Delight, figure 10-1.
+        final long twoPow31 = 1L << 31;
+        long absoluteDivisor = divisor;
+        long absoluteNc = twoPow31 - 1 - twoPow31 % absoluteDivisor;
+        int p = 31;
+        long q1 = twoPow31 / absoluteNc;
+        long r1 = twoPow31 - q1 * absoluteNc;
+        long q2 = twoPow31 / absoluteDivisor;
+        long r2 = twoPow31 - q2 * absoluteDivisor;
+        long delta;
+        do {
+            p++;
+            q1 = 2 * q1;
+            r1 = 2 * r1;
+            if (r1 >= absoluteNc) {
+                q1++;
+                r1 -= absoluteNc;
+            }
+
+            q2 = 2 * q2;
+            r2 = 2 * r2;
+            if (r2 >= absoluteDivisor) {
+                q2++;
+                r2 -= absoluteDivisor;
+            }
+
+            delta = absoluteDivisor - r2;
+        } while (q1 < delta || (q1 == delta && r1 == 0));
+
+        return new Magic(q2 + 1, p - 32);
+    }
+
+    private static boolean reduceMultiplication(InstructionList code, int constant) {
+        if (constant == 0) {
+            code.add(Opcode.POP)
+                    .add(Opcode.ICONST_0);
+            return true;
+        }
+
+        // The shift of the lowest bit also multiplies by the smallest int.
+        boolean isNegative = constant < 0 && constant != Integer.MIN_VALUE;
+        int factor = isNegative ? -constant : constant;
+        if (factor == 1) {
+            // Nothing to multiply.
+        } else if (isPowerOfTwo(factor)) {
+            code.addPushInt(Integer.numberOfTrailingZeros(factor))
+                    .add(Opcode.ISHL);
+        } else if (isPowerOfTwo(factor - 1)) {
+            code.add(Opcode.DUP)
+                    .addPushInt(Integer.numberOfTrailingZeros(factor - 1))
+                    .add(Opcode.ISHL)
+                    .add(Opcode.IADD);
+        } else if (isPowerOfTwo(factor + 1)) {
+            code.add(Opcode.DUP)
+                    .addPushInt(Integer.numberOfTrailingZeros(factor + 1))
+                    .add(Opcode.ISHL)
+                    .add(Opcode.SWAP)
+                    .add(Opcode.ISUB);
+        } else {
+            return false;
+        }
+
+        if (isNegative) {
+            code.add(Opcode.INEG);
+        }
+
+        return true;
+    }
+
+    private static boolean reduceDivision(InstructionList code, int constant) {
+        // The division by zero has to throw, and the division by the smallest int is not worth it.
+        if (constant == 0 || constant == Integer.MIN_VALUE)
+            return false;
+
+        int divisor = Math.abs(constant);
+        if (divisor == 1) {
+            // Nothing to divide.
+        } else if (isPowerOfTwo(divisor)) {
+            int shift = Integer.numberOfTrailingZeros(divisor);
+            code.add(Opcode.DUP);
+            addRoundingBias(code, shift);
+            code.add(Opcode.IADD)
+                    .addPushInt(shift)
+                    .add(Opcode.ISHR);
+        } else {
+            addMagicDivision(code, divisor);
+        }
+
+        if (constant < 0) {
+            code.add(Opcode.INEG);
+        }
+
+        return true;
+    }
+
+    private static boolean reduceRemainder(InstructionList code, int constant) {
+        if (constant == 0 || constant == Integer.MIN_VALUE)
+            return false;
+
+        // The sign of the remainder only depends on the left operand.
+        int divisor = Math.abs(constant);
+        if (divisor == 1) {
+            code.add(Opcode.POP)
+                    .add(Opcode.ICONST_0);
+        } else if (isPowerOfTwo(divisor)) {
+            // x - ((x + bias) & -divisor)
+            code.add(Opcode.DUP)
+                    .add(Opcode.DUP);
+            addRoundingBias(code, Integer.numberOfTrailingZeros(divisor));
+            code.add(Opcode.IADD)
+                    .addPushInt(-divisor)
+                    .add(Opcode.IAND)
+                    .add(Opcode.ISUB);
+        } else {
+            // x - (x / divisor) * divisor
+            code.add(Opcode.DUP);
+            addMagicDivision(code, divisor);
+            code.addPushInt(divisor)
+                    .add(Opcode.IMUL)
+                    .add(Opcode.ISUB);
+        }
+
+        return true;
+    }
+
+    /**
+     * Replace the int on the stack with 2^shift - 1 when it is negative and 0 otherwise.
+     */
+    private static void addRoundingBias(InstructionList code, int shift) {
+        if (shift == 1) {
+            code.addPushInt(31)
+                    .add(Opcode.IUSHR);
+        } else {
+            code.addPushInt(31)
+                    .add(Opcode.ISHR)
+                    .addPushInt(32 - shift)
+                    .add(Opcode.IUSHR);
+        }
+    }
+
+    /**
+     * Replace the int on the stack with the int divided by a positive divisor that is not a power of two.
+     */
+    private static void addMagicDivision(InstructionList code, int divisor) {
+        Magic magic = getMagic(divisor);
+        code.add(Opcode.I2L)
+                .addConstant(magic.multiplier())
+                .add(Opcode.LMUL)
+                .addPushInt(32 + magic.shift())
+                .add(Opcode.LSHR)
+                .add(Opcode.L2I)
+                // Round negative quotients towards zero.
+                .add(Opcode.DUP)
+                .addPushInt(31)
+                .add(Opcode.IUSHR)
+                .add(Opcode.IADD);
+    }
+
+    private static boolean isPowerOfTwo(int value) {
+        return value > 0 && (value & (value - 1)) == 0;
+    }
+}
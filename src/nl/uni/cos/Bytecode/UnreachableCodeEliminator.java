@@ -0,0 +1,88 @@
+package nl.uni.cos.Bytecode;
+
+/**
+ * Removes the instructions of a method that can never be executed, like the statements after a return and the body
+ * of an if statement with a false condition, and the labels that are not the target of a jump anymore.
+ * <p>
+ * The reachable instructions are found by following the control flow from the first instruction, so a jump with a
+ * constant condition that the {@link PeepholeOptimizer} turned into a goto or removed, also removes the code that
+ * could only be reached through the other branch.
+ */
+public class UnreachableCodeEliminator {
+
+    private UnreachableCodeEliminator() {
+    }
+
+    /**
+     * Remove the unreachable instructions and unused labels of a method.
+     *
+     * @param method The {@link MethodInfo} whose code is replaced.
+     * @return Whether anything was removed.
+     */
+    public static boolean eliminate(MethodInfo method) {
+        InstructionList code = method.getCode();
+        boolean[] reachable = findReachable(code);
+
+        boolean[] isTarget = new boolean[code.getLabelCount()];
+        for (int i = 0; i < code.size(); i++) {
+            if (reachable[i] && !code.isLabel(i) && code.getOpcode(i).isJump()) {
+                isTarget[code.getLabel(i).getId()] = true;
+            }
+        }
+
+        InstructionList output = new InstructionList();
+        if (code.getLabelCount() > 0) {
+            output.getLabelById(code.getLabelCount() - 1);
+        }
+
+        for (int i = 0; i < code.size(); i++) {
+            if (reachable[i] && (!code.isLabel(i) || isTarget[code.getLabel(i).getId()])) {
+                output.addCopy(code, i);
+            }
+        }
+
+        if (output.size() == code.size())
+            return false;
+
+        method.setCode(output);
+        return true;
+    }
+
+    /**
+     * Find the entries that can be reached from the first instruction.
+     */
+    private static boolean[] findReachable(InstructionList code) {
+        boolean[] reachable = new boolean[code.size()];
+        int[] labelPositions = code.getLabelPositions();
+        int[] worklist = new int[code.size()];
+        int worklistSize = 0;
+
+        if (code.size() > 0) {
+            reachable[0] = true;
+            worklist[worklistSize++] = 0;
+        }
+
+        while (worklistSize > 0) {
+            int index = worklist[--worklistSize];
+
+            // Follow the straight-line code until it ends or joins code that is already reachable.
+            while (true) {
+                Opcode opcode = code.getOpcode(index);
+                if (opcode != null && opcode.isJump()) {
+                    int target = labelPositions[code.getLabel(index).getId()];
+                    if (!reachable[target]) {
+                        reachable[target] = true;
+                        worklist[worklistSize++] = target;
+                    }
+                }
+
+                if (opcode != null && !opcode.fallsThrough() || ++index == code.size() || reachable[index])
+                    break;
+
+                reachable[index] = true;
+            }
+        }
+
+        return reachable;
+    }
+}
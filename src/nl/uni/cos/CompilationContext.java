@@ -0,0 +1,285 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Ast.Ast;
+import nl.uni.cos.Models.DataType;
+import nl.uni.cos.Models.Error;
+import nl.uni.cos.Models.Method;
+import nl.uni.cos.Models.Scope;
+import nl.uni.cos.Models.VarSymbol;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Contains all the state of a single compilation.
+ * A new {@link CompilationContext} is created for every compilation,
+ * so multiple compilations can run at the same time without sharing any state.
+ */
+public class CompilationContext {
+    /**
+     * The {@link CompilerOptions} of the compilation.
+     */
+    private final CompilerOptions options;
+    /**
+     * The {@link Ast} of the source code.
+     */
+    private Ast ast;
+    /**
+     * Contains the {@link DataType} of every node of the {@link Ast}, indexed by the id of the node.
+     */
+    private DataType[] types;
+    /**
+     * Contains the value of every expression node of the {@link Ast} that is known at compile time,
+     * indexed by the id of the node. The values are Integers for ints and chars, Floats and Booleans.
+     */
+    private Object[] constants;
+    /**
+     * Contains the variable that holds the value of every loop invariant expression node of the {@link Ast},
+     * indexed by the id of the node, see {@link nl.uni.cos.Visitors.LoopInvariantFinder}.
+     */
+    private VarSymbol[] hoistedVars;
+    /**
+     * Contains the loop invariant expressions that are calculated before a while statement, by the id of the node of
+     * the while statement.
+     */
+    private final HashMap<Integer, List<Integer>> hoistedExpressions = new HashMap<>();
+    /**
+     * Contains the declaration node of every method whose calls are inlined, by the identifier of the method,
+     * see {@link nl.uni.cos.Visitors.InlineMethodFinder}.
+     */
+    private final HashMap<String, Integer> inlinedMethods = new HashMap<>();
+    /**
+     * Contains the first {@link Method} that is declared for every identifier in the BSharp file.
+     */
+    private final HashMap<String, Method> methods = new HashMap<>();
+    /**
+     * Contains the amount of {@link Method}s that are declared for every identifier, to find duplicated methods.
+     */
+    private final HashMap<String, Integer> methodCounts = new HashMap<>();
+    /**
+     * The Errors that have been found in the code.
+     */
+    private final LinkedList<Error> errors = new LinkedList<>();
+    /**
+     * Contains the {@link Scope} of every node of the {@link Ast} that has one, indexed by the id of the node.
+     */
+    private Scope[] scopes;
+    /**
+     * The number of errors detected by the lexer and parser.
+     */
+    private int syntaxErrorCount = 0;
+
+    /**
+     * Initializes a new {@link CompilationContext}.
+     *
+     * @param options The {@link CompilerOptions} of the compilation.
+     */
+    public CompilationContext(CompilerOptions options) {
+        this.options = options;
+    }
+
+    public CompilerOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * Set the {@link Ast} of the source code, after the parser has finished.
+     *
+     * @param ast The {@link Ast}.
+     */
+    public void setAst(Ast ast) {
+        this.ast = ast;
+        this.types = new DataType[ast.size()];
+        this.constants = new Object[ast.size()];
+        this.hoistedVars = new VarSymbol[ast.size()];
+        this.scopes = new Scope[ast.size()];
+    }
+
+    /**
+     * Get the {@link Ast} of the source code.
+     *
+     * @return The {@link Ast}, or null when the source code has not been parsed yet.
+     */
+    public Ast getAst() {
+        return ast;
+    }
+
+    /**
+     * Add an {@link Error}.
+     *
+     * @param error The {@link Error} that has been found.
+     */
+    public void addError(Error error) {
+        errors.add(error);
+    }
+
+    /**
+     * Get all the {@link Error}s that have been found.
+     *
+     * @return A {@link List} with the {@link Error}s.
+     */
+    public List<Error> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Adds a {@link Scope}.
+     *
+     * @param node  The id of the node of the scope.
+     * @param scope The Scope.
+     */
+    public void addScope(int node, Scope scope) {
+        scopes[node] = scope;
+    }
+
+    /**
+     * Get the {@link Scope} for a node.
+     *
+     * @param node The id of the node that is linked to the {@link Scope}.
+     * @return The {@link Scope} or null when no {@link Scope} was found.
+     */
+    public Scope getScope(int node) {
+        return scopes[node];
+    }
+
+    /**
+     * Add a new {@link DataType} for a specific node.
+     *
+     * @param node The id of the node for the new {@link DataType}.
+     * @param type The new {@link DataType}.
+     */
+    public void addDataType(int node, DataType type) {
+        types[node] = type;
+    }
+
+    /**
+     * Get the {@link DataType} for a specific node.
+     *
+     * @param node The id of the node that is linked to the {@link DataType}.
+     * @return The {@link DataType} or null when no {@link DataType} was found.
+     */
+    public DataType getDataType(int node) {
+        return types[node];
+    }
+
+    /**
+     * Set the value of an expression that is known at compile time.
+     *
+     * @param node  The id of the node of the expression.
+     * @param value The value of the expression.
+     */
+    public void addConstant(int node, Object value) {
+        constants[node] = value;
+    }
+
+    /**
+     * Get the value of an expression that is known at compile time.
+     *
+     * @param node The id of the node of the expression.
+     * @return The value, or null when the value is only known at runtime.
+     */
+    public Object getConstant(int node) {
+        return constants[node];
+    }
+
+    /**
+     * Calculate an expression once before a while statement, instead of in every iteration.
+     *
+     * @param loop       The id of the node of the while statement.
+     * @param expression The id of the node of the loop invariant expression.
+     * @param var        The variable that holds the value of the expression in the loop.
+     */
+    public void addHoistedExpression(int loop, int expression, VarSymbol var) {
+        hoistedExpressions.computeIfAbsent(loop, key -> new ArrayList<>()).add(expression);
+        hoistedVars[expression] = var;
+    }
+
+    /**
+     * Get the expressions that are calculated before a while statement.
+     *
+     * @param loop The id of the node of the while statement.
+     * @return The ids of the nodes of the expressions, in the order in which they are calculated.
+     */
+    public List<Integer> getHoistedExpressions(int loop) {
+        return hoistedExpressions.getOrDefault(loop, List.of());
+    }
+
+    /**
+     * Get the variable that holds the value of a loop invariant expression.
+     *
+     * @param expression The id of the node of the expression.
+     * @return The variable, or null when the expression is calculated where it is used.
+     */
+    public VarSymbol getHoistedVar(int expression) {
+        return hoistedVars[expression];
+    }
+
+    /**
+     * Replace the calls of a method with the code of the method.
+     *
+     * @param identifier  The identifier of the method.
+     * @param declaration The id of the node of the declaration of the method.
+     */
+    public void addInlinedMethod(String identifier, int declaration) {
+        inlinedMethods.put(identifier, declaration);
+    }
+
+    /**
+     * Get the declaration of a method whose calls are inlined.
+     *
+     * @param identifier The identifier of the method.
+     * @return The id of the node of the declaration, or null when the method is called.
+     */
+    public Integer getInlinedMethod(String identifier) {
+        return inlinedMethods.get(identifier);
+    }
+
+    /**
+     * Add a {@link Method} to the {@link #methods} table.
+     * When a {@link Method} with the same identifier already exists, only its count is increased.
+     *
+     * @param method The new {@link Method}.
+     */
+    public void addMethod(Method method) {
+        methods.putIfAbsent(method.identifier(), method);
+        methodCounts.merge(method.identifier(), 1, Integer::sum);
+    }
+
+    /**
+     * Find a {@link Method} in the {@link #methods} table.
+     *
+     * @param identifier The identifier of the {@link Method}.
+     * @return The first {@link Method} with the identifier that was declared, or null.
+     */
+    public Method findMethod(String identifier) {
+        return methods.get(identifier);
+    }
+
+    /**
+     * Count the total amount of {@link Method}s with a specific identifier.
+     *
+     * @param identifier The identifier of the {@link Method}.
+     * @return The amount of methods that have been found.
+     */
+    public int getMethodCount(String identifier) {
+        return methodCounts.getOrDefault(identifier, 0);
+    }
+
+    /**
+     * Register a syntax error that has been found by the lexer or parser.
+     */
+    public void addSyntaxError() {
+        syntaxErrorCount++;
+    }
+
+    /**
+     * Get the number of errors detected by the lexer and parser.
+     *
+     * @return The number of syntax errors.
+     */
+    public int getSyntaxErrorCount() {
+        return syntaxErrorCount;
+    }
+}
@@ -0,0 +1,122 @@
+package nl.uni.cos;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * A thin client that sends its arguments to a {@link CompileDaemon} and behaves exactly like {@link Compiler#main}:
+ * it takes the same arguments, writes the same files, prints the same output and exits with the same status.
+ * When no daemon is listening, the {@link Compiler} runs in this process instead. When the daemon fails after it
+ * received the request, the client fails as well, because the daemon may already have written some of the files.
+ */
+public class CompileClient {
+
+    /**
+     * Main method.
+     *
+     * @param args The arguments of {@link Compiler#main}. Use --socket=&lt;path&gt; to connect to another socket
+     *             than {@link CompileDaemon#getDefaultSocketPath()}, or only --stop to stop the daemon.
+     */
+    public static void main(String[] args) {
+        Path socketPath = CompileDaemon.getSocketPath(args);
+        String[] compilerArgs = Arrays.stream(args)
+                .filter(arg -> !arg.startsWith(CompileDaemon.SOCKET_ARGUMENT))
+                .toArray(String[]::new);
+        Path workingDirectory = Paths.get("").toAbsolutePath();
+
+        int status = run(socketPath, workingDirectory, compilerArgs, System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Let the daemon run the compiler, or run it in this process when no daemon is listening.
+     *
+     * @param socketPath       The path of the socket of the daemon.
+     * @param workingDirectory The directory that relative paths in the arguments are resolved against.
+     * @param args             The arguments of {@link Compiler#main}.
+     * @param out              The stream that the output of the compiler is printed to.
+     * @param err              The stream that the errors of the compiler are printed to.
+     * @return The exit status of the compiler, which is 1 when the daemon failed.
+     */
+    static int run(Path socketPath, Path workingDirectory, String[] args, PrintStream out, PrintStream err) {
+        SocketChannel channel = connect(socketPath);
+        if (channel == null) {
+            if (args.length == 1 && args[0].equals(CompileDaemon.STOP_ARGUMENT)) {
+                err.printf("No compile daemon is listening on %s.%n", socketPath);
+                return 1;
+            }
+
+            // There is no daemon, so compile in this process.
+            return Compiler.run(args, workingDirectory, out, err);
+        }
+
+        // The daemon may already be compiling, so compiling again in this process could write the files twice.
+        try (channel) {
+            return sendRequest(channel, workingDirectory, args, out, err);
+        } catch (IOException e) {
+            err.printf("The compile daemon on %s failed: %s%n", socketPath, e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Connect to the daemon.
+     *
+     * @return The connected {@link SocketChannel}, or null when no daemon is listening on the socket.
+     */
+    private static SocketChannel connect(Path socketPath) {
+        try {
+            SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+            try {
+                channel.connect(UnixDomainSocketAddress.of(socketPath));
+                return channel;
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Send a request to the daemon and print the response.
+     *
+     * @param out The stream that the output of the compiler is printed to.
+     * @param err The stream that the errors of the compiler are printed to.
+     * @return The exit status of the compiler.
+     */
+    static int sendRequest(SocketChannel channel, Path workingDirectory, String[] args, PrintStream out, PrintStream err)
+            throws IOException {
+        DataOutputStream request = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        request.writeInt(CompileDaemon.PROTOCOL_MAGIC);
+        request.writeUTF(workingDirectory.toString());
+        request.writeInt(args.length);
+        for (String arg : args) {
+            request.writeUTF(arg);
+        }
+        request.flush();
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        byte[] compilerOut = new byte[in.readInt()];
+        in.readFully(compilerOut);
+        byte[] compilerErr = new byte[in.readInt()];
+        in.readFully(compilerErr);
+        int status = in.readInt();
+
+        out.write(compilerOut);
+        out.flush();
+        err.write(compilerErr);
+        err.flush();
+
+        return status;
+    }
+}
@@ -0,0 +1,223 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Exceptions.AssembleException;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+
+/**
+ * A long-lived compiler process that serves compile requests of {@link CompileClient}s over a Unix domain socket.
+ * The JVM, the loaded classes of ANTLR and Jasmin and the prediction caches of the parser stay warm between requests,
+ * so a compile request only costs the compilation itself.
+ * <p>
+ * A request contains the working directory and the arguments of the client. The response contains everything the
+ * compiler wrote to its output and error streams, followed by the exit status.
+ */
+public class CompileDaemon {
+    /**
+     * The first int of every request, to reject connections that do not speak the protocol.
+     */
+    static final int PROTOCOL_MAGIC = 0x42534344;
+
+    /**
+     * The argument that a client sends instead of compiler arguments to stop the daemon.
+     */
+    static final String STOP_ARGUMENT = "--stop";
+
+    /**
+     * The prefix of the argument that selects the socket, for both the daemon and the client.
+     */
+    static final String SOCKET_ARGUMENT = "--socket=";
+
+    /**
+     * A program that uses every part of the compiler, compiled at startup to warm up the JVM and the parser.
+     */
+    private static final String WARM_UP_PROGRAM = """
+            void Main() {
+                int i = 0, total = 0;
+                while (i < 10) {
+                    if (i % 2 == 0 && !(i == 4) || i > 8) {
+                        total = total + Square(i);
+                    } else {
+                        total = total - 1;
+                    }
+                    i = i + 1;
+                }
+                float f = 1.5 * 2.0;
+                string s = "warm up";
+                bool b = f > 2.0;
+                char c = 'c';
+                WriteLine(total);
+                WriteLine(s);
+            }
+
+            int Square(int value) {
+                return value * value;
+            }
+            """;
+
+    private static final int WARM_UP_ITERATIONS = 200;
+
+    /**
+     * Kept as a field, so the level that is set on it can't be lost when the logger is garbage collected.
+     */
+    private static final java.util.logging.Logger COMPILER_LOGGER = java.util.logging.Logger.getLogger(Compiler.class.getName());
+
+    private final Path socketPath;
+    private final ExecutorService executor;
+    private volatile boolean isRunning = true;
+
+    /**
+     * Initializes a new {@link CompileDaemon}.
+     *
+     * @param socketPath  The path of the Unix domain socket.
+     * @param parallelism The amount of requests that can be compiled at the same time.
+     */
+    public CompileDaemon(Path socketPath, int parallelism) {
+        this.socketPath = socketPath;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * Main method.
+     *
+     * @param args Use --socket=&lt;path&gt; to listen on another socket than {@link #getDefaultSocketPath()}.
+     */
+    public static void main(String[] args) {
+        Path socketPath = getSocketPath(args);
+
+        // The timings of the visitors would flood the output of the daemon.
+        COMPILER_LOGGER.setLevel(Level.WARNING);
+
+        try {
+            CompileDaemon daemon = new CompileDaemon(socketPath, Runtime.getRuntime().availableProcessors());
+            daemon.warmUp();
+            daemon.serve();
+        } catch (IOException e) {
+            System.err.println("Something went wrong: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * The socket that is used when no socket is selected: a file in the temporary directory of the user.
+     */
+    public static Path getDefaultSocketPath() {
+        return Paths.get(System.getProperty("java.io.tmpdir"), String.format("bsharp-compiler-%s.sock", System.getProperty("user.name")));
+    }
+
+    /**
+     * Get the socket that is selected in the arguments, or the default socket.
+     */
+    static Path getSocketPath(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(SOCKET_ARGUMENT)) {
+                return Paths.get(arg.substring(SOCKET_ARGUMENT.length()));
+            }
+        }
+
+        return getDefaultSocketPath();
+    }
+
+    /**
+     * Compile and assemble a program a number of times, so the JIT compiler and the prediction caches of the parser
+     * are warm before the first request comes in.
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        Compiler compiler = new Compiler();
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            try {
+                AssembledClass.assemble(compiler.compileString(WARM_UP_PROGRAM, "WarmUp"));
+            } catch (AssembleException e) {
+                throw new IllegalStateException("The warm up program could not be assembled.", e);
+            }
+        }
+
+        System.out.printf("Warmed up in %.2fms.%n", (System.nanoTime() - start) / 1000000f);
+    }
+
+    /**
+     * Accept requests until a client stops the daemon.
+     *
+     * @throws IOException if the socket could not be created.
+     */
+    public void serve() throws IOException {
+        // A socket file that is left behind by a daemon that has been killed blocks the bind.
+        Files.deleteIfExists(socketPath);
+
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            System.out.printf("Listening on %s.%n", socketPath);
+
+            while (isRunning) {
+                SocketChannel client = server.accept();
+                executor.execute(() -> handle(client, server));
+            }
+        } catch (IOException e) {
+            // Accepting fails once the server is closed by a stop request.
+            if (isRunning)
+                throw e;
+        } finally {
+            executor.shutdown();
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    /**
+     * Handle a single request of a client.
+     */
+    private void handle(SocketChannel client, ServerSocketChannel server) {
+        try (client) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(client)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(client)));
+
+            if (in.readInt() != PROTOCOL_MAGIC)
+                return;
+
+            Path workingDirectory = Paths.get(in.readUTF());
+            String[] args = new String[in.readInt()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = in.readUTF();
+            }
+
+            if (args.length == 1 && args[0].equals(STOP_ARGUMENT)) {
+                writeResponse(out, new byte[0], "Stopping the compile daemon.\n".getBytes(), 0);
+                isRunning = false;
+                server.close();
+                return;
+            }
+
+            ByteArrayOutputStream compilerOut = new ByteArrayOutputStream();
+            ByteArrayOutputStream compilerErr = new ByteArrayOutputStream();
+            int status;
+            try (PrintStream outStream = new PrintStream(compilerOut, true); PrintStream errStream = new PrintStream(compilerErr, true)) {
+                status = Compiler.run(args, workingDirectory, outStream, errStream);
+            }
+
+            writeResponse(out, compilerOut.toByteArray(), compilerErr.toByteArray(), status);
+        } catch (IOException e) {
+            System.err.println("Unable to handle a request: " + e.getMessage());
+        }
+    }
+
+    private static void writeResponse(DataOutputStream out, byte[] compilerOut, byte[] compilerErr, int status) throws IOException {
+        out.writeInt(compilerOut.length);
+        out.write(compilerOut);
+        out.writeInt(compilerErr.length);
+        out.write(compilerErr);
+        out.writeInt(status);
+        out.flush();
+    }
+}
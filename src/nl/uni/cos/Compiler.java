@@ -1,15 +1,33 @@
 package nl.uni.cos;
 
+import nl.uni.cos.Ast.Ast;
+import nl.uni.cos.Ast.AstBuilder;
+import nl.uni.cos.Bytecode.MethodInfo;
+import nl.uni.cos.Bytecode.PeepholeOptimizer;
+import nl.uni.cos.Bytecode.StackAnalyzer;
+import nl.uni.cos.Bytecode.UnreachableCodeEliminator;
 import nl.uni.cos.Exceptions.AssembleException;
+import nl.uni.cos.Models.CacheStatistics;
+import nl.uni.cos.Models.CachedClass;
+import nl.uni.cos.Services.CompileCache;
 import nl.uni.cos.Services.Implementation.ConsoleLogger;
+import nl.uni.cos.Services.Implementation.DiskCompileCache;
 import nl.uni.cos.Services.Logger;
 import nl.uni.cos.Visitors.*;
 import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 /**
  * Compiles source code in a custom language into Jasmin and then assembles a
@@ -17,12 +35,38 @@ import java.nio.file.Paths;
  * <p>
  */
 public class Compiler {
+    /**
+     * The version of the compiler. It is a part of the cache key, so it has to be changed whenever
+     * the compiler generates different code for the same source code.
+     */
+    public static final String VERSION = "1.17.2";
+
     private final Logger logger = new ConsoleLogger(this.getClass().getName());
+    private final CompilerOptions options;
 
     /**
-     * The number of errors detected by the lexer and parser.
+     * The cache of compiled classes, or null when the cache is disabled.
      */
-    private int errorCount = 0;
+    private final CompileCache cache;
+
+    /**
+     * Initializes a new {@link Compiler} with the default {@link CompilerOptions}.
+     */
+    public Compiler() {
+        this(new CompilerOptions());
+    }
+
+    /**
+     * Initializes a new {@link Compiler}.
+     *
+     * @param options The {@link CompilerOptions} that are used for every compilation.
+     */
+    public Compiler(CompilerOptions options) {
+        this.options = options;
+        this.cache = options.getCacheDirectory() != null
+                ? new DiskCompileCache(options.getCacheDirectory(), options.getCacheSize())
+                : null;
+    }
 
     /**
      * Main method.
@@ -31,54 +75,138 @@ public class Compiler {
      *             compile.
      */
     public static void main(String[] args) {
+        int status = run(args, Paths.get("").toAbsolutePath(), System.out, System.err);
+        if (status != 0) {
+            System.exit(status);
+        }
+    }
+
+    /**
+     * Run the compiler like {@link #main(String[])} does, but with its own working directory and output streams.
+     * This is used by the {@link CompileDaemon} to run the compiler for a {@link CompileClient}.
+     *
+     * @param args             Array of command line arguments.
+     * @param workingDirectory The directory that relative paths in the arguments are resolved against.
+     * @param out              The stream that replaces {@link System#out}.
+     * @param err              The stream that replaces {@link System#err}.
+     * @return The exit status, which is 1 when the compiler failed with an unexpected exception.
+     */
+    public static int run(String[] args, Path workingDirectory, PrintStream out, PrintStream err) {
         try {
-            Compiler compiler = new Compiler();
+            CompilerOptions options = new CompilerOptions();
+            String sourceName = null;
+            for (String arg : args) {
+                if (!options.parseArgument(arg) && sourceName == null) {
+                    sourceName = arg;
+                }
+            }
 
             // Check that the user supplied a name of the source file
-            if (args.length == 0) {
-                System.err.println("Usage: java Compiler <name of source>");
-                return;
+            if (sourceName == null) {
+                err.printf("Usage: java Compiler %s <name of source>%n", CompilerOptions.getUsage());
+                return 0;
             }
 
-            // Split the file name
-            // It first strips the extension, so that: tests/myFile.exlang becomes tests/myFile.
-            // Then, it removes everything that seems a path, so we end up with just 'myFile' as
-            // the class name.
-            Path sourceCodePath = Paths.get(args[0]);
-
-            String sourceFileName = sourceCodePath.getFileName().toString();
-            int dotIndex = sourceFileName.lastIndexOf('.');
-            String className = sourceFileName.substring(0, dotIndex == -1 ? sourceFileName.length() : dotIndex);
-
-            // Read the file and compile it.
-            JasminBytecode jasminBytecode = compiler.compileFile(sourceCodePath.toString(), className);
-            if (jasminBytecode == null) {
-                System.err.println("No Jasmin output");
-                return;
+            if (options.getCacheDirectory() != null) {
+                options.setCacheDirectory(workingDirectory.resolve(options.getCacheDirectory()));
             }
 
+            Compiler compiler = new Compiler(options);
+            Path sourceCodePath = workingDirectory.resolve(sourceName);
+
             // Determine which directory to write files to
             Path targetDirectory = sourceCodePath.getParent();
             if (targetDirectory == null) {
-                targetDirectory = Paths.get(".");
+                targetDirectory = workingDirectory;
             }
 
-            // Write Jasmin-code to a file
-            String jasminFilename = targetDirectory.resolve(className + ".j").toString();
-            jasminBytecode.writeJasminToFile(jasminFilename);
+            // Read the file, compile it and write the Jasmin code and class file.
+            if (!compiler.compileFileToDirectory(sourceCodePath, targetDirectory, err)) {
+                err.println("No Jasmin output");
+            }
 
-            // Try to assemble the Jasmin byte code and write that to a file
-            AssembledClass assembledClass = AssembledClass.assemble(jasminBytecode);
-            String classFilename = targetDirectory.resolve(className + ".class").toString();
-            assembledClass.writeClassToFile(classFilename);
+            if (compiler.getCacheStatistics() != null) {
+                out.println(compiler.getCacheStatistics());
+            }
         } catch (IOException | AssembleException e) {
-            System.err.println("Something went wrong: " + e.getMessage());
-            e.printStackTrace();
+            err.println("Something went wrong: " + e.getMessage());
+            e.printStackTrace(err);
+        } catch (RuntimeException e) {
+            // Report it the same way the JVM reports an uncaught exception, like a CompilerException.
+            err.print("Exception in thread \"main\" ");
+            e.printStackTrace(err);
+            return 1;
         }
+
+        return 0;
     }
 
     /**
-     * Compiles a complete source code file.
+     * Get the class name for a source code file.
+     * It first strips the extension, so that: tests/myFile.exlang becomes tests/myFile.
+     * Then, it removes everything that seems a path, so we end up with just 'myFile' as
+     * the class name.
+     *
+     * @param sourceCodePath Path to the source code.
+     * @return The name of the class that will be created for the source code.
+     */
+    public static String getClassName(Path sourceCodePath) {
+        String sourceFileName = sourceCodePath.getFileName().toString();
+        int dotIndex = sourceFileName.lastIndexOf('.');
+        return sourceFileName.substring(0, dotIndex == -1 ? sourceFileName.length() : dotIndex);
+    }
+
+    /**
+     * Compiles a complete source code file, and writes the Jasmin code, the assembled class file
+     * and the runtime classes that it uses to a directory. Syntax errors are printed to {@link System#err}.
+     *
+     * @param sourceCodePath  Path to the source code to compile.
+     * @param targetDirectory The directory where the .j and .class files will be written to.
+     * @return False if the compilation did not produce any Jasmin code, because of syntax errors.
+     * @throws IOException       if files could not be read or written
+     * @throws AssembleException if Jasmin code was not valid
+     */
+    public boolean compileFileToDirectory(Path sourceCodePath, Path targetDirectory)
+            throws IOException, AssembleException {
+        return compileFileToDirectory(sourceCodePath, targetDirectory, System.err);
+    }
+
+    /**
+     * Compiles a complete source code file, and writes the Jasmin code, the assembled class file
+     * and the runtime classes that it uses to a directory.
+     *
+     * @param sourceCodePath  Path to the source code to compile.
+     * @param targetDirectory The directory where the .j and .class files will be written to.
+     * @param err             The stream that the syntax errors are printed to.
+     * @return False if the compilation did not produce any Jasmin code, because of syntax errors.
+     * @throws IOException       if files could not be read or written
+     * @throws AssembleException if Jasmin code was not valid
+     */
+    public boolean compileFileToDirectory(Path sourceCodePath, Path targetDirectory, PrintStream err)
+            throws IOException, AssembleException {
+        String className = getClassName(sourceCodePath);
+
+        // Read the file and compile it.
+        JasminBytecode jasminBytecode = compileFile(sourceCodePath.toString(), className, err);
+        if (jasminBytecode == null) {
+            return false;
+        }
+
+        // Write Jasmin-code to a file
+        String jasminFilename = targetDirectory.resolve(className + ".j").toString();
+        jasminBytecode.writeJasminToFile(jasminFilename);
+
+        // Try to assemble the Jasmin byte code and write that to a file
+        AssembledClass assembledClass = AssembledClass.assemble(jasminBytecode, options.getBackend());
+        String classFilename = targetDirectory.resolve(className + ".class").toString();
+        assembledClass.writeClassToFile(classFilename);
+        assembledClass.writeRuntimeClasses(targetDirectory);
+
+        return true;
+    }
+
+    /**
+     * Compiles a complete source code file. Syntax errors are printed to {@link System#err}.
      *
      * @param inputPath Path to the source code to compile.
      * @param className Name of the class to create.
@@ -87,73 +215,216 @@ public class Compiler {
      */
     public JasminBytecode compileFile(String inputPath, String className)
             throws IOException, AssembleException {
-        return compile(CharStreams.fromFileName(inputPath), className);
+        return compileFile(inputPath, className, System.err);
     }
 
     /**
-     * Compiles a string.
+     * Compiles a complete source code file.
+     *
+     * @param inputPath Path to the source code to compile.
+     * @param className Name of the class to create.
+     * @param err       The stream that the syntax errors are printed to.
+     * @throws IOException       if files could not be read or written
+     * @throws AssembleException if Jasmin code was not valid
+     */
+    public JasminBytecode compileFile(String inputPath, String className, PrintStream err)
+            throws IOException, AssembleException {
+        return compileSource(Files.readString(Paths.get(inputPath)), inputPath, className, err);
+    }
+
+    /**
+     * Compiles a string. Syntax errors are printed to {@link System#err}.
      *
      * @param sourceCode The source code to compile.
      * @param className  Name of the class to create.
      */
     public JasminBytecode compileString(String sourceCode, String className) {
-        return compile(CharStreams.fromString(sourceCode), className);
+        return compileSource(sourceCode, IntStream.UNKNOWN_SOURCE_NAME, className, System.err);
+    }
+
+    /**
+     * Get the statistics of the compile cache.
+     *
+     * @return The {@link CacheStatistics}, or null when the cache is disabled.
+     */
+    public CacheStatistics getCacheStatistics() {
+        return cache != null ? cache.getStatistics() : null;
+    }
+
+    /**
+     * Compiles source code, or loads the compiled class from the compile cache when it is enabled.
+     * A class that is loaded from the cache has already been assembled, so the lexer, parser, visitors and
+     * assembler don't run at all.
+     *
+     * @param sourceCode The source code to compile.
+     * @param sourceName The name of the source, used by the lexer.
+     * @param className  Name of the class to create.
+     * @param err        The stream that the syntax errors are printed to.
+     */
+    private JasminBytecode compileSource(String sourceCode, String sourceName, String className, PrintStream err) {
+        if (cache == null)
+            return compile(CharStreams.fromString(sourceCode, sourceName), className, err);
+
+        String key = getCacheKey(sourceCode, className);
+        CachedClass cachedClass = cache.get(key);
+        if (cachedClass != null)
+            return JasminBytecode.fromCache(cachedClass, options.getBackend());
+
+        JasminBytecode jasminBytecode = compile(CharStreams.fromString(sourceCode, sourceName), className, err);
+        if (jasminBytecode == null)
+            return null;
+
+        try {
+            byte[] classBytes = AssembledClass.assemble(jasminBytecode, options.getBackend()).getClassBytes();
+            jasminBytecode.setClassBytes(classBytes, options.getBackend());
+            cache.put(key, new CachedClass(className, classBytes, jasminBytecode.getLines()));
+        } catch (AssembleException e) {
+            // Code that can't be assembled is not cached, the caller will get the error when it assembles the code.
+            logger.log(String.format("Not caching %s: %s", className, e.getMessage()));
+        }
+
+        return jasminBytecode;
+    }
+
+    /**
+     * Get the key of the compile cache for a source code.
+     * It is a hash of everything that changes the compiled class: the source code, the class name,
+     * the version of the compiler and the {@link CompilerOptions}.
+     *
+     * @param sourceCode The source code.
+     * @param className  The name of the class.
+     * @return The hexadecimal SHA-256 hash.
+     */
+    private String getCacheKey(String sourceCode, String className) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{VERSION, options.getCacheKey(), className}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update(sourceCode.getBytes(StandardCharsets.UTF_8));
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
      * Compiles a file. The source code is lexed (turned into tokens), parsed (a parse tree
      * created) then Jasmin code is generated and assembled into a class.
+     * All the state of the compilation is kept in a new {@link CompilationContext},
+     * so a single {@link Compiler} can be used by multiple threads at the same time.
      *
      * @param input     Stream to the source code input.
      * @param className Name of the class to create.
+     * @param err       The stream that the syntax errors are printed to.
      */
-    private JasminBytecode compile(CharStream input, String className) {
-        // Phase 1/2: Run the lexer and parser
-        ParseTree parseTree = runLexerAndParser(input);
+    private JasminBytecode compile(CharStream input, String className, PrintStream err) {
+        CompilationContext context = new CompilationContext(options);
 
-        // ANTLR tries to do its best in creating a parse tree, even if the source code contains
-        // errors. So, check if that is the case and bail out if so.
-        if (errorCount > 0)
+        // Phase 1/2: Run the lexer and parser, and lower the parse tree to an AST.
+        // Nothing refers to the parse tree and its tokens after this, so they can be garbage collected
+        // before the other phases run.
+        Ast ast = runLexerAndParser(input, context, err);
+        if (ast == null)
             return null;
 
+        context.setAst(ast);
+
         // Phase 3: Check the source code for semantic errors
-        if (!runChecker(parseTree))
+        if (!runChecker(context))
             return null;
 
         // Phase 4: Generate code
-        return generateCode(parseTree, className);
+        return generateCode(className, context);
+    }
+
+    /**
+     * Lower a parse tree to an {@link Ast}.
+     *
+     * @param parseTree The parse tree generated by the parser.
+     * @return The {@link Ast} of the parse tree.
+     */
+    private Ast lower(ParseTree parseTree) {
+        long start = System.nanoTime();
+        Ast ast = AstBuilder.build((BSharpParser.ProgramContext) parseTree);
+        float timeElapsed = System.nanoTime() - start;
+
+        logger.log(String.format("Ran %s in %.2fms.", AstBuilder.class.getSimpleName(), timeElapsed / 1000000));
+        return ast;
     }
 
     /**
      * Takes the character input and turn it into tokens according to the grammar.
      * Then, tries to form a parse tree from the given tokens. In case of errors, the error listener is
      * called, but the parser still tries to create a parse tree.
+     * A parse tree without errors is lowered to an {@link Ast}.
      *
-     * @param input The input
+     * @param input   The input
+     * @param context The {@link CompilationContext} that keeps track of the syntax errors.
+     * @param err     The stream that the syntax errors are printed to.
+     * @return The {@link Ast}, or null when the source code contains syntax errors.
+     */
+    private Ast runLexerAndParser(CharStream input, CompilationContext context, PrintStream err) {
+        ParseTree parseTree = parse(input, getErrorListener(context, err));
+
+        // ANTLR tries to do its best in creating a parse tree, even if the source code contains
+        // errors. So, check if that is the case and bail out if so.
+        if (context.getSyntaxErrorCount() > 0)
+            return null;
+
+        return lower(parseTree);
+    }
+
+    /**
+     * Parse the input in two stages.
+     * The first stage uses the fast SLL prediction and gives up at the first syntax error. Only when that happens,
+     * the tokens are parsed again with the full LL prediction, which reports all syntax errors to the listener.
+     * SLL can only fail on input that LL would accept for grammars that need the full context, so for valid input
+     * both stages result in the same parse tree.
+     *
+     * @param input         The input
+     * @param errorListener The listener that is called for every syntax error.
      * @return A parse tree
      */
-    private ParseTree runLexerAndParser(CharStream input) {
+    static ParseTree parse(CharStream input, ANTLRErrorListener errorListener) {
         BSharpLexer lexer = new BSharpLexer(input);
-        lexer.addErrorListener(getErrorListener());
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(errorListener);
         CommonTokenStream tokens = new CommonTokenStream(lexer);
 
+        // Stage 1: SLL, bail out at the first syntax error without reporting it.
         BSharpParser parser = new BSharpParser(tokens);
-        parser.addErrorListener(getErrorListener());
-        return parser.program();
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        try {
+            return parser.program();
+        } catch (ParseCancellationException e) {
+            // Stage 2: rewind and parse again with LL. The lexer does not run again, so lexer errors are only counted once.
+            tokens.seek(0);
+            parser.reset();
+            parser.addErrorListener(errorListener);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            return parser.program();
+        }
     }
 
     /**
      * Called to check if the source code was semantically correct. This method is only called when
      * there were no syntax errors.
      *
-     * @param parseTree The parse tree generated by the parser
+     * @param context The {@link CompilationContext} of the current compilation, which contains the {@link Ast}.
      * @return True if all code is semantically correct
      */
-    private boolean runChecker(ParseTree parseTree) {
+    private boolean runChecker(CompilationContext context) {
 
-        visit(new MethodDeclarationVisitor(), parseTree);
-        visit(new TypeScopeBuilder(), parseTree);
-        visit(new CodeChecker(), parseTree);
+        visit(new MethodDeclarationVisitor(context));
+        visit(new TypeScopeBuilder(context));
+        visit(new CodeChecker(context));
 
         return true;
     }
@@ -162,39 +433,90 @@ public class Compiler {
      * Generate the Jasmin code for the source code. This method is only called after checking that
      * the code is syntactically and semantically correct, so you need not check for any errors.
      *
-     * @param parseTree The parseTree to generate code for
+     * @param className Name of the class to create.
+     * @param context   The {@link CompilationContext} of the current compilation, which contains the {@link Ast}.
      * @return All Jasmin code that is generated
      */
-    private JasminBytecode generateCode(ParseTree parseTree, String className) {
+    private JasminBytecode generateCode(String className, CompilationContext context) {
         JasminBytecode jasminBytecode = new JasminBytecode(className);
 
-        // Generate code from the parse tree.
-        visit(new CodeGenerator(jasminBytecode), parseTree);
+        // Generate code from the AST.
+        visit(new ConstantFolder(context));
+        visit(new LoopInvariantFinder(context));
+        if (context.getOptions().useInlining()) {
+            visit(new InlineMethodFinder(context));
+        }
+
+        visit(new LocalSlotAllocator(context));
+        visit(new CodeGenerator(context, jasminBytecode));
+        optimizeMethods(jasminBytecode);
+        computeMaxStacks(jasminBytecode);
 
         return jasminBytecode;
     }
 
     /**
-     * Creates and returns an error listener for use in the lexer and parser that just increases
-     * the errorCount-attribute in this class so we can find out if the source code had a syntax
-     * error.
+     * Run the {@link PeepholeOptimizer} and the {@link UnreachableCodeEliminator} over the code of every method,
+     * before it is written or assembled. They run until neither changes the code, because a folded jump can make
+     * code unreachable and removed code can put a goto right before its target.
+     *
+     * @param jasminBytecode The {@link JasminBytecode} with the generated methods.
+     */
+    private void optimizeMethods(JasminBytecode jasminBytecode) {
+        long start = System.nanoTime();
+        PeepholeOptimizer optimizer = new PeepholeOptimizer();
+        for (MethodInfo method : jasminBytecode.getMethods()) {
+            optimizer.optimize(method);
+            while (UnreachableCodeEliminator.eliminate(method)) {
+                optimizer.optimize(method);
+            }
+        }
+        float timeElapsed = System.nanoTime() - start;
+
+        logger.log(String.format("Ran %s and %s in %.2fms.", PeepholeOptimizer.class.getSimpleName(),
+                UnreachableCodeEliminator.class.getSimpleName(), timeElapsed / 1000000));
+        logger.log(String.format("Peephole rule hits: %s", optimizer.getHits()));
+    }
+
+    /**
+     * Set the max stack size of every method to the exact amount of stack slots that its generated code uses.
+     *
+     * @param jasminBytecode The {@link JasminBytecode} with the generated methods.
+     */
+    private void computeMaxStacks(JasminBytecode jasminBytecode) {
+        long start = System.nanoTime();
+        for (MethodInfo method : jasminBytecode.getMethods()) {
+            method.setMaxs(StackAnalyzer.computeMaxStack(method.getCode()), method.getMaxLocals());
+        }
+        float timeElapsed = System.nanoTime() - start;
+
+        logger.log(String.format("Ran %s in %.2fms.", StackAnalyzer.class.getSimpleName(), timeElapsed / 1000000));
+    }
+
+    /**
+     * Creates and returns an error listener for use in the lexer and parser that prints the syntax error, like the
+     * {@link ConsoleErrorListener} of ANTLR, and increases the syntax error count of the {@link CompilationContext}
+     * so we can find out if the source code had a syntax error.
      *
+     * @param context The {@link CompilationContext} of the current compilation.
+     * @param err     The stream that the syntax errors are printed to.
      * @return An error listener for use with lexer.addErrorListener() and parser.addErrorListener()
      */
-    private ANTLRErrorListener getErrorListener() {
+    private ANTLRErrorListener getErrorListener(CompilationContext context, PrintStream err) {
         return new BaseErrorListener() {
             @Override
             public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol,
                                     int line, int charPositionInLine,
                                     String msg, RecognitionException e) {
-                errorCount++;
+                err.println("line " + line + ":" + charPositionInLine + " " + msg);
+                context.addSyntaxError();
             }
         };
     }
 
-    private <T extends BSharpVisitor<G>, G> void visit(T visitor, ParseTree parseTree) {
+    private <T extends BSharpVisitor<G>, G> void visit(T visitor) {
         long start = System.nanoTime();
-        visitor.visit(parseTree);
+        visitor.visit();
         long finish = System.nanoTime();
         float timeElapsed = finish - start;
 
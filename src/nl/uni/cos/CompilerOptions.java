@@ -0,0 +1,179 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Models.Backend;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The options that change how the {@link Compiler} compiles source code.
+ */
+public class CompilerOptions {
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private Backend backend = Backend.DIRECT;
+    private boolean useStaticMethods = true;
+    private boolean useStrengthReduction = true;
+    private boolean useInlining = true;
+    private boolean useBufferedOutput = false;
+    private Long seed = null;
+    private Path cacheDirectory = null;
+    private long cacheSize = 256 * MEGABYTE;
+
+    /**
+     * Apply a command line option.
+     *
+     * @param argument The command line argument.
+     * @return True if the argument was a known option, false if it is something else, like a file name.
+     */
+    public boolean parseArgument(String argument) {
+        if (argument.startsWith("--cache=")) {
+            cacheDirectory = Paths.get(argument.substring("--cache=".length()));
+            return true;
+        }
+
+        if (argument.startsWith("--cache-size=")) {
+            cacheSize = Long.parseLong(argument.substring("--cache-size=".length())) * MEGABYTE;
+            return true;
+        }
+
+        if (argument.startsWith("--seed=")) {
+            seed = Long.parseLong(argument.substring("--seed=".length()));
+            return true;
+        }
+
+        switch (argument) {
+            case "--jasmin" -> backend = Backend.JASMIN;
+            case "--direct" -> backend = Backend.DIRECT;
+            case "--static" -> useStaticMethods = true;
+            case "--instance" -> useStaticMethods = false;
+            case "--strength-reduction" -> useStrengthReduction = true;
+            case "--no-strength-reduction" -> useStrengthReduction = false;
+            case "--inline" -> useInlining = true;
+            case "--no-inline" -> useInlining = false;
+            case "--buffered-output" -> useBufferedOutput = true;
+            case "--no-buffered-output" -> useBufferedOutput = false;
+            default -> {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The usage text of all the command line options.
+     */
+    public static String getUsage() {
+        return "[--direct | --jasmin] [--static | --instance] [--strength-reduction | --no-strength-reduction] "
+                + "[--inline | --no-inline] [--buffered-output | --no-buffered-output] [--seed=<seed>] [--cache=<directory>] [--cache-size=<megabytes>]";
+    }
+
+    /**
+     * A stable representation of all the options that change the compiled class, used as part of the cache key.
+     * Options that do not change the compiled class, like the cache options themselves, are left out.
+     */
+    public String getCacheKey() {
+        return "backend=" + backend + ";static=" + useStaticMethods + ";strengthReduction=" + useStrengthReduction
+                + ";inline=" + useInlining + ";bufferedOutput=" + useBufferedOutput + ";seed=" + seed;
+    }
+
+    public Backend getBackend() {
+        return backend;
+    }
+
+    public CompilerOptions setBackend(Backend backend) {
+        this.backend = backend;
+        return this;
+    }
+
+    /**
+     * Whether the BSharp methods are compiled as static methods, instead of instance methods of the generated class.
+     * BSharp has no instance state, so static methods save the allocation of the instance and the receiver of
+     * every call.
+     */
+    public boolean useStaticMethods() {
+        return useStaticMethods;
+    }
+
+    public CompilerOptions setUseStaticMethods(boolean useStaticMethods) {
+        this.useStaticMethods = useStaticMethods;
+        return this;
+    }
+
+    /**
+     * Whether int multiplications, divisions and remainders by constants are replaced with cheaper instructions,
+     * see {@link nl.uni.cos.Bytecode.StrengthReducer}.
+     */
+    public boolean useStrengthReduction() {
+        return useStrengthReduction;
+    }
+
+    public CompilerOptions setUseStrengthReduction(boolean useStrengthReduction) {
+        this.useStrengthReduction = useStrengthReduction;
+        return this;
+    }
+
+    /**
+     * Whether the calls of small methods are replaced with the code of the method,
+     * see {@link nl.uni.cos.Visitors.InlineMethodFinder}.
+     */
+    public boolean useInlining() {
+        return useInlining;
+    }
+
+    public CompilerOptions setUseInlining(boolean useInlining) {
+        this.useInlining = useInlining;
+        return this;
+    }
+
+    /**
+     * Whether WriteLine writes to the buffer of {@link nl.uni.cos.Runtime.ConsoleOutput}, that is written to the
+     * console when it is full and when the program ends, instead of printing every line to {@link System#out}.
+     */
+    public boolean useBufferedOutput() {
+        return useBufferedOutput;
+    }
+
+    public CompilerOptions setUseBufferedOutput(boolean useBufferedOutput) {
+        this.useBufferedOutput = useBufferedOutput;
+        return this;
+    }
+
+    /**
+     * The seed of the generator of RandomInt, so every run of the program picks the same numbers,
+     * or null when the generator is seeded from the clock.
+     */
+    public Long getSeed() {
+        return seed;
+    }
+
+    public CompilerOptions setSeed(Long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * The directory of the compile cache, or null when the cache is disabled.
+     */
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    public CompilerOptions setCacheDirectory(Path cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+        return this;
+    }
+
+    /**
+     * The maximum size of the compile cache in bytes.
+     */
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public CompilerOptions setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+}
@@ -1,181 +1,162 @@
 package nl.uni.cos;
 
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.JasminWriter;
+import nl.uni.cos.Bytecode.MethodInfo;
+import nl.uni.cos.Models.Backend;
+import nl.uni.cos.Models.CachedClass;
+
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 public class JasminBytecode {
     /**
-     * After successful compilation, this contains all Jasmin commands.
+     * After successful compilation, this contains all methods and their {@link InstructionList}.
      */
-    private final LinkedList<String> jasminCode;
+    private final ArrayList<MethodInfo> methods = new ArrayList<>();
 
     /**
      * Name of the compiled class
      */
     private final String className;
 
+    private String superName = "java/lang/Object";
+
     /**
-     * The {@link StringBuilder} that will build a single line.
+     * The class file version of the Jasmin text. Jasmin can't write StackMapTable frames, so the class files of
+     * the {@link Backend#JASMIN} backend stay on a version that is checked by the type inferencing verifier.
      */
-    private final StringBuilder lineBuilder = new StringBuilder();
+    private int majorVersion = 49, minorVersion = 0;
 
     /**
-     * Create an instance with an empty list of Jasmin lines.
+     * The rendered Jasmin lines of a class that has been loaded from a compile cache, otherwise null.
      */
-    public JasminBytecode(String className) {
-        this.className = className;
-        this.jasminCode = new LinkedList<>();
-    }
+    private List<String> cachedLines = null;
 
     /**
-     * Create an instance that keeps track of the compiled Jasmin code. You can
-     * pass this to AssembledClass::assemble() to actually build a class file
-     * from this.
-     *
-     * @param className  The name of the class that was compiled.
-     * @param jasminCode A list of Jasmin instructions.
+     * The class file that has already been assembled from this code, and the {@link Backend} that assembled it.
      */
-    public JasminBytecode(String className, List<String> jasminCode) {
-        this.className = className;
-        this.jasminCode = new LinkedList<>(jasminCode);
-    }
+    private byte[] classBytes = null;
+    private Backend classBackend = null;
 
     /**
-     * Add an empty line to this byte code.
+     * Create an instance without any methods.
      */
-    public JasminBytecode add() {
-        return add("");
+    public JasminBytecode(String className) {
+        this.className = className;
     }
 
     /**
-     * Add a line of Jasmin code.
+     * Create an instance for a class that has been loaded from a compile cache.
+     * It has no methods, only the Jasmin lines and the assembled class file.
      *
-     * @param line A single line of Jasmin code.
-     * @return A reference to this object, so that you can chain calls to add like this:
-     * <pre>
-     *              jasminCode.add( "ldc 3" )
-     *                        .add( "ldc 5" )
-     *                        .add( "iadd" );
-     *              </pre>
+     * @param cachedClass The {@link CachedClass} that has been loaded.
+     * @param backend     The {@link Backend} that assembled the class file.
      */
-    public JasminBytecode add(String line) {
-        jasminCode.add(line);
-        return this;
+    public static JasminBytecode fromCache(CachedClass cachedClass, Backend backend) {
+        JasminBytecode jasminBytecode = new JasminBytecode(cachedClass.className());
+        jasminBytecode.cachedLines = cachedClass.jasminLines();
+        jasminBytecode.setClassBytes(cachedClass.classBytes(), backend);
+        return jasminBytecode;
     }
 
     /**
-     * Add text to the current line that is being build.
+     * Add a method to the class.
      *
-     * @param text The text that will be added to the current line.
-     * @return A reference to this object, so that you can chain calls to add like this:
-     * <pre>
-     *              jasminCode.addText( ".method public static" )
-     *                        .addText( "main" )
-     *                        .addText( "(" )
-     *                        .addText( "[Ljava/lang/String" )
-     *                        .addText( ")" )
-     *                        .addText( "V" );
-     *              </pre>
+     * @param accessFlags The access flags of the method, see {@link nl.uni.cos.Bytecode.ClassFileWriter}.
+     * @param name        The name of the method.
+     * @param descriptor  The descriptor of the method, for example (I)V.
+     * @return The {@link MethodInfo} that the code of the method is added to.
      */
-    public JasminBytecode appendText(String text) {
-        lineBuilder.append(text);
-        return this;
+    public MethodInfo addMethod(int accessFlags, String name, String descriptor) {
+        MethodInfo method = new MethodInfo(accessFlags, name, descriptor);
+        methods.add(method);
+        return method;
     }
 
     /**
-     * Add a character to the current line that is being build.
+     * Write the jasmin byte code (in text form) to a file. You can use this to
+     * debug your code.
      *
-     * @param character The character that will be added to the current line.
-     * @return A reference to this object, so that you can chain calls to add like this:
-     * <pre>
-     *              jasminCode.addText( ".method public static" )
-     *                        .addText( "main" )
-     *                        .addText( "(" )
-     *                        .addText( "[Ljava/lang/String" )
-     *                        .addText( ")" )
-     *                        .addText( "V" );
-     *              </pre>
+     * @param jasminFileName Path to write the Jasmin code to.
+     * @throws IOException if the file could not be written, e.g. because of
+     *                     security rights.
      */
-    public JasminBytecode appendText(char character) {
-        lineBuilder.append(character);
-        return this;
+    public void writeJasminToFile(String jasminFileName) throws IOException {
+        PrintWriter jasminOut = new PrintWriter(new FileWriter(jasminFileName));
+        for (String line : getLines())
+            jasminOut.println(line);
+        jasminOut.close();
     }
 
-    /**
-     * Add a number to the current line that is being build.
-     *
-     * @param num The number that will be added to the current line.
-     * @return A reference to this object, so that you can chain calls to add like this:
-     * <pre>
-     *              jasminCode.addText( ".method public static" )
-     *                        .addText( "main" )
-     *                        .addText( "(" )
-     *                        .addText( "[Ljava/lang/String" )
-     *                        .addText( ")" )
-     *                        .addText( "V" );
-     *              </pre>
-     */
-    public JasminBytecode appendText(int num) {
-        lineBuilder.append(num);
-        return this;
+    public String getClassName() {
+        return className;
+    }
+
+    public String getSuperName() {
+        return superName;
+    }
+
+    public void setSuperName(String superName) {
+        this.superName = superName;
+    }
+
+    public int getMajorVersion() {
+        return majorVersion;
+    }
+
+    public int getMinorVersion() {
+        return minorVersion;
+    }
+
+    public void setVersion(int majorVersion, int minorVersion) {
+        this.majorVersion = majorVersion;
+        this.minorVersion = minorVersion;
     }
 
     /**
-     * Build the current line.
+     * Whether this code has been loaded from a compile cache, in which case there are no methods.
      */
-    public void buildLine() {
-        add(lineBuilder.toString());
-        lineBuilder.setLength(0);
+    public boolean isFromCache() {
+        return cachedLines != null;
     }
 
     /**
-     * Add a whole number of lines to this JasminBytecode.
-     * Pro-tip: you can also use this to combine two JasminBytecode instances:
-     * <pre>
-     *     jasminCode1.addAll( jasminCode2.getLines() );
-     * </pre>
+     * Get the class file that has already been assembled by a {@link Backend}.
      *
-     * @param lines The lines to add.
-     * @return A reference to this object, so you can chain calls.
-     * @see #add(String)
+     * @param backend The {@link Backend}.
+     * @return The bytes of the class file, or null when it has not been assembled by that {@link Backend}.
      */
-    public JasminBytecode addAll(List<String> lines) {
-        jasminCode.addAll(lines);
-        return this;
-    }
-
-    public JasminBytecode addScannerInit() {
-        jasminCode.add("new java/util/Scanner");
-        jasminCode.add("dup");
-        jasminCode.add("getstatic java/lang/System.in Ljava/io/InputStream;");
-        jasminCode.add("invokespecial java/util/Scanner.<init>(Ljava/io/InputStream;)V");
-
-        return this;
+    public byte[] getClassBytes(Backend backend) {
+        return backend == classBackend ? classBytes : null;
     }
 
     /**
-     * Write the jasmin byte code (in text form) to a file. You can use this to
-     * debug your code.
+     * Keep the class file that has been assembled from this code.
      *
-     * @param jasminFileName Path to write the Jasmin code to.
-     * @throws IOException if the file could not be written, e.g. because of
-     *                     security rights.
+     * @param classBytes The bytes of the class file.
+     * @param backend    The {@link Backend} that assembled the class file.
      */
-    public void writeJasminToFile(String jasminFileName) throws IOException {
-        PrintWriter jasminOut = new PrintWriter(new FileWriter(jasminFileName));
-        for (String line : jasminCode)
-            jasminOut.println(line);
-        jasminOut.close();
+    public void setClassBytes(byte[] classBytes, Backend backend) {
+        this.classBytes = classBytes;
+        this.classBackend = backend;
     }
 
-    public String getClassName() {
-        return className;
+    public List<MethodInfo> getMethods() {
+        return methods;
     }
 
+    /**
+     * Render the code as Jasmin text.
+     * The lines are rendered every time this is called, so only use it when the text is needed.
+     */
     public List<String> getLines() {
-        return jasminCode;
+        if (cachedLines != null)
+            return cachedLines;
+
+        return JasminWriter.render(this);
     }
 }
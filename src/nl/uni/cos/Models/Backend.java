@@ -0,0 +1,16 @@
+package nl.uni.cos.Models;
+
+/**
+ * The backends that can turn the generated code into a class file.
+ */
+public enum Backend {
+    /**
+     * Writes the class file straight from the generated code.
+     */
+    DIRECT,
+    /**
+     * Merges the generated code into Jasmin text, and lets Jasmin parse and assemble it.
+     * This is slower, but useful for debugging the generated Jasmin code.
+     */
+    JASMIN
+}
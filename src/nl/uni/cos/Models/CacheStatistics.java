@@ -0,0 +1,18 @@
+package nl.uni.cos.Models;
+
+/**
+ * The statistics of a {@link nl.uni.cos.Services.CompileCache}.
+ * <p>
+ * {@link #hits} The amount of lookups that found a compiled class.
+ * {@link #misses} The amount of lookups that did not find a compiled class.
+ * {@link #writes} The amount of compiled classes that have been stored.
+ * {@link #evictions} The amount of compiled classes that have been removed to stay within the size bound.
+ */
+public record CacheStatistics(long hits, long misses, long writes, long evictions) {
+    @Override
+    public String toString() {
+        long lookups = hits + misses;
+        return String.format("Cache: %s hits, %s misses (%.1f%% hit rate), %s writes, %s evictions.",
+                hits, misses, lookups > 0 ? hits * 100f / lookups : 0, writes, evictions);
+    }
+}
@@ -0,0 +1,13 @@
+package nl.uni.cos.Models;
+
+import java.util.List;
+
+/**
+ * A compiled class that is stored in a {@link nl.uni.cos.Services.CompileCache}.
+ * <p>
+ * {@link #className} The name of the compiled class.
+ * {@link #classBytes} The bytes of the assembled class file.
+ * {@link #jasminLines} The lines of the Jasmin code of the class.
+ */
+public record CachedClass(String className, byte[] classBytes, List<String> jasminLines) {
+}
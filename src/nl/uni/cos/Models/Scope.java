@@ -1,7 +1,5 @@
 package nl.uni.cos.Models;
 
-import org.antlr.v4.runtime.tree.TerminalNode;
-
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -9,7 +7,12 @@ import java.util.List;
 public class Scope {
     private final HashMap<String, Symbol> symbols = new HashMap<>();
     private final Scope parent;
-    private int maxLocalsSize = 0, maxStackSize = 0, currentStackSize = 0;
+    private int maxLocalsSize = 0;
+    /**
+     * The first local slot that is not used by a variable of this scope or one of its parents.
+     * The variables of sibling scopes are never alive at the same time, so they start at the same slot.
+     */
+    private int nextLocalSlot;
     private boolean hasReturnStatement = false;
 
     /**
@@ -19,16 +22,7 @@ public class Scope {
      */
     public Scope(Scope parent) {
         this.parent = parent;
-    }
-
-    /**
-     * Try to find a {@link Symbol}.
-     *
-     * @param name The {@link TerminalNode} containing the name of the {@link Symbol}.
-     * @return The {@link Symbol} that has been found or null.
-     */
-    public Symbol findSymbol(TerminalNode name) {
-        return findSymbol(name.getText());
+        this.nextLocalSlot = parent != null ? parent.nextLocalSlot : 0;
     }
 
     /**
@@ -48,17 +42,6 @@ public class Scope {
         return parent.findSymbol(name);
     }
 
-    /**
-     * Count the amount of {@link Symbol} with a specific name.
-     *
-     * @param name The {@link TerminalNode} containing the name of the {@link Symbol}.
-     * @return The amount of {@link Symbol}s with the provided name.
-     */
-    public int countSymbol(TerminalNode name) {
-        return countSymbol(name.getText());
-    }
-
-
     /**
      * Count the amount of {@link Symbol} with a specific name.
      *
@@ -83,13 +66,7 @@ public class Scope {
      * @return The new child {@link Scope}.
      */
     public Scope enterScope() {
-        Scope childScope = new Scope(this);
-
-        // Don't pass down the max stack size
-        if (parent != null)
-            childScope.setMaxStackSize(maxStackSize);
-
-        return childScope;
+        return new Scope(this);
     }
 
     /**
@@ -98,44 +75,20 @@ public class Scope {
      * @return The parent {@link Scope}.
      */
     public Scope leaveScope() {
-        if (parent != null) {
-            if (maxStackSize > parent.getMaxStackSize())
-                parent.setMaxStackSize(maxStackSize);
-
-            if (findAvailableLocalSlot() > parent.getMaxLocalsSize())
-                parent.setMaxLocalsSize(findAvailableLocalSlot());
+        if (parent != null && maxLocalsSize > parent.getMaxLocalsSize()) {
+            parent.setMaxLocalsSize(maxLocalsSize);
         }
 
         return parent;
     }
 
-    /**
-     * Find an available local slot on the stack.
-     *
-     * @return An available local slot position.
-     */
-    public int findAvailableLocalSlot() {
-        int currentScopeSize = 0;
-
-        for (Symbol symbol : symbols.values()) {
-            if (symbol instanceof VarSymbol)
-                currentScopeSize++;
-        }
-
-        if (parent != null) {
-            currentScopeSize += parent.findAvailableLocalSlot();
-        }
-
-        return currentScopeSize;
-    }
-
     /**
      * Add a {@link MethodSymbol} to the {@link #symbols} table.
      *
      * @param identifier The identifier for the {@link MethodSymbol}.
      * @param type       The {@link DataType} of the {@link MethodSymbol}.
      */
-    public void addMethod(TerminalNode identifier, DataType type) {
+    public void addMethod(String identifier, DataType type) {
         addMethod(identifier, type, new ArrayList<>());
     }
 
@@ -146,7 +99,7 @@ public class Scope {
      * @param type       The {@link DataType} of the {@link MethodSymbol}.
      * @param arg        The parameter {@link DataType} for the {@link MethodSymbol}.
      */
-    public void addMethod(TerminalNode identifier, DataType type, DataType arg) {
+    public void addMethod(String identifier, DataType type, DataType arg) {
         ArrayList<DataType> args = new ArrayList<>();
         args.add(arg);
 
@@ -160,19 +113,8 @@ public class Scope {
      * @param type       The {@link DataType} of the {@link MethodSymbol}.
      * @param args       The {@link List} of parameter {@link DataType}s for the {@link MethodSymbol}.
      */
-    public void addMethod(TerminalNode identifier, DataType type, List<DataType> args) {
-        addSymbol(new MethodSymbol(identifier.getText(), type, args));
-    }
-
-    /**
-     * Add a new {@link VarSymbol} to the {@link #symbols} table.
-     *
-     * @param identifier    The {@link TerminalNode} identifier of the {@link VarSymbol}.
-     * @param type          The {@link DataType} of the {@link VarSymbol}.
-     * @param isInitialized Whether the {@link VarSymbol} is initialized.
-     */
-    public void addVar(TerminalNode identifier, DataType type, boolean isInitialized) {
-        addVar(identifier.getText(), type, isInitialized);
+    public void addMethod(String identifier, DataType type, List<DataType> args) {
+        addSymbol(new MethodSymbol(identifier, type, args));
     }
 
     /**
@@ -183,7 +125,9 @@ public class Scope {
      * @param isInitialized Whether the {@link VarSymbol} is initialized.
      */
     public void addVar(String identifier, DataType type, boolean isInitialized) {
-        addSymbol(new VarSymbol(identifier, type, findAvailableLocalSlot(), isInitialized));
+        addSymbol(new VarSymbol(identifier, type, nextLocalSlot++, isInitialized));
+        if (nextLocalSlot > maxLocalsSize)
+            maxLocalsSize = nextLocalSlot;
     }
 
     /**
@@ -208,32 +152,6 @@ public class Scope {
         this.hasReturnStatement = hasReturnStatement;
     }
 
-    public void incrementStack(int amount) {
-        currentStackSize += amount;
-        if (currentStackSize > maxStackSize)
-            maxStackSize = currentStackSize;
-    }
-
-    public void incrementStack() {
-        incrementStack(1);
-    }
-
-    public void decrementStack(int amount) {
-        currentStackSize -= amount;
-    }
-
-    public void decrementStack() {
-        decrementStack(1);
-    }
-
-    public int getMaxStackSize() {
-        return maxStackSize;
-    }
-
-    public void setMaxStackSize(int maxStackSize) {
-        this.maxStackSize = maxStackSize;
-    }
-
     public int getMaxLocalsSize() {
         return maxLocalsSize;
     }
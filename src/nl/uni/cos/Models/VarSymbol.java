@@ -1,7 +1,7 @@
 package nl.uni.cos.Models;
 
 public class VarSymbol extends Symbol {
-    private final int localSlot;
+    private int localSlot;
     private boolean isInitialized;
 
     /**
@@ -22,6 +22,10 @@ public class VarSymbol extends Symbol {
         return localSlot;
     }
 
+    public void setLocalSlot(int localSlot) {
+        this.localSlot = localSlot;
+    }
+
     public boolean isInitialized() {
         return isInitialized;
     }
@@ -0,0 +1,251 @@
+package nl.uni.cos.Runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the console input of a compiled BSharp program. The generated code calls the static methods of this class
+ * for ReadConsoleInt, ReadConsoleFloat, ReadConsoleBool and ReadConsoleLine.
+ * <p>
+ * All reads share one buffer over {@link System#in}, so a read never loses the input that an earlier read already
+ * buffered, like a new {@link java.util.Scanner} per read did. The tokens are parsed from the bytes directly, without
+ * regular expressions. Like a {@link java.util.Scanner}, tokens are separated by whitespace and a read at the end of
+ * the input throws a {@link NoSuchElementException}, and a token of the wrong type throws an
+ * {@link InputMismatchException}.
+ * <p>
+ * Unlike a {@link java.util.Scanner}, numbers are read without the rules of the default locale. A Scanner in the
+ * en_US locale reads "1,000" as 1000 and "1,000.5" as 1000.5, and in a locale like de_DE it reads "1,5" as 1.5.
+ * This class only accepts a '.' as decimal separator and no grouping separators, so a program reads the same input
+ * in every locale, in the same format that WriteLine prints numbers in.
+ */
+public final class ConsoleInput {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The powers of ten that are exactly representable as a float.
+     */
+    private static final float[] POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    /**
+     * The stream that the buffer was filled from. The buffer is replaced when {@link System#setIn} is called.
+     */
+    private static InputStream in;
+    private static byte[] buffer;
+    private static int position;
+    private static int limit;
+
+    /**
+     * The bytes of the current token.
+     */
+    private static byte[] token = new byte[64];
+    private static int tokenLength;
+
+    private ConsoleInput() {
+    }
+
+    /**
+     * Read the next token as an int, without grouping separators.
+     */
+    public static int readInt() {
+        readToken();
+
+        int index = 0;
+        boolean isNegative = token[0] == '-';
+        if (isNegative || token[0] == '+') {
+            index++;
+        }
+
+        if (index == tokenLength)
+            throw mismatch();
+
+        // Accumulate the negative value, because it can hold the smallest int.
+        int value = 0;
+        for (; index < tokenLength; index++) {
+            int digit = token[index] - '0';
+            if (digit < 0 || digit > 9 || value < (Integer.MIN_VALUE + digit) / 10)
+                throw mismatch();
+
+            value = value * 10 - digit;
+        }
+
+        if (!isNegative) {
+            if (value == Integer.MIN_VALUE)
+                throw mismatch();
+
+            value = -value;
+        }
+
+        return value;
+    }
+
+    /**
+     * Read the next token as a float, with a '.' as decimal separator and without grouping separators.
+     */
+    public static float readFloat() {
+        readToken();
+
+        // Digits with a fraction fit in a float and a power of ten, so dividing them is rounded correctly.
+        int index = token[0] == '-' || token[0] == '+' ? 1 : 0;
+        int mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (int i = index; i < tokenLength; i++) {
+            byte character = token[i];
+            if (character == '.' && fractionDigits == -1) {
+                fractionDigits = 0;
+                continue;
+            }
+
+            if (character < '0' || character > '9' || ++digits > 7) {
+                return parseFloat();
+            }
+
+            mantissa = mantissa * 10 + character - '0';
+            if (fractionDigits != -1) {
+                fractionDigits++;
+            }
+        }
+
+        if (digits == 0)
+            throw mismatch();
+
+        float value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return token[0] == '-' ? -value : value;
+    }
+
+    /**
+     * Read the next token as a bool, true or false in any case.
+     */
+    public static boolean readBool() {
+        readToken();
+
+        if (isToken("true"))
+            return true;
+
+        if (isToken("false"))
+            return false;
+
+        throw mismatch();
+    }
+
+    /**
+     * Read the rest of the current line, without the line separator.
+     */
+    public static String readLine() {
+        if (!fill())
+            throw new NoSuchElementException("No line found");
+
+        tokenLength = 0;
+        while (fill()) {
+            byte character = buffer[position++];
+            if (character == '\n')
+                break;
+
+            if (character == '\r') {
+                if (fill() && buffer[position] == '\n') {
+                    position++;
+                }
+
+                break;
+            }
+
+            appendToToken(character);
+        }
+
+        return new String(token, 0, tokenLength);
+    }
+
+    /**
+     * Read the next token that is separated by whitespace.
+     */
+    private static void readToken() {
+        while (fill() && isWhitespace(buffer[position])) {
+            position++;
+        }
+
+        if (!fill())
+            throw new NoSuchElementException();
+
+        tokenLength = 0;
+        while (fill() && !isWhitespace(buffer[position])) {
+            appendToToken(buffer[position++]);
+        }
+    }
+
+    private static void appendToToken(byte character) {
+        if (tokenLength == token.length) {
+            byte[] larger = new byte[token.length * 2];
+            System.arraycopy(token, 0, larger, 0, tokenLength);
+            token = larger;
+        }
+
+        token[tokenLength++] = character;
+    }
+
+    /**
+     * Make sure that the buffer contains at least one byte.
+     *
+     * @return False at the end of the input.
+     */
+    private static boolean fill() {
+        if (in != System.in) {
+            in = System.in;
+            buffer = new byte[BUFFER_SIZE];
+            position = 0;
+            limit = 0;
+        }
+
+        if (position < limit)
+            return true;
+
+        try {
+            int read = in.read(buffer, 0, buffer.length);
+            position = 0;
+            limit = Math.max(read, 0);
+            return read > 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isWhitespace(byte character) {
+        return character == ' ' || character >= '\t' && character <= '\r' || character >= 0x1C && character <= 0x1F;
+    }
+
+    private static boolean isToken(String text) {
+        if (tokenLength != text.length())
+            return false;
+
+        for (int i = 0; i < tokenLength; i++) {
+            if (Character.toLowerCase(token[i]) != text.charAt(i))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Parse the float tokens that don't fit in the fast path, like exponents, NaN and long fractions.
+     */
+    private static float parseFloat() {
+        String text = new String(token, 0, tokenLength);
+        // Float.parseFloat also accepts hexadecimal numbers and a trailing type suffix, a Scanner doesn't.
+        char last = text.charAt(text.length() - 1);
+        if (last != 'N' && last != 'y' && (last < '0' || last > '9') && last != '.'
+                || text.indexOf('x') != -1 || text.indexOf('X') != -1)
+            throw mismatch();
+
+        try {
+            return Float.parseFloat(text);
+        } catch (NumberFormatException e) {
+            throw mismatch();
+        }
+    }
+
+    private static InputMismatchException mismatch() {
+        return new InputMismatchException(String.format("For input string: \"%s\"", new String(token, 0, tokenLength)));
+    }
+}
@@ -0,0 +1,216 @@
+package nl.uni.cos.Runtime;
+
+import java.io.PrintStream;
+
+/**
+ * Writes the console output of a compiled BSharp program that was compiled with buffered output. The generated code
+ * calls the static methods of this class for WriteLine, instead of {@link PrintStream#println} of {@link System#out}.
+ * <p>
+ * The values are encoded straight into one reusable byte buffer, without building a string first, and the buffer is
+ * only written to {@link System#out} when it is full, before the program reads the console, when the program ends
+ * and when the JVM shuts down, so the output is also written when the program ends with an exception. The output is
+ * exactly the same as println would have written. Text with characters that are not ASCII is written by
+ * {@link PrintStream#print}, so it is encoded with the charset of the stream. BSharp programs are single threaded, so
+ * the buffer is not synchronized.
+ */
+public final class ConsoleOutput {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+    private static final boolean IS_NEWLINE_SEPARATOR = System.lineSeparator().equals("\n");
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] MIN_INT = {'-', '2', '1', '4', '7', '4', '8', '3', '6', '4', '8'};
+
+    /**
+     * The buffer is flushed before a write when it is filled past this position, so the smallest int followed by
+     * ".0" and a line separator always fits.
+     */
+    private static final int NUMBER_LIMIT = BUFFER_SIZE - 16;
+
+    private static final byte[] buffer = new byte[BUFFER_SIZE];
+    private static int position;
+
+    /**
+     * The stream that the buffer is written to. The buffer is flushed to it when {@link System#setOut} is called.
+     */
+    private static PrintStream out;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(ConsoleOutput::flush));
+    }
+
+    private ConsoleOutput() {
+    }
+
+    /**
+     * Write an int and a line separator.
+     */
+    public static void writeLine(int value) {
+        prepare();
+        writeInt(value);
+        writeLineSeparator();
+    }
+
+    /**
+     * Write a float and a line separator, like {@link Float#toString(float)}.
+     */
+    public static void writeLine(float value) {
+        // Whole numbers below 10^7 are written as the number with ".0", larger numbers get an exponent.
+        int whole = (int) value;
+        if (whole == value && Math.abs(whole) < 10_000_000 && Float.floatToRawIntBits(value) != 0x80000000) {
+            prepare();
+            writeInt(whole);
+            buffer[position++] = '.';
+            buffer[position++] = '0';
+            writeLineSeparator();
+        } else {
+            writeLine(Float.toString(value));
+        }
+    }
+
+    /**
+     * Write a bool and a line separator.
+     */
+    public static void writeLine(boolean value) {
+        prepare();
+        byte[] text = value ? TRUE : FALSE;
+        System.arraycopy(text, 0, buffer, position, text.length);
+        position += text.length;
+        writeLineSeparator();
+    }
+
+    /**
+     * Write a char and a line separator.
+     */
+    public static void writeLine(char value) {
+        if (value >= 0x80) {
+            writeLine(String.valueOf(value));
+            return;
+        }
+
+        prepare();
+        buffer[position++] = (byte) value;
+        writeLineSeparator();
+    }
+
+    /**
+     * Write a string and a line separator.
+     */
+    public static void writeLine(String value) {
+        prepare();
+        writeText(String.valueOf(value));
+        if (position > NUMBER_LIMIT) {
+            flushBuffer();
+        }
+
+        writeLineSeparator();
+    }
+
+    /**
+     * Write the lines of the constant WriteLines that the compiler merged into one string.
+     *
+     * @param lines The text of the lines, every line ends with a '\n', that is replaced with the line separator.
+     */
+    public static void writeLines(String lines) {
+        prepare();
+        if (IS_NEWLINE_SEPARATOR) {
+            writeText(lines);
+            return;
+        }
+
+        int start = 0;
+        for (int end = lines.indexOf('\n'); end != -1; end = lines.indexOf('\n', start)) {
+            writeText(lines.substring(start, end));
+            if (position > NUMBER_LIMIT) {
+                flushBuffer();
+            }
+
+            writeLineSeparator();
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Write the buffered output to {@link System#out}.
+     */
+    public static void flush() {
+        if (position > 0) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Switch to the current {@link System#out} and make sure that a number fits in the buffer.
+     */
+    private static void prepare() {
+        if (out != System.out) {
+            flush();
+            out = System.out;
+        }
+
+        if (position > NUMBER_LIMIT) {
+            flushBuffer();
+        }
+    }
+
+    private static void flushBuffer() {
+        out.write(buffer, 0, position);
+        out.flush();
+        position = 0;
+    }
+
+    private static void writeInt(int value) {
+        if (value == Integer.MIN_VALUE) {
+            System.arraycopy(MIN_INT, 0, buffer, position, MIN_INT.length);
+            position += MIN_INT.length;
+            return;
+        }
+
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+
+        int digits = 1;
+        for (int limit = 10; digits < 10 && value >= limit; limit *= 10) {
+            digits++;
+        }
+
+        // Write the digits from the last to the first.
+        position += digits;
+        int index = position;
+        do {
+            buffer[--index] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    /**
+     * Copy text to the buffer, flushing it when it is full.
+     */
+    private static void writeText(String text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // The stream encodes the rest of the text, after the output before it.
+                flush();
+                out.print(text.substring(i));
+                return;
+            }
+
+            if (position == BUFFER_SIZE) {
+                flushBuffer();
+            }
+
+            buffer[position++] = (byte) c;
+        }
+    }
+
+    private static void writeLineSeparator() {
+        for (byte b : LINE_SEPARATOR) {
+            buffer[position++] = b;
+        }
+    }
+}
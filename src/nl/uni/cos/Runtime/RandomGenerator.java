@@ -0,0 +1,68 @@
+package nl.uni.cos.Runtime;
+
+/**
+ * Picks the random numbers of a compiled BSharp program. The generated code calls the static methods of this class
+ * for RandomInt.
+ * <p>
+ * All calls share one SplitMix64 generator, so a call does not allocate a {@link java.util.Random} and does not derive
+ * a new seed. BSharp programs are single threaded, so the state is not synchronized. The generator is seeded from the
+ * clock, unless the program was compiled with a fixed seed, then the generated main method calls
+ * {@link #setSeed(long)} first and every run picks the same numbers.
+ */
+public final class RandomGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static long state = mix(System.currentTimeMillis()) ^ mix(System.nanoTime());
+
+    private RandomGenerator() {
+    }
+
+    /**
+     * Restart the generator, so it picks the same numbers as every other generator with the same seed.
+     *
+     * @param seed The seed.
+     */
+    public static void setSeed(long seed) {
+        state = seed;
+    }
+
+    /**
+     * Pick a random int, every int has the same chance.
+     */
+    public static int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Pick a random int between 0, inclusive, and a bound, exclusive, every int has the same chance.
+     *
+     * @param bound The upper bound, that has to be positive.
+     * @throws IllegalArgumentException When the bound is not positive, like {@link java.util.Random#nextInt(int)}.
+     */
+    public static int nextInt(int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("bound must be positive");
+
+        int random = nextInt() >>> 1;
+        int mask = bound - 1;
+        if ((bound & mask) == 0)
+            return (int) ((bound * (long) random) >> 31);
+
+        // Skip the values of the last, incomplete range, so the smaller results are not more likely.
+        for (int value = random; value - (random = value % bound) + mask < 0; value = nextInt() >>> 1) {
+        }
+
+        return random;
+    }
+
+    private static long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,31 @@
+package nl.uni.cos.Services;
+
+import nl.uni.cos.Models.CacheStatistics;
+import nl.uni.cos.Models.CachedClass;
+
+/**
+ * A cache of compiled classes, keyed by a hash of everything that influences the compiled class.
+ * A cache must never make a compilation fail, when something goes wrong it behaves like a miss.
+ */
+public interface CompileCache {
+    /**
+     * Find a compiled class.
+     *
+     * @param key The key of the compiled class.
+     * @return The {@link CachedClass} or null when the cache does not contain the key.
+     */
+    CachedClass get(String key);
+
+    /**
+     * Store a compiled class.
+     *
+     * @param key         The key of the compiled class.
+     * @param cachedClass The {@link CachedClass} that will be stored.
+     */
+    void put(String key, CachedClass cachedClass);
+
+    /**
+     * Get the statistics of all the lookups and writes since the cache has been created.
+     */
+    CacheStatistics getStatistics();
+}
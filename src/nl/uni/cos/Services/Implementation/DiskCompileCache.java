@@ -0,0 +1,204 @@
+package nl.uni.cos.Services.Implementation;
+
+import nl.uni.cos.Models.CacheStatistics;
+import nl.uni.cos.Models.CachedClass;
+import nl.uni.cos.Services.CompileCache;
+import nl.uni.cos.Services.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * A {@link CompileCache} that stores every compiled class in its own file in a directory.
+ * <p>
+ * Entries are first written to a temporary file and then moved into place, so other processes never see
+ * half written entries. When the total size of the entries grows over the size bound, the least recently used
+ * entries are removed. The last modified time of an entry is updated on every hit to keep track of its use.
+ */
+public class DiskCompileCache implements CompileCache {
+    private static final String ENTRY_EXTENSION = ".entry";
+    private static final int ENTRY_MAGIC = 0x42534343;
+
+    private final Logger logger = new ConsoleLogger(this.getClass().getName());
+    private final Path directory;
+    private final long maxSize;
+
+    /**
+     * The total size of all the entries, including the entries that have been written by other processes
+     * when the cache was created.
+     */
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(),
+            writes = new AtomicLong(), evictions = new AtomicLong();
+
+    /**
+     * Initializes a new {@link DiskCompileCache}.
+     *
+     * @param directory The directory that contains the entries, it is created when the first entry is written.
+     * @param maxSize   The maximum total size of all the entries in bytes.
+     */
+    public DiskCompileCache(Path directory, long maxSize) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        for (Path entry : listEntries()) {
+            size.addAndGet(entry.toFile().length());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CachedClass get(String key) {
+        Path entry = getEntryPath(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (in.readInt() != ENTRY_MAGIC)
+                throw new IOException("Not a cache entry.");
+
+            String className = in.readUTF();
+            byte[] classBytes = new byte[in.readInt()];
+            in.readFully(classBytes);
+            byte[] jasminBytes = new byte[in.readInt()];
+            in.readFully(jasminBytes);
+            List<String> jasminLines = new String(jasminBytes, StandardCharsets.UTF_8).lines().toList();
+
+            // Keep track of the use of the entry for the LRU eviction.
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+
+            hits.incrementAndGet();
+            return new CachedClass(className, classBytes, jasminLines);
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            logger.log(String.format("Unable to read cache entry %s: %s", entry, e.getMessage()));
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void put(String key, CachedClass cachedClass) {
+        Path entry = getEntryPath(key);
+        Path temporaryEntry = null;
+        try {
+            Files.createDirectories(directory);
+            temporaryEntry = Files.createTempFile(directory, key, ".tmp");
+
+            byte[] jasminBytes = String.join("\n", cachedClass.jasminLines()).getBytes(StandardCharsets.UTF_8);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryEntry)))) {
+                out.writeInt(ENTRY_MAGIC);
+                out.writeUTF(cachedClass.className());
+                out.writeInt(cachedClass.classBytes().length);
+                out.write(cachedClass.classBytes());
+                out.writeInt(jasminBytes.length);
+                out.write(jasminBytes);
+            }
+
+            long entrySize = Files.size(temporaryEntry);
+            long replacedSize = Files.exists(entry) ? Files.size(entry) : 0;
+            moveAtomically(temporaryEntry, entry);
+            temporaryEntry = null;
+
+            writes.incrementAndGet();
+            if (size.addAndGet(entrySize - replacedSize) > maxSize) {
+                evict();
+            }
+        } catch (IOException e) {
+            logger.log(String.format("Unable to write cache entry %s: %s", entry, e.getMessage()));
+        } finally {
+            if (temporaryEntry != null) {
+                try {
+                    Files.deleteIfExists(temporaryEntry);
+                } catch (IOException ignored) {
+                    // The temporary file is not an entry, so it is never read.
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hits.get(), misses.get(), writes.get(), evictions.get());
+    }
+
+    /**
+     * Remove the least recently used entries until the total size is below the size bound.
+     * The sizes are read from the directory again, because other processes can use the same directory.
+     */
+    private synchronized void evict() {
+        if (size.get() <= maxSize)
+            return;
+
+        List<EntryInfo> entries = new ArrayList<>();
+        long totalSize = 0;
+        for (Path entry : listEntries()) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                entries.add(new EntryInfo(entry, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                totalSize += attributes.size();
+            } catch (IOException ignored) {
+                // The entry has been removed by another process.
+            }
+        }
+
+        entries.sort(Comparator.comparingLong(EntryInfo::lastUsed));
+        for (EntryInfo entry : entries) {
+            if (totalSize <= maxSize)
+                break;
+
+            try {
+                if (Files.deleteIfExists(entry.path())) {
+                    evictions.incrementAndGet();
+                }
+                totalSize -= entry.size();
+            } catch (IOException e) {
+                logger.log(String.format("Unable to remove cache entry %s: %s", entry.path(), e.getMessage()));
+            }
+        }
+
+        size.set(totalSize);
+    }
+
+    private List<Path> listEntries() {
+        if (!Files.isDirectory(directory))
+            return List.of();
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(ENTRY_EXTENSION)).toList();
+        } catch (IOException e) {
+            logger.log(String.format("Unable to list cache directory %s: %s", directory, e.getMessage()));
+            return List.of();
+        }
+    }
+
+    private Path getEntryPath(String key) {
+        return directory.resolve(key + ENTRY_EXTENSION);
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private record EntryInfo(Path path, long size, long lastUsed) {
+    }
+}
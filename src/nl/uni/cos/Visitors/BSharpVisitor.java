@@ -1,19 +1,13 @@
 package nl.uni.cos.Visitors;
 
-import nl.uni.cos.BSharpParser;
-import nl.uni.cos.BSharpParserBaseVisitor;
+import nl.uni.cos.Ast.AstVisitor;
+import nl.uni.cos.CompilationContext;
 import nl.uni.cos.Exceptions.CompilerException;
 import nl.uni.cos.Models.DataType;
 import nl.uni.cos.Models.Error;
 import nl.uni.cos.Models.Method;
 import nl.uni.cos.Models.Scope;
-import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.tree.ParseTree;
-import org.antlr.v4.runtime.tree.ParseTreeProperty;
-import org.antlr.v4.runtime.tree.TerminalNode;
-
-import java.util.ArrayList;
-import java.util.LinkedList;
+import nl.uni.cos.Models.VarSymbol;
 import java.util.List;
 
 /**
@@ -21,156 +15,133 @@ import java.util.List;
  *
  * @param <T> The type that the visitor methods will need to return.
  */
-public abstract class BSharpVisitor<T> extends BSharpParserBaseVisitor<T> {
-    /**
-     * Contains the {@link DataType} for a specific {@link ParserRuleContext}.
-     */
-    private static ParseTreeProperty<DataType> types = new ParseTreeProperty<>();
-    /**
-     * Contains all the {@link Method}s that are present in the BSharp file.
-     */
-    private static List<Method> methods = new ArrayList<>();
+public abstract class BSharpVisitor<T> extends AstVisitor<T> {
     /**
-     * The Errors that have been found in the code.
+     * The {@link CompilationContext} of the compilation that this visitor is a part of.
      */
-    private static LinkedList<Error> errors = new LinkedList<>();
-    /**
-     * Contains all the scopes.
-     */
-    private static ParseTreeProperty<Scope> scopes = new ParseTreeProperty<>();
+    protected final CompilationContext context;
     /**
      * The current scope for that the visitor is in.
      */
     protected Scope currentScope;
 
     /**
-     * Resets all the {@link #types}, {@link #methods}, {@link #scopes} and {@link #errors}.
-     * This should only be used during unit testing to rest the test environment.
-     */
-    public static void reset() {
-        types = new ParseTreeProperty<>();
-        methods = new ArrayList<>();
-        scopes = new ParseTreeProperty<>();
-        errors = new LinkedList<>();
-    }
-
-    /**
-     * Visit all the {@link ParserRuleContext}s in a {@link List}.
+     * Initializes a new {@link BSharpVisitor}.
      *
-     * @param parserRuleContexts all the {@link ParserRuleContext} that will be visited.
-     * @return An {@link ArrayList} with all the types that were returned by the visitors.
+     * @param context The {@link CompilationContext} that contains the state of the current compilation.
      */
-    protected ArrayList<T> visitAll(List<? extends ParserRuleContext> parserRuleContexts) {
-        ArrayList<T> returns = new ArrayList<>();
-        for (ParserRuleContext parserRuleContext : parserRuleContexts) {
-            returns.add(visit(parserRuleContext));
-        }
-
-        return returns;
+    protected BSharpVisitor(CompilationContext context) {
+        super(context.getAst());
+        this.context = context;
     }
 
     /**
      * Add an error.
      *
-     * @param ctx The {@link ParserRuleContext} of the error.
-     * @param msg The message of the error.
+     * @param node The id of the node of the error.
+     * @param msg  The message of the error.
      */
-    protected void addError(ParserRuleContext ctx, String msg) {
-        addError(ctx, msg, false);
+    protected void addError(int node, String msg) {
+        addError(node, msg, false);
     }
 
     /**
      * Add an error.
      *
-     * @param ctx    The {@link ParserRuleContext} of the error.
+     * @param node   The id of the node of the error.
      * @param msg    The message of the error.
      * @param useEnd Whether the end or start like should be used.
      */
-    protected void addError(ParserRuleContext ctx, String msg, boolean useEnd) {
-        errors.add(new Error(ctx, msg, useEnd));
+    protected void addError(int node, String msg, boolean useEnd) {
+        int line = useEnd ? ast.getStopLine(node) : ast.getStartLine(node);
+        context.addError(new Error(line, msg));
     }
 
     /**
      * Adds a {@link Scope}.
      *
-     * @param ctx   The {@link ParseTree} of the current scope.
+     * @param node  The id of the node of the current scope.
      * @param scope The Scope.
      */
-    protected void addScope(ParseTree ctx, Scope scope) {
-        scopes.put(ctx, scope);
+    protected void addScope(int node, Scope scope) {
+        context.addScope(node, scope);
     }
 
     /**
-     * Get the {@link Scope} for a {@link ParseTree}/.
+     * Get the {@link Scope} for a node.
      *
-     * @param ctx The {@link ParseTree} that is linked to the {@link Scope}.
+     * @param node The id of the node that is linked to the {@link Scope}.
      * @return The {@link Scope} or null when no {@link Scope} was found.
      */
-    protected Scope getScope(ParseTree ctx) {
-        return scopes.get(ctx);
+    protected Scope getScope(int node) {
+        return context.getScope(node);
     }
 
     /**
-     * Add a new {@link DataType} for a specific {@link ParseTree}.
+     * Add a new {@link DataType} for a specific node.
      *
-     * @param ctx  The {@link ParseTree} for the new {@link DataType}.
+     * @param node The id of the node for the new {@link DataType}.
      * @param type The new {@link DataType}.
      * @return The added {@link DataType}.
      */
-    protected DataType addDataType(ParseTree ctx, DataType type) {
-        types.put(ctx, type);
+    protected DataType addDataType(int node, DataType type) {
+        context.addDataType(node, type);
         return type;
     }
 
-    protected DataType getDataType(ParseTree ctx) {
-        return types.get(ctx);
+    protected DataType getDataType(int node) {
+        return context.getDataType(node);
     }
 
     /**
-     * Add a {@link Method} to the {@link #methods} {@link List}.
+     * Get the value of an expression that is known at compile time, see {@link ConstantFolder}.
      *
-     * @param identifier The identifier of the {@link Method}.
-     * @param returnType The return {@link DataType} of the {@link Method}.
-     * @param args       A {@link List} with the {@link DataType}s of the arguments of the {@link Method}.
+     * @param node The id of the node of the expression.
+     * @return The value, or null when the value is only known at runtime.
      */
-    protected void addMethod(TerminalNode identifier, DataType returnType, List<DataType> args) {
-        methods.add(new Method(identifier.getText(), returnType, args));
+    protected Object getConstant(int node) {
+        return context.getConstant(node);
     }
 
     /**
-     * Find a {@link Method} in the {@link #methods} {@link List}.
+     * Get the variable that holds the value of a loop invariant expression, see {@link LoopInvariantFinder}.
      *
-     * @param identifier The identifier of the {@link Method}.
-     * @return The {@link Method} that was found or null.
+     * @param node The id of the node of the expression.
+     * @return The variable, or null when the expression is calculated where it is used.
      */
-    protected Method findMethod(TerminalNode identifier) {
-        return findMethod(identifier.getText());
+    protected VarSymbol getHoistedVar(int node) {
+        return context.getHoistedVar(node);
     }
 
     /**
-     * Find a {@link Method} in the {@link #methods} {@link List}.
+     * Get the declaration of a method whose calls are inlined, see {@link InlineMethodFinder}.
      *
-     * @param identifier The identifier of the {@link Method}.
-     * @return The {@link Method} that was found or null.
+     * @param identifier The identifier of the method.
+     * @return The id of the node of the declaration, or null when the method is called.
      */
-    protected Method findMethod(String identifier) {
-        for (Method method : methods) {
-            if (method.identifier().equals(identifier)) {
-                return method;
-            }
-        }
+    protected Integer getInlinedMethod(String identifier) {
+        return context.getInlinedMethod(identifier);
+    }
 
-        return null;
+    /**
+     * Add a {@link Method} to the {@link CompilationContext}.
+     *
+     * @param identifier The identifier of the {@link Method}.
+     * @param returnType The return {@link DataType} of the {@link Method}.
+     * @param args       A {@link List} with the {@link DataType}s of the arguments of the {@link Method}.
+     */
+    protected void addMethod(String identifier, DataType returnType, List<DataType> args) {
+        context.addMethod(new Method(identifier, returnType, args));
     }
 
     /**
-     * Count the total amount of {@link Method}s with a specific identifier.
+     * Find a {@link Method} in the {@link CompilationContext}.
      *
      * @param identifier The identifier of the {@link Method}.
-     * @return The amount of methods that have been found.
+     * @return The {@link Method} that was found or null.
      */
-    protected int getMethodCount(TerminalNode identifier) {
-        return getMethodCount(identifier.getText());
+    protected Method findMethod(String identifier) {
+        return context.findMethod(identifier);
     }
 
     /**
@@ -180,21 +151,14 @@ public abstract class BSharpVisitor<T> extends BSharpParserBaseVisitor<T> {
      * @return The amount of methods that have been found.
      */
     protected int getMethodCount(String identifier) {
-        int counter = 0;
-
-        for (Method method : methods) {
-            if (method.identifier().equals(identifier)) {
-                counter++;
-            }
-        }
-
-        return counter;
+        return context.getMethodCount(identifier);
     }
 
     /**
      * Throws a {@link CompilerException} if one or more errors have been found.
      */
     protected void throwErrors() {
+        List<Error> errors = context.getErrors();
         if (errors.size() == 0)
             return;
 
@@ -204,22 +168,19 @@ public abstract class BSharpVisitor<T> extends BSharpParserBaseVisitor<T> {
         builder.append(String.format("%s Errors found.\n", errors.size()));
 
         for (Error error : errors) {
-            int line = error.useEnd()
-                    ? error.ctx().getStop().getLine()
-                    : error.ctx().getStart().getLine();
-            builder.append(String.format(messageTemplate, line, error.message()));
+            builder.append(String.format(messageTemplate, error.line(), error.message()));
         }
 
         throw new CompilerException(builder.toString());
     }
 
     /**
-     * Find the current {@link Scope} for a specific {@link ParseTree}.
+     * Find the current {@link Scope} for a specific node.
      *
-     * @param ctx The {@link ParseTree}.
+     * @param node The id of the node.
      */
-    protected void findScope(ParseTree ctx) {
-        currentScope = getScope(ctx);
+    protected void findScope(int node) {
+        currentScope = getScope(node);
     }
 
     /**
@@ -228,17 +189,4 @@ public abstract class BSharpVisitor<T> extends BSharpParserBaseVisitor<T> {
     protected void leaveScope() {
         currentScope = currentScope.leaveScope();
     }
-
-    @Override
-    public T visitPrimaryExpression(BSharpParser.PrimaryExpressionContext ctx) {
-        if (ctx.literal() != null) {
-            return visit(ctx.literal());
-        } else if (ctx.methodCall() != null) {
-            return visit(ctx.methodCall());
-        } else if (ctx.parameterExpression() != null) {
-            return visit(ctx.parameterExpression());
-        }
-
-        throw new UnsupportedOperationException();
-    }
 }
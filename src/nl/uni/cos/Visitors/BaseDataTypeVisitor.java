@@ -1,6 +1,7 @@
 package nl.uni.cos.Visitors;
 
-import nl.uni.cos.BSharpParser;
+import nl.uni.cos.BSharpLexer;
+import nl.uni.cos.CompilationContext;
 import nl.uni.cos.Models.DataType;
 
 /**
@@ -8,80 +9,55 @@ import nl.uni.cos.Models.DataType;
  */
 public abstract class BaseDataTypeVisitor extends BSharpVisitor<DataType> {
 
+    /**
+     * Initializes a new {@link BaseDataTypeVisitor}.
+     *
+     * @param context The {@link CompilationContext} that contains the state of the current compilation.
+     */
+    protected BaseDataTypeVisitor(CompilationContext context) {
+        super(context);
+    }
+
     // region Build in methods
 
     @Override
-    public DataType visitReadConsoleInt(BSharpParser.ReadConsoleIntContext ctx) {
+    public DataType visitReadConsoleInt(int node) {
         return DataType.INT;
     }
 
     @Override
-    public DataType visitReadConsoleLine(BSharpParser.ReadConsoleLineContext ctx) {
+    public DataType visitReadConsoleLine(int node) {
         return DataType.STRING;
     }
 
     @Override
-    public DataType visitReadConsoleFloat(BSharpParser.ReadConsoleFloatContext ctx) {
+    public DataType visitReadConsoleFloat(int node) {
         return DataType.FLOAT;
     }
 
     @Override
-    public DataType visitReadConsoleBool(BSharpParser.ReadConsoleBoolContext ctx) {
-        return DataType.BOOL;
-    }
-
-    @Override
-    public DataType visitRandomInt(BSharpParser.RandomIntContext ctx) {
-        return DataType.INT;
-    }
-
-    // endregion
-
-    // region Primitives
-
-    @Override
-    public DataType visitBoolPrimitive(BSharpParser.BoolPrimitiveContext ctx) {
+    public DataType visitReadConsoleBool(int node) {
         return DataType.BOOL;
     }
 
     @Override
-    public DataType visitIntPrimitive(BSharpParser.IntPrimitiveContext ctx) {
+    public DataType visitRandomInt(int node) {
         return DataType.INT;
     }
 
-    @Override
-    public DataType visitStringPrimitive(BSharpParser.StringPrimitiveContext ctx) {
-        return DataType.STRING;
-    }
-
-    @Override
-    public DataType visitFloatPrimitive(BSharpParser.FloatPrimitiveContext ctx) {
-        return DataType.FLOAT;
-    }
-
-    @Override
-    public DataType visitCharPrimitive(BSharpParser.CharPrimitiveContext ctx) {
-        return DataType.CHAR;
-    }
-
     // endregion
 
     @Override
-    public DataType visitLiteral(BSharpParser.LiteralContext ctx) {
+    public DataType visitLiteral(int node) {
 
         DataType literalType;
-        if (ctx.STRING_LITERAL() != null) {
-            literalType = DataType.STRING;
-        } else if (ctx.DIGIT_LITERAL() != null) {
-            literalType = DataType.INT;
-        } else if (ctx.DECIMAL_LITERAL() != null) {
-            literalType = DataType.FLOAT;
-        } else if (ctx.BOOL_LITERAL() != null) {
-            literalType = DataType.BOOL;
-        } else if (ctx.CHAR_LITERAL() != null) {
-            literalType = DataType.CHAR;
-        } else {
-            throw new UnsupportedOperationException();
+        switch (ast.getOperator(node)) {
+            case BSharpLexer.STRING_LITERAL -> literalType = DataType.STRING;
+            case BSharpLexer.DIGIT_LITERAL -> literalType = DataType.INT;
+            case BSharpLexer.DECIMAL_LITERAL -> literalType = DataType.FLOAT;
+            case BSharpLexer.BOOL_LITERAL -> literalType = DataType.BOOL;
+            case BSharpLexer.CHAR_LITERAL -> literalType = DataType.CHAR;
+            default -> throw new UnsupportedOperationException();
         }
 
         return literalType;
@@ -1,8 +1,9 @@
 package nl.uni.cos.Visitors;
 
-import nl.uni.cos.BSharpParser;
+import nl.uni.cos.Ast.NodeKind;
+import nl.uni.cos.BSharpLexer;
+import nl.uni.cos.CompilationContext;
 import nl.uni.cos.Models.*;
-import org.antlr.v4.runtime.ParserRuleContext;
 
 import static nl.uni.cos.Models.ErrorMessageTemplates.*;
 
@@ -13,17 +14,26 @@ import static nl.uni.cos.Models.ErrorMessageTemplates.*;
 public class CodeChecker extends BaseDataTypeVisitor {
     private Method currentMethod;
 
+    /**
+     * Initializes a new {@link CodeChecker}.
+     *
+     * @param context The {@link CompilationContext} of the code that will be checked.
+     */
+    public CodeChecker(CompilationContext context) {
+        super(context);
+    }
+
     @Override
-    public DataType visitProgram(BSharpParser.ProgramContext ctx) {
+    public DataType visitProgram(int node) {
         // Check if the main method exists, and check if it's valid.
         Method mainMethod = findMethod("Main");
         if (mainMethod == null) {
-            addError(ctx, MissingMainTemp.getTemplate());
+            addError(node, MissingMainTemp.getTemplate());
         } else if (mainMethod.args().size() != 0) {
-            addError(ctx, MainParamsTemp.getTemplate());
+            addError(node, MainParamsTemp.getTemplate());
         }
 
-        visitAll(ctx.methodDeclaration());
+        visitChildren(node);
         throwErrors();
         return null;
     }
@@ -31,21 +41,24 @@ public class CodeChecker extends BaseDataTypeVisitor {
     // region Method declaration
 
     @Override
-    public DataType visitMethodDeclaration(BSharpParser.MethodDeclarationContext ctx) {
-        findScope(ctx);
+    public DataType visitMethodDeclaration(int node) {
+        findScope(node);
 
-        int methodCount = getMethodCount(ctx.IDENTIFIER());
+        String identifier = ast.getText(node);
+        int methodCount = getMethodCount(identifier);
         if (methodCount > 1) {
-            addError(ctx, String.format(DuplicatedMethodNamesTemp.getTemplate(), ctx.IDENTIFIER().getText()));
+            addError(node, String.format(DuplicatedMethodNamesTemp.getTemplate(), identifier));
         }
 
-        Scope codeBlockScope = getScope(ctx.codeBlock());
-        currentMethod = findMethod(ctx.IDENTIFIER());
+        // The code block is always the last child, after the parameters.
+        int codeBlock = ast.getChild(node, ast.getChildCount(node) - 1);
+        Scope codeBlockScope = getScope(codeBlock);
+        currentMethod = findMethod(identifier);
         if (!codeBlockScope.hasReturnStatement() && currentMethod.type() != DataType.VOID) {
-            addError(ctx, String.format(MissingReturnTemp.getTemplate(), ctx.IDENTIFIER().getText()), true);
+            addError(node, String.format(MissingReturnTemp.getTemplate(), identifier), true);
         }
 
-        visit(ctx.codeBlock());
+        visit(codeBlock);
         leaveScope();
 
         return currentMethod.type();
@@ -56,25 +69,25 @@ public class CodeChecker extends BaseDataTypeVisitor {
     // region Build in methods
 
     @Override
-    public DataType visitWriteLineMethod(BSharpParser.WriteLineMethodContext ctx) {
-        DataType expressionType = visit(ctx.expression());
+    public DataType visitWriteLineMethod(int node) {
+        DataType expressionType = visit(ast.getChild(node, 0));
         if (expressionType == DataType.CLASS) {
-            addError(ctx, String.format(WriteLineClassTemp.getTemplate(), DataType.CLASS));
+            addError(node, String.format(WriteLineClassTemp.getTemplate(), DataType.CLASS));
         }
 
         return DataType.VOID;
     }
 
     @Override
-    public DataType visitRandomInt(BSharpParser.RandomIntContext ctx) {
-        if (ctx.expression() != null) {
-            DataType expressionType = visit(ctx.expression());
+    public DataType visitRandomInt(int node) {
+        if (ast.getChildCount(node) > 0) {
+            DataType expressionType = visit(ast.getChild(node, 0));
             if (expressionType != DataType.INT) {
-                addTypeMismatchError(ctx, DataType.INT, expressionType);
+                addTypeMismatchError(node, DataType.INT, expressionType);
             }
         }
 
-        return super.visitRandomInt(ctx);
+        return super.visitRandomInt(node);
     }
 
     // endregion
@@ -82,79 +95,75 @@ public class CodeChecker extends BaseDataTypeVisitor {
     // region Statements
 
     @Override
-    public DataType visitIfStatement(BSharpParser.IfStatementContext ctx) {
-        findScope(ctx);
-        DataType expressionType = visit(ctx.parameterExpression());
+    public DataType visitIfStatement(int node) {
+        findScope(node);
+        DataType expressionType = visit(ast.getChild(node, 0));
         if (expressionType != DataType.BOOL) {
-            addTypeMismatchError(ctx, DataType.BOOL, expressionType);
+            addTypeMismatchError(node, DataType.BOOL, expressionType);
         }
 
-        visit(ctx.statement(0));
+        visit(ast.getChild(node, 1));
         leaveScope();
 
-        if (ctx.ELSE() != null) {
-            findScope(ctx.ELSE());
-            visit(ctx.statement(1));
-            leaveScope();
+        if (ast.getChildCount(node) > 2) {
+            visit(ast.getChild(node, 2));
         }
 
         return DataType.VOID;
     }
 
     @Override
-    public DataType visitWhileStatement(BSharpParser.WhileStatementContext ctx) {
-        findScope(ctx);
-        DataType expressionType = visit(ctx.parameterExpression());
+    public DataType visitElse(int node) {
+        findScope(node);
+        visitChildren(node);
+        leaveScope();
+
+        return DataType.VOID;
+    }
+
+    @Override
+    public DataType visitWhileStatement(int node) {
+        findScope(node);
+        DataType expressionType = visit(ast.getChild(node, 0));
         if (expressionType != DataType.BOOL) {
-            addTypeMismatchError(ctx, DataType.BOOL, expressionType);
+            addTypeMismatchError(node, DataType.BOOL, expressionType);
         }
 
-        visit(ctx.statement());
+        visit(ast.getChild(node, 1));
         leaveScope();
 
         return DataType.VOID;
     }
 
     @Override
-    public DataType visitReturnStatement(BSharpParser.ReturnStatementContext ctx) {
-        DataType expressionType = getDataType(ctx);
+    public DataType visitReturnStatement(int node) {
+        DataType expressionType = getDataType(node);
         if (expressionType != currentMethod.type()) {
-            addTypeMismatchError(ctx, currentMethod.type(), expressionType);
+            addTypeMismatchError(node, currentMethod.type(), expressionType);
         }
 
         return expressionType;
     }
 
     @Override
-    public DataType visitCodeBlock(BSharpParser.CodeBlockContext ctx) {
-        findScope(ctx);
-        visitAll(ctx.codeBlockStatement());
+    public DataType visitCodeBlock(int node) {
+        findScope(node);
+        visitChildren(node);
         leaveScope();
         return null;
     }
 
     @Override
-    public DataType visitCodeBlockStatement(BSharpParser.CodeBlockStatementContext ctx) {
-        if (ctx.varDeclaration() != null) {
-            return visit(ctx.varDeclaration());
-        } else if (ctx.statement() != null) {
-            return visit(ctx.statement());
-        }
-
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public DataType visitVarDeclaration(BSharpParser.VarDeclarationContext ctx) {
+    public DataType visitVarDeclaration(int node) {
         DataType primitiveType = null;
-        for (BSharpParser.VarDeclaratorContext varContext : ctx.varDeclarator()) {
-            DataType declaratorType = visit(varContext);
-            primitiveType = ctx.VAR() != null
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            DataType declaratorType = visit(ast.getChild(node, i));
+            primitiveType = ast.getDataType(node) == null
                     ? declaratorType
-                    : visit(ctx.primitiveTypes());
+                    : ast.getDataType(node);
 
             if (primitiveType != declaratorType && declaratorType != null) {
-                addTypeMismatchError(ctx, primitiveType, declaratorType);
+                addTypeMismatchError(node, primitiveType, declaratorType);
             }
         }
 
@@ -162,26 +171,27 @@ public class CodeChecker extends BaseDataTypeVisitor {
     }
 
     @Override
-    public DataType visitVarDeclarator(BSharpParser.VarDeclaratorContext ctx) {
-        Symbol variable = currentScope.findSymbol(ctx.IDENTIFIER());
+    public DataType visitVarDeclarator(int node) {
+        String identifier = ast.getText(node);
+        Symbol variable = currentScope.findSymbol(identifier);
         if (variable instanceof MethodSymbol) {
-            addError(ctx, String.format(NotAVariableTemp.getTemplate(), ctx.IDENTIFIER().getText()));
+            addError(node, String.format(NotAVariableTemp.getTemplate(), identifier));
         }
 
         if (variable.getType() == null) {
-            addError(ctx, String.format(UnknownTypeTemp.getTemplate(), ctx.IDENTIFIER().getText()));
+            addError(node, String.format(UnknownTypeTemp.getTemplate(), identifier));
         }
 
-        if (currentScope.countSymbol(ctx.IDENTIFIER()) > 1) {
-            addError(ctx, String.format(DuplicatedVarNamesTemp.getTemplate(), ctx.IDENTIFIER().getText()));
+        if (currentScope.countSymbol(identifier) > 1) {
+            addError(node, String.format(DuplicatedVarNamesTemp.getTemplate(), identifier));
         }
 
         if (variable.getType() == DataType.VOID) {
-            addError(ctx, String.format(IncorrectVariableTypeTemp.getTemplate(), DataType.VOID, ctx.IDENTIFIER().getText()));
+            addError(node, String.format(IncorrectVariableTypeTemp.getTemplate(), DataType.VOID, identifier));
         }
 
-        if (ctx.expression() != null) {
-            return visit(ctx.expression());
+        if (ast.getChildCount(node) > 0) {
+            return visit(ast.getChild(node, 0));
         }
 
         return null;
@@ -192,131 +202,111 @@ public class CodeChecker extends BaseDataTypeVisitor {
     // region Expressions
 
     @Override
-    public DataType visitPrimaryExpression(BSharpParser.PrimaryExpressionContext ctx) {
-        if (ctx.IDENTIFIER() != null) {
-            Symbol symbol = currentScope.findSymbol(ctx.IDENTIFIER());
-
-            if (symbol == null) {
-                addError(ctx, String.format(UnknownVariableTemp.getTemplate(), ctx.IDENTIFIER().getText()));
-                return null;
-            }
+    public DataType visitIdentifier(int node) {
+        String identifier = ast.getText(node);
+        Symbol symbol = currentScope.findSymbol(identifier);
 
-            // Check if the identifier is an initialized variable.
-            if (symbol instanceof MethodSymbol) {
-                addError(ctx, String.format(NotAVariableTemp.getTemplate(), ctx.IDENTIFIER().getText()));
-            } else if (symbol instanceof VarSymbol varSymbol && !varSymbol.isInitialized()) {
-                addError(ctx, String.format(VarNotInitializedTemp.getTemplate(), ctx.IDENTIFIER().getText()));
-            }
+        if (symbol == null) {
+            addError(node, String.format(UnknownVariableTemp.getTemplate(), identifier));
+            return null;
+        }
 
-            return symbol.getType();
+        // Check if the identifier is an initialized variable.
+        if (symbol instanceof MethodSymbol) {
+            addError(node, String.format(NotAVariableTemp.getTemplate(), identifier));
+        } else if (symbol instanceof VarSymbol varSymbol && !varSymbol.isInitialized()) {
+            addError(node, String.format(VarNotInitializedTemp.getTemplate(), identifier));
         }
 
-        return super.visitPrimaryExpression(ctx);
+        return symbol.getType();
     }
 
     @Override
-    public DataType visitCalculationExpression(BSharpParser.CalculationExpressionContext ctx) {
-        DataType leftType = visit(ctx.left);
-        DataType rightType = visit(ctx.right);
+    public DataType visitCalculationExpression(int node) {
+        DataType leftType = visit(ast.getChild(node, 0));
+        DataType rightType = visit(ast.getChild(node, 1));
 
         if (leftType != rightType) {
-            addTypeMismatchError(ctx, leftType, rightType);
+            addTypeMismatchError(node, leftType, rightType);
         }
 
-        if (leftType == DataType.STRING
-                && (ctx.ADD() != null
-                || ctx.MUL() != null
-                || ctx.SUB() != null
-                || ctx.DIV() != null
-                || ctx.MOD() != null)) {
-            addError(ctx, String.format(UnsupportedOperatorTemp.getTemplate(), leftType, ctx.op.getText()));
+        // Strings don't support any of the calculation operators.
+        if (leftType == DataType.STRING) {
+            addError(node, String.format(UnsupportedOperatorTemp.getTemplate(), leftType, ast.getText(node)));
         }
 
         return leftType;
     }
 
     @Override
-    public DataType visitAndOrExpression(BSharpParser.AndOrExpressionContext ctx) {
-        DataType leftType = visit(ctx.left);
-        DataType rightType = visit(ctx.right);
+    public DataType visitAndOrExpression(int node) {
+        DataType leftType = visit(ast.getChild(node, 0));
+        DataType rightType = visit(ast.getChild(node, 1));
 
         if (leftType != DataType.BOOL) {
-            addError(ctx, String.format(UnsupportedOperatorTemp.getTemplate(), leftType, ctx.op.getText()));
+            addError(node, String.format(UnsupportedOperatorTemp.getTemplate(), leftType, ast.getText(node)));
         }
 
         if (leftType != rightType) {
-            addTypeMismatchError(ctx, leftType, rightType);
+            addTypeMismatchError(node, leftType, rightType);
         }
 
         return DataType.BOOL;
     }
 
     @Override
-    public DataType visitCompareExpression(BSharpParser.CompareExpressionContext ctx) {
-        DataType leftType = visit(ctx.left);
-        DataType rightType = visit(ctx.right);
+    public DataType visitCompareExpression(int node) {
+        DataType leftType = visit(ast.getChild(node, 0));
+        DataType rightType = visit(ast.getChild(node, 1));
 
         if (leftType != rightType) {
-            addTypeMismatchError(ctx, leftType, rightType);
+            addTypeMismatchError(node, leftType, rightType);
         }
 
-        if (leftType == DataType.STRING && ctx.EQUALS() == null && ctx.NOT_EQUALS() == null) {
-            addError(ctx, String.format(UnsupportedOperatorTemp.getTemplate(), leftType, ctx.op.getText()));
+        int operator = ast.getOperator(node);
+        if (leftType == DataType.STRING && operator != BSharpLexer.EQUALS && operator != BSharpLexer.NOT_EQUALS) {
+            addError(node, String.format(UnsupportedOperatorTemp.getTemplate(), leftType, ast.getText(node)));
         }
 
         return DataType.BOOL;
     }
 
     @Override
-    public DataType visitParameterExpression(BSharpParser.ParameterExpressionContext ctx) {
-        return visit(ctx.expression());
-    }
-
-    @Override
-    public DataType visitMethodCall(BSharpParser.MethodCallContext ctx) {
-        if (ctx.IDENTIFIER() != null) {
-            Method method = findMethod(ctx.IDENTIFIER());
-
-            if (method == null) {
-                addError(ctx, String.format(UnknownMethodTemp.getTemplate(), ctx.IDENTIFIER().getText()));
-                return DataType.VOID;
-            }
+    public DataType visitMethodCall(int node) {
+        Method method = findMethod(ast.getText(node));
 
-            return method.type();
+        if (method == null) {
+            addError(node, String.format(UnknownMethodTemp.getTemplate(), ast.getText(node)));
+            return DataType.VOID;
         }
 
-        if (ctx.buildInMethodCalls() != null) {
-            return visit(ctx.buildInMethodCalls());
-        }
-
-        throw new UnsupportedOperationException();
+        return method.type();
     }
 
     @Override
-    public DataType visitAssignExpression(BSharpParser.AssignExpressionContext ctx) {
-        if (ctx.left.getRuleContext() instanceof BSharpParser.PrimaryExpressionContext primaryExpression) {
-            if (primaryExpression.IDENTIFIER() == null) {
-                addError(ctx, VarAssignExpectedTemp.getTemplate());
-            } else if (currentScope.findSymbol(primaryExpression.IDENTIFIER()) instanceof VarSymbol varSymbol) {
-                varSymbol.setInitialized(true);
-            }
+    public DataType visitAssignExpression(int node) {
+        int left = ast.getChild(node, 0);
+        if (ast.getKind(left) != NodeKind.IDENTIFIER) {
+            addError(node, VarAssignExpectedTemp.getTemplate());
+        } else if (currentScope.findSymbol(ast.getText(left)) instanceof VarSymbol varSymbol) {
+            varSymbol.setInitialized(true);
         }
 
-        DataType leftType = visit(ctx.left);
-        DataType rightType = visit(ctx.right);
+        DataType leftType = visit(left);
+        DataType rightType = visit(ast.getChild(node, 1));
 
         if (leftType != rightType) {
-            addTypeMismatchError(ctx, leftType, rightType);
+            addTypeMismatchError(node, leftType, rightType);
         }
 
         return leftType;
     }
 
     @Override
-    public DataType visitBangExpression(BSharpParser.BangExpressionContext ctx) {
-        DataType expressionType = visit(ctx.expression());
+    public DataType visitBangExpression(int node) {
+        DataType expressionType = visit(ast.getChild(node, 0));
         if (expressionType != DataType.BOOL)
-            addTypeMismatchError(ctx, expressionType, DataType.BOOL);
+            addTypeMismatchError(node, expressionType, DataType.BOOL);
 
         return DataType.BOOL;
     }
@@ -326,11 +316,11 @@ public class CodeChecker extends BaseDataTypeVisitor {
     /**
      * Add a TypeMismatchTemp error to the error list.
      *
-     * @param ctx       The {@link ParserRuleContext} where the error is located.
+     * @param node      The id of the node where the error is located.
      * @param leftType  The {@link DataType} on the left.
      * @param rightType The {@link DataType} on the right.
      */
-    private void addTypeMismatchError(ParserRuleContext ctx, DataType leftType, DataType rightType) {
-        addError(ctx, String.format(TypeMismatchTemp.getTemplate(), leftType, rightType));
+    private void addTypeMismatchError(int node, DataType leftType, DataType rightType) {
+        addError(node, String.format(TypeMismatchTemp.getTemplate(), leftType, rightType));
     }
 }
@@ -1,31 +1,112 @@
 package nl.uni.cos.Visitors;
 
+import nl.uni.cos.Ast.NodeKind;
 import nl.uni.cos.BSharpParser;
+import nl.uni.cos.Bytecode.ClassFileWriter;
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.Label;
+import nl.uni.cos.Bytecode.MethodInfo;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Bytecode.StrengthReducer;
+import nl.uni.cos.CompilationContext;
 import nl.uni.cos.Exceptions.CompilerException;
 import nl.uni.cos.JasminBytecode;
 import nl.uni.cos.Models.DataType;
 import nl.uni.cos.Models.Method;
+import nl.uni.cos.Models.Scope;
 import nl.uni.cos.Models.Symbol;
 import nl.uni.cos.Models.VarSymbol;
-import org.antlr.v4.runtime.tree.TerminalNode;
-
-import java.util.ArrayList;
-import java.util.Locale;
 
 /**
  * The {@link BSharpVisitor} that will build the jasmin byte code.
  */
 public class CodeGenerator extends BSharpVisitor<Void> {
+    /**
+     * The internal name of the {@link nl.uni.cos.Runtime.ConsoleInput} class that reads the console.
+     */
+    private static final String CONSOLE_INPUT = "nl/uni/cos/Runtime/ConsoleInput";
+
+    /**
+     * The internal name of the {@link nl.uni.cos.Runtime.ConsoleOutput} class that buffers the console output.
+     */
+    private static final String CONSOLE_OUTPUT = "nl/uni/cos/Runtime/ConsoleOutput";
+
+    /**
+     * The internal name of the {@link nl.uni.cos.Runtime.RandomGenerator} class that picks the random ints.
+     */
+    private static final String RANDOM_GENERATOR = "nl/uni/cos/Runtime/RandomGenerator";
+
+    /**
+     * The maximum length of the text of constant WriteLines that are merged into one string constant, that has to
+     * fit in the constant pool.
+     */
+    private static final int MAX_MERGED_LINES_LENGTH = 16384;
+
     private final JasminBytecode jasminBytecode;
-    private int labelCounter = 0;
 
     /**
-     * Initializes a new {@link BSharpParser}.
+     * Whether the BSharp methods are generated as static methods, see {@link nl.uni.cos.CompilerOptions}.
+     */
+    private final boolean useStaticMethods;
+
+    /**
+     * Whether int calculations with a constant are strength reduced, see {@link nl.uni.cos.CompilerOptions}.
+     */
+    private final boolean useStrengthReduction;
+
+    /**
+     * Whether WriteLine writes to the buffer of the ConsoleOutput, see {@link nl.uni.cos.CompilerOptions}.
+     */
+    private final boolean useBufferedOutput;
+
+    /**
+     * The code of the method that is being generated.
+     */
+    private InstructionList code;
+
+    /**
+     * The amount that the local slots of the method whose code is generated are moved by. The code of an inlined
+     * method uses the slots after the slots of its caller.
+     */
+    private int localsOffset;
+
+    /**
+     * The first local slot after the slots of the method whose code is generated.
+     */
+    private int localsEnd;
+
+    /**
+     * The amount of local slots of the method that is being generated, including the slots of inlined methods.
+     */
+    private int maxLocals;
+
+    /**
+     * The {@link Label} that the return statements of an inlined method jump to, or null outside inlined methods.
+     */
+    private Label returnLabel;
+
+    /**
+     * The id of the node of the declaration of the method that is being generated.
+     */
+    private int methodDeclaration;
+
+    /**
+     * The {@link Label} at the start of the method that is being generated, that tail calls of the method jump to.
+     */
+    private Label entryLabel;
+
+    /**
+     * Initializes a new {@link CodeGenerator}.
      *
+     * @param context        The {@link CompilationContext} of the code that will be generated.
      * @param jasminBytecode The class that contains the jasmin bytecode.
      */
-    public CodeGenerator(JasminBytecode jasminBytecode) {
+    public CodeGenerator(CompilationContext context, JasminBytecode jasminBytecode) {
+        super(context);
         this.jasminBytecode = jasminBytecode;
+        this.useStaticMethods = context.getOptions().useStaticMethods();
+        this.useStrengthReduction = context.getOptions().useStrengthReduction();
+        this.useBufferedOutput = context.getOptions().useBufferedOutput();
         generateDefaultCode();
     }
 
@@ -33,89 +114,105 @@ public class CodeGenerator extends BSharpVisitor<Void> {
      * Add the default byte code to the {@link JasminBytecode}.
      */
     private void generateDefaultCode() {
-        jasminBytecode.add(".bytecode 49.0")
-                .add(String.format(".class public %s", jasminBytecode.getClassName()))
-                .add(".super java/lang/Object")
-                .add(".method public <init>()V")
-                .add(".limit stack 1")
-                .add(".limit locals 1")
-                .add("aload_0")
-                .add("invokespecial java/lang/Object/<init>()V")
-                .add("return")
-                .add(".end method");
+        String className = jasminBytecode.getClassName();
+
+        MethodInfo constructor = jasminBytecode.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>", "()V");
+        constructor.setMaxs(1, 1);
+        constructor.getCode()
+                .addLocal(Opcode.ALOAD, 0)
+                .addMethodCall(Opcode.INVOKESPECIAL, "java/lang/Object", "<init>", "()V")
+                .add(Opcode.RETURN);
 
         // Java Main method.
-        jasminBytecode.add(".method public static main([Ljava/lang/String;)V")
-                .add(".limit stack 2")
-                .add(".limit locals 2");
+        MethodInfo main = jasminBytecode.addMethod(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC,
+                "main", "([Ljava/lang/String;)V");
+
+        // Fix the seed of RandomInt before the program runs.
+        Long seed = context.getOptions().getSeed();
+        if (seed != null) {
+            main.getCode()
+                    .addConstant(seed)
+                    .addMethodCall(Opcode.INVOKESTATIC, RANDOM_GENERATOR, "setSeed", "(J)V");
+        }
 
         // Call the BSharp main method.
-        jasminBytecode.add(String.format("new %s", jasminBytecode.getClassName()))
-                .add("dup")
-                .add(String.format("invokespecial %s.<init>()V", jasminBytecode.getClassName()))
-                .add("astore_1")
-                .add("aload_1")
-                .add(String.format("invokevirtual %s.Main()V", jasminBytecode.getClassName()));
+        if (useStaticMethods) {
+            main.setMaxs(0, 1);
+            main.getCode()
+                    .addMethodCall(Opcode.INVOKESTATIC, className, "Main", "()V");
+        } else {
+            main.setMaxs(2, 2);
+            main.getCode()
+                    .addType(Opcode.NEW, className)
+                    .add(Opcode.DUP)
+                    .addMethodCall(Opcode.INVOKESPECIAL, className, "<init>", "()V")
+                    .addLocal(Opcode.ASTORE, 1)
+                    .addLocal(Opcode.ALOAD, 1)
+                    .addMethodCall(Opcode.INVOKEVIRTUAL, className, "Main", "()V");
+        }
 
-        jasminBytecode.add("return")
-                .add(".end method");
-    }
+        // Write the rest of the buffered output. When Main throws, the ConsoleOutput writes it when the JVM shuts down.
+        if (useBufferedOutput) {
+            main.getCode().addMethodCall(Opcode.INVOKESTATIC, CONSOLE_OUTPUT, "flush", "()V");
+        }
 
-    @Override
-    public Void visitProgram(BSharpParser.ProgramContext ctx) {
-        visitAll(ctx.methodDeclaration());
-        return null;
+        main.getCode().add(Opcode.RETURN);
     }
 
-    // region Method declaration
-
     @Override
-    public Void visitMethodDeclaration(BSharpParser.MethodDeclarationContext ctx) {
-        findScope(ctx);
-        jasminBytecode.appendText(String.format(".method public %s", ctx.IDENTIFIER().getText()));
-
-        visit(ctx.parametersDeclaration());
-
-        // Method return type.
-        if (ctx.primitiveTypes() != null) {
-            visit(ctx.primitiveTypes());
-        } else if (ctx.VOID() != null) {
-            jasminBytecode.appendText("V");
-        } else {
-            throw new UnsupportedOperationException();
+    public Void visit(int node) {
+        // Push the value of an expression that is known at compile time, instead of calculating it.
+        Object constant = getConstant(node);
+        if (constant != null && ast.getKind(node) != NodeKind.LITERAL) {
+            addPushConstant(constant);
+            return null;
         }
 
-        jasminBytecode.buildLine();
-
-        jasminBytecode.add(String.format(".limit stack %s", currentScope.getMaxStackSize()))
-                .add(String.format(".limit locals %s", currentScope.getMaxLocalsSize()));
-
-        visit(ctx.codeBlock());
-
-        if (findMethod(ctx.IDENTIFIER()).type() == DataType.VOID) {
-            jasminBytecode.add("return");
+        // Load the value of a loop invariant expression, that is calculated before the loop.
+        VarSymbol hoistedVar = getHoistedVar(node);
+        if (hoistedVar != null) {
+            loadOrStoreVar(hoistedVar, true);
+            return null;
         }
 
-        jasminBytecode.add(".end method");
-
-        return null;
+        return super.visit(node);
     }
 
     @Override
-    public Void visitParametersDeclaration(BSharpParser.ParametersDeclarationContext ctx) {
-        jasminBytecode.appendText(ctx.PAREN_OPEN().getText());
-
-        visitAll(ctx.parameterDeclaration());
-
-        jasminBytecode.appendText(ctx.PAREN_CLOSE().getText());
-
+    public Void visitProgram(int node) {
+        visitChildren(node);
         return null;
     }
 
+    // region Method declaration
+
     @Override
-    public Void visitParameterDeclaration(BSharpParser.ParameterDeclarationContext ctx) {
-        visit(ctx.primitiveTypes());
+    public Void visitMethodDeclaration(int node) {
+        findScope(node);
+        Method method = findMethod(ast.getText(node));
+
+        int accessFlags = useStaticMethods
+                ? ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC
+                : ClassFileWriter.ACC_PUBLIC;
+        MethodInfo methodInfo = jasminBytecode.addMethod(accessFlags, method.identifier(), getDescriptor(method));
+        code = methodInfo.getCode();
+        methodDeclaration = node;
+        entryLabel = code.newLabel();
+        code.addLabel(entryLabel);
+        localsOffset = 0;
+        localsEnd = currentScope.getMaxLocalsSize();
+        maxLocals = localsEnd;
+
+        // The code block is always the last child, after the parameters.
+        visit(ast.getChild(node, ast.getChildCount(node) - 1));
+
+        if (method.type() == DataType.VOID) {
+            code.add(Opcode.RETURN);
+        }
 
+        // The max stack size is computed from the generated code by the StackAnalyzer.
+        methodInfo.setMaxs(0, maxLocals);
+        leaveScope();
         return null;
     }
 
@@ -124,67 +221,73 @@ public class CodeGenerator extends BSharpVisitor<Void> {
     // region Build in methods
 
     @Override
-    public Void visitWriteLineMethod(BSharpParser.WriteLineMethodContext ctx) {
-        jasminBytecode.add("getstatic java/lang/System/out Ljava/io/PrintStream;");
+    public Void visitWriteLineMethod(int node) {
+        if (useBufferedOutput) {
+            visit(ast.getChild(node, 0));
+            code.addMethodCall(Opcode.INVOKESTATIC, CONSOLE_OUTPUT, "writeLine",
+                    String.format("(%s)V", getDescriptor(getDataType(node))));
+            return null;
+        }
+
+        code.addField(Opcode.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
 
-        visit(ctx.expression());
+        visit(ast.getChild(node, 0));
 
-        jasminBytecode.appendText("invokevirtual java/io/PrintStream/println(")
-                .appendText(getOutputTypeCode(getDataType(ctx), true))
-                .appendText(")V")
-                .buildLine();
+        code.addMethodCall(Opcode.INVOKEVIRTUAL, "java/io/PrintStream", "println",
+                String.format("(%s)V", getDescriptor(getDataType(node))));
 
         return null;
     }
 
     @Override
-    public Void visitReadConsoleInt(BSharpParser.ReadConsoleIntContext ctx) {
-        jasminBytecode.addScannerInit()
-                .add(String.format("invokevirtual java/util/Scanner.nextInt()%s", getOutputTypeCode(DataType.INT, true)));
+    public Void visitReadConsoleInt(int node) {
+        addFlushOutput();
+        code.addMethodCall(Opcode.INVOKESTATIC, CONSOLE_INPUT, "readInt", "()I");
 
         return null;
     }
 
     @Override
-    public Void visitReadConsoleLine(BSharpParser.ReadConsoleLineContext ctx) {
-        jasminBytecode.addScannerInit()
-                .add(String.format("invokevirtual java/util/Scanner.nextLine()%s", getOutputTypeCode(DataType.STRING)));
+    public Void visitReadConsoleLine(int node) {
+        addFlushOutput();
+        code.addMethodCall(Opcode.INVOKESTATIC, CONSOLE_INPUT, "readLine", "()Ljava/lang/String;");
 
         return null;
     }
 
     @Override
-    public Void visitReadConsoleFloat(BSharpParser.ReadConsoleFloatContext ctx) {
-        jasminBytecode.addScannerInit()
-                .add(String.format("invokevirtual java/util/Scanner.nextFloat()%s", getOutputTypeCode(DataType.FLOAT, true)));
+    public Void visitReadConsoleFloat(int node) {
+        addFlushOutput();
+        code.addMethodCall(Opcode.INVOKESTATIC, CONSOLE_INPUT, "readFloat", "()F");
 
         return null;
     }
 
     @Override
-    public Void visitReadConsoleBool(BSharpParser.ReadConsoleBoolContext ctx) {
-        jasminBytecode.addScannerInit()
-                .add(String.format("invokevirtual java/util/Scanner.nextBoolean()%s", getOutputTypeCode(DataType.BOOL, true)));
-
+    public Void visitReadConsoleBool(int node) {
+        addFlushOutput();
+        code.addMethodCall(Opcode.INVOKESTATIC, CONSOLE_INPUT, "readBool", "()Z");
 
         return null;
     }
 
-    @Override
-    public Void visitRandomInt(BSharpParser.RandomIntContext ctx) {
-        jasminBytecode.add("new java/util/Random")
-                .add("dup")
-                .add("invokespecial java/util/Random.<init>()V");
+    /**
+     * Write the buffered output before the console is read, so the user sees the output that asks for the input.
+     */
+    private void addFlushOutput() {
+        if (useBufferedOutput) {
+            code.addMethodCall(Opcode.INVOKESTATIC, CONSOLE_OUTPUT, "flush", "()V");
+        }
+    }
 
-        if (ctx.expression() != null) {
-            visit(ctx.expression());
+    @Override
+    public Void visitRandomInt(int node) {
+        boolean hasBound = ast.getChildCount(node) > 0;
+        if (hasBound) {
+            visit(ast.getChild(node, 0));
         }
 
-        jasminBytecode.appendText("invokevirtual java/util/Random.nextInt")
-                .appendText('(')
-                .appendText(ctx.expression() != null ? "I" : "")
-                .appendText(")I")
-                .buildLine();
+        code.addMethodCall(Opcode.INVOKESTATIC, RANDOM_GENERATOR, "nextInt", hasBound ? "(I)I" : "()I");
 
         return null;
     }
@@ -194,25 +297,23 @@ public class CodeGenerator extends BSharpVisitor<Void> {
     // region Statements
 
     @Override
-    public Void visitIfStatement(BSharpParser.IfStatementContext ctx) {
-        findScope(ctx);
-
-        visit(ctx.parameterExpression());
+    public Void visitIfStatement(int node) {
+        findScope(node);
 
-        String ifLabel = getUniqueLabel();
+        Label ifLabel = code.newLabel();
 
-        jasminBytecode.add(String.format("ifeq %s", ifLabel));
-        visit(ctx.statement(0));
+        addConditionJump(ast.getChild(node, 0), ifLabel, false);
+        visit(ast.getChild(node, 1));
+        leaveScope();
 
-        if (ctx.ELSE() != null) {
-            String elseLabel = getUniqueLabel();
-            jasminBytecode.add(String.format("goto %s", elseLabel))
-                    .add(String.format("%s:", ifLabel));
-            findScope(ctx.ELSE());
-            visit(ctx.statement(1));
-            jasminBytecode.add(String.format("%s:", elseLabel));
+        if (ast.getChildCount(node) > 2) {
+            Label elseLabel = code.newLabel();
+            code.addJump(Opcode.GOTO, elseLabel)
+                    .addLabel(ifLabel);
+            visit(ast.getChild(node, 2));
+            code.addLabel(elseLabel);
         } else {
-            jasminBytecode.add(String.format("%s:", ifLabel));
+            code.addLabel(ifLabel);
         }
 
 
@@ -220,71 +321,119 @@ public class CodeGenerator extends BSharpVisitor<Void> {
     }
 
     @Override
-    public Void visitWhileStatement(BSharpParser.WhileStatementContext ctx) {
-        findScope(ctx);
-        String whileLabel = getUniqueLabel();
-        String endWhileLabel = getUniqueLabel();
-
-        jasminBytecode.add(String.format("%s:", whileLabel));
-        visit(ctx.parameterExpression());
-        jasminBytecode.add(String.format("ifeq %s", endWhileLabel));
-        visit(ctx.statement());
-        jasminBytecode.add(String.format("goto %s", whileLabel))
-                .add(String.format("%s:", endWhileLabel));
+    public Void visitElse(int node) {
+        findScope(node);
+        visitChildren(node);
+        leaveScope();
         return null;
     }
 
     @Override
-    public Void visitReturnStatement(BSharpParser.ReturnStatementContext ctx) {
-        if (ctx.expressions() != null) {
-            visit(ctx.expressions());
+    public Void visitWhileStatement(int node) {
+        for (int expression : context.getHoistedExpressions(node)) {
+            super.visit(expression);
+            loadOrStoreVar(getHoistedVar(expression), false);
         }
 
-        jasminBytecode.appendText(getTypeCode(getDataType(ctx)))
-                .appendText("return")
-                .buildLine();
+        findScope(node);
+        Label whileLabel = code.newLabel();
+        Label endWhileLabel = code.newLabel();
 
+        code.addLabel(whileLabel);
+        addConditionJump(ast.getChild(node, 0), endWhileLabel, false);
+        visit(ast.getChild(node, 1));
+        code.addJump(Opcode.GOTO, whileLabel)
+                .addLabel(endWhileLabel);
+        leaveScope();
         return null;
     }
 
     @Override
-    public Void visitCodeBlock(BSharpParser.CodeBlockContext ctx) {
-        findScope(ctx);
-        visitAll(ctx.codeBlockStatement());
+    public Void visitReturnStatement(int node) {
+        if (ast.getChildCount(node) > 0 && isTailCall(ast.getChild(node, 0))) {
+            addTailCall(ast.getChild(node, 0));
+            return null;
+        }
 
-        return null;
-    }
+        visitChildren(node);
 
-    @Override
-    public Void visitCodeBlockStatement(BSharpParser.CodeBlockStatementContext ctx) {
-        if (ctx.varDeclaration() != null) {
-            visit(ctx.varDeclaration());
-        } else if (ctx.statement() != null) {
-            visit(ctx.statement());
-        } else {
-            throw new UnsupportedOperationException();
+        // The return value of an inlined method stays on the stack for its caller.
+        if (returnLabel != null) {
+            code.addJump(Opcode.GOTO, returnLabel);
+            return null;
         }
 
+        code.add(getTypedOpcode(getDataType(node), Opcode.IRETURN, Opcode.FRETURN, Opcode.ARETURN, Opcode.RETURN));
+
         return null;
     }
 
     @Override
-    public Void visitVarDeclaration(BSharpParser.VarDeclarationContext ctx) {
-        for (BSharpParser.VarDeclaratorContext varContext : ctx.varDeclarator()) {
-            visit(varContext);
+    public Void visitCodeBlock(int node) {
+        findScope(node);
+
+        int childCount = ast.getChildCount(node);
+        for (int i = 0; i < childCount; ) {
+            // Consecutive constant WriteLines are written as one string.
+            StringBuilder lines = new StringBuilder();
+            int end = i;
+            String line;
+            while (end < childCount && (line = getConstantLine(ast.getChild(node, end))) != null
+                    && lines.length() + line.length() < MAX_MERGED_LINES_LENGTH) {
+                lines.append(line).append('\n');
+                end++;
+            }
+
+            if (end - i > 1) {
+                code.addConstant(lines.toString())
+                        .addMethodCall(Opcode.INVOKESTATIC, CONSOLE_OUTPUT, "writeLines", "(Ljava/lang/String;)V");
+                i = end;
+            } else {
+                visit(ast.getChild(node, i));
+                i++;
+            }
         }
 
+        leaveScope();
         return null;
     }
 
+    /**
+     * Get the text that a WriteLine statement writes, when it is known at compile time and the output is buffered.
+     * Floats are left out, because the text of a float depends on the Java version that runs the program.
+     *
+     * @param node The id of the node of the statement.
+     * @return The line without the line separator, or null when the statement is something else.
+     */
+    private String getConstantLine(int node) {
+        if (!useBufferedOutput || ast.getKind(node) != NodeKind.EXPRESSION_STATEMENT
+                || ast.getKind(ast.getChild(node, 0)) != NodeKind.WRITE_LINE)
+            return null;
+
+        int writeLine = ast.getChild(node, 0);
+        int value = ast.getChild(writeLine, 0);
+        Object constant = getConstant(value);
+        String line = switch (getDataType(writeLine)) {
+            case INT, BOOL -> constant != null ? String.valueOf(constant) : null;
+            case CHAR -> constant != null ? String.valueOf((char) (int) (Integer) constant) : null;
+            case STRING -> ast.getKind(value) == NodeKind.LITERAL
+                    ? unescape(ast.getText(value).substring(1, ast.getText(value).length() - 1), ast.getStartLine(value))
+                    : null;
+            default -> null;
+        };
+
+        // The line breaks separate the lines in the merged text.
+        return line != null && line.indexOf('\n') == -1 && line.indexOf('\r') == -1 ? line : null;
+    }
+
     @Override
-    public Void visitVarDeclarator(BSharpParser.VarDeclaratorContext ctx) {
-        if (ctx.expression() == null) {
+    public Void visitVarDeclarator(int node) {
+        if (ast.getChildCount(node) == 0) {
             return null;
         }
 
-        visit(ctx.expression());
-        storeOrLoadVar(ctx.IDENTIFIER(), false);
+        visit(ast.getChild(node, 0));
+        storeOrLoadVar(ast.getText(node), false);
         return null;
     }
 
@@ -293,327 +442,547 @@ public class CodeGenerator extends BSharpVisitor<Void> {
     // region Expressions
 
     @Override
-    public Void visitPrimaryExpression(BSharpParser.PrimaryExpressionContext ctx) {
-        if (ctx.IDENTIFIER() == null) {
-            return super.visitPrimaryExpression(ctx);
-        }
-
-        storeOrLoadVar(ctx.IDENTIFIER(), true);
+    public Void visitIdentifier(int node) {
+        storeOrLoadVar(ast.getText(node), true);
         return null;
     }
 
 
     @Override
-    public Void visitCalculationExpression(BSharpParser.CalculationExpressionContext ctx) {
-        visit(ctx.left);
-        visit(ctx.right);
-
-        DataType type = getDataType(ctx);
-        jasminBytecode.appendText(getOutputTypeCode(type));
-
-        jasminBytecode.appendText(switch (ctx.op.getType()) {
-            case BSharpParser.MOD -> "rem";
-            case BSharpParser.MUL -> "mul";
-            case BSharpParser.DIV -> "div";
-            case BSharpParser.ADD -> "add";
-            case BSharpParser.SUB -> "sub";
+    public Void visitCalculationExpression(int node) {
+        int left = ast.getChild(node, 0);
+        int right = ast.getChild(node, 1);
+        boolean isFloat = getDataType(node) == DataType.FLOAT;
+        Opcode opcode = switch (ast.getOperator(node)) {
+            case BSharpParser.MOD -> isFloat ? Opcode.FREM : Opcode.IREM;
+            case BSharpParser.MUL -> isFloat ? Opcode.FMUL : Opcode.IMUL;
+            case BSharpParser.DIV -> isFloat ? Opcode.FDIV : Opcode.IDIV;
+            case BSharpParser.ADD -> isFloat ? Opcode.FADD : Opcode.IADD;
+            case BSharpParser.SUB -> isFloat ? Opcode.FSUB : Opcode.ISUB;
             default -> throw new UnsupportedOperationException();
-        });
-        jasminBytecode.buildLine();
+        };
 
-        return null;
-    }
+        if (useStrengthReduction && !isFloat) {
+            if (getConstant(right) instanceof Integer constant) {
+                visit(left);
+                if (StrengthReducer.reduce(code, opcode, constant))
+                    return null;
 
-    @Override
-    public Void visitAndOrExpression(BSharpParser.AndOrExpressionContext ctx) {
-        String label1 = getUniqueLabel();
-        String label2 = getUniqueLabel();
-
-        ArrayList<BSharpParser.ExpressionContext> sides = new ArrayList<>();
-        sides.add(ctx.left);
-        sides.add(ctx.right);
-        for (BSharpParser.ExpressionContext side : sides) {
-            visit(side);
-            String ifType = switch (ctx.op.getType()) {
-                case BSharpParser.AND -> "eq";
-                case BSharpParser.OR -> "ne";
-                default -> throw new UnsupportedOperationException();
-            };
+                visit(right);
+                code.add(opcode);
+                return null;
+            }
 
-            jasminBytecode.add(String.format("if%s %s", ifType, label1));
-        }
+            // The operands of a multiplication can be swapped, because a constant has no side effects.
+            if (opcode == Opcode.IMUL && getConstant(left) instanceof Integer constant) {
+                visit(right);
+                if (StrengthReducer.reduce(code, opcode, constant))
+                    return null;
 
-        // The results need to be flipped depending on whether it's an OR statement.
-        jasminBytecode.add("iconst_" + (ctx.AND() != null ? 1 : 0))
-                .add(String.format("goto %s", label2))
-                .add(String.format("%s:", label1))
-                .add("iconst_" + (ctx.AND() != null ? 0 : 1))
-                .add(String.format("%s:", label2));
+                visit(left);
+                code.add(opcode);
+                return null;
+            }
+        }
 
+        visit(left);
+        visit(right);
+        code.add(opcode);
         return null;
     }
 
     @Override
-    public Void visitCompareExpression(BSharpParser.CompareExpressionContext ctx) {
-        visit(ctx.left);
-        visit(ctx.right);
-
-        DataType type = getDataType(ctx);
-        if (type == DataType.FLOAT) jasminBytecode.add("fcmpl");
-
-        jasminBytecode.appendText("if");
-        if (type == DataType.INT | type == DataType.BOOL) jasminBytecode.appendText("_icmp");
-        else if (type == DataType.STRING) jasminBytecode.appendText("_acmp");
-
-        jasminBytecode.appendText(switch (ctx.op.getType()) {
-            case BSharpParser.LE -> "le";
-            case BSharpParser.LT -> "lt";
-            case BSharpParser.GE -> "ge";
-            case BSharpParser.GT -> "gt";
-            case BSharpParser.EQUALS -> "ne";
-            case BSharpParser.NOT_EQUALS -> "eq";
-            default -> throw new UnsupportedOperationException();
-        });
-
-        String label1 = getUniqueLabel();
-        String label2 = getUniqueLabel();
-
-        jasminBytecode.appendText(String.format(" %s", label1))
-                .buildLine();
-
-        jasminBytecode.add("iconst_1")
-                .add(String.format("goto %s", label2))
-                .add(String.format("%s:", label1))
-                .add("iconst_0")
-                .add(String.format("%s:", label2));
+    public Void visitAndOrExpression(int node) {
+        addConditionValue(node);
+        return null;
+    }
 
+    @Override
+    public Void visitCompareExpression(int node) {
+        addConditionValue(node);
         return null;
     }
 
     @Override
-    public Void visitAssignExpression(BSharpParser.AssignExpressionContext ctx) {
-        visit(ctx.right);
+    public Void visitAssignExpression(int node) {
+        int left = ast.getChild(node, 0);
+        if (ast.getKind(left) != NodeKind.IDENTIFIER)
+            throw new UnsupportedOperationException();
 
-        // Duplicate the value if it is needed after the assignment.
-        if (!(ctx.getParent().getRuleContext() instanceof BSharpParser.ExpressionStatementContext)) {
-            jasminBytecode.add("dup");
+        boolean isValueNeeded = ast.getKind(ast.getParent(node)) != NodeKind.EXPRESSION_STATEMENT;
+        Integer increment = getIncrement(ast.getText(left), ast.getChild(node, 1));
+        if (increment != null) {
+            VarSymbol var = (VarSymbol) currentScope.findSymbol(ast.getText(left));
+            code.addIinc(var.getLocalSlot() + localsOffset, increment);
+            if (isValueNeeded) {
+                loadOrStoreVar(var, true);
+            }
+
+            return null;
         }
 
-        if (ctx.left.getRuleContext() instanceof BSharpParser.PrimaryExpressionContext primaryExpression) {
-            storeOrLoadVar(primaryExpression.IDENTIFIER(), false);
-        } else {
-            throw new UnsupportedOperationException();
+        visit(ast.getChild(node, 1));
+
+        // Duplicate the value if it is needed after the assignment.
+        if (isValueNeeded) {
+            code.add(Opcode.DUP);
         }
 
+        storeOrLoadVar(ast.getText(left), false);
         return null;
     }
 
-    @Override
-    public Void visitBangExpression(BSharpParser.BangExpressionContext ctx) {
-        visit(ctx.expression());
+    /**
+     * Get the constant that an int variable is increased with by an assignment of x + c, c + x or x - c, so the
+     * assignment can be a single iinc.
+     *
+     * @param identifier The identifier of the variable that is assigned.
+     * @param value      The id of the node of the assigned value.
+     * @return The increment, or null when the value is something else or the increment does not fit in a short.
+     */
+    private Integer getIncrement(String identifier, int value) {
+        if (ast.getKind(value) != NodeKind.CALCULATION_EXPRESSION || getHoistedVar(value) != null
+                || !(currentScope.findSymbol(identifier) instanceof VarSymbol var) || var.getType() != DataType.INT)
+            return null;
 
-        String label1 = getUniqueLabel();
-        String label2 = getUniqueLabel();
+        int operator = ast.getOperator(value);
+        int left = ast.getChild(value, 0);
+        int right = ast.getChild(value, 1);
+        long increment;
+        if (operator == BSharpParser.ADD && isVar(left, identifier) && getConstant(right) instanceof Integer constant) {
+            increment = constant;
+        } else if (operator == BSharpParser.ADD && isVar(right, identifier) && getConstant(left) instanceof Integer constant) {
+            increment = constant;
+        } else if (operator == BSharpParser.SUB && isVar(left, identifier) && getConstant(right) instanceof Integer constant) {
+            increment = -(long) constant;
+        } else {
+            return null;
+        }
 
-        jasminBytecode.add(String.format("ifne %s", label1))
-                .add("iconst_1")
-                .add(String.format("goto %s", label2))
-                .add(String.format("%s:", label1))
-                .add("iconst_0")
-                .add(String.format("%s:", label2));
+        return increment >= Short.MIN_VALUE && increment <= Short.MAX_VALUE ? (int) increment : null;
+    }
 
-        return null;
+    /**
+     * Whether a node is the identifier of a variable.
+     */
+    private boolean isVar(int node, String identifier) {
+        return ast.getKind(node) == NodeKind.IDENTIFIER && ast.getText(node).equals(identifier)
+                && getConstant(node) == null && getHoistedVar(node) == null;
     }
 
     @Override
-    public Void visitParameterExpression(BSharpParser.ParameterExpressionContext ctx) {
-        return visit(ctx.expression());
+    public Void visitBangExpression(int node) {
+        addConditionValue(node);
+        return null;
     }
 
     @Override
-    public Void visitMethodCall(BSharpParser.MethodCallContext ctx) {
-        if (ctx.buildInMethodCalls() != null) {
-            visit(ctx.buildInMethodCalls());
-        } else if (ctx.IDENTIFIER() != null) {
-
-            jasminBytecode.add("aload_0");
-
-            if (ctx.expressions() != null) {
-                visit(ctx.expressions());
-            }
+    public Void visitMethodCall(int node) {
+        Integer inlinedMethod = getInlinedMethod(ast.getText(node));
+        if (inlinedMethod != null) {
+            inlineMethodCall(node, inlinedMethod);
+            return null;
+        }
 
-            Method method = findMethod(ctx.IDENTIFIER());
-            jasminBytecode.appendText(String.format("invokevirtual %s.", jasminBytecode.getClassName()))
-                    .appendText(ctx.IDENTIFIER().getText())
-                    .appendText('(');
+        if (!useStaticMethods) {
+            code.addLocal(Opcode.ALOAD, 0);
+        }
 
-            // Add the method argument types.
-            for (DataType argType : method.args()) {
-                jasminBytecode.appendText(getOutputTypeCode(argType, true));
-            }
+        visitChildren(node);
 
-            jasminBytecode.appendText(')')
-                    .appendText(getOutputTypeCode(method.type(), true))
-                    .buildLine();
-        } else {
-            throw new UnsupportedOperationException();
-        }
+        Method method = findMethod(ast.getText(node));
+        code.addMethodCall(useStaticMethods ? Opcode.INVOKESTATIC : Opcode.INVOKEVIRTUAL,
+                jasminBytecode.getClassName(), method.identifier(), getDescriptor(method));
 
         return null;
     }
 
-    // endregion
+    /**
+     * Whether the value of a return statement is a call of the method itself, that can jump back to the start of the
+     * method instead. The code of an inlined method is never recursive.
+     */
+    private boolean isTailCall(int value) {
+        return returnLabel == null && ast.getKind(value) == NodeKind.METHOD_CALL
+                && ast.getText(value).equals(ast.getText(methodDeclaration))
+                && getConstant(value) == null && getHoistedVar(value) == null;
+    }
 
-    // region Primitives
+    /**
+     * Add the code that stores the arguments of a tail call in the parameters and jumps back to the start of the
+     * method, so deep recursion runs in constant stack space. All arguments are calculated before the first one is
+     * stored, because they can use the parameters. An argument that is the parameter itself is left out.
+     *
+     * @param node The id of the node of the method call.
+     */
+    private void addTailCall(int node) {
+        int argumentCount = ast.getChildCount(node);
+        for (int i = 0; i < argumentCount; i++) {
+            int argument = ast.getChild(node, i);
+            if (!isParameter(argument, i)) {
+                visit(argument);
+            }
+        }
 
-    @Override
-    public Void visitIntPrimitive(BSharpParser.IntPrimitiveContext ctx) {
-        jasminBytecode.appendText(getOutputTypeCode(DataType.INT, true));
-        return null;
-    }
+        // The last argument is on top of the stack.
+        for (int i = argumentCount - 1; i >= 0; i--) {
+            if (!isParameter(ast.getChild(node, i), i)) {
+                storeOrLoadVar(ast.getText(ast.getChild(methodDeclaration, i)), false);
+            }
+        }
 
-    @Override
-    public Void visitBoolPrimitive(BSharpParser.BoolPrimitiveContext ctx) {
-        jasminBytecode.appendText(getOutputTypeCode(DataType.BOOL, true));
-        return null;
+        code.addJump(Opcode.GOTO, entryLabel);
     }
 
-    @Override
-    public Void visitStringPrimitive(BSharpParser.StringPrimitiveContext ctx) {
-        jasminBytecode.appendText(getOutputTypeCode(DataType.STRING, true));
-        return null;
+    /**
+     * Whether an argument of a tail call is the parameter at the same position.
+     */
+    private boolean isParameter(int argument, int index) {
+        // Variables can't shadow the parameters, so the identifier is always the parameter.
+        return isVar(argument, ast.getText(ast.getChild(methodDeclaration, index)));
     }
 
-    @Override
-    public Void visitFloatPrimitive(BSharpParser.FloatPrimitiveContext ctx) {
-        jasminBytecode.appendText(getOutputTypeCode(DataType.FLOAT, true));
-        return null;
-    }
+    /**
+     * Add the code of a method instead of a call to it. The arguments are stored in the parameters of the method,
+     * and the variables of the method get new local slots after the slots of the caller.
+     *
+     * @param node        The id of the node of the method call.
+     * @param declaration The id of the node of the declaration of the called method.
+     */
+    private void inlineMethodCall(int node, int declaration) {
+        visitChildren(node);
+
+        Scope callerScope = currentScope;
+        int callerLocalsOffset = localsOffset;
+        int callerLocalsEnd = localsEnd;
+        Label callerReturnLabel = returnLabel;
+
+        // Slot 0 always contains `this` in instance methods, the inlined method uses the `this` of its caller.
+        findScope(declaration);
+        localsOffset = localsEnd - (useStaticMethods ? 0 : 1);
+        localsEnd = localsOffset + currentScope.getMaxLocalsSize();
+        maxLocals = Math.max(maxLocals, localsEnd);
+        returnLabel = code.newLabel();
+
+        // The last argument is on top of the stack.
+        int parameterCount = ast.getChildCount(declaration) - 1;
+        for (int i = parameterCount - 1; i >= 0; i--) {
+            storeOrLoadVar(ast.getText(ast.getChild(declaration, i)), false);
+        }
 
-    @Override
-    public Void visitCharPrimitive(BSharpParser.CharPrimitiveContext ctx) {
-        jasminBytecode.appendText(getOutputTypeCode(DataType.CHAR, true));
-        return null;
+        // The code block is always the last child, after the parameters.
+        visit(ast.getChild(declaration, parameterCount));
+        code.addLabel(returnLabel);
+
+        currentScope = callerScope;
+        localsOffset = callerLocalsOffset;
+        localsEnd = callerLocalsEnd;
+        returnLabel = callerReturnLabel;
     }
 
     // endregion
 
     @Override
-    public Void visitLiteral(BSharpParser.LiteralContext ctx) {
-        if (ctx.BOOL_LITERAL() != null) {
-            switch (ctx.BOOL_LITERAL().getText()) {
-                case "true" -> jasminBytecode.add("iconst_1");
-                case "false" -> jasminBytecode.add("iconst_0");
+    public Void visitLiteral(int node) {
+        String text = ast.getText(node);
+        switch (ast.getOperator(node)) {
+            case BSharpParser.BOOL_LITERAL -> {
+                switch (text) {
+                    case "true" -> code.add(Opcode.ICONST_1);
+                    case "false" -> code.add(Opcode.ICONST_0);
+                }
             }
-        } else if (ctx.STRING_LITERAL() != null || ctx.DECIMAL_LITERAL() != null) {
-            jasminBytecode.add(String.format("ldc %s", ctx.content.getText()));
-        } else if (ctx.CHAR_LITERAL() != null) {
-            jasminBytecode.add(String.format("bipush %s", (byte) ctx.content.getText().charAt(1)));
-        } else if (ctx.DIGIT_LITERAL() != null) {
-            addNumToStack(ctx);
-        } else {
-            throw new UnsupportedOperationException();
+            case BSharpParser.STRING_LITERAL ->
+                    code.addConstant(unescape(text.substring(1, text.length() - 1), ast.getStartLine(node)));
+            // The literal is read as a double and converted to a float afterwards, like Jasmin did.
+            case BSharpParser.DECIMAL_LITERAL -> code.addPushFloat((float) Double.parseDouble(text));
+            case BSharpParser.CHAR_LITERAL -> code.addInt(Opcode.BIPUSH, (byte) text.charAt(1));
+            // Numbers that do not fit in an int are truncated, like Jasmin did.
+            case BSharpParser.DIGIT_LITERAL -> code.addPushInt((int) Long.parseLong(text));
+            default -> throw new UnsupportedOperationException();
         }
 
         return null;
     }
 
-    private void addNumToStack(BSharpParser.LiteralContext ctx) {
-        long num = Long.parseLong(ctx.content.getText());
+    /**
+     * Add the byte code that jumps to a label depending on the value of a condition, without pushing the value of the
+     * condition. Comparisons jump straight to the label, {@code &&} and {@code ||} skip their right side and
+     * {@code !} swaps the labels.
+     *
+     * @param node       The bool expression.
+     * @param label      The {@link Label} to jump to.
+     * @param jumpIfTrue Whether to jump when the condition is true, otherwise it jumps when it is false.
+     */
+    private void addConditionJump(int node, Label label, boolean jumpIfTrue) {
+        // A condition that is known at compile time always or never jumps. The code that can not be reached
+        // because of it is removed by the UnreachableCodeEliminator.
+        Object constant = getConstant(node);
+        if (constant != null) {
+            if ((Boolean) constant == jumpIfTrue) {
+                code.addJump(Opcode.GOTO, label);
+            }
 
-        if (num >= -1 && num <= 5) {
-            if (num == -1) jasminBytecode.add("iconst_m1");
-            else jasminBytecode.add(String.format("iconst_%s", num));
             return;
         }
 
-        if (num >= Byte.MIN_VALUE && num <= Byte.MAX_VALUE) {
-            jasminBytecode.appendText("bipush");
-        } else if (num >= Short.MIN_VALUE && num <= Short.MAX_VALUE) {
-            jasminBytecode.appendText("sipush");
-        } else {
-            jasminBytecode.appendText("ldc");
+        // The value of a loop invariant condition is already calculated.
+        if (getHoistedVar(node) != null) {
+            visit(node);
+            code.addJump(jumpIfTrue ? Opcode.IFNE : Opcode.IFEQ, label);
+            return;
         }
 
-        jasminBytecode.appendText(String.format(" %s", num))
-                .buildLine();
+        addOperationJump(node, label, jumpIfTrue);
+    }
+
+    /**
+     * Add the byte code of the operation of a condition that jumps to a label, see {@link #addConditionJump}.
+     *
+     * @param node       The bool expression.
+     * @param label      The {@link Label} to jump to.
+     * @param jumpIfTrue Whether to jump when the condition is true, otherwise it jumps when it is false.
+     */
+    private void addOperationJump(int node, Label label, boolean jumpIfTrue) {
+        switch (ast.getKind(node)) {
+            case COMPARE_EXPRESSION -> {
+                visit(ast.getChild(node, 0));
+                visit(ast.getChild(node, 1));
+
+                DataType type = getDataType(node);
+                if (type == DataType.FLOAT) code.add(Opcode.FCMPL);
+
+                Opcode ifOpcode = getCompareJump(type, ast.getOperator(node));
+                code.addJump(jumpIfTrue ? ifOpcode.getOppositeJump() : ifOpcode, label);
+            }
+            case AND_OR_EXPRESSION -> {
+                // The right side decides the value when the left side does not jump past it.
+                boolean isAnd = ast.getOperator(node) == BSharpParser.AND;
+                if (isAnd != jumpIfTrue) {
+                    addConditionJump(ast.getChild(node, 0), label, jumpIfTrue);
+                    addConditionJump(ast.getChild(node, 1), label, jumpIfTrue);
+                } else {
+                    Label skipLabel = code.newLabel();
+                    addConditionJump(ast.getChild(node, 0), skipLabel, !jumpIfTrue);
+                    addConditionJump(ast.getChild(node, 1), label, jumpIfTrue);
+                    code.addLabel(skipLabel);
+                }
+            }
+            case BANG_EXPRESSION -> addConditionJump(ast.getChild(node, 0), label, !jumpIfTrue);
+            default -> {
+                visit(node);
+                code.addJump(jumpIfTrue ? Opcode.IFNE : Opcode.IFEQ, label);
+            }
+        }
+    }
+
+    /**
+     * Add the byte code that pushes the value of a condition, for conditions that are used as a value.
+     *
+     * @param node The compare, and/or or bang expression.
+     */
+    private void addConditionValue(int node) {
+        Label falseLabel = code.newLabel();
+        Label endLabel = code.newLabel();
+
+        addOperationJump(node, falseLabel, false);
+        code.add(Opcode.ICONST_1)
+                .addJump(Opcode.GOTO, endLabel)
+                .addLabel(falseLabel)
+                .add(Opcode.ICONST_0)
+                .addLabel(endLabel);
+    }
+
+    /**
+     * Get the jump that is taken when a comparison is false.
+     *
+     * @param type     The {@link DataType} of the compared values.
+     * @param operator The compare operator.
+     * @return The {@link Opcode} of the jump, that compares two ints, two strings, or the result of fcmpl with zero.
+     */
+    private static Opcode getCompareJump(DataType type, int operator) {
+        return switch (type) {
+            // Chars and bools are ints on the stack.
+            case INT, BOOL, CHAR -> switch (operator) {
+                case BSharpParser.LE -> Opcode.IF_ICMPLE;
+                case BSharpParser.LT -> Opcode.IF_ICMPLT;
+                case BSharpParser.GE -> Opcode.IF_ICMPGE;
+                case BSharpParser.GT -> Opcode.IF_ICMPGT;
+                case BSharpParser.EQUALS -> Opcode.IF_ICMPNE;
+                case BSharpParser.NOT_EQUALS -> Opcode.IF_ICMPEQ;
+                default -> throw new UnsupportedOperationException();
+            };
+            case STRING -> switch (operator) {
+                case BSharpParser.EQUALS -> Opcode.IF_ACMPNE;
+                case BSharpParser.NOT_EQUALS -> Opcode.IF_ACMPEQ;
+                default -> throw new UnsupportedOperationException();
+            };
+            default -> switch (operator) {
+                case BSharpParser.LE -> Opcode.IFLE;
+                case BSharpParser.LT -> Opcode.IFLT;
+                case BSharpParser.GE -> Opcode.IFGE;
+                case BSharpParser.GT -> Opcode.IFGT;
+                case BSharpParser.EQUALS -> Opcode.IFNE;
+                case BSharpParser.NOT_EQUALS -> Opcode.IFEQ;
+                default -> throw new UnsupportedOperationException();
+            };
+        };
     }
 
     /**
-     * Get a unique label.
-     * Format: L{increment}
+     * Add the instruction that pushes the value of an expression that is known at compile time.
      *
-     * @return A new unique label.
+     * @param value The Integer, Float or Boolean value.
      */
-    private String getUniqueLabel() {
-        return String.format("L%s", labelCounter++);
+    private void addPushConstant(Object value) {
+        if (value instanceof Boolean bool) {
+            code.add(bool ? Opcode.ICONST_1 : Opcode.ICONST_0);
+        } else if (value instanceof Float floatValue) {
+            code.addPushFloat(floatValue);
+        } else {
+            code.addPushInt((Integer) value);
+        }
     }
 
     /**
      * Add the byte code to store or load a variable.
      *
-     * @param identifier The {@link TerminalNode} of the variable.
+     * @param identifier The identifier of the variable.
      * @param isLoad     whether the variable should be loaded or stored.
      */
-    private void storeOrLoadVar(TerminalNode identifier, boolean isLoad) {
+    private void storeOrLoadVar(String identifier, boolean isLoad) {
         Symbol symbol = currentScope.findSymbol(identifier);
 
         if (!(symbol instanceof VarSymbol var)) {
             throw new CompilerException("Symbol was not a variable");
         }
 
-        jasminBytecode.appendText(getTypeCode(symbol.getType()))
-                .appendText(isLoad ? "load" : "store");
+        loadOrStoreVar(var, isLoad);
+    }
+
+    /**
+     * Add the byte code to load or store a variable.
+     *
+     * @param var    The {@link VarSymbol} of the variable.
+     * @param isLoad whether the variable should be loaded or stored.
+     */
+    private void loadOrStoreVar(VarSymbol var, boolean isLoad) {
+        Opcode opcode = isLoad
+                ? getTypedOpcode(var.getType(), Opcode.ILOAD, Opcode.FLOAD, Opcode.ALOAD, null)
+                : getTypedOpcode(var.getType(), Opcode.ISTORE, Opcode.FSTORE, Opcode.ASTORE, null);
 
-        jasminBytecode.appendText(var.getLocalSlot() <= 3 ? '_' : ' ')
-                .appendText(var.getLocalSlot())
-                .buildLine();
+        code.addLocal(opcode, var.getLocalSlot() + localsOffset);
     }
 
     /**
-     * Get a type code used for outputs.
+     * Process the backslash escapes of a string literal, the same way Jasmin does.
      *
-     * @param type The {@link DataType}.
-     * @return The type code {@link String}.
+     * @param text The text between the quotes of the string literal.
+     * @param line The line of the string literal.
+     * @return The value of the string literal.
      */
-    private String getOutputTypeCode(DataType type) {
-        return getOutputTypeCode(type, false);
+    private static String unescape(String text, int line) {
+        if (text.indexOf('\\') == -1)
+            return text;
+
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char character = text.charAt(i);
+            if (character != '\\') {
+                builder.append(character);
+                continue;
+            }
+
+            char escape = ++i < text.length() ? text.charAt(i) : 0;
+            switch (escape) {
+                case 'n' -> builder.append('\n');
+                case 't' -> builder.append('\t');
+                case 'r' -> builder.append('\r');
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case '\\', '"', '\'' -> builder.append(escape);
+                case 'u' -> {
+                    if (i + 4 >= text.length())
+                        throw new CompilerException(String.format("Line %s - Bad backslash escape sequence in \"%s\".", line, text));
+
+                    builder.append((char) Integer.parseInt(text.substring(i + 1, i + 5), 16));
+                    i += 4;
+                }
+                default -> {
+                    if (escape < '0' || escape > '7')
+                        throw new CompilerException(String.format("Line %s - Bad backslash escape sequence in \"%s\".", line, text));
+
+                    // Up to 3 octal digits.
+                    int value = 0;
+                    int digits = 0;
+                    while (digits < 3 && i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '7') {
+                        value = value * 8 + (text.charAt(i++) - '0');
+                        digits++;
+                    }
+
+                    builder.append((char) value);
+                    i--;
+                }
+            }
+        }
+
+        return builder.toString();
     }
 
     /**
-     * Get a type code used for outputs.
+     * Get the method descriptor of a {@link Method}, for example (IF)V.
      *
-     * @param type   The {@link DataType}.
-     * @param isCaps Whether the type code needs to be all caps.
-     * @return The type code {@link String}.
-     */
-    private String getOutputTypeCode(DataType type, boolean isCaps) {
-        String typeCode = switch (type) {
-            case INT -> "i";
-            case BOOL -> "z";
-            case FLOAT -> "f";
-            case STRING -> "Ljava/lang/String;";
-            case CHAR -> "c";
-            case VOID -> "v";
-            default -> throw new UnsupportedOperationException();
-        };
+     * @param method The {@link Method}.
+     * @return The method descriptor.
+     */
+    private static String getDescriptor(Method method) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (DataType argType : method.args()) {
+            descriptor.append(getDescriptor(argType));
+        }
 
-        return isCaps && type != DataType.STRING ? typeCode.toUpperCase(Locale.ROOT) : typeCode;
+        return descriptor.append(')').append(getDescriptor(method.type())).toString();
     }
 
     /**
-     * Get the Type Code {@link String} for a specific {@link DataType}.
+     * Get the field descriptor of a {@link DataType}.
      *
      * @param type The {@link DataType}.
-     * @return The type code {@link String}.
+     * @return The descriptor {@link String}.
      */
-    private String getTypeCode(DataType type) {
+    private static String getDescriptor(DataType type) {
         return switch (type) {
-            case INT, BOOL, CHAR -> "i";
-            case FLOAT -> "f";
-            case STRING -> "a";
-            case VOID -> "";
+            case INT -> "I";
+            case BOOL -> "Z";
+            case FLOAT -> "F";
+            case STRING -> "Ljava/lang/String;";
+            case CHAR -> "C";
+            case VOID -> "V";
             default -> throw new UnsupportedOperationException();
         };
     }
+
+    /**
+     * Pick the variant of an instruction for a specific {@link DataType}.
+     *
+     * @param type         The {@link DataType}.
+     * @param intOpcode    The {@link Opcode} for ints, bools and chars.
+     * @param floatOpcode  The {@link Opcode} for floats.
+     * @param objectOpcode The {@link Opcode} for strings.
+     * @param voidOpcode   The {@link Opcode} for void.
+     * @return The {@link Opcode} for the {@link DataType}.
+     */
+    private static Opcode getTypedOpcode(DataType type, Opcode intOpcode, Opcode floatOpcode, Opcode objectOpcode, Opcode voidOpcode) {
+        Opcode opcode = switch (type) {
+            case INT, BOOL, CHAR -> intOpcode;
+            case FLOAT -> floatOpcode;
+            case STRING -> objectOpcode;
+            case VOID -> voidOpcode;
+            default -> null;
+        };
+
+        if (opcode == null)
+            throw new UnsupportedOperationException();
+
+        return opcode;
+    }
 }
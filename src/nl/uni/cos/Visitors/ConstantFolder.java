@@ -0,0 +1,284 @@
+package nl.uni.cos.Visitors;
+
+import nl.uni.cos.Ast.NodeKind;
+import nl.uni.cos.BSharpParser;
+import nl.uni.cos.CompilationContext;
+import nl.uni.cos.Models.DataType;
+import nl.uni.cos.Models.Symbol;
+import nl.uni.cos.Models.VarSymbol;
+
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+
+/**
+ * The {@link BSharpVisitor} that calculates the value of every int, float, bool and char expression that is known at
+ * compile time, so the {@link CodeGenerator} can push the value instead of calculating it at runtime.
+ * <p>
+ * The values are calculated exactly like the JVM would calculate them. Divisions by zero are left for the runtime,
+ * so they still throw. A variable that is initialized with a known value and is never assigned again in its method,
+ * has that value after its declaration.
+ * <p>
+ * This visitor only runs on code without errors.
+ */
+public class ConstantFolder extends BSharpVisitor<Void> {
+    /**
+     * The names of the variables that are assigned in the current method, besides their declaration.
+     */
+    private final HashSet<String> assignedNames = new HashSet<>();
+
+    /**
+     * The values of the variables that are known at compile time.
+     */
+    private final IdentityHashMap<VarSymbol, Object> variableValues = new IdentityHashMap<>();
+
+    /**
+     * Initializes a new {@link ConstantFolder}.
+     *
+     * @param context The {@link CompilationContext} that the values are added to.
+     */
+    public ConstantFolder(CompilationContext context) {
+        super(context);
+    }
+
+    // region Method declaration
+
+    @Override
+    public Void visitMethodDeclaration(int node) {
+        findScope(node);
+        assignedNames.clear();
+        findAssignedNames(node);
+
+        visitChildren(node);
+
+        leaveScope();
+        return null;
+    }
+
+    /**
+     * Find the names of all the variables that are assigned in a node.
+     */
+    private void findAssignedNames(int node) {
+        if (ast.getKind(node) == NodeKind.ASSIGN_EXPRESSION) {
+            assignedNames.add(ast.getText(ast.getChild(node, 0)));
+        }
+
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            findAssignedNames(ast.getChild(node, i));
+        }
+    }
+
+    // endregion
+
+    // region Statements
+
+    @Override
+    public Void visitCodeBlock(int node) {
+        findScope(node);
+        visitChildren(node);
+        leaveScope();
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(int node) {
+        findScope(node);
+        visit(ast.getChild(node, 0));
+        visit(ast.getChild(node, 1));
+        leaveScope();
+
+        if (ast.getChildCount(node) > 2) {
+            visit(ast.getChild(node, 2));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitElse(int node) {
+        findScope(node);
+        visitChildren(node);
+        leaveScope();
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(int node) {
+        findScope(node);
+        visitChildren(node);
+        leaveScope();
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclarator(int node) {
+        if (ast.getChildCount(node) == 0)
+            return null;
+
+        int initializer = ast.getChild(node, 0);
+        visit(initializer);
+
+        String identifier = ast.getText(node);
+        Object value = getConstant(initializer);
+        if (value != null && !assignedNames.contains(identifier)
+                && currentScope.findSymbol(identifier) instanceof VarSymbol var) {
+            variableValues.put(var, value);
+        }
+
+        return null;
+    }
+
+    // endregion
+
+    // region Expressions
+
+    @Override
+    public Void visitLiteral(int node) {
+        String text = ast.getText(node);
+        switch (ast.getOperator(node)) {
+            case BSharpParser.BOOL_LITERAL -> addConstant(node, text.equals("true"));
+            // The same values as the CodeGenerator pushes.
+            case BSharpParser.DECIMAL_LITERAL -> addConstant(node, (float) Double.parseDouble(text));
+            case BSharpParser.CHAR_LITERAL -> addConstant(node, (int) (byte) text.charAt(1));
+            case BSharpParser.DIGIT_LITERAL -> addConstant(node, (int) Long.parseLong(text));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitIdentifier(int node) {
+        // Only the uses after the declaration see the value.
+        Symbol symbol = currentScope.findSymbol(ast.getText(node));
+        if (symbol instanceof VarSymbol var && variableValues.containsKey(var)) {
+            addConstant(node, variableValues.get(var));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitCalculationExpression(int node) {
+        visitChildren(node);
+        Object left = getConstant(ast.getChild(node, 0));
+        Object right = getConstant(ast.getChild(node, 1));
+        if (left == null || right == null)
+            return null;
+
+        int operator = ast.getOperator(node);
+        if (left instanceof Float leftFloat && right instanceof Float rightFloat) {
+            float l = leftFloat, r = rightFloat;
+            addConstant(node, switch (operator) {
+                case BSharpParser.MOD -> l % r;
+                case BSharpParser.MUL -> l * r;
+                case BSharpParser.DIV -> l / r;
+                case BSharpParser.ADD -> l + r;
+                case BSharpParser.SUB -> l - r;
+                default -> throw new UnsupportedOperationException();
+            });
+        } else if (left instanceof Integer leftInt && right instanceof Integer rightInt) {
+            int l = leftInt, r = rightInt;
+            if (r == 0 && (operator == BSharpParser.MOD || operator == BSharpParser.DIV))
+                return null;
+
+            addConstant(node, switch (operator) {
+                case BSharpParser.MOD -> l % r;
+                case BSharpParser.MUL -> l * r;
+                case BSharpParser.DIV -> l / r;
+                case BSharpParser.ADD -> l + r;
+                case BSharpParser.SUB -> l - r;
+                default -> throw new UnsupportedOperationException();
+            });
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitCompareExpression(int node) {
+        visitChildren(node);
+        Object left = getConstant(ast.getChild(node, 0));
+        Object right = getConstant(ast.getChild(node, 1));
+        if (left == null || right == null)
+            return null;
+
+        // Compare the values like the instructions of the CodeGenerator do. The CodeGenerator jumps to the false
+        // branch with the opposite comparison, so the value is the opposite of whether that jump is taken.
+        int operator = ast.getOperator(node);
+        DataType type = getDataType(node);
+        if (type == DataType.INT || type == DataType.BOOL || type == DataType.CHAR) {
+            addConstant(node, !isJumpTaken(operator, toInt(left), toInt(right)));
+        } else if (type == DataType.FLOAT) {
+            addConstant(node, !isJumpTaken(operator, fcmpl((Float) left, (Float) right), 0));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitAndOrExpression(int node) {
+        visitChildren(node);
+        Object left = getConstant(ast.getChild(node, 0));
+        Object right = getConstant(ast.getChild(node, 1));
+
+        // The right side is not evaluated when the left side decides the value.
+        boolean isAnd = ast.getOperator(node) == BSharpParser.AND;
+        if (left != null && (Boolean) left != isAnd) {
+            addConstant(node, left);
+        } else if (left != null && right != null) {
+            addConstant(node, right);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitBangExpression(int node) {
+        visitChildren(node);
+        Object value = getConstant(ast.getChild(node, 0));
+        if (value != null) {
+            addConstant(node, !(Boolean) value);
+        }
+
+        return null;
+    }
+
+    // endregion
+
+    private void addConstant(int node, Object value) {
+        context.addConstant(node, value);
+    }
+
+    private static int toInt(Object value) {
+        return value instanceof Boolean bool
+                ? (bool ? 1 : 0)
+                : (Integer) value;
+    }
+
+    /**
+     * Compare two floats like the fcmpl instruction.
+     */
+    private static int fcmpl(float left, float right) {
+        if (left > right)
+            return 1;
+        if (left == right)
+            return 0;
+
+        // Less, or one of the values is NaN.
+        return -1;
+    }
+
+    /**
+     * Whether the jump that the CodeGenerator emits for a comparison is taken.
+     */
+    private static boolean isJumpTaken(int operator, int left, int right) {
+        return switch (operator) {
+            case BSharpParser.LE -> left <= right;
+            case BSharpParser.LT -> left < right;
+            case BSharpParser.GE -> left >= right;
+            case BSharpParser.GT -> left > right;
+            case BSharpParser.EQUALS -> left != right;
+            case BSharpParser.NOT_EQUALS -> left == right;
+            default -> throw new UnsupportedOperationException();
+        };
+    }
+}
@@ -0,0 +1,211 @@
+package nl.uni.cos.Visitors;
+
+import nl.uni.cos.Ast.NodeKind;
+import nl.uni.cos.CompilationContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@link BSharpVisitor} that finds the small methods whose calls are replaced with the code of the method by the
+ * {@link CodeGenerator}, so short programs don't have to wait for the JIT compiler to inline them.
+ * <p>
+ * The visitor builds the call graph of the methods that the {@link MethodDeclarationVisitor} found. Methods that can
+ * call themselves, directly or through other methods, are never inlined. A method is inlined when the amount of nodes
+ * in its code, including the code of the inlined methods that it calls, is at most {@link #SIZE_BUDGET}.
+ * <p>
+ * This visitor only runs on code without errors.
+ */
+public class InlineMethodFinder extends BSharpVisitor<Void> {
+    /**
+     * The maximum amount of nodes of the code of a method that is inlined.
+     */
+    public static final int SIZE_BUDGET = 40;
+
+    /**
+     * The declaration node of every method, by the identifier of the method, in the order of the source code.
+     */
+    private final LinkedHashMap<String, Integer> methodDeclarations = new LinkedHashMap<>();
+
+    /**
+     * The method call nodes in every method, by the identifier of the method.
+     */
+    private final HashMap<String, List<Integer>> callGraph = new HashMap<>();
+
+    /**
+     * The methods that can call themselves.
+     */
+    private final Set<String> recursiveMethods = new HashSet<>();
+
+    /**
+     * The amount of nodes of the code of every method that is not recursive after inlining, by the identifier of the
+     * method.
+     */
+    private final HashMap<String, Integer> inlinedSizes = new HashMap<>();
+
+    // The state of Tarjan's algorithm for the strongly connected components of the call graph.
+    private final HashMap<String, Integer> indexes = new HashMap<>();
+    private final HashMap<String, Integer> lowLinks = new HashMap<>();
+    private final Deque<String> stack = new ArrayDeque<>();
+    private final Set<String> onStack = new HashSet<>();
+
+    /**
+     * Initializes a new {@link InlineMethodFinder}.
+     *
+     * @param context The {@link CompilationContext} that the inlined methods are added to.
+     */
+    public InlineMethodFinder(CompilationContext context) {
+        super(context);
+    }
+
+    @Override
+    public Void visitProgram(int node) {
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            int method = ast.getChild(node, i);
+            if (methodDeclarations.putIfAbsent(ast.getText(method), method) == null) {
+                ArrayList<Integer> calls = new ArrayList<>();
+                findCalls(method, calls);
+                callGraph.put(ast.getText(method), calls);
+            }
+        }
+
+        for (String identifier : methodDeclarations.keySet()) {
+            if (!indexes.containsKey(identifier)) {
+                findComponents(identifier);
+            }
+        }
+
+        methodDeclarations.forEach((identifier, declaration) -> {
+            if (isInlined(identifier)) {
+                context.addInlinedMethod(identifier, declaration);
+            }
+        });
+
+        return null;
+    }
+
+    /**
+     * Find the method calls in a node.
+     */
+    private void findCalls(int node, List<Integer> calls) {
+        if (ast.getKind(node) == NodeKind.METHOD_CALL) {
+            calls.add(node);
+        }
+
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            findCalls(ast.getChild(node, i), calls);
+        }
+    }
+
+    /**
+     * Find the strongly connected components of the call graph that can be reached from a method, with Tarjan's
+     * algorithm. The components are completed after the components of the methods they call, so the size of a method
+     * after inlining is calculated when its component is completed.
+     * <p>
+     * The graph is walked with an explicit stack, because a chain of calls can be longer than the call stack allows.
+     */
+    private void findComponents(String root) {
+        Deque<String> methods = new ArrayDeque<>();
+        Deque<Integer> nextCalls = new ArrayDeque<>();
+        enterMethod(root, methods, nextCalls);
+
+        while (!methods.isEmpty()) {
+            String identifier = methods.peek();
+            List<Integer> calls = callGraph.get(identifier);
+            int next = nextCalls.pop();
+            if (next < calls.size()) {
+                nextCalls.push(next + 1);
+
+                String callee = ast.getText(calls.get(next));
+                if (callee.equals(identifier)) {
+                    recursiveMethods.add(identifier);
+                } else if (!indexes.containsKey(callee)) {
+                    enterMethod(callee, methods, nextCalls);
+                } else if (onStack.contains(callee)) {
+                    lowLinks.put(identifier, Math.min(lowLinks.get(identifier), indexes.get(callee)));
+                }
+
+                continue;
+            }
+
+            methods.pop();
+            if (!methods.isEmpty()) {
+                String caller = methods.peek();
+                lowLinks.put(caller, Math.min(lowLinks.get(caller), lowLinks.get(identifier)));
+            }
+
+            if (lowLinks.get(identifier).equals(indexes.get(identifier))) {
+                completeComponent(identifier);
+            }
+        }
+    }
+
+    private void enterMethod(String identifier, Deque<String> methods, Deque<Integer> nextCalls) {
+        int index = indexes.size();
+        indexes.put(identifier, index);
+        lowLinks.put(identifier, index);
+        stack.push(identifier);
+        onStack.add(identifier);
+        methods.push(identifier);
+        nextCalls.push(0);
+    }
+
+    /**
+     * Complete the component of which a method is the root, which is the part of the stack above the method.
+     * Every method in a component with more than one method is recursive.
+     */
+    private void completeComponent(String identifier) {
+        boolean isCycle = !stack.peek().equals(identifier);
+        String member;
+        do {
+            member = stack.pop();
+            onStack.remove(member);
+            if (isCycle) {
+                recursiveMethods.add(member);
+            }
+        } while (!member.equals(identifier));
+
+        if (!recursiveMethods.contains(identifier)) {
+            inlinedSizes.put(identifier, calculateInlinedSize(identifier));
+        }
+    }
+
+    /**
+     * Whether the calls of a method are inlined.
+     */
+    private boolean isInlined(String identifier) {
+        return !recursiveMethods.contains(identifier) && inlinedSizes.get(identifier) <= SIZE_BUDGET;
+    }
+
+    /**
+     * Calculate the amount of nodes of the code of a method, after the methods that it calls have been inlined.
+     * The components of the methods that it calls are already completed.
+     */
+    private int calculateInlinedSize(String identifier) {
+        // The code block is always the last child, after the parameters.
+        int declaration = methodDeclarations.get(identifier);
+        int size = countNodes(ast.getChild(declaration, ast.getChildCount(declaration) - 1));
+        for (int call : callGraph.get(identifier)) {
+            if (isInlined(ast.getText(call))) {
+                size += inlinedSizes.get(ast.getText(call));
+            }
+        }
+
+        return size;
+    }
+
+    private int countNodes(int node) {
+        int count = 1;
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            count += countNodes(ast.getChild(node, i));
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,309 @@
+package nl.uni.cos.Visitors;
+
+import nl.uni.cos.Ast.Ast;
+import nl.uni.cos.CompilationContext;
+import nl.uni.cos.Models.DataType;
+import nl.uni.cos.Models.Scope;
+import nl.uni.cos.Models.Symbol;
+import nl.uni.cos.Models.VarSymbol;
+
+import java.util.*;
+
+/**
+ * The {@link BSharpVisitor} that gives the variables of every method their final local slot.
+ * <p>
+ * The {@link TypeScopeBuilder} already lets sibling scopes share slots. This visitor also lets variables
+ * in the same scope share a slot when they are never alive at the same time. The nodes of a method are numbered in
+ * the order of the {@link Ast}, and every variable is alive from its first to its last occurrence. A variable that is
+ * used inside a loop that it was declared outside of, stays alive for the whole loop, because its value is needed again
+ * in the next iteration. The variables are then given the lowest free slot in the order in which they become alive.
+ * <p>
+ * This visitor only runs on code without errors.
+ */
+public class LocalSlotAllocator extends BSharpVisitor<Void> {
+    /**
+     * The number of the node that is being visited.
+     */
+    private int position;
+
+    /**
+     * The live ranges of the variables of the current method.
+     */
+    private final IdentityHashMap<VarSymbol, LiveRange> liveRanges = new IdentityHashMap<>();
+
+    /**
+     * The while loops that the visitor is in, from the outermost to the innermost loop.
+     */
+    private final ArrayList<Loop> loops = new ArrayList<>();
+
+    /**
+     * Initializes a new {@link LocalSlotAllocator}.
+     *
+     * @param context The {@link CompilationContext} that contains the {@link Scope}s with the variables.
+     */
+    public LocalSlotAllocator(CompilationContext context) {
+        super(context);
+    }
+
+    @Override
+    public Void visit(int node) {
+        position++;
+
+        // The CodeGenerator pushes the value of an expression that is known at compile time, so the variables
+        // in the expression are not loaded.
+        if (getConstant(node) != null)
+            return null;
+
+        // Only the variable that holds the value of a loop invariant expression is loaded in the loop.
+        VarSymbol hoistedVar = getHoistedVar(node);
+        if (hoistedVar != null) {
+            addOccurrence(hoistedVar);
+            return null;
+        }
+
+        return super.visit(node);
+    }
+
+    // region Method declaration
+
+    @Override
+    public Void visitMethodDeclaration(int node) {
+        findScope(node);
+        Scope methodScope = currentScope;
+        position = 0;
+        liveRanges.clear();
+
+        visitChildren(node);
+        methodScope.setMaxLocalsSize(allocateSlots());
+
+        leaveScope();
+        return null;
+    }
+
+    @Override
+    public Void visitParameterDeclaration(int node) {
+        // Parameters are alive from the start of the method and can't be moved.
+        LiveRange range = addOccurrence(ast.getText(node));
+        range.isFixed = true;
+        range.start = 0;
+        range.loopDepth = 0;
+
+        return null;
+    }
+
+    // endregion
+
+    // region Statements
+
+    @Override
+    public Void visitCodeBlock(int node) {
+        findScope(node);
+        visitChildren(node);
+        leaveScope();
+        return null;
+    }
+
+    @Override
+    public Void visitIfStatement(int node) {
+        findScope(node);
+        visit(ast.getChild(node, 0));
+        visit(ast.getChild(node, 1));
+        leaveScope();
+
+        if (ast.getChildCount(node) > 2) {
+            visit(ast.getChild(node, 2));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitElse(int node) {
+        findScope(node);
+        visitChildren(node);
+        leaveScope();
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(int node) {
+        // The loop invariant expressions are calculated and stored before the loop, and are needed in every iteration.
+        ArrayList<LiveRange> hoistedRanges = new ArrayList<>();
+        for (int expression : context.getHoistedExpressions(node)) {
+            position++;
+            super.visit(expression);
+
+            VarSymbol var = getHoistedVar(expression);
+            LiveRange range = new LiveRange(var, position);
+            range.loopDepth = loops.size();
+            liveRanges.put(var, range);
+            hoistedRanges.add(range);
+        }
+
+        Loop loop = new Loop(position);
+        hoistedRanges.forEach(loop::add);
+        loops.add(loop);
+
+        findScope(node);
+        visitChildren(node);
+        leaveScope();
+
+        loops.remove(loops.size() - 1);
+        for (LiveRange range : loop.ranges) {
+            range.start = Math.min(range.start, loop.start);
+            range.end = Math.max(range.end, position);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitVarDeclarator(int node) {
+        boolean isInitialized = ast.getChildCount(node) > 0;
+        if (isInitialized) {
+            visit(ast.getChild(node, 0));
+        }
+
+        // The value is stored after the initial value has been calculated.
+        int start = position;
+        LiveRange range = addOccurrence(ast.getText(node));
+        range.loopDepth = loops.size();
+
+        // A variable that is declared in a loop keeps its value from the previous iteration until it is assigned again.
+        // Only when the declaration assigns it before any other occurrence, that value is never used.
+        if (!loops.isEmpty() && (!isInitialized || range.start < start)) {
+            loops.get(0).add(range);
+        }
+
+        return null;
+    }
+
+    // endregion
+
+    @Override
+    public Void visitIdentifier(int node) {
+        addOccurrence(ast.getText(node));
+        return null;
+    }
+
+    /**
+     * Extend the live range of a variable to the current position.
+     *
+     * @param identifier The identifier of the variable.
+     * @return The live range of the variable.
+     */
+    private LiveRange addOccurrence(String identifier) {
+        Symbol symbol = currentScope.findSymbol(identifier);
+        if (!(symbol instanceof VarSymbol var) || var.getType() == DataType.CLASS)
+            throw new IllegalStateException(String.format("%s is not a variable.", identifier));
+
+        return addOccurrence(var);
+    }
+
+    /**
+     * Extend the live range of a variable to the current position.
+     *
+     * @param var The {@link VarSymbol} of the variable.
+     * @return The live range of the variable.
+     */
+    private LiveRange addOccurrence(VarSymbol var) {
+        LiveRange range = liveRanges.get(var);
+        if (range == null) {
+            range = new LiveRange(var, position);
+            liveRanges.put(var, range);
+        }
+
+        range.end = Math.max(range.end, position);
+
+        // The value is needed again in the next iteration of the loops that don't contain the declaration.
+        // The variable is not declared yet when it is used before its declaration, so use the outermost loop then.
+        int declarationDepth = Math.max(range.loopDepth, 0);
+        if (loops.size() > declarationDepth) {
+            loops.get(declarationDepth).add(range);
+        }
+
+        return range;
+    }
+
+    /**
+     * Give every variable of the current method the lowest slot that is free when the variable becomes alive.
+     *
+     * @return The amount of local slots that the method needs.
+     */
+    private int allocateSlots() {
+        ArrayList<LiveRange> ranges = new ArrayList<>(liveRanges.values());
+        ranges.sort(Comparator.comparingInt((LiveRange range) -> range.start)
+                .thenComparingInt(range -> range.var.getLocalSlot())
+                .thenComparing(range -> range.var.getName()));
+
+        // Slot 0 always contains `this` in instance methods.
+        TreeSet<Integer> freeSlots = new TreeSet<>();
+        PriorityQueue<LiveRange> alive = new PriorityQueue<>(Comparator.comparingInt((LiveRange range) -> range.end));
+        int slotCount = context.getOptions().useStaticMethods() ? 0 : 1;
+
+        for (LiveRange range : ranges) {
+            if (range.isFixed) {
+                slotCount = Math.max(slotCount, range.var.getLocalSlot() + 1);
+            }
+        }
+
+        for (LiveRange range : ranges) {
+            while (!alive.isEmpty() && alive.peek().end < range.start) {
+                freeSlots.add(alive.poll().var.getLocalSlot());
+            }
+
+            if (!range.isFixed) {
+                Integer slot = freeSlots.pollFirst();
+                if (slot == null) {
+                    slot = slotCount++;
+                }
+
+                range.var.setLocalSlot(slot);
+            }
+
+            alive.add(range);
+        }
+
+        return slotCount;
+    }
+
+    /**
+     * The range of positions in which a variable is alive.
+     */
+    private static final class LiveRange {
+        private final VarSymbol var;
+        private int start;
+        private int end;
+        private boolean isFixed = false;
+
+        /**
+         * The amount of loops that the declaration of the variable is in, or -1 when it has not been declared yet.
+         */
+        private int loopDepth = -1;
+
+        private LiveRange(VarSymbol var, int start) {
+            this.var = var;
+            this.start = start;
+            this.end = start;
+        }
+    }
+
+    /**
+     * A while loop, and the variables that have to stay alive for the whole loop.
+     */
+    private static final class Loop {
+        private final int start;
+        private final ArrayList<LiveRange> ranges = new ArrayList<>();
+
+        private Loop(int start) {
+            this.start = start;
+        }
+
+        private void add(LiveRange range) {
+            // A variable is often used multiple times in a row.
+            if (ranges.isEmpty() || ranges.get(ranges.size() - 1) != range) {
+                ranges.add(range);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package nl.uni.cos.Visitors;
+
+import nl.uni.cos.Ast.NodeKind;
+import nl.uni.cos.BSharpParser;
+import nl.uni.cos.CompilationContext;
+import nl.uni.cos.Models.DataType;
+import nl.uni.cos.Models.Scope;
+import nl.uni.cos.Models.VarSymbol;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * The {@link BSharpVisitor} that finds the expressions in while statements that have the same value in every
+ * iteration, so the {@link CodeGenerator} can calculate them once before the loop.
+ * <p>
+ * An expression is loop invariant when every variable in it is declared outside the loop and is never assigned in
+ * the loop, and it only calls safe methods. Only the largest loop invariant expressions are hoisted. Expressions of
+ * inner loops that are invariant in an outer loop are hoisted out of the outer loop.
+ * <p>
+ * A hoisted expression is also calculated when the loop does not run or when the expression is in a branch that is
+ * never taken, so it may not have side effects and may not throw. Int divisions are only hoisted when they divide by
+ * a constant that is not zero, and a method is only safe when it does not print, read, pick a random number, loop,
+ * divide by a variable int or call a method that is not safe, including itself.
+ * <p>
+ * This visitor only runs on code without errors.
+ */
+public class LoopInvariantFinder extends BSharpVisitor<Void> {
+    /**
+     * The declaration node of every method, by the identifier of the method.
+     */
+    private final HashMap<String, Integer> methodDeclarations = new HashMap<>();
+
+    /**
+     * Whether a method is safe to call before a loop, by the identifier of the method.
+     */
+    private final HashMap<String, Boolean> safeMethods = new HashMap<>();
+
+    /**
+     * The variables that are declared or assigned in the current loop.
+     */
+    private Set<VarSymbol> assignedVars;
+
+    /**
+     * The id of the node of the current loop.
+     */
+    private int loop;
+
+    /**
+     * Initializes a new {@link LoopInvariantFinder}.
+     *
+     * @param context The {@link CompilationContext} that the hoisted expressions are added to.
+     */
+    public LoopInvariantFinder(CompilationContext context) {
+        super(context);
+    }
+
+    @Override
+    public Void visitProgram(int node) {
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            int method = ast.getChild(node, i);
+            methodDeclarations.putIfAbsent(ast.getText(method), method);
+        }
+
+        visitChildren(node);
+        return null;
+    }
+
+    @Override
+    public Void visitWhileStatement(int node) {
+        loop = node;
+        assignedVars = Collections.newSetFromMap(new IdentityHashMap<>());
+        findAssignedVars(node);
+
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            int child = ast.getChild(node, i);
+            if (hoistInvariants(child) && isWorthHoisting(child)) {
+                hoist(child);
+            }
+        }
+
+        // Inner loops can hoist the expressions that are only invariant in themselves.
+        visitChildren(node);
+        return null;
+    }
+
+    /**
+     * Find the variables that are declared or assigned in a node.
+     */
+    private void findAssignedVars(int node) {
+        NodeKind kind = ast.getKind(node);
+        if (kind == NodeKind.ASSIGN_EXPRESSION) {
+            int target = ast.getChild(node, 0);
+            addAssignedVar(target, ast.getText(target));
+        } else if (kind == NodeKind.VAR_DECLARATOR) {
+            addAssignedVar(node, ast.getText(node));
+        }
+
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            findAssignedVars(ast.getChild(node, i));
+        }
+    }
+
+    private void addAssignedVar(int node, String identifier) {
+        if (findEnclosingScope(node).findSymbol(identifier) instanceof VarSymbol var) {
+            assignedVars.add(var);
+        }
+    }
+
+    /**
+     * Hoist the largest loop invariant expressions in a node out of the current loop.
+     *
+     * @param node The id of the node.
+     * @return Whether the node itself is loop invariant, then its parent decides whether it is hoisted.
+     */
+    private boolean hoistInvariants(int node) {
+        // The value of an expression that is hoisted out of an outer loop does not change in this loop either.
+        if (getConstant(node) != null || getHoistedVar(node) != null)
+            return true;
+
+        int childCount = ast.getChildCount(node);
+        boolean[] invariantChildren = new boolean[childCount];
+        boolean isInvariant = isInvariantOperation(node);
+        for (int i = 0; i < childCount; i++) {
+            invariantChildren[i] = hoistInvariants(ast.getChild(node, i));
+            isInvariant &= invariantChildren[i];
+        }
+
+        if (!isInvariant) {
+            for (int i = 0; i < childCount; i++) {
+                int child = ast.getChild(node, i);
+                if (invariantChildren[i] && isWorthHoisting(child)) {
+                    hoist(child);
+                }
+            }
+        }
+
+        return isInvariant;
+    }
+
+    /**
+     * Whether the operation of a node has the same result in every iteration of the current loop, when its children do.
+     */
+    private boolean isInvariantOperation(int node) {
+        return switch (ast.getKind(node)) {
+            case LITERAL, COMPARE_EXPRESSION, AND_OR_EXPRESSION, BANG_EXPRESSION -> true;
+            case IDENTIFIER -> findEnclosingScope(node).findSymbol(ast.getText(node)) instanceof VarSymbol var
+                    && !assignedVars.contains(var);
+            case CALCULATION_EXPRESSION -> !isVariableIntDivision(node);
+            case METHOD_CALL -> isSafeMethod(ast.getText(node));
+            default -> false;
+        };
+    }
+
+    /**
+     * Whether it is worth it to store the value of an invariant expression in a variable.
+     */
+    private boolean isWorthHoisting(int node) {
+        if (getConstant(node) != null || getHoistedVar(node) != null)
+            return false;
+
+        return switch (ast.getKind(node)) {
+            case CALCULATION_EXPRESSION, COMPARE_EXPRESSION, AND_OR_EXPRESSION, BANG_EXPRESSION -> true;
+            case METHOD_CALL -> findMethod(ast.getText(node)).type() != DataType.VOID;
+            default -> false;
+        };
+    }
+
+    private void hoist(int node) {
+        DataType type = switch (ast.getKind(node)) {
+            case COMPARE_EXPRESSION, AND_OR_EXPRESSION, BANG_EXPRESSION -> DataType.BOOL;
+            case METHOD_CALL -> findMethod(ast.getText(node)).type();
+            default -> getDataType(node);
+        };
+
+        // The LocalSlotAllocator gives the variable its slot.
+        context.addHoistedExpression(loop, node, new VarSymbol("invariant" + node, type, 0, true));
+    }
+
+    /**
+     * Whether a method can be called before a loop, because it has no side effects and always returns.
+     *
+     * @param identifier The identifier of the method.
+     */
+    private boolean isSafeMethod(String identifier) {
+        Boolean isSafe = safeMethods.get(identifier);
+        if (isSafe != null)
+            return isSafe;
+
+        // A recursive call might not return, so the method is not safe while it is being checked.
+        safeMethods.put(identifier, false);
+        isSafe = isSafeCode(methodDeclarations.get(identifier));
+        safeMethods.put(identifier, isSafe);
+
+        return isSafe;
+    }
+
+    /**
+     * Whether a node of a method has no side effects and always finishes.
+     */
+    private boolean isSafeCode(int node) {
+        switch (ast.getKind(node)) {
+            case WHILE_STATEMENT, WRITE_LINE, READ_CONSOLE_INT, READ_CONSOLE_LINE, READ_CONSOLE_FLOAT,
+                    READ_CONSOLE_BOOL, RANDOM_INT -> {
+                return false;
+            }
+            case METHOD_CALL -> {
+                if (!isSafeMethod(ast.getText(node)))
+                    return false;
+            }
+            case CALCULATION_EXPRESSION -> {
+                if (isVariableIntDivision(node))
+                    return false;
+            }
+        }
+
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            if (!isSafeCode(ast.getChild(node, i)))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Whether a calculation is an int division or remainder that could divide by zero.
+     */
+    private boolean isVariableIntDivision(int node) {
+        int operator = ast.getOperator(node);
+        if (getDataType(node) == DataType.FLOAT || operator != BSharpParser.DIV && operator != BSharpParser.MOD)
+            return false;
+
+        return !(getConstant(ast.getChild(node, 1)) instanceof Integer divisor) || divisor == 0;
+    }
+
+    /**
+     * Find the {@link Scope} that a node is in.
+     */
+    private Scope findEnclosingScope(int node) {
+        for (int parent = ast.getParent(node); parent != -1; parent = ast.getParent(parent)) {
+            Scope scope = getScope(parent);
+            if (scope != null)
+                return scope;
+        }
+
+        throw new IllegalStateException(String.format("Node %s is not in a scope.", node));
+    }
+}
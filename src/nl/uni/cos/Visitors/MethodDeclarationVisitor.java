@@ -1,6 +1,7 @@
 package nl.uni.cos.Visitors;
 
-import nl.uni.cos.BSharpParser;
+import nl.uni.cos.Ast.NodeKind;
+import nl.uni.cos.CompilationContext;
 import nl.uni.cos.Models.DataType;
 
 import java.util.ArrayList;
@@ -13,45 +14,43 @@ import java.util.ArrayList;
 public class MethodDeclarationVisitor extends BaseDataTypeVisitor {
 
     /**
-     * The arguments for the method that the visitor is in.
+     * Initializes a new {@link MethodDeclarationVisitor}.
+     *
+     * @param context The {@link CompilationContext} that will contain the declared methods.
      */
-    private ArrayList<DataType> args;
+    public MethodDeclarationVisitor(CompilationContext context) {
+        super(context);
+    }
 
     @Override
-    public DataType visitProgram(BSharpParser.ProgramContext ctx) {
-
-        for (BSharpParser.MethodDeclarationContext methodCtx : ctx.methodDeclaration()) {
-            visit(methodCtx);
-        }
-
+    public DataType visitProgram(int node) {
+        visitChildren(node);
         return null;
     }
 
     // region Method declaration
 
     @Override
-    public DataType visitMethodDeclaration(BSharpParser.MethodDeclarationContext ctx) {
-        DataType methodType = ctx.primitiveTypes() != null
-                ? visit(ctx.primitiveTypes())
-                : DataType.VOID;
-
-        visit(ctx.parametersDeclaration());
+    public DataType visitMethodDeclaration(int node) {
+        DataType methodType = ast.getDataType(node);
+
+        ArrayList<DataType> args = new ArrayList<>();
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            int child = ast.getChild(node, i);
+            if (ast.getKind(child) == NodeKind.PARAMETER_DECLARATION) {
+                args.add(visit(child));
+            }
+        }
 
         // Save the method, so it can be used in the CodeChecker.
-        addMethod(ctx.IDENTIFIER(), methodType, args != null ? args : new ArrayList<>());
+        addMethod(ast.getText(node), methodType, args);
 
         return methodType;
     }
 
     @Override
-    public DataType visitParametersDeclaration(BSharpParser.ParametersDeclarationContext ctx) {
-        args = visitAll(ctx.parameterDeclaration());
-        return null;
-    }
-
-    @Override
-    public DataType visitParameterDeclaration(BSharpParser.ParameterDeclarationContext ctx) {
-        return visit(ctx.primitiveTypes());
+    public DataType visitParameterDeclaration(int node) {
+        return ast.getDataType(node);
     }
 
     // endregion
@@ -1,56 +1,58 @@
 package nl.uni.cos.Visitors;
 
-import nl.uni.cos.BSharpParser;
+import nl.uni.cos.Ast.Ast;
+import nl.uni.cos.CompilationContext;
 import nl.uni.cos.Models.DataType;
 import nl.uni.cos.Models.Method;
 import nl.uni.cos.Models.Scope;
 import nl.uni.cos.Models.Symbol;
-import org.antlr.v4.runtime.ParserRuleContext;
-import org.antlr.v4.runtime.tree.ParseTree;
 
 /**
- * The {@link BSharpVisitor} that will visit the {@link ParseTree}
+ * The {@link BSharpVisitor} that will visit the {@link Ast}
  * and build the underlying {@link Scope}s. and {@link DataType}s for it.
  */
 public class TypeScopeBuilder extends BaseDataTypeVisitor {
+
+    /**
+     * Initializes a new {@link TypeScopeBuilder}.
+     *
+     * @param context The {@link CompilationContext} that will contain the {@link Scope}s and {@link DataType}s.
+     */
+    public TypeScopeBuilder(CompilationContext context) {
+        super(context);
+    }
+
     @Override
-    public DataType visitProgram(BSharpParser.ProgramContext ctx) {
-        Scope scope = enterScope(ctx);
-        scope.addVar(DataType.CLASS.name(), DataType.CLASS, true);
+    public DataType visitProgram(int node) {
+        Scope scope = enterScope(node);
 
-        for (BSharpParser.MethodDeclarationContext methodCtx : ctx.methodDeclaration()) {
-            visit(methodCtx);
+        // Instance methods have `this` in the first local slot.
+        if (!context.getOptions().useStaticMethods()) {
+            scope.addVar(DataType.CLASS.name(), DataType.CLASS, true);
         }
 
+        visitChildren(node);
+
         return null;
     }
 
     // region Method declaration
 
     @Override
-    public DataType visitMethodDeclaration(BSharpParser.MethodDeclarationContext ctx) {
-        DataType methodType = ctx.primitiveTypes() != null
-                ? visit(ctx.primitiveTypes())
-                : DataType.VOID;
+    public DataType visitMethodDeclaration(int node) {
+        DataType methodType = ast.getDataType(node);
 
-        enterScope(ctx);
-        visit(ctx.parametersDeclaration());
-        visit(ctx.codeBlock());
+        enterScope(node);
+        visitChildren(node);
         leaveScope();
 
         return methodType;
     }
 
     @Override
-    public DataType visitParametersDeclaration(BSharpParser.ParametersDeclarationContext ctx) {
-        visitAll(ctx.parameterDeclaration());
-        return null;
-    }
-
-    @Override
-    public DataType visitParameterDeclaration(BSharpParser.ParameterDeclarationContext ctx) {
-        DataType varType = visit(ctx.primitiveTypes());
-        currentScope.addVar(ctx.IDENTIFIER(), varType, true);
+    public DataType visitParameterDeclaration(int node) {
+        DataType varType = ast.getDataType(node);
+        currentScope.addVar(ast.getText(node), varType, true);
         return varType;
     }
 
@@ -59,62 +61,45 @@ public class TypeScopeBuilder extends BaseDataTypeVisitor {
     // region Build in methods
 
     @Override
-    public DataType visitWriteLineMethod(BSharpParser.WriteLineMethodContext ctx) {
-        currentScope.incrementStack();
-        DataType argType = visit(ctx.expression());
-        currentScope.addMethod(ctx.WRITE_LINE(), DataType.VOID, argType);
-        addDataType(ctx, argType);
-
-        // Decrement the stack size by 2 because of the literal value and the PrintStream object are consumed.
-        currentScope.decrementStack(2);
+    public DataType visitWriteLineMethod(int node) {
+        DataType argType = visit(ast.getChild(node, 0));
+        currentScope.addMethod("WriteLine", DataType.VOID, argType);
+        addDataType(node, argType);
 
         return DataType.VOID;
     }
 
     @Override
-    public DataType visitReadConsoleInt(BSharpParser.ReadConsoleIntContext ctx) {
-        currentScope.incrementStack(3);
-        currentScope.addMethod(ctx.READ_CONSOLE_INT(), DataType.INT);
-        currentScope.decrementStack(3);
-        return super.visitReadConsoleInt(ctx);
+    public DataType visitReadConsoleInt(int node) {
+        return visitReadConsole(node, "ReadConsoleInt", super.visitReadConsoleInt(node));
     }
 
     @Override
-    public DataType visitReadConsoleLine(BSharpParser.ReadConsoleLineContext ctx) {
-        currentScope.incrementStack(3);
-        currentScope.addMethod(ctx.READ_CONSOLE_LINE(), DataType.STRING);
-        currentScope.decrementStack(3);
-        return super.visitReadConsoleLine(ctx);
+    public DataType visitReadConsoleLine(int node) {
+        return visitReadConsole(node, "ReadConsoleLine", super.visitReadConsoleLine(node));
     }
 
     @Override
-    public DataType visitReadConsoleBool(BSharpParser.ReadConsoleBoolContext ctx) {
-        currentScope.incrementStack(3);
-        currentScope.addMethod(ctx.READ_CONSOLE_BOOL(), DataType.BOOL);
-        currentScope.decrementStack(3);
-        return super.visitReadConsoleBool(ctx);
+    public DataType visitReadConsoleBool(int node) {
+        return visitReadConsole(node, "ReadConsoleBool", super.visitReadConsoleBool(node));
     }
 
     @Override
-    public DataType visitReadConsoleFloat(BSharpParser.ReadConsoleFloatContext ctx) {
-        currentScope.incrementStack(3);
-        currentScope.addMethod(ctx.READ_CONSOLE_FLOAT(), DataType.FLOAT);
-        currentScope.decrementStack(3);
-        return super.visitReadConsoleFloat(ctx);
+    public DataType visitReadConsoleFloat(int node) {
+        return visitReadConsole(node, "ReadConsoleFloat", super.visitReadConsoleFloat(node));
     }
 
-    @Override
-    public DataType visitRandomInt(BSharpParser.RandomIntContext ctx) {
-        currentScope.incrementStack(3);
-        currentScope.addMethod(ctx.RANDOM_INT(), DataType.INT);
-
-        if (ctx.expression() != null) {
-            visit(ctx.expression());
-        }
+    private DataType visitReadConsole(int node, String identifier, DataType type) {
+        currentScope.addMethod(identifier, type);
+        return type;
+    }
 
-        currentScope.decrementStack(3);
+    @Override
+    public DataType visitRandomInt(int node) {
+        currentScope.addMethod("RandomInt", DataType.INT);
+        visitChildren(node);
 
-        return super.visitRandomInt(ctx);
+        return super.visitRandomInt(node);
     }
 
     // endregion
@@ -122,80 +107,71 @@ public class TypeScopeBuilder extends BaseDataTypeVisitor {
     // region Statements
 
     @Override
-    public DataType visitIfStatement(BSharpParser.IfStatementContext ctx) {
+    public DataType visitIfStatement(int node) {
         // IF
-        enterScope(ctx);
-        visit(ctx.parameterExpression());
-        currentScope.decrementStack();
-        visit(ctx.statement(0));
+        enterScope(node);
+        visit(ast.getChild(node, 0));
+        visit(ast.getChild(node, 1));
         leaveScope();
 
         // ELSE
-        if (ctx.ELSE() != null) {
-            enterScope(ctx.ELSE());
-            visit(ctx.statement(1));
-            leaveScope();
+        if (ast.getChildCount(node) > 2) {
+            visit(ast.getChild(node, 2));
         }
 
         return null;
     }
 
     @Override
-    public DataType visitWhileStatement(BSharpParser.WhileStatementContext ctx) {
-        enterScope(ctx);
-        visit(ctx.parameterExpression());
-        currentScope.decrementStack();
-        visit(ctx.statement());
+    public DataType visitElse(int node) {
+        enterScope(node);
+        visitChildren(node);
         leaveScope();
 
         return null;
     }
 
     @Override
-    public DataType visitReturnStatement(BSharpParser.ReturnStatementContext ctx) {
-        DataType expressionType = ctx.expressions() != null
-                ? visit(ctx.expressions())
+    public DataType visitWhileStatement(int node) {
+        enterScope(node);
+        visit(ast.getChild(node, 0));
+        visit(ast.getChild(node, 1));
+        leaveScope();
+
+        return null;
+    }
+
+    @Override
+    public DataType visitReturnStatement(int node) {
+        DataType expressionType = ast.getChildCount(node) > 0
+                ? visitChildren(node)
                 : DataType.VOID;
 
-        addDataType(ctx, expressionType);
+        addDataType(node, expressionType);
         currentScope.setHasReturnStatement(true);
         return expressionType;
     }
 
     @Override
-    public DataType visitCodeBlock(BSharpParser.CodeBlockContext ctx) {
-        enterScope(ctx);
-        visitAll(ctx.codeBlockStatement());
+    public DataType visitCodeBlock(int node) {
+        enterScope(node);
+        visitChildren(node);
         leaveScope();
         return null;
     }
 
     @Override
-    public DataType visitCodeBlockStatement(BSharpParser.CodeBlockStatementContext ctx) {
-        if (ctx.varDeclaration() != null) {
-            return visit(ctx.varDeclaration());
-        } else if (ctx.statement() != null) {
-            return visit(ctx.statement());
-        }
-
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public DataType visitVarDeclaration(BSharpParser.VarDeclarationContext ctx) {
+    public DataType visitVarDeclaration(int node) {
         DataType varType = null;
-        for (BSharpParser.VarDeclaratorContext varContext : ctx.varDeclarator()) {
-            DataType declaratorType = visit(varContext);
-            varType = ctx.primitiveTypes() != null
-                    ? visit(ctx.primitiveTypes())
+        for (int i = 0; i < ast.getChildCount(node); i++) {
+            int declarator = ast.getChild(node, i);
+            DataType declaratorType = visit(declarator);
+            varType = ast.getDataType(node) != null
+                    ? ast.getDataType(node)
                     : declaratorType;
 
-            boolean isInitialized = varContext.expression() != null;
-
-            if (isInitialized)
-                currentScope.decrementStack();
-
-            currentScope.addVar(varContext.IDENTIFIER(), varType, isInitialized);
+            boolean isInitialized = ast.getChildCount(declarator) > 0;
+            currentScope.addVar(ast.getText(declarator), varType, isInitialized);
         }
 
         return varType;
@@ -206,161 +182,76 @@ public class TypeScopeBuilder extends BaseDataTypeVisitor {
     // region Expressions
 
     @Override
-    public DataType visitPrimaryExpression(BSharpParser.PrimaryExpressionContext ctx) {
-        if (ctx.IDENTIFIER() != null) {
-            Symbol symbol = currentScope.findSymbol(ctx.IDENTIFIER());
-            currentScope.incrementStack();
-            return symbol != null ? symbol.getType() : null;
-        }
-
-        return super.visitPrimaryExpression(ctx);
+    public DataType visitIdentifier(int node) {
+        Symbol symbol = currentScope.findSymbol(ast.getText(node));
+        return symbol != null ? symbol.getType() : null;
     }
 
     @Override
-    public DataType visitMethodCall(BSharpParser.MethodCallContext ctx) {
-        if (ctx.buildInMethodCalls() != null) {
-            DataType type = visit(ctx.buildInMethodCalls());
-            if (type != DataType.VOID) {
-                currentScope.incrementStack();
-            }
-            return type;
-        }
-
-        // Custom method call.
-        if (ctx.IDENTIFIER() != null) {
-            // needed because `this` is loaded onto the stack.
-            currentScope.incrementStack();
-            Method method = findMethod(ctx.IDENTIFIER());
+    public DataType visitMethodCall(int node) {
+        Method method = findMethod(ast.getText(node));
 
-            if (method == null) {
-                // The Method does not exist.
-                // The code checker will throw the correct error for this.
-                return DataType.VOID;
-            }
-
-            if (ctx.expressions() != null)
-                visit(ctx.expressions());
-
-            // `This` has been consumed from the stack.
-            currentScope.decrementStack();
-
-            currentScope.addMethod(ctx.IDENTIFIER(), method.type(), method.args());
-            if (method.type() != DataType.VOID)
-                currentScope.incrementStack();
-
-            return method.type();
+        if (method == null) {
+            // The Method does not exist.
+            // The code checker will throw the correct error for this.
+            return DataType.VOID;
         }
 
-        throw new UnsupportedOperationException();
-    }
-
-    @Override
-    public DataType visitCalculationExpression(BSharpParser.CalculationExpressionContext ctx) {
-        // Calculation expression always have 2 locals on the stack, consumes them both, and adds the result back to the stack.
-        DataType type = visitTypeExpression(ctx, ctx.left, ctx.right);
-        currentScope.decrementStack();
-        return type;
-    }
-
-    @Override
-    public DataType visitAndOrExpression(BSharpParser.AndOrExpressionContext ctx) {
-        return visitBoolExpression(ctx, ctx.left, ctx.right);
-    }
+        visitChildren(node);
+        currentScope.addMethod(ast.getText(node), method.type(), method.args());
 
-    @Override
-    public DataType visitCompareExpression(BSharpParser.CompareExpressionContext ctx) {
-        return visitBoolExpression(ctx, ctx.left, ctx.right);
-    }
-
-    private DataType visitBoolExpression(ParserRuleContext ctx, BSharpParser.ExpressionContext left, BSharpParser.ExpressionContext right) {
-        DataType type = visit(left);
-        visit(right);
-        addDataType(ctx, type);
-
-        // Bool expression always have 2 locals on the stack, consumes them both, and adds the result back to the stack.
-        currentScope.decrementStack();
-        return DataType.BOOL;
+        return method.type();
     }
 
     @Override
-    public DataType visitAssignExpression(BSharpParser.AssignExpressionContext ctx) {
-        // Decrement stack size because the values is now a part of the locals.
-        currentScope.decrementStack();
-
-        // Increment stack size if the value is being used after the assignment.
-        if (!(ctx.getParent().getRuleContext() instanceof BSharpParser.ExpressionStatementContext)) {
-            currentScope.incrementStack();
-        }
-
-        visit(ctx.left);
-        DataType type = visit(ctx.right);
-        addDataType(ctx, type);
-        return type;
-    }
-
-    private DataType visitTypeExpression(ParserRuleContext ctx, BSharpParser.ExpressionContext left, BSharpParser.ExpressionContext right) {
-        DataType leftType = visit(left);
-        DataType rightType = visit(right);
+    public DataType visitCalculationExpression(int node) {
+        DataType leftType = visit(ast.getChild(node, 0));
+        DataType rightType = visit(ast.getChild(node, 1));
         DataType type = leftType != null ? leftType : rightType;
 
-        addDataType(ctx, type);
+        addDataType(node, type);
         return type;
     }
 
-    // endregion
-
-    // region Primitives
-
     @Override
-    public DataType visitBoolPrimitive(BSharpParser.BoolPrimitiveContext ctx) {
-        addDataType(ctx, DataType.BOOL);
-        return super.visitBoolPrimitive(ctx);
+    public DataType visitAndOrExpression(int node) {
+        return visitBoolExpression(node);
     }
 
     @Override
-    public DataType visitIntPrimitive(BSharpParser.IntPrimitiveContext ctx) {
-        addDataType(ctx, DataType.INT);
-        return super.visitIntPrimitive(ctx);
+    public DataType visitCompareExpression(int node) {
+        return visitBoolExpression(node);
     }
 
-    @Override
-    public DataType visitStringPrimitive(BSharpParser.StringPrimitiveContext ctx) {
-        addDataType(ctx, DataType.STRING);
-        return super.visitStringPrimitive(ctx);
-    }
-
-    @Override
-    public DataType visitFloatPrimitive(BSharpParser.FloatPrimitiveContext ctx) {
-        addDataType(ctx, DataType.FLOAT);
-        return super.visitFloatPrimitive(ctx);
+    private DataType visitBoolExpression(int node) {
+        DataType type = visit(ast.getChild(node, 0));
+        visit(ast.getChild(node, 1));
+        addDataType(node, type);
+        return DataType.BOOL;
     }
 
     @Override
-    public DataType visitCharPrimitive(BSharpParser.CharPrimitiveContext ctx) {
-        addDataType(ctx, DataType.CHAR);
-        return super.visitCharPrimitive(ctx);
+    public DataType visitAssignExpression(int node) {
+        visit(ast.getChild(node, 0));
+        DataType type = visit(ast.getChild(node, 1));
+        addDataType(node, type);
+        return type;
     }
 
     // endregion
 
-    @Override
-    public DataType visitLiteral(BSharpParser.LiteralContext ctx) {
-        currentScope.incrementStack();
-        return super.visitLiteral(ctx);
-    }
-
     /**
-     * Enter a new {@link Scope} for a {@link ParseTree}.
+     * Enter a new {@link Scope} for a node.
      *
-     * @param ctx The {@link ParseTree}.
+     * @param node The id of the node.
      * @return The new {@link Scope} with the previous {@link Scope} as the parent.
      */
-    private Scope enterScope(ParseTree ctx) {
+    private Scope enterScope(int node) {
         Scope scope = currentScope != null
                 ? currentScope.enterScope()
                 : new Scope(null);
 
-        addScope(ctx, scope);
+        addScope(node, scope);
         currentScope = scope;
         return scope;
     }
@@ -0,0 +1,84 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Bytecode.DirectAssembler;
+import nl.uni.cos.Models.Backend;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.SecureClassLoader;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+/**
+ * Checks that the {@link Backend#DIRECT} and {@link Backend#JASMIN} backends produce equivalent classes.
+ * The output of the classes is compared by the output tests, which run every class with both backends.
+ */
+class AssemblerBackendTests {
+
+    private static Stream<Arguments> backendParamSource() {
+        return Stream.of(
+                arguments("HelloWorld", "HelloWorld"),
+                arguments("Calculations", "Calculation1"),
+                arguments("Calculations", "Calculation9"),
+                arguments("IfStatements", "IfStatement1"),
+                arguments("MethodCalls", "MethodCall3"),
+                arguments("ReadConsoles", "ReadConsoleFloat"),
+                arguments("ReturnStatements", "ReturnString"),
+                arguments("VarAssignments", "VarAssignment4"),
+                arguments("WhileStatements", "LinearCongruentialGenerator"),
+                arguments("WriteLines", "WriteLineBoolExpressions")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("backendParamSource")
+    void backendsProduceEquivalentClasses(String dir, String file) throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile(String.format("testFiles/%s/%s.bsharp", dir, file), file);
+        assertNotNull(code);
+
+        byte[] directBytes = AssembledClass.assemble(code, Backend.DIRECT).getClassBytes();
+        byte[] jasminBytes = AssembledClass.assemble(code, Backend.JASMIN).getClassBytes();
+
+        // Both classes have to be accepted by the verifier.
+        Class<?> directClass = new TestClassLoader().load(file, directBytes);
+        Class<?> jasminClass = new TestClassLoader().load(file, jasminBytes);
+
+        assertArrayEquals(getSignatures(jasminClass), getSignatures(directClass));
+        assertArrayEquals(Arrays.copyOfRange(jasminBytes, 0, 4), Arrays.copyOfRange(directBytes, 0, 4));
+
+        // Jasmin can't write StackMapTable frames, so only the direct backend uses a current class file version.
+        assertEquals(code.getMajorVersion(), getMajorVersion(jasminBytes));
+        assertEquals(DirectAssembler.MAJOR_VERSION, getMajorVersion(directBytes));
+    }
+
+    private static int getMajorVersion(byte[] classBytes) {
+        return ((classBytes[6] & 0xFF) << 8) | (classBytes[7] & 0xFF);
+    }
+
+    private static String[] getSignatures(Class<?> loadedClass) {
+        return Arrays.stream(loadedClass.getDeclaredMethods())
+                .map(method -> Modifier.toString(method.getModifiers()) + " " + getSignature(method))
+                .sorted()
+                .toArray(String[]::new);
+    }
+
+    private static String getSignature(Method method) {
+        return String.format("%s %s%s", method.getReturnType().getName(), method.getName(), Arrays.toString(method.getParameterTypes()));
+    }
+
+    private static class TestClassLoader extends SecureClassLoader {
+        Class<?> load(String className, byte[] classBytes) throws ClassNotFoundException {
+            defineClass(className, classBytes, 0, classBytes.length);
+            return Class.forName(className, true, this);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package nl.uni.cos;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchCompilerTests {
+
+    @Test
+    void findSourcesSupportsDirectoriesGlobsAndFiles() throws Exception {
+        List<Path> directorySources = BatchCompiler.findSources(List.of("testFiles/WhileStatements"));
+        assertEquals(3, directorySources.size());
+
+        List<Path> globSources = BatchCompiler.findSources(List.of("testFiles/*/WhileStatement*.bsharp"));
+        assertEquals(List.of(Path.of("testFiles/WhileStatements/WhileStatement1.bsharp")), globSources);
+
+        List<Path> fileSources = BatchCompiler.findSources(List.of(
+                "testFiles/HelloWorld/HelloWorld.bsharp",
+                "testFiles/HelloWorld/HelloWorld.bsharp"));
+        assertEquals(List.of(Path.of("testFiles/HelloWorld/HelloWorld.bsharp")), fileSources);
+    }
+
+    @Test
+    void compileAllWritesOutputAndReportsErrors(@TempDir Path outputDirectory) throws Exception {
+        List<Path> sources = BatchCompiler.findSources(List.of("testFiles/Calculations", "testFiles/MainMethodErrors"));
+
+        BatchCompiler batchCompiler = new BatchCompiler(4);
+        List<BatchCompiler.Result> results = batchCompiler.compileAll(sources, outputDirectory);
+
+        assertEquals(sources.size(), results.size());
+        for (BatchCompiler.Result result : results) {
+            String className = Compiler.getClassName(result.source());
+            boolean isBadWeather = result.source().startsWith(Path.of("testFiles/MainMethodErrors"));
+
+            assertEquals(sources.get(results.indexOf(result)), result.source());
+            assertEquals(!isBadWeather, result.isSuccess(), result.source().toString());
+            assertEquals(!isBadWeather, Files.exists(outputDirectory.resolve(className + ".class")));
+            assertEquals(!isBadWeather, Files.exists(outputDirectory.resolve(className + ".j")));
+            if (isBadWeather) {
+                assertFalse(result.error().isEmpty());
+            } else {
+                assertTrue(Files.size(outputDirectory.resolve(className + ".class")) > 0);
+            }
+        }
+    }
+
+    @Test
+    void keepsTheErrorsOfEveryFileInItsResult(@TempDir Path directory) throws Exception {
+        Path syntaxError = Files.writeString(directory.resolve("SyntaxError.bsharp"), "void Main(){\n    WriteLine(1)\n}");
+        // The literal does not fit in a long, which the compiler does not expect.
+        Path crash = Files.writeString(directory.resolve("Crash.bsharp"), "void Main(){\n    WriteLine(99999999999999999999);\n}");
+        Path helloWorld = Path.of("testFiles/HelloWorld/HelloWorld.bsharp");
+
+        BatchCompiler batchCompiler = new BatchCompiler(2);
+        List<BatchCompiler.Result> results = batchCompiler.compileAll(List.of(syntaxError, crash, helloWorld), directory);
+
+        assertTrue(results.get(0).error().startsWith("line 3:0"), results.get(0).error());
+        assertTrue(results.get(0).error().endsWith("No Jasmin output"), results.get(0).error());
+        assertTrue(results.get(1).error().contains("NumberFormatException"), results.get(1).error());
+
+        // A file that crashes the compiler does not stop the other files.
+        assertTrue(results.get(2).isSuccess());
+        assertTrue(Files.exists(directory.resolve("HelloWorld.class")));
+    }
+
+    @Test
+    void failsTheFilesThatWriteTheSameClass(@TempDir Path outputDirectory) throws Exception {
+        // Both directories have a ReadConsoleInt.bsharp.
+        List<Path> sources = BatchCompiler.findSources(List.of("testFiles/ReadConsoles", "testFiles/Requirements"));
+        List<Path> duplicates = sources.stream()
+                .filter(source -> Compiler.getClassName(source).equals("ReadConsoleInt"))
+                .toList();
+        assertEquals(2, duplicates.size());
+
+        List<BatchCompiler.Result> results = new BatchCompiler(4).compileAll(sources, outputDirectory);
+        for (BatchCompiler.Result result : results) {
+            if (duplicates.contains(result.source())) {
+                assertFalse(result.isSuccess());
+                assertTrue(result.error().startsWith("The class ReadConsoleInt is also compiled from "), result.error());
+            }
+        }
+
+        assertFalse(Files.exists(outputDirectory.resolve("ReadConsoleInt.class")));
+        assertTrue(Files.exists(outputDirectory.resolve("ReadConsoleFloat.class")));
+    }
+
+    @Test
+    void writesTheUsedRuntimeClasses(@TempDir Path outputDirectory) throws Exception {
+        List<Path> sources = BatchCompiler.findSources(List.of("testFiles/ReadConsoles", "testFiles/HelloWorld"));
+        List<BatchCompiler.Result> results = new BatchCompiler(4).compileAll(sources, outputDirectory);
+        assertTrue(results.stream().allMatch(BatchCompiler.Result::isSuccess));
+        assertTrue(Files.exists(outputDirectory.resolve("nl/uni/cos/Runtime/ConsoleInput.class")));
+
+        // The program runs without the compiler on the class path.
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", outputDirectory.toString(), "ReadConsoleInt")
+                .redirectErrorStream(true)
+                .start();
+        process.getOutputStream().write("42\n".getBytes());
+        process.getOutputStream().close();
+        assertEquals("42", new String(process.getInputStream().readAllBytes()).trim());
+        assertEquals(0, process.waitFor());
+
+        // A program that does not read the console does not need the runtime.
+        Path helloWorldDirectory = Files.createDirectory(outputDirectory.resolve("HelloWorld"));
+        new BatchCompiler(1).compileAll(BatchCompiler.findSources(List.of("testFiles/HelloWorld")), helloWorldDirectory);
+        assertFalse(Files.exists(helloWorldDirectory.resolve("nl")));
+    }
+}
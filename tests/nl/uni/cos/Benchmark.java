@@ -0,0 +1,38 @@
+package nl.uni.cos;
+
+import java.util.Arrays;
+
+/**
+ * Times the alternatives that the benchmark tests compare.
+ */
+final class Benchmark {
+    /**
+     * The amount of times every alternative is timed, the fastest time is kept.
+     */
+    static final int ROUNDS = 5;
+
+    private Benchmark() {
+    }
+
+    /**
+     * Time every alternative a number of rounds. The alternatives take turns in every round, so a slow phase of the
+     * JVM, like a garbage collection, does not only slow down one of them.
+     *
+     * @param rounds       The amount of rounds.
+     * @param alternatives The code to time.
+     * @return The fastest time of every alternative in nanoseconds, in the same order as the alternatives.
+     */
+    static long[] bestOf(int rounds, Runnable... alternatives) {
+        long[] best = new long[alternatives.length];
+        Arrays.fill(best, Long.MAX_VALUE);
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < alternatives.length; i++) {
+                long start = System.nanoTime();
+                alternatives[i].run();
+                best[i] = Math.min(best[i], System.nanoTime() - start);
+            }
+        }
+
+        return best;
+    }
+}
@@ -0,0 +1,83 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Models.Backend;
+import nl.uni.cos.Models.CacheStatistics;
+import nl.uni.cos.Models.CachedClass;
+import nl.uni.cos.Services.Implementation.DiskCompileCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileCacheTests {
+    private static final String FILE = "testFiles/Calculations/Calculation1.bsharp";
+
+    @Test
+    void secondCompilationIsLoadedFromTheCache(@TempDir Path cacheDirectory) throws Exception {
+        Compiler uncachedCompiler = new Compiler();
+        JasminBytecode expected = uncachedCompiler.compileFile(FILE, "Calculation1");
+
+        Compiler compiler = new Compiler(new CompilerOptions().setCacheDirectory(cacheDirectory));
+        JasminBytecode first = compiler.compileFile(FILE, "Calculation1");
+        JasminBytecode second = compiler.compileFile(FILE, "Calculation1");
+
+        assertFalse(first.isFromCache());
+        assertTrue(second.isFromCache());
+        assertEquals(expected.getLines(), second.getLines());
+        assertArrayEquals(AssembledClass.assemble(expected).getClassBytes(), AssembledClass.assemble(second).getClassBytes());
+        assertEquals(new CacheStatistics(1, 1, 1, 0), compiler.getCacheStatistics());
+
+        // A new compiler, like a new run of the pipeline, uses the same entries.
+        Compiler nextCompiler = new Compiler(new CompilerOptions().setCacheDirectory(cacheDirectory));
+        assertTrue(nextCompiler.compileFile(FILE, "Calculation1").isFromCache());
+    }
+
+    @Test
+    void keyContainsTheClassNameAndOptions(@TempDir Path cacheDirectory) throws Exception {
+        new Compiler(new CompilerOptions().setCacheDirectory(cacheDirectory)).compileFile(FILE, "Calculation1");
+
+        Compiler compiler = new Compiler(new CompilerOptions().setCacheDirectory(cacheDirectory).setBackend(Backend.JASMIN));
+        assertFalse(compiler.compileFile(FILE, "Calculation1").isFromCache());
+        assertFalse(compiler.compileFile(FILE, "OtherName").isFromCache());
+        assertEquals(new CacheStatistics(0, 2, 2, 0), compiler.getCacheStatistics());
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted(@TempDir Path cacheDirectory) throws Exception {
+        CachedClass cachedClass = new CachedClass("Test", new byte[1000], List.of("return"));
+        DiskCompileCache cache = new DiskCompileCache(cacheDirectory, 2500);
+
+        cache.put("a", cachedClass);
+        cache.put("b", cachedClass);
+        Files.setLastModifiedTime(cacheDirectory.resolve("a.entry"), FileTime.fromMillis(0));
+        Files.setLastModifiedTime(cacheDirectory.resolve("b.entry"), FileTime.fromMillis(1000));
+
+        // Using a makes b the least recently used entry.
+        assertNotNull(cache.get("a"));
+        cache.put("c", cachedClass);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.getStatistics().evictions());
+
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void brokenEntryIsAMiss(@TempDir Path cacheDirectory) throws Exception {
+        DiskCompileCache cache = new DiskCompileCache(cacheDirectory, 1000);
+        Files.write(cacheDirectory.resolve("a.entry"), new byte[]{1, 2, 3});
+
+        assertNull(cache.get("a"));
+        assertEquals(new CacheStatistics(0, 1, 0, 0), cache.getStatistics());
+    }
+}
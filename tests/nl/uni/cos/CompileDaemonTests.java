@@ -0,0 +1,130 @@
+package nl.uni.cos;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompileDaemonTests {
+
+    @Test
+    void daemonCompilesLikeTheCompiler(@TempDir Path directory) throws Exception {
+        Path socketPath = directory.resolve("daemon.sock");
+        Files.copy(Paths.get("testFiles/Calculations/Calculation1.bsharp"), directory.resolve("Calculation1.bsharp"));
+        Files.copy(Paths.get("testFiles/TypeMismatch/VarTypeMismatch1.bsharp"), directory.resolve("VarTypeMismatch1.bsharp"));
+        Files.writeString(directory.resolve("SyntaxError.bsharp"), "void Main(){ * 1}");
+
+        CompileDaemon daemon = new CompileDaemon(socketPath, 2);
+        Thread daemonThread = new Thread(() -> {
+            try {
+                daemon.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        daemonThread.start();
+
+        try {
+            waitForSocket(socketPath);
+
+            // Relative paths are resolved against the working directory of the client.
+            assertEquals(0, request(socketPath, directory, "Calculation1.bsharp"));
+            assertTrue(Files.exists(directory.resolve("Calculation1.class")));
+            assertTrue(Files.exists(directory.resolve("Calculation1.j")));
+
+            // A semantic error fails the compiler with exit status 1, like an uncaught exception does.
+            assertEquals(1, request(socketPath, directory, "VarTypeMismatch1.bsharp"));
+            assertFalse(Files.exists(directory.resolve("VarTypeMismatch1.class")));
+
+            // The syntax errors are sent to the client, not printed by the daemon.
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            assertEquals(0, request(socketPath, directory, new PrintStream(err, true, StandardCharsets.UTF_8),
+                    "SyntaxError.bsharp"));
+            String errors = err.toString(StandardCharsets.UTF_8);
+            assertTrue(errors.startsWith("line 1:"), errors);
+            assertTrue(errors.contains("No Jasmin output"), errors);
+        } finally {
+            request(socketPath, directory, CompileDaemon.STOP_ARGUMENT);
+            daemonThread.join(10000);
+        }
+
+        assertFalse(daemonThread.isAlive());
+        assertFalse(Files.exists(socketPath));
+    }
+
+    @Test
+    void clientCompilesInItsOwnProcessWithoutADaemon(@TempDir Path directory) throws Exception {
+        Files.copy(Paths.get("testFiles/Calculations/Calculation1.bsharp"), directory.resolve("Calculation1.bsharp"));
+
+        assertEquals(0, CompileClient.run(directory.resolve("daemon.sock"), directory,
+                new String[]{"Calculation1.bsharp"}, System.out, System.err));
+        assertTrue(Files.exists(directory.resolve("Calculation1.class")));
+    }
+
+    @Test
+    void clientFailsWhenTheDaemonFails(@TempDir Path directory) throws Exception {
+        Path socketPath = directory.resolve("daemon.sock");
+        Files.copy(Paths.get("testFiles/Calculations/Calculation1.bsharp"), directory.resolve("Calculation1.bsharp"));
+
+        // A daemon that closes the connection without a response.
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            Thread daemonThread = new Thread(() -> {
+                try {
+                    server.accept().close();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            daemonThread.start();
+
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            int status = CompileClient.run(socketPath, directory, new String[]{"Calculation1.bsharp"}, System.out,
+                    new PrintStream(err, true, StandardCharsets.UTF_8));
+            daemonThread.join(10000);
+
+            // The client does not compile the file again after the daemon received the request.
+            assertEquals(1, status);
+            assertTrue(err.toString(StandardCharsets.UTF_8).contains("failed"));
+            assertFalse(Files.exists(directory.resolve("Calculation1.class")));
+        }
+    }
+
+    private static int request(Path socketPath, Path workingDirectory, String... args) throws IOException {
+        return request(socketPath, workingDirectory, System.err, args);
+    }
+
+    private static int request(Path socketPath, Path workingDirectory, PrintStream err, String... args)
+            throws IOException {
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(socketPath));
+            return CompileClient.sendRequest(channel, workingDirectory, args, System.out, err);
+        }
+    }
+
+    /**
+     * Wait until the daemon accepts connections. The socket file already exists before the daemon listens on it.
+     */
+    private static void waitForSocket(Path socketPath) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+                channel.connect(UnixDomainSocketAddress.of(socketPath));
+                return;
+            } catch (IOException e) {
+                Thread.sleep(50);
+            }
+        }
+    }
+}
@@ -1,8 +1,7 @@
 package nl.uni.cos;
 
 import nl.uni.cos.Exceptions.AssembleException;
-import nl.uni.cos.Visitors.BSharpVisitor;
-import org.junit.jupiter.api.BeforeEach;
+import nl.uni.cos.Models.Backend;
 
 import java.io.ByteArrayInputStream;
 import java.util.List;
@@ -15,24 +14,25 @@ import java.util.List;
 public abstract class CompilerTestBase {
 
     /**
-     * Reset and setup the test environment.
+     * Helper method that takes some compiled Jasmin byte code, assembles it and
+     * runs the class. It returns the output of the execution, which you can use
+     * to check in an assert.
      */
-    @BeforeEach
-    public void reset() {
-        BSharpVisitor.reset();
+    protected List<String> runCode(JasminBytecode code) throws AssembleException {
+        return runCode(code, Backend.DIRECT);
     }
 
     /**
-     * Helper method that takes some compiled Jasmin byte code, assembles it and
+     * Helper method that takes some compiled Jasmin byte code, assembles it with a specific {@link Backend} and
      * runs the class. It returns the output of the execution, which you can use
      * to check in an assert.
      */
-    protected List<String> runCode(JasminBytecode code) throws AssembleException {
+    protected List<String> runCode(JasminBytecode code, Backend backend) throws AssembleException {
         // Turn the Jasmin code into a (hopefully) working class file
         if (code == null) {
             throw new AssembleException("No valid Jasmin code to assemble");
         }
-        AssembledClass aClass = AssembledClass.assemble(code);
+        AssembledClass aClass = AssembledClass.assemble(code, backend);
 
         // Run the class and return the output
         SandBox s = new SandBox();
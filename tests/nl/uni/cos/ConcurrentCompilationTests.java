@@ -0,0 +1,79 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Exceptions.CompilerException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a single {@link Compiler} can be used by multiple threads at the same time,
+ * without the state of one compilation leaking into another.
+ */
+class ConcurrentCompilationTests {
+    private static final int COMPILATIONS = 400;
+
+    @Test
+    void concurrentCompilationsMatchSequentialCompilations() throws Exception {
+        List<Path> files = getTestFiles();
+        Compiler compiler = new Compiler();
+
+        // Compile every file once, so we know what the result of every compilation should be.
+        List<String> expectedResults = new ArrayList<>();
+        for (int i = 0; i < COMPILATIONS; i++) {
+            expectedResults.add(compileToString(compiler, files.get(i % files.size()), i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < COMPILATIONS; i++) {
+                Path file = files.get(i % files.size());
+                int index = i;
+                results.add(executor.submit(() -> compileToString(compiler, file, index)));
+            }
+
+            for (int i = 0; i < COMPILATIONS; i++) {
+                assertEquals(expectedResults.get(i), results.get(i).get(), files.get(i % files.size()).toString());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Compile a file and turn the result into a single {@link String}.
+     * The result is either the Jasmin code or the errors that have been found.
+     */
+    private static String compileToString(Compiler compiler, Path file, int index) throws Exception {
+        String className = String.format("%s%s", file.getFileName().toString().replace(".bsharp", ""), index);
+
+        try {
+            JasminBytecode code = compiler.compileFile(file.toString(), className);
+            return code == null
+                    ? "No Jasmin output"
+                    : String.join("\n", code.getLines());
+        } catch (CompilerException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static List<Path> getTestFiles() throws IOException {
+        try (Stream<Path> paths = Files.walk(Paths.get("testFiles"))) {
+            return paths.filter(path -> path.toString().endsWith(".bsharp"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Runtime.ConsoleInput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the {@link ConsoleInput} reads the same values as a {@link Scanner}.
+ */
+class ConsoleInputTests {
+    private final InputStream systemIn = System.in;
+
+    @AfterEach
+    void restoreSystemIn() {
+        System.setIn(systemIn);
+    }
+
+    @Test
+    void readsTheSameIntsAndFloatsAsAScanner() {
+        String input = "0 +17 -2147483648 2147483647 007\n3.14159 -0.5 1e-3 .25 1. 123456789.123 NaN -Infinity";
+        Scanner scanner = new Scanner(input);
+        provideInput(input);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(scanner.nextInt(), ConsoleInput.readInt());
+        }
+
+        while (scanner.hasNext()) {
+            assertEquals(scanner.nextFloat(), ConsoleInput.readFloat());
+        }
+    }
+
+    @Test
+    void rejectsTokensOfTheWrongType() {
+        provideInput("2147483648 -2147483649 12a - 1.5f 0x1p3 yes");
+
+        assertThrows(InputMismatchException.class, ConsoleInput::readInt);
+        assertThrows(InputMismatchException.class, ConsoleInput::readInt);
+        assertThrows(InputMismatchException.class, ConsoleInput::readInt);
+        assertThrows(InputMismatchException.class, ConsoleInput::readFloat);
+        assertThrows(InputMismatchException.class, ConsoleInput::readFloat);
+        assertThrows(InputMismatchException.class, ConsoleInput::readFloat);
+        assertThrows(InputMismatchException.class, ConsoleInput::readBool);
+        assertThrows(NoSuchElementException.class, ConsoleInput::readInt);
+    }
+
+    @Test
+    void readsNumbersWithoutTheRulesOfTheLocale() {
+        // A Scanner in the en_US locale reads these as 1000 and 1000.5, and in the de_DE locale "1,5" as 1.5.
+        provideInput("1,000 1,000.5 1,5 1.5");
+
+        assertThrows(InputMismatchException.class, ConsoleInput::readInt);
+        assertThrows(InputMismatchException.class, ConsoleInput::readFloat);
+        assertThrows(InputMismatchException.class, ConsoleInput::readFloat);
+        assertEquals(1.5f, ConsoleInput.readFloat());
+    }
+
+    @Test
+    void readsLinesAfterTokens() {
+        provideInput("True\r\nfirst line\rsecond line\n\nlast");
+
+        assertTrue(ConsoleInput.readBool());
+        assertEquals("", ConsoleInput.readLine());
+        assertEquals("first line", ConsoleInput.readLine());
+        assertEquals("second line", ConsoleInput.readLine());
+        assertEquals("", ConsoleInput.readLine());
+        assertEquals("last", ConsoleInput.readLine());
+        assertThrows(NoSuchElementException.class, ConsoleInput::readLine);
+    }
+
+    @Test
+    void readsTokensLongerThanTheBuffer() {
+        String digits = "1".repeat(100000);
+        provideInput(digits + " 5");
+
+        assertEquals(digits, ConsoleInput.readLine().split(" ")[0]);
+        provideInput("  " + "0".repeat(70000) + "5 6");
+        assertEquals(5, ConsoleInput.readInt());
+        assertEquals(6, ConsoleInput.readInt());
+    }
+
+    private static void provideInput(String input) {
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+    }
+}
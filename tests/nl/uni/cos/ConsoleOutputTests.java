@@ -0,0 +1,133 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Runtime.ConsoleOutput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the {@link ConsoleOutput} writes the same bytes as {@link PrintStream#println}.
+ */
+class ConsoleOutputTests {
+    private final PrintStream systemOut = System.out;
+
+    @AfterEach
+    void restoreSystemOut() {
+        ConsoleOutput.flush();
+        System.setOut(systemOut);
+    }
+
+    @Test
+    void writesTheSameNumbersAsPrintln() {
+        int[] ints = {0, 7, -7, 10, 99, 100, 123456789, 1000000000, Integer.MAX_VALUE, Integer.MIN_VALUE, -1000000000};
+        float[] floats = {0f, -0f, 1f, -3f, 0.5f, 1.1f, 9999999f, 1e7f, -1e7f, 1e-4f, 123.456f, Float.NaN,
+                Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.MIN_VALUE, Float.MAX_VALUE};
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        PrintStream printer = new PrintStream(expected, false, StandardCharsets.UTF_8);
+        ByteArrayOutputStream actual = redirectOutput();
+        for (int value : ints) {
+            printer.println(value);
+            ConsoleOutput.writeLine(value);
+        }
+
+        for (float value : floats) {
+            printer.println(value);
+            ConsoleOutput.writeLine(value);
+        }
+
+        printer.println(true);
+        ConsoleOutput.writeLine(true);
+        printer.println(false);
+        ConsoleOutput.writeLine(false);
+        printer.println('a');
+        ConsoleOutput.writeLine('a');
+
+        ConsoleOutput.flush();
+        assertEquals(expected.toString(StandardCharsets.UTF_8), actual.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesTextThatIsNotAscii() {
+        ByteArrayOutputStream actual = redirectOutput();
+        ConsoleOutput.writeLine("before");
+        ConsoleOutput.writeLine("héllo wörld");
+        ConsoleOutput.writeLine('€');
+        ConsoleOutput.writeLines("after\nlast\n");
+
+        ConsoleOutput.flush();
+        String separator = System.lineSeparator();
+        assertEquals("before" + separator + "héllo wörld" + separator + "€" + separator + "after" + separator + "last"
+                + separator, actual.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesMoreThanTheBuffer() {
+        ByteArrayOutputStream actual = redirectOutput();
+        String line = "x".repeat(100_000);
+        ConsoleOutput.writeLine(line);
+        for (int i = 0; i < 100_000; i++) {
+            ConsoleOutput.writeLine(i);
+        }
+
+        // A full buffer is written before the program ends.
+        assertTrue(actual.size() >= line.length());
+
+        ConsoleOutput.flush();
+        String[] lines = actual.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertEquals(100_001, lines.length);
+        assertEquals(line, lines[0]);
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(String.valueOf(i), lines[i + 1]);
+        }
+    }
+
+    @Test
+    void writesTheBufferToTheStreamItWasWrittenFor() {
+        ByteArrayOutputStream first = redirectOutput();
+        ConsoleOutput.writeLine(1);
+        ByteArrayOutputStream second = redirectOutput();
+        ConsoleOutput.writeLine(2);
+
+        ConsoleOutput.flush();
+        assertEquals("1" + System.lineSeparator(), first.toString(StandardCharsets.UTF_8));
+        assertEquals("2" + System.lineSeparator(), second.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writesTheBufferWhenTheProgramThrows(@TempDir Path directory) throws Exception {
+        Path source = Files.writeString(directory.resolve("Crash.bsharp"), String.join(System.lineSeparator(),
+                "void Main(){",
+                "    WriteLine(\"before\");",
+                "    var zero = 0;",
+                "    WriteLine(zero + 1);",
+                "    WriteLine(10 / zero);",
+                "}"));
+        Compiler compiler = new Compiler(new CompilerOptions().setUseBufferedOutput(true));
+        assertTrue(compiler.compileFileToDirectory(source, directory));
+
+        // The shutdown hook writes the lines that are still in the buffer when Main throws.
+        Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", directory.toString(), "Crash")
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(1, process.waitFor());
+        assertTrue(output.contains("java.lang.ArithmeticException"), output);
+        assertTrue(output.contains("before" + System.lineSeparator() + "1" + System.lineSeparator()), output);
+    }
+
+    private static ByteArrayOutputStream redirectOutput() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, false, StandardCharsets.UTF_8));
+        return output;
+    }
+}
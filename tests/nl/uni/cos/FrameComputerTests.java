@@ -0,0 +1,79 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Bytecode.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the stack map frames that the {@link FrameComputer} computes for the {@link DirectAssembler}.
+ */
+class FrameComputerTests {
+
+    @Test
+    void mergesTheTypesOfBothBranches() {
+        // Slot 2 holds a String in one branch and an int in the other, so it is unusable after the merge.
+        MethodInfo method = new MethodInfo(ClassFileWriter.ACC_PUBLIC, "Method", "(I)V");
+        InstructionList code = method.getCode();
+        Label otherwise = code.newLabel();
+        Label end = code.newLabel();
+        code.addLocal(Opcode.ILOAD, 1)
+                .addJump(Opcode.IFEQ, otherwise)
+                .addConstant("text")
+                .addLocal(Opcode.ASTORE, 2)
+                .add(Opcode.ICONST_1)
+                .addJump(Opcode.GOTO, end)
+                .addLabel(otherwise)
+                .add(Opcode.ICONST_2)
+                .addLocal(Opcode.ISTORE, 2)
+                .add(Opcode.ICONST_0)
+                .addLabel(end)
+                .addLocal(Opcode.ISTORE, 1)
+                .add(Opcode.RETURN);
+        method.setMaxs(StackAnalyzer.computeMaxStack(code), 3);
+
+        FrameComputer frames = new FrameComputer("Test", method);
+        FrameType thisType = FrameType.object("Test");
+        assertEquals(List.of(thisType, FrameType.INTEGER), frames.getInitialLocals());
+
+        int otherwiseIndex = 6;
+        assertTrue(frames.needsFrame(otherwiseIndex));
+        assertEquals(List.of(thisType, FrameType.INTEGER), frames.getLocals(otherwiseIndex));
+        assertEquals(List.of(), frames.getStack(otherwiseIndex));
+
+        int endIndex = 10;
+        assertTrue(frames.needsFrame(endIndex));
+        assertEquals(List.of(thisType, FrameType.INTEGER), frames.getLocals(endIndex));
+        assertEquals(List.of(FrameType.INTEGER), frames.getStack(endIndex));
+    }
+
+    @Test
+    void findsUnreachableCode() {
+        MethodInfo method = new MethodInfo(ClassFileWriter.ACC_PUBLIC, "Method", "()I");
+        InstructionList code = method.getCode();
+        Label end = code.newLabel();
+        code.add(Opcode.ICONST_1)
+                .add(Opcode.IRETURN)
+                .addJump(Opcode.GOTO, end)
+                .addLabel(end)
+                .add(Opcode.ICONST_0)
+                .add(Opcode.IRETURN);
+        method.setMaxs(StackAnalyzer.computeMaxStack(code), 1);
+
+        FrameComputer frames = new FrameComputer("Test", method);
+        assertTrue(frames.isReachable(1));
+        for (int i = 2; i < code.size(); i++) {
+            assertFalse(frames.isReachable(i));
+            assertFalse(frames.needsFrame(i));
+        }
+    }
+
+    @Test
+    void initializesThisInTheConstructor() {
+        MethodInfo method = new MethodInfo(ClassFileWriter.ACC_PUBLIC, "<init>", "()V");
+        method.setMaxs(0, 1);
+        assertEquals(List.of(FrameType.UNINITIALIZED_THIS), new FrameComputer("Test", method).getInitialLocals());
+    }
+}
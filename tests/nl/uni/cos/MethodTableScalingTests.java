@@ -0,0 +1,49 @@
+package nl.uni.cos;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compiles a program with a large amount of methods and method calls, to make sure that looking up the methods
+ * does not grow with the amount of methods. With a linear scan per call site, this program takes hours to compile.
+ */
+class MethodTableScalingTests {
+    private static final int METHOD_COUNT = 50000;
+    private static final int CALLS_PER_METHOD = 10;
+
+    @Test
+    void compilesManyMethodsAndCallSites() {
+        String source = generateProgram(METHOD_COUNT, CALLS_PER_METHOD);
+        Compiler compiler = new Compiler();
+
+        long start = System.nanoTime();
+        JasminBytecode bytecode = assertTimeoutPreemptively(Duration.ofMinutes(2),
+                () -> compiler.compileString(source, "ManyMethods"));
+        System.out.printf("Compiled %s methods with %s call sites in %.2fms.%n",
+                METHOD_COUNT, METHOD_COUNT * CALLS_PER_METHOD, (System.nanoTime() - start) / 1000000f);
+
+        assertNotNull(bytecode);
+
+        // The constructor, the Java main method, Main and the generated methods.
+        assertEquals(METHOD_COUNT + 3, bytecode.getMethods().size());
+    }
+
+    /**
+     * Generate a program where every method calls the next methods.
+     */
+    private static String generateProgram(int methodCount, int callsPerMethod) {
+        StringBuilder source = new StringBuilder("void Main() {\n    WriteLine(Method0(1));\n}\n");
+        for (int i = 0; i < methodCount; i++) {
+            source.append("int Method").append(i).append("(int a) {\n    return a");
+            for (int call = 1; call <= callsPerMethod; call++) {
+                source.append(" + Method").append((i + call) % methodCount).append("(a)");
+            }
+            source.append(";\n}\n");
+        }
+
+        return source.toString();
+    }
+}
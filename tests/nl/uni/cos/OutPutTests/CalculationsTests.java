@@ -1,9 +1,20 @@
 package nl.uni.cos.OutPutTests;
 
+import nl.uni.cos.Bytecode.MethodInfo;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Compiler;
+import nl.uni.cos.CompilerOptions;
+import nl.uni.cos.JasminBytecode;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 public class CalculationsTests extends OutputTestBase {
@@ -21,7 +32,15 @@ public class CalculationsTests extends OutputTestBase {
                 arguments("Calculation6", "", new String[]{"-123123"}),
                 arguments("Calculation7", "", new String[]{"-23123"}),
                 arguments("Calculation8", "", new String[]{"2.2"}),
-                arguments("Calculation9", "", new String[]{"9.594498"})
+                arguments("Calculation9", "", new String[]{"9.594498"}),
+                arguments("ConstantFolding", "", new String[]{"86400", "604800", "-2147483648", "-2147483648", "2", "2",
+                        "0.3", "0.3", "0.29999998", "0.29999998", "false", "false", "true", "true", "false", "false",
+                        "true", "false", "B", "true", "false", "true", "3"}),
+                arguments("StrengthReduction", "", new String[]{"-2147483648", "-2147483648", "0", "-1073741824",
+                        "536870912", "-715827882", "-3350208", "0", "-2", "-3", "-217", "63", "56", "-3", "1", "-2",
+                        "0", "-7", "0", "-2", "2147483617", "-2147483639", "8", "1073741823", "-536870911", "715827882",
+                        "3350208", "15", "1", "2"}),
+                arguments("NonFiniteFloats", "", new String[]{"NaN", "Infinity", "-Infinity", "false", "Infinity"})
         );
     }
 
@@ -29,4 +48,55 @@ public class CalculationsTests extends OutputTestBase {
     String getDir() {
         return "Calculations";
     }
+
+    @Test
+    void foldsConstantExpressions() throws Exception {
+        // The methods that calculate the same at runtime are not inlined into Main.
+        Compiler c = new Compiler(new CompilerOptions().setUseInlining(false));
+        JasminBytecode code = c.compileFile("testFiles/Calculations/ConstantFolding.bsharp", "ConstantFolding");
+        assertNotNull(code);
+
+        // Only the loop counter is calculated at runtime in Main.
+        MethodInfo main = code.getMethods().stream()
+                .filter(method -> method.getName().equals("Main"))
+                .findFirst()
+                .orElseThrow();
+        Set<Opcode> folded = EnumSet.of(Opcode.IMUL, Opcode.IDIV, Opcode.IREM, Opcode.ISUB,
+                Opcode.FADD, Opcode.FDIV, Opcode.FREM, Opcode.FCMPL);
+        Set<Opcode> intCompares = EnumSet.of(Opcode.IF_ICMPEQ, Opcode.IF_ICMPNE, Opcode.IF_ICMPLT, Opcode.IF_ICMPGE,
+                Opcode.IF_ICMPGT, Opcode.IF_ICMPLE);
+        int compares = 0;
+        for (int i = 0; i < main.getCode().size(); i++) {
+            assertFalse(folded.contains(main.getCode().getOpcode(i)), String.valueOf(main.getCode().getOpcode(i)));
+            if (intCompares.contains(main.getCode().getOpcode(i))) {
+                compares++;
+            }
+        }
+
+        // The int, bool and char comparisons are folded, only the loop condition compares.
+        assertEquals(1, compares);
+    }
+
+    @Test
+    void reducesCalculationsWithConstants() throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile("testFiles/Calculations/StrengthReduction.bsharp", "StrengthReduction");
+        assertNotNull(code);
+
+        // Only the remainders by a constant that is not a power of two still multiply.
+        MethodInfo calculate = code.getMethods().stream()
+                .filter(method -> method.getName().equals("Calculate"))
+                .findFirst()
+                .orElseThrow();
+        int multiplications = 0;
+        for (int i = 0; i < calculate.getCode().size(); i++) {
+            Opcode opcode = calculate.getCode().getOpcode(i);
+            assertFalse(opcode == Opcode.IDIV || opcode == Opcode.IREM, String.valueOf(opcode));
+            if (opcode == Opcode.IMUL) {
+                multiplications++;
+            }
+        }
+
+        assertEquals(2, multiplications);
+    }
 }
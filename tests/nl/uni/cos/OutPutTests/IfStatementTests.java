@@ -1,9 +1,16 @@
 package nl.uni.cos.OutPutTests;
 
+import nl.uni.cos.Bytecode.MethodInfo;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Compiler;
+import nl.uni.cos.JasminBytecode;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 public class IfStatementTests extends OutputTestBase {
@@ -14,10 +21,36 @@ public class IfStatementTests extends OutputTestBase {
     private static Stream<Arguments> outputTextParamSource() {
         return Stream.of(
                 arguments("IfStatement1", "1", new String[]{"Hello World!"}),
-                arguments("IfStatement1", "0", new String[]{"Bye World!"})
+                arguments("IfStatement1", "0", new String[]{"Bye World!"}),
+                arguments("IfStatement2", "3", new String[]{"In range or not b", "Neither", "false", "7",
+                        "In range or not b", "Not less", "Greater or three", "true", "10",
+                        "Letter a or after x", "z", "Other letter", "z"}),
+                arguments("IfStatement2", "0", new String[]{"In range or not b", "Neither", "false", "7",
+                        "Out of range and b", "Not less", "Greater or three", "false", "7",
+                        "Letter a or after x", "z", "Other letter", "z"})
         );
     }
 
+    @Test
+    void branchesOnConditionsWithoutPushingBools() throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile("testFiles/IfStatements/IfStatement2.bsharp", "IfStatement2");
+        assertNotNull(code);
+
+        // Only the condition that is written to the console is pushed as a value.
+        MethodInfo check = code.getMethods().stream()
+                .filter(method -> method.getName().equals("Check"))
+                .findFirst()
+                .orElseThrow();
+        int pushedBools = 0;
+        for (int i = 0; i < check.getCode().size(); i++) {
+            if (check.getCode().getOpcode(i) == Opcode.ICONST_0) {
+                pushedBools++;
+            }
+        }
+        assertEquals(1, pushedBools);
+    }
+
     @Override
     String getDir() {
         return "IfStatements";
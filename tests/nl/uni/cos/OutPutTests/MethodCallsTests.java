@@ -1,9 +1,22 @@
 package nl.uni.cos.OutPutTests;
 
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.MemberRef;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Compiler;
+import nl.uni.cos.CompilerOptions;
+import nl.uni.cos.JasminBytecode;
+import nl.uni.cos.Models.Backend;
+import nl.uni.cos.Runtime.RandomGenerator;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 public class MethodCallsTests extends OutputTestBase {
@@ -15,7 +28,9 @@ public class MethodCallsTests extends OutputTestBase {
         return Stream.of(
                 arguments("MethodCall1", "", new String[]{"Hello World!"}),
                 arguments("MethodCall2", "", new String[]{"Hello World 1!", "Hello World 1!", "Hello World 2!", "Hello World 2!"}),
-                arguments("MethodCall3", "", new String[]{"Hello World 2!"})
+                arguments("MethodCall3", "", new String[]{"Hello World 2!"}),
+                arguments("Inlining", "", new String[]{"60", "1", "2", "-1", "Hi", "2.0", "Done", "120", "false"}),
+                arguments("RandomInts", "", new String[]{"1000", "true", "0", "true"})
         );
     }
 
@@ -23,4 +38,46 @@ public class MethodCallsTests extends OutputTestBase {
     String getDir() {
         return "MethodCalls";
     }
+
+    @Test
+    void inlinesSmallMethods() throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile("testFiles/MethodCalls/Inlining.bsharp", "Inlining");
+        assertNotNull(code);
+
+        // Only the recursive methods are still called.
+        InstructionList main = code.getMethods().stream()
+                .filter(method -> method.getName().equals("Main"))
+                .findFirst()
+                .orElseThrow()
+                .getCode();
+        List<String> calls = new ArrayList<>();
+        for (int i = 0; i < main.size(); i++) {
+            if (main.getOpcode(i) == Opcode.INVOKESTATIC) {
+                calls.add(((MemberRef) main.getReference(i)).name());
+            }
+        }
+
+        assertEquals(List.of("Factorial", "IsEven"), calls);
+    }
+
+    @Test
+    void picksTheSameRandomIntsWithASeed() throws Exception {
+        Compiler c = new Compiler(new CompilerOptions().setSeed(42L));
+        JasminBytecode code = c.compileFile("testFiles/MethodCalls/SeededRandomInts.bsharp", "SeededRandomInts");
+        assertNotNull(code);
+
+        RandomGenerator.setSeed(42);
+        List<String> expected = List.of(
+                String.valueOf(RandomGenerator.nextInt(100)),
+                String.valueOf(RandomGenerator.nextInt(100)),
+                String.valueOf(RandomGenerator.nextInt(6)),
+                String.valueOf(RandomGenerator.nextInt(1024)),
+                String.valueOf(RandomGenerator.nextInt()));
+
+        // Every run starts from the seed.
+        assertEquals(expected, runCode(code));
+        assertEquals(expected, runCode(code));
+        assertEquals(expected, runCode(code, Backend.JASMIN));
+    }
 }
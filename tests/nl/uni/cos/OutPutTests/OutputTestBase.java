@@ -1,8 +1,10 @@
 package nl.uni.cos.OutPutTests;
 
 import nl.uni.cos.Compiler;
+import nl.uni.cos.CompilerOptions;
 import nl.uni.cos.CompilerTestBase;
 import nl.uni.cos.JasminBytecode;
+import nl.uni.cos.Models.Backend;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -37,5 +39,24 @@ public abstract class OutputTestBase extends CompilerTestBase {
         // Check that output matches what we expect
         List<String> output = runCode(code);
         assertArrayEquals(result, output.toArray());
+
+        // The Jasmin backend has to produce a class that behaves the same.
+        provideInput(input);
+        List<String> jasminOutput = runCode(code, Backend.JASMIN);
+        assertArrayEquals(result, jasminOutput.toArray());
+
+        // The methods can also be compiled as instance methods.
+        JasminBytecode instanceCode = new Compiler(new CompilerOptions().setUseStaticMethods(false)).compileFile(path, file);
+        assertNotNull(instanceCode);
+        provideInput(input);
+        List<String> instanceOutput = runCode(instanceCode);
+        assertArrayEquals(result, instanceOutput.toArray());
+
+        // The buffered output has to be the same as the printed lines.
+        JasminBytecode bufferedCode = new Compiler(new CompilerOptions().setUseBufferedOutput(true)).compileFile(path, file);
+        assertNotNull(bufferedCode);
+        provideInput(input);
+        List<String> bufferedOutput = runCode(bufferedCode);
+        assertArrayEquals(result, bufferedOutput.toArray());
     }
 }
@@ -17,7 +17,10 @@ public class ReadConsoleTests extends OutputTestBase {
                 arguments("ReadConsoleBool", "false", new String[]{"false"}),
                 arguments("ReadConsoleBool", "true", new String[]{"true"}),
                 arguments("ReadConsoleLine", "Hello World!", new String[]{"Hello World!"}),
-                arguments("ReadConsoleFloat", "123.123", new String[]{"123.123"})
+                arguments("ReadConsoleFloat", "123.123", new String[]{"123.123"}),
+                arguments("ReadConsoleFloat", "-1.5e3", new String[]{"-1500.0"}),
+                arguments("ReadConsoleMultiple", "12 -7\n1.25 TRUE\nrest of line\r\n  -2147483648\n",
+                        new String[]{"5", "1.25", "true", "", "rest of line", "-2147483648"})
         );
     }
 
@@ -1,9 +1,17 @@
 package nl.uni.cos.OutPutTests;
 
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.MethodInfo;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Compiler;
+import nl.uni.cos.JasminBytecode;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 
+import java.util.List;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 public class ReturnStatementsTests extends OutputTestBase {
@@ -16,7 +24,10 @@ public class ReturnStatementsTests extends OutputTestBase {
                 arguments("ReturnBool", "", new String[]{"true"}),
                 arguments("ReturnFloat", "", new String[]{"1.123"}),
                 arguments("ReturnInt", "", new String[]{"1"}),
+                arguments("ReturnParenthesized", "", new String[]{"5", "Larger"}),
                 arguments("ReturnString", "", new String[]{"Hello World!"}),
+                arguments("ReturnUnreachable", "", new String[]{"-1", "1", "Once", "Release"}),
+                arguments("TailCalls", "", new String[]{"1784293664", "21", "111", "3.375", "b", "3628800"}),
                 arguments("ReturnVoid", "", new String[]{""})
         );
     }
@@ -25,4 +36,49 @@ public class ReturnStatementsTests extends OutputTestBase {
     String getDir() {
         return "ReturnStatements";
     }
+
+    @Test
+    void removesUnreachableCode() throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile("testFiles/ReturnStatements/ReturnUnreachable.bsharp", "ReturnUnreachable");
+        assertNotNull(code);
+
+        for (MethodInfo method : code.getMethods()) {
+            InstructionList instructions = method.getCode();
+            int instructionCount = 0;
+            for (int i = 0; i < instructions.size(); i++) {
+                if (!instructions.isLabel(i)) {
+                    instructionCount++;
+                }
+
+                if (instructions.getOpcode(i) == Opcode.LDC) {
+                    assertFalse(List.of("Never", "Debug", "After return").contains(instructions.getReference(i)),
+                            method.getName());
+                }
+            }
+
+            // Only the first comparison and the two returns of Sign are left.
+            if (method.getName().equals("Sign")) {
+                assertEquals(7, instructionCount);
+            }
+        }
+    }
+
+    @Test
+    void replacesTailCallsWithJumps() throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile("testFiles/ReturnStatements/TailCalls.bsharp", "TailCalls");
+        assertNotNull(code);
+
+        // Only Factorial still calls itself, because it multiplies the result. The main methods call the others.
+        for (MethodInfo method : code.getMethods()) {
+            InstructionList instructions = method.getCode();
+            boolean isCalled = false;
+            for (int i = 0; i < instructions.size(); i++) {
+                isCalled |= instructions.getOpcode(i) == Opcode.INVOKESTATIC;
+            }
+
+            assertEquals(List.of("main", "Main", "Factorial").contains(method.getName()), isCalled, method.getName());
+        }
+    }
 }
@@ -1,9 +1,16 @@
 package nl.uni.cos.OutPutTests;
 
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Compiler;
+import nl.uni.cos.JasminBytecode;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 public class VarAssignmentsTests extends OutputTestBase {
@@ -24,7 +31,9 @@ public class VarAssignmentsTests extends OutputTestBase {
                         "123123123",
                         "123123123",
                         "6754",
-                })
+                }),
+                arguments("VarSlotReuse", "", new String[]{"1", "two", "3.5", "5", "-1", "0", "10"}),
+                arguments("Increments", "", new String[]{"3", "33770", "33772", "-2147482646", "2.5"})
         );
     }
 
@@ -32,4 +41,29 @@ public class VarAssignmentsTests extends OutputTestBase {
     String getDir() {
         return "VarAssignments";
     }
+
+    @Test
+    void usesIincForIncrements() throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile("testFiles/VarAssignments/Increments.bsharp", "Increments");
+        assertNotNull(code);
+
+        // Only the increments that fit in a short, the float variable is added to as usual.
+        InstructionList main = code.getMethods().stream()
+                .filter(method -> method.getName().equals("Main"))
+                .findFirst()
+                .orElseThrow()
+                .getCode();
+        int iincs = 0, iadds = 0;
+        for (int i = 0; i < main.size(); i++) {
+            if (main.getOpcode(i) == Opcode.IINC) {
+                iincs++;
+            } else if (main.getOpcode(i) == Opcode.IADD || main.getOpcode(i) == Opcode.ISUB) {
+                iadds++;
+            }
+        }
+
+        assertEquals(6, iincs);
+        assertEquals(2, iadds);
+    }
 }
@@ -1,9 +1,16 @@
 package nl.uni.cos.OutPutTests;
 
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.MethodInfo;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Compiler;
+import nl.uni.cos.JasminBytecode;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 public class WhileStatementTests extends OutputTestBase {
@@ -25,7 +32,9 @@ public class WhileStatementTests extends OutputTestBase {
                         "Hello World!",
                         "Hello World!"
                 }),
-                arguments("LinearCongruentialGenerator", "", new String[]{"4", "1", "6", "0", "3", "5", "4", "1", "6", "0"})
+                arguments("LinearCongruentialGenerator", "", new String[]{"4", "1", "6", "0", "3", "5", "4", "1", "6", "0"}),
+                arguments("LoopInvariants", "3", new String[]{"100", "3", "3", "3", "88", "6"}),
+                arguments("LoopInvariants", "0", new String[]{"0", "0", "0", "0", "88", "0"})
         );
     }
 
@@ -33,4 +42,34 @@ public class WhileStatementTests extends OutputTestBase {
     String getDir() {
         return "WhileStatements";
     }
+
+    @Test
+    void hoistsLoopInvariantExpressions() throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile("testFiles/WhileStatements/LoopInvariants.bsharp", "LoopInvariants");
+        assertNotNull(code);
+
+        MethodInfo main = code.getMethods().stream()
+                .filter(method -> method.getName().equals("Main"))
+                .findFirst()
+                .orElseThrow();
+        InstructionList instructions = main.getCode();
+        int[] labelPositions = instructions.getLabelPositions();
+
+        // The first loop runs from the target of the first jump back to that jump, and no longer calculates
+        // n * n - 1 and Square(n).
+        for (int i = 0; i < instructions.size(); i++) {
+            if (instructions.getOpcode(i) != Opcode.GOTO || labelPositions[instructions.getLabel(i).getId()] > i)
+                continue;
+
+            for (int j = labelPositions[instructions.getLabel(i).getId()]; j < i; j++) {
+                assertNotEquals(Opcode.IMUL, instructions.getOpcode(j));
+                assertNotEquals(Opcode.INVOKESTATIC, instructions.getOpcode(j));
+            }
+
+            return;
+        }
+
+        fail("The loop was not found.");
+    }
 }
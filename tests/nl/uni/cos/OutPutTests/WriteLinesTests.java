@@ -1,9 +1,20 @@
 package nl.uni.cos.OutPutTests;
 
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.MemberRef;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Compiler;
+import nl.uni.cos.CompilerOptions;
+import nl.uni.cos.JasminBytecode;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.provider.Arguments;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 
 public class WriteLinesTests extends OutputTestBase {
@@ -28,7 +39,13 @@ public class WriteLinesTests extends OutputTestBase {
                 arguments("WriteLineDouble", "", new String[]{"123.123"}),
                 arguments("WriteLineInt", "", new String[]{"123"}),
                 arguments("WriteLineString", "", new String[]{"text"}),
-                arguments("WriteLineChar", "", new String[]{"a", "b", "c"})
+                arguments("WriteLineChar", "", new String[]{"a", "b", "c"}),
+                arguments("WriteLineBuffered", "", new String[]
+                        {
+                                "Numbers:", "3", "-2147483648", "true", "x", "1.5",
+                                "0", "true", "1000000", "true", "2000000", "false",
+                                "1.5", "0.16666667", "Done", "!"
+                        })
         );
     }
 
@@ -36,4 +53,30 @@ public class WriteLinesTests extends OutputTestBase {
     String getDir() {
         return "WriteLines";
     }
+
+    @Test
+    void mergesConstantWriteLines() throws Exception {
+        Compiler c = new Compiler(new CompilerOptions().setUseBufferedOutput(true));
+        JasminBytecode code = c.compileFile("testFiles/WriteLines/WriteLineBuffered.bsharp", "WriteLineBuffered");
+        assertNotNull(code);
+
+        // The five constant lines at the start and the two at the end are written by one call each.
+        InstructionList main = code.getMethods().stream()
+                .filter(method -> method.getName().equals("Main"))
+                .findFirst()
+                .orElseThrow()
+                .getCode();
+        List<String> calls = new ArrayList<>();
+        for (int i = 0; i < main.size(); i++) {
+            if (main.getOpcode(i) == Opcode.GETSTATIC) {
+                calls.add("getstatic");
+            } else if (main.getOpcode(i) == Opcode.INVOKESTATIC) {
+                MemberRef method = (MemberRef) main.getReference(i);
+                calls.add(method.name() + method.descriptor());
+            }
+        }
+
+        assertEquals(List.of("writeLines(Ljava/lang/String;)V", "writeLine(F)V", "writeLine(I)V", "writeLine(Z)V",
+                "writeLine(F)V", "writeLine(F)V", "writeLines(Ljava/lang/String;)V"), calls);
+    }
 }
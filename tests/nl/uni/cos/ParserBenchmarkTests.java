@@ -0,0 +1,88 @@
+package nl.uni.cos;
+
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the two-stage SLL-then-LL parsing of the {@link Compiler} with parsing using only the full LL prediction,
+ * on large generated programs. The timings are printed, the test only fails when the trees differ.
+ */
+class ParserBenchmarkTests {
+    @ParameterizedTest
+    @ValueSource(ints = {200, 1000})
+    void twoStageParsingMatchesLLParsing(int methodCount) {
+        String source = generateProgram(methodCount);
+
+        // The first parse of each strategy is not timed.
+        ParseTree twoStageTree = parseTwoStage(source);
+        ParseTree llTree = parseLL(source);
+        assertEquals(llTree.toStringTree(), twoStageTree.toStringTree());
+
+        long[] best = Benchmark.bestOf(Benchmark.ROUNDS, () -> parseLL(source), () -> parseTwoStage(source));
+        System.out.printf("Parsing %s methods (%s KB): LL %.2fms, SLL then LL %.2fms (%.1fx).%n",
+                methodCount, source.length() / 1024, best[0] / 1000000f, best[1] / 1000000f,
+                (float) best[0] / best[1]);
+    }
+
+    private static ParseTree parseTwoStage(String source) {
+        AtomicInteger errors = new AtomicInteger();
+        ParseTree tree = Compiler.parse(CharStreams.fromString(source), countErrors(errors));
+        assertEquals(0, errors.get());
+        return tree;
+    }
+
+    private static ParseTree parseLL(String source) {
+        AtomicInteger errors = new AtomicInteger();
+        BSharpLexer lexer = new BSharpLexer(CharStreams.fromString(source));
+        BSharpParser parser = new BSharpParser(new CommonTokenStream(lexer));
+        parser.addErrorListener(countErrors(errors));
+        parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+
+        ParseTree tree = parser.program();
+        assertEquals(0, errors.get());
+        return tree;
+    }
+
+    private static ANTLRErrorListener countErrors(AtomicInteger errors) {
+        return new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errors.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Generate a program with long expressions, nested statements and method calls.
+     */
+    static String generateProgram(int methodCount) {
+        StringBuilder source = new StringBuilder("void Main() {\n    WriteLine(Method0(1, 2));\n}\n");
+        for (int i = 0; i < methodCount; i++) {
+            source.append(String.format("""
+                    int Method%1$s(int a, int b) {
+                        int x = a * 3 + b %% 7 - (a + b) / 2, y = 0;
+                        bool done = false;
+                        while (!done && (x > 0 || y < 10)) {
+                            if ((x %% 2 == 0 && y != 3) || !(a >= b)) {
+                                x = x - (a * 2 + b * 3) %% 5 - 1;
+                            } else {
+                                y = y + ((x + 1) * (y + 2) - (a - b)) / 3 + 1;
+                            }
+                            done = x <= 0 && y >= 10 || x + y == a * b - 1;
+                        }
+                        return x + y * (a - b) + %2$s;
+                    }
+                    """, i, i % 100));
+        }
+
+        return source.toString();
+    }
+}
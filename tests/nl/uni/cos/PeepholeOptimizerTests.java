@@ -0,0 +1,129 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Bytecode.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the rewrite rules of the {@link PeepholeOptimizer}.
+ */
+class PeepholeOptimizerTests {
+
+    @Test
+    void replacesStoreLoadAndRemovesDupStorePop() {
+        MethodInfo method = new MethodInfo(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC, "Method", "()V");
+        method.getCode()
+                .add(Opcode.ICONST_3)
+                .addLocal(Opcode.ISTORE, 0)
+                .addLocal(Opcode.ILOAD, 0)
+                .add(Opcode.DUP)
+                .addLocal(Opcode.ISTORE, 1)
+                .add(Opcode.POP)
+                .add(Opcode.RETURN);
+
+        PeepholeOptimizer optimizer = new PeepholeOptimizer();
+        optimizer.optimize(method);
+
+        // The value of the first store stays on the stack for the second store.
+        assertEquals(List.of(Opcode.ICONST_3, Opcode.DUP, Opcode.ISTORE, Opcode.ISTORE, Opcode.RETURN),
+                getOpcodes(method.getCode()));
+        assertEquals(1, optimizer.getHits().get("store-load"));
+        assertEquals(1, optimizer.getHits().get("dup-store-pop"));
+    }
+
+    @Test
+    void simplifiesJumps() {
+        // while (true) { if (a) { WriteLine... } } with a constant condition and a jump to a goto.
+        MethodInfo method = new MethodInfo(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC, "Method", "(Z)V");
+        InstructionList code = method.getCode();
+        Label loop = code.newLabel();
+        Label end = code.newLabel();
+        Label skip = code.newLabel();
+        Label next = code.newLabel();
+        code.addLabel(loop)
+                .add(Opcode.ICONST_1)
+                .addJump(Opcode.IFEQ, end)
+                .addLocal(Opcode.ILOAD, 0)
+                .addJump(Opcode.IFNE, skip)
+                .addJump(Opcode.GOTO, next)
+                .addLabel(skip)
+                .addMethodCall(Opcode.INVOKESTATIC, "Test", "Other", "()V")
+                .addJump(Opcode.GOTO, next)
+                .addLabel(next)
+                .addJump(Opcode.GOTO, loop)
+                .addLabel(end)
+                .add(Opcode.RETURN);
+
+        PeepholeOptimizer optimizer = new PeepholeOptimizer();
+        optimizer.optimize(method);
+
+        InstructionList optimized = method.getCode();
+        assertEquals(List.of(Opcode.ILOAD, Opcode.IFEQ, Opcode.INVOKESTATIC, Opcode.GOTO, Opcode.RETURN),
+                getOpcodes(optimized));
+
+        // The jump to the goto of the next label goes straight to the start of the loop.
+        int[] labelPositions = optimized.getLabelPositions();
+        for (int i = 0; i < optimized.size(); i++) {
+            if (!optimized.isLabel(i) && optimized.getOpcode(i).isJump()) {
+                assertEquals(labelPositions[loop.getId()], labelPositions[optimized.getLabel(i).getId()]);
+            }
+        }
+
+        Map<String, Integer> hits = optimizer.getHits();
+        assertEquals(1, hits.get("constant-branch"));
+        assertEquals(1, hits.get("jump-over-goto"));
+        assertEquals(1, hits.get("jump-to-goto"));
+        assertEquals(1, hits.get("jump-to-next-label"));
+    }
+
+    @Test
+    void usesTheGivenRules() {
+        MethodInfo method = new MethodInfo(ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_STATIC, "Method", "()V");
+        method.getCode()
+                .add(Opcode.ICONST_1)
+                .add(Opcode.POP)
+                .add(Opcode.RETURN);
+
+        PeepholeRule removeNops = new PeepholeRule("nop", (code, index, labelPositions, output) ->
+                !code.isLabel(index) && code.getOpcode(index) == Opcode.NOP ? 1 : 0);
+        PeepholeOptimizer optimizer = new PeepholeOptimizer(List.of(removeNops));
+        optimizer.optimize(method);
+
+        assertEquals(List.of(Opcode.ICONST_1, Opcode.POP, Opcode.RETURN), getOpcodes(method.getCode()));
+        assertEquals(Map.of("nop", 0), optimizer.getHits());
+    }
+
+    @Test
+    void keepsJumpsOnPlacedLabels() throws Exception {
+        Compiler c = new Compiler();
+        JasminBytecode code = c.compileFile("testFiles/WhileStatements/WhileStatement1.bsharp", "WhileStatement1");
+        assertNotNull(code);
+
+        // Every jump still lands on a placed label.
+        for (MethodInfo method : code.getMethods()) {
+            int[] labelPositions = method.getCode().getLabelPositions();
+            for (int i = 0; i < method.getCode().size(); i++) {
+                if (!method.getCode().isLabel(i) && method.getCode().getOpcode(i).isJump()) {
+                    int target = labelPositions[method.getCode().getLabel(i).getId()];
+                    assertTrue(method.getCode().isLabel(target), method.getName());
+                }
+            }
+        }
+    }
+
+    private static List<Opcode> getOpcodes(InstructionList code) {
+        List<Opcode> opcodes = new ArrayList<>();
+        for (int i = 0; i < code.size(); i++) {
+            if (!code.isLabel(i)) {
+                opcodes.add(code.getOpcode(i));
+            }
+        }
+
+        return opcodes;
+    }
+}
@@ -0,0 +1,54 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Runtime.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the numbers that the {@link RandomGenerator} picks for RandomInt.
+ */
+class RandomGeneratorTests {
+
+    @Test
+    void picksTheSameNumbersWithTheSameSeed() {
+        RandomGenerator.setSeed(1234);
+        int[] first = new int[100];
+        for (int i = 0; i < first.length; i++) {
+            first[i] = i % 2 == 0 ? RandomGenerator.nextInt() : RandomGenerator.nextInt(i);
+        }
+
+        RandomGenerator.setSeed(1234);
+        for (int i = 0; i < first.length; i++) {
+            assertEquals(first[i], i % 2 == 0 ? RandomGenerator.nextInt() : RandomGenerator.nextInt(i));
+        }
+    }
+
+    @Test
+    void picksEveryNumberBelowTheBound() {
+        RandomGenerator.setSeed(5);
+        for (int bound : new int[]{1, 6, 64, 1000, Integer.MAX_VALUE}) {
+            int[] counts = new int[Math.min(bound, 64)];
+            for (int i = 0; i < 64_000; i++) {
+                int value = RandomGenerator.nextInt(bound);
+                assertTrue(value >= 0 && value < bound, String.valueOf(value));
+                if (value < counts.length) {
+                    counts[value]++;
+                }
+            }
+
+            // Small bounds get every number about as often.
+            if (bound <= 64) {
+                for (int count : counts) {
+                    assertTrue(Math.abs(count - 64_000 / bound) < 64_000 / bound / 4, String.valueOf(count));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsBoundsThatAreNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> RandomGenerator.nextInt(0));
+        assertThrows(IllegalArgumentException.class, () -> RandomGenerator.nextInt(-5));
+    }
+}
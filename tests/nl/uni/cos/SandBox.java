@@ -59,6 +59,13 @@ public class SandBox {
      * and load our program.
      */
     private static class SandBoxClassLoader extends SecureClassLoader {
+        /**
+         * The generated classes call the runtime classes of the compiler, see {@link nl.uni.cos.Runtime}.
+         */
+        SandBoxClassLoader() {
+            super(SandBox.class.getClassLoader());
+        }
+
         Class<?> loadFromData(byte[] classData, String className) {
             Class<?> c = defineClass(className, classData, 0, classData.length);
             resolveClass(c);
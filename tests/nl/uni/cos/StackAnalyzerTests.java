@@ -0,0 +1,86 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.Label;
+import nl.uni.cos.Bytecode.MethodInfo;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Bytecode.StackAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the {@link StackAnalyzer} computes the exact max stack size of the generated code.
+ */
+class StackAnalyzerTests {
+
+    @Test
+    void computesMaxStackOverBothBranches() {
+        // WriteLine(a > 1 ? 1 + 2 * 3 : 4);
+        InstructionList code = new InstructionList();
+        Label otherwise = code.newLabel();
+        Label end = code.newLabel();
+        code.addField(Opcode.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;")
+                .addLocal(Opcode.ILOAD, 1)
+                .add(Opcode.ICONST_1)
+                .addJump(Opcode.IF_ICMPLE, otherwise)
+                .add(Opcode.ICONST_1)
+                .add(Opcode.ICONST_2)
+                .add(Opcode.ICONST_3)
+                .add(Opcode.IMUL)
+                .add(Opcode.IADD)
+                .addJump(Opcode.GOTO, end)
+                .addLabel(otherwise)
+                .add(Opcode.ICONST_4)
+                .addLabel(end)
+                .addMethodCall(Opcode.INVOKEVIRTUAL, "java/io/PrintStream", "println", "(I)V")
+                .add(Opcode.RETURN);
+
+        assertEquals(4, StackAnalyzer.computeMaxStack(code));
+    }
+
+    @Test
+    void countsLongsAsTwoSlots() {
+        InstructionList code = new InstructionList();
+        code.addConstant(1L)
+                .addConstant(2L)
+                .add(Opcode.LMUL)
+                .addLocal(Opcode.LSTORE, 1)
+                .add(Opcode.RETURN);
+
+        assertEquals(4, StackAnalyzer.computeMaxStack(code));
+    }
+
+    @Test
+    void throwsOnInconsistentStackAtMerge() {
+        InstructionList code = new InstructionList();
+        Label end = code.newLabel();
+        code.add(Opcode.ICONST_1)
+                .addJump(Opcode.IFEQ, end)
+                .add(Opcode.ICONST_1)
+                .addLabel(end)
+                .add(Opcode.RETURN);
+
+        assertThrows(IllegalStateException.class, () -> StackAnalyzer.computeMaxStack(code));
+    }
+
+    @Test
+    void setsMaxStackOfGeneratedMethods() throws Exception {
+        Compiler c = new Compiler(new CompilerOptions().setUseInlining(false));
+        JasminBytecode code = c.compileFile("testFiles/MethodCalls/MethodCall3.bsharp", "MethodCall3");
+        assertNotNull(code);
+
+        for (MethodInfo method : code.getMethods()) {
+            assertEquals(StackAnalyzer.computeMaxStack(method.getCode()), method.getMaxStack(), method.getName());
+
+            // The constructor loads `this`, OtherMethod2 prints a string, and the other methods only call
+            // static methods without arguments.
+            int expectedMaxStack = switch (method.getName()) {
+                case "<init>" -> 1;
+                case "OtherMethod2" -> 2;
+                default -> 0;
+            };
+            assertEquals(expectedMaxStack, method.getMaxStack(), method.getName());
+        }
+    }
+}
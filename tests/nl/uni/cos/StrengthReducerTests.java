@@ -0,0 +1,77 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Bytecode.InstructionList;
+import nl.uni.cos.Bytecode.Opcode;
+import nl.uni.cos.Bytecode.StrengthReducer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the rewrites of the {@link StrengthReducer}. The generated code itself is run by the output tests.
+ */
+class StrengthReducerTests {
+    private static final int[] EDGE_VALUES = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1000000007, -65536, -641,
+            -7, -3, -2, -1, 0, 1, 2, 3, 7, 641, 65535, 1000000007, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+
+    @Test
+    void magicNumbersDivideExactly() {
+        Random random = new Random(19);
+        int[] divisors = {3, 5, 6, 7, 9, 10, 11, 12, 25, 125, 641, 1000, 6700417, 1000000007, Integer.MAX_VALUE};
+        for (int divisor : divisors) {
+            StrengthReducer.Magic magic = StrengthReducer.getMagic(divisor);
+            for (int x : EDGE_VALUES) {
+                assertEquals(x / divisor, divide(x, magic), x + " / " + divisor);
+            }
+
+            for (int i = 0; i < 10000; i++) {
+                int x = random.nextInt();
+                assertEquals(x / divisor, divide(x, magic), x + " / " + divisor);
+            }
+        }
+
+        for (int divisor = 2; divisor < 1000; divisor++) {
+            StrengthReducer.Magic magic = StrengthReducer.getMagic(divisor);
+            for (int x : EDGE_VALUES) {
+                assertEquals(x / divisor, divide(x, magic), x + " / " + divisor);
+            }
+        }
+    }
+
+    @Test
+    void keepsCalculationsThatCanNotBeReduced() {
+        InstructionList code = new InstructionList();
+
+        // Dividing by zero has to throw, and 11 is not next to a power of two.
+        assertFalse(StrengthReducer.reduce(code, Opcode.IDIV, 0));
+        assertFalse(StrengthReducer.reduce(code, Opcode.IREM, 0));
+        assertFalse(StrengthReducer.reduce(code, Opcode.IDIV, Integer.MIN_VALUE));
+        assertFalse(StrengthReducer.reduce(code, Opcode.IMUL, 11));
+        assertFalse(StrengthReducer.reduce(code, Opcode.IADD, 2));
+        assertEquals(0, code.size());
+
+        assertTrue(StrengthReducer.reduce(code, Opcode.IDIV, 1));
+        assertEquals(0, code.size());
+    }
+
+    @Test
+    void replacesMultiplicationsWithShifts() {
+        InstructionList code = new InstructionList();
+        assertTrue(StrengthReducer.reduce(code, Opcode.IMUL, -16));
+
+        assertEquals(3, code.size());
+        assertEquals(Opcode.ICONST_4, code.getOpcode(0));
+        assertEquals(Opcode.ISHL, code.getOpcode(1));
+        assertEquals(Opcode.INEG, code.getOpcode(2));
+    }
+
+    /**
+     * The calculation of the instructions of a division by a magic number.
+     */
+    private static int divide(int x, StrengthReducer.Magic magic) {
+        int quotient = (int) ((x * magic.multiplier()) >> (32 + magic.shift()));
+        return quotient + (quotient >>> 31);
+    }
+}
@@ -0,0 +1,58 @@
+package nl.uni.cos;
+
+import nl.uni.cos.Models.Backend;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Times a linear congruential generator and hash kernel compiled with and without the
+ * {@link nl.uni.cos.Bytecode.StrengthReducer}, and checks that the reduced kernel prints the same numbers.
+ */
+class StrengthReductionBenchmarkTests {
+    private static final String KERNEL = """
+            void Main() {
+                var seed = 12345;
+                var hash = 0;
+                var i = 0;
+                while (i < 3000000) {
+                    seed = seed * 33 + 12345;
+                    hash = hash * 31 + seed % 1000;
+                    hash = hash + seed / 7 - seed % 16 * 3;
+                    i = i + 1;
+                }
+                WriteLine(seed);
+                WriteLine(hash);
+            }
+            """;
+
+    @Test
+    void strengthReductionMatchesArithmetic() throws Exception {
+        AssembledClass reduced = compile(true);
+        AssembledClass arithmetic = compile(false);
+
+        List<String> output = run(reduced);
+        assertEquals(run(arithmetic), output);
+        assertEquals(2, output.size());
+
+        long[] best = Benchmark.bestOf(Benchmark.ROUNDS, () -> run(arithmetic), () -> run(reduced));
+        System.out.printf("LCG kernel: arithmetic %.2fms, strength reduced %.2fms (%.2fx).%n",
+                best[0] / 1000000f, best[1] / 1000000f, (float) best[0] / best[1]);
+    }
+
+    private static AssembledClass compile(boolean useStrengthReduction) throws Exception {
+        Compiler compiler = new Compiler(new CompilerOptions().setUseStrengthReduction(useStrengthReduction));
+        JasminBytecode code = compiler.compileString(KERNEL, "Kernel");
+        assertNotNull(code);
+        return AssembledClass.assemble(code, Backend.DIRECT);
+    }
+
+    private static List<String> run(AssembledClass aClass) {
+        SandBox sandBox = new SandBox();
+        sandBox.runClass(aClass);
+        return sandBox.getOutput();
+    }
+}